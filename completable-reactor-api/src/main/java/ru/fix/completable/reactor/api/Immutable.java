@@ -0,0 +1,17 @@
+package ru.fix.completable.reactor.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks class which instances are never modified after construction.<br>
+ * Reactor passes instances of such class to handlers by reference instead of making thread safe copy.
+ * Use it for classes that reactor can not prove immutable by their fields,
+ * e.g. classes with lazily computed hash or with final fields of collection types that are never modified.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Immutable {
+}
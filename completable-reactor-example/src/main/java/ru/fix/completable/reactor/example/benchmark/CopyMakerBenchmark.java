@@ -0,0 +1,102 @@
+package ru.fix.completable.reactor.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.fix.completable.reactor.example.chain.PurchasePayload;
+import ru.fix.completable.reactor.example.processors.ServiceInfo;
+import ru.fix.completable.reactor.example.processors.UserProfile;
+import ru.fix.completable.reactor.runtime.cloning.CopierThreadsafeCopyMaker;
+import ru.fix.completable.reactor.runtime.cloning.ImmutabilityAwareThreadsafeCopyMaker;
+import ru.fix.completable.reactor.runtime.cloning.MethodHandleThreadsafeCopyMaker;
+import ru.fix.completable.reactor.runtime.cloning.ThreadsafeCopyMaker;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares throughput and allocation of thread safe copy makers on example payload types.
+ * Allocation per copy is reported by gc profiler as {@code gc.alloc.rate.norm}.
+ * <p>
+ * Run: {@code java -cp <classpath> ru.fix.completable.reactor.example.benchmark.CopyMakerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyMakerBenchmark {
+
+    @Param({"cloner", "immutabilityAware", "methodHandle"})
+    String copyMaker;
+
+    @Param({"UserProfile", "ServiceInfo", "PurchasePayload"})
+    String payloadType;
+
+    ThreadsafeCopyMaker threadsafeCopyMaker;
+
+    Object payload;
+
+    @Setup
+    public void setup() {
+        switch (copyMaker) {
+            case "cloner":
+                threadsafeCopyMaker = new CopierThreadsafeCopyMaker();
+                break;
+            case "immutabilityAware":
+                threadsafeCopyMaker = new ImmutabilityAwareThreadsafeCopyMaker();
+                break;
+            case "methodHandle":
+                threadsafeCopyMaker = new MethodHandleThreadsafeCopyMaker();
+                break;
+            default:
+                throw new IllegalArgumentException(copyMaker);
+        }
+
+        UserProfile userProfile = new UserProfile()
+                .setUserId(1L)
+                .setName("user")
+                .setBlocked(false);
+
+        ServiceInfo serviceInfo = new ServiceInfo()
+                .setServiceId(2L)
+                .setServiceName("service")
+                .setActive(true)
+                .setServicePrice(new BigDecimal("100.50"))
+                .setSupportTrialPeriod(true);
+
+        switch (payloadType) {
+            case "UserProfile":
+                payload = userProfile;
+                break;
+            case "ServiceInfo":
+                payload = serviceInfo;
+                break;
+            case "PurchasePayload":
+                PurchasePayload purchasePayload = new PurchasePayload();
+                purchasePayload.request.setUserId(1L).setServiceId(2L);
+                purchasePayload.setUserProfile(userProfile);
+                purchasePayload.setServiceInfo(serviceInfo);
+                purchasePayload.response.setNewAmount(new BigDecimal("50.25"));
+                payload = purchasePayload;
+                break;
+            default:
+                throw new IllegalArgumentException(payloadType);
+        }
+    }
+
+    @Benchmark
+    public Object copy() {
+        return threadsafeCopyMaker.makeThreadsafeCopy(payload);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(CopyMakerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
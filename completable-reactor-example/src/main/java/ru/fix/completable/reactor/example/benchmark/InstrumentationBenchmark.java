@@ -0,0 +1,224 @@
+package ru.fix.completable.reactor.example.benchmark;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.fix.commons.profiler.ProfiledCall;
+import ru.fix.commons.profiler.Profiler;
+import ru.fix.completable.reactor.api.ReactorGraphModel;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+import ru.fix.completable.reactor.runtime.execution.TransitionMode;
+import ru.fix.completable.reactor.runtime.tracing.Tracer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures allocation of instrumentation on execution path of four chained processors.
+ * <p>
+ * {@code none} disables profiling, tracing, latency histograms and JFR events.
+ * {@code idle} enables profiling with profiler that reports into preallocated call,
+ * tracer that does not trace any payload and JFR events without active recording.
+ * Latency histograms stay disabled by default since enabled histograms record every execution.
+ * <p>
+ * Equal {@code gc.alloc.rate.norm} of both modes with {@code -XX:-DoEscapeAnalysis} means that
+ * idle instrumentation allocates zero bytes per vertex.
+ * With escape analysis enabled {@code idle} can report more bytes per operation than {@code none}:
+ * larger inlined execution path leaves some of objects allocated by execution itself not scalar replaced.
+ * <p>
+ * Run: {@code java -cp <classpath> ru.fix.completable.reactor.example.benchmark.InstrumentationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    @Reactored("Payload passed through chain of counters")
+    @Data
+    @Accessors(chain = true)
+    public static class CounterPayload {
+        int count;
+    }
+
+    enum Status {OK}
+
+    public static class CounterService {
+        private static final CompletableFuture<Integer> ONE = CompletableFuture.completedFuture(1);
+
+        @Reactored("Returns completed future")
+        public CompletableFuture<Integer> increment() {
+            return ONE;
+        }
+    }
+
+    /**
+     * Reports every call into single preallocated call, so profiling itself does not allocate
+     */
+    static class PreallocatedCallProfiler implements Profiler {
+        final ProfiledCall call = new ProfiledCall() {
+            @Override
+            public void call() {
+            }
+
+            @Override
+            public void call(long payload) {
+            }
+
+            @Override
+            public ProfiledCall start() {
+                return this;
+            }
+
+            @Override
+            public void stop() {
+            }
+
+            @Override
+            public void stop(long payload) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        };
+
+        @Override
+        public ProfiledCall profiledCall(String name) {
+            return call;
+        }
+
+        @Override
+        public void attachIndicator(String name, Supplier<Long> valueSupplier) {
+        }
+
+        @Override
+        public void detachIndicator(String name) {
+        }
+    }
+
+    static class NotTracingTracer implements Tracer {
+        @Override
+        public boolean isTraceable(Object payload) {
+            return false;
+        }
+
+        @Override
+        public Object beforeHandle(ReactorGraphModel.Identity identity, Object payload) {
+            return null;
+        }
+
+        @Override
+        public void afterHandle(Object tracingMarker,
+                                ReactorGraphModel.Identity identity,
+                                Object handlerResult,
+                                Throwable throwable) {
+        }
+
+        @Override
+        public Object beforeMerge(ReactorGraphModel.Identity identity, Object payload, Object handleResult) {
+            return null;
+        }
+
+        @Override
+        public void afterMerger(Object tracingMarker, ReactorGraphModel.Identity identity, Object payload) {
+        }
+    }
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final CounterService counterService = new CounterService();
+
+        final Processor<CounterPayload> counter1 = counter();
+        final Processor<CounterPayload> counter2 = counter();
+        final Processor<CounterPayload> counter3 = counter();
+        final Processor<CounterPayload> counter4 = counter();
+
+        Processor<CounterPayload> counter() {
+            return graphBuilder.processor()
+                    .forPayload(CounterPayload.class)
+                    .withHandler(counterService::increment)
+                    .withMerger((payload, increment) -> {
+                        payload.setCount(payload.getCount() + increment);
+                        return Status.OK;
+                    })
+                    .buildProcessor();
+        }
+
+        ReactorGraph<CounterPayload> graph() {
+            return graphBuilder.payload(CounterPayload.class)
+                    .handle(counter1)
+
+                    .mergePoint(counter1)
+                    .onAny().handle(counter2)
+
+                    .mergePoint(counter2)
+                    .onAny().handle(counter3)
+
+                    .mergePoint(counter3)
+                    .onAny().handle(counter4)
+
+                    .mergePoint(counter4)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    @Param({"none", "idle"})
+    String instrumentation;
+
+    CompletableReactor reactor;
+
+    @Setup
+    public void setup() {
+        reactor = new CompletableReactor(new PreallocatedCallProfiler())
+                .setExecutor(Runnable::run)
+                .setTransitionMode(TransitionMode.SYNC);
+
+        switch (instrumentation) {
+            case "none":
+                reactor.setProfilingEnabled(false)
+                        .setLatencyHistogramsEnabled(false)
+                        .setJfrEventsEnabled(false);
+                break;
+            case "idle":
+                reactor.setTracer(new NotTracingTracer());
+                break;
+            default:
+                throw new IllegalArgumentException(instrumentation);
+        }
+
+        reactor.registerReactorGraph(new Config().graph());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        reactor.close();
+    }
+
+    @Benchmark
+    public CounterPayload execute() {
+        return reactor.submit(new CounterPayload()).getResultFuture().join();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(InstrumentationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,75 @@
+package ru.fix.completable.reactor.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.fix.completable.reactor.runtime.timeout.HashedWheelTimeoutScheduler;
+import ru.fix.completable.reactor.runtime.timeout.ScheduledExecutorTimeoutScheduler;
+import ru.fix.completable.reactor.runtime.timeout.TimeoutScheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares schedule and cancel cost of timeout schedulers when there is large amount of outstanding executions.
+ * Each benchmark invocation behaves like single submitted payload: schedules timeout and cancels it on completion.
+ * <p>
+ * Run: {@code java -cp <classpath> ru.fix.completable.reactor.example.benchmark.TimeoutSchedulerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeoutSchedulerBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int outstandingExecutions;
+
+    @Param({"wheel", "scheduledExecutor"})
+    String scheduler;
+
+    TimeoutScheduler timeoutScheduler;
+
+    @Setup
+    public void setup() {
+        switch (scheduler) {
+            case "wheel":
+                timeoutScheduler = new HashedWheelTimeoutScheduler();
+                break;
+            case "scheduledExecutor":
+                timeoutScheduler = new ScheduledExecutorTimeoutScheduler();
+                break;
+            default:
+                throw new IllegalArgumentException(scheduler);
+        }
+
+        /**
+         * Outstanding executions that does not expire during benchmark
+         */
+        for (int i = 0; i < outstandingExecutions; i++) {
+            timeoutScheduler.schedule(() -> {
+            }, 1, TimeUnit.HOURS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        timeoutScheduler.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean schedule_and_cancel() {
+        TimeoutScheduler.Timeout timeout = timeoutScheduler.schedule(() -> {
+        }, 15, TimeUnit.MINUTES);
+        return timeout.cancel();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TimeoutSchedulerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
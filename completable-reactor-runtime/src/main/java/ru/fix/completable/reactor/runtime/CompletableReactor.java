@@ -7,22 +7,43 @@ import org.slf4j.LoggerFactory;
 import ru.fix.commons.profiler.PrefixedProfiler;
 import ru.fix.commons.profiler.ProfiledCall;
 import ru.fix.commons.profiler.Profiler;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
 import ru.fix.completable.reactor.api.ReactorGraphModel;
-import ru.fix.completable.reactor.runtime.cloning.CopierThreadsafeCopyMaker;
+import ru.fix.completable.reactor.runtime.admission.AdmissionController;
+import ru.fix.completable.reactor.runtime.cloning.ImmutabilityAwareThreadsafeCopyMaker;
 import ru.fix.completable.reactor.runtime.cloning.ThreadsafeCopyMaker;
 import ru.fix.completable.reactor.runtime.debug.DebugSerializer;
+import ru.fix.completable.reactor.runtime.debug.FlightRecorder;
 import ru.fix.completable.reactor.runtime.debug.ToStringDebugSerializer;
+import ru.fix.completable.reactor.runtime.dsl.ProcessorDescription;
 import ru.fix.completable.reactor.runtime.execution.ReactorGraphExecution;
 import ru.fix.completable.reactor.runtime.execution.ReactorGraphExecutionBuilder;
+import ru.fix.completable.reactor.runtime.execution.ReactorGraphExecutionPlan;
+import ru.fix.completable.reactor.runtime.execution.TransitionMode;
+import ru.fix.completable.reactor.runtime.execution.VirtualThreads;
+import ru.fix.completable.reactor.runtime.immutability.ImmutabilityCheckSampling;
 import ru.fix.completable.reactor.runtime.immutability.ImmutabilityChecker;
 import ru.fix.completable.reactor.runtime.immutability.ImmutabilityControlLevel;
 import ru.fix.completable.reactor.runtime.immutability.ReflectionImmutabilityChecker;
-import ru.fix.completable.reactor.runtime.internal.CRReactorGraph;
+import ru.fix.completable.reactor.runtime.jfr.ExecutionEvents;
+import ru.fix.completable.reactor.runtime.metrics.CriticalPathStatistics;
+import ru.fix.completable.reactor.runtime.metrics.LatencyHistogram;
+import ru.fix.completable.reactor.runtime.metrics.LatencyPhase;
+import ru.fix.completable.reactor.runtime.timeout.HashedWheelTimeoutScheduler;
+import ru.fix.completable.reactor.runtime.timeout.TimeoutScheduler;
+import ru.fix.completable.reactor.runtime.tracing.ExecutionTracer;
+import ru.fix.completable.reactor.runtime.tracing.TraceContext;
 import ru.fix.completable.reactor.runtime.tracing.Tracer;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
@@ -36,24 +57,75 @@ public class CompletableReactor implements AutoCloseable {
 
     private final Profiler profiler;
 
+    /**
+     * Profiler without prefix, reports submitted payloads by names resolved at graph registration
+     */
+    private final Profiler payloadProfiler;
+
+    /**
+     * Profiler names of payload classes with registered graph
+     */
+    private final Map<Class<?>, PayloadProfilingNames> payloadProfilingNames = new ConcurrentHashMap<>();
+
+    /**
+     * Whether submitted payloads and phases of processors are reported to profiler
+     */
+    private volatile boolean profilingEnabled;
+
     private final ImmutabilityChecker immutabilityChecker = new ReflectionImmutabilityChecker();
 
-    private final ThreadsafeCopyMaker threadsafeCopyMaker = new CopierThreadsafeCopyMaker();
+    private final ThreadsafeCopyMaker threadsafeCopyMaker = new ImmutabilityAwareThreadsafeCopyMaker();
 
     private final DebugSerializer debugSerializer = new ToStringDebugSerializer();
 
     private final ReactorGraphExecutionBuilder executionBuilder;
 
-    private final Map<Class<?>, CRReactorGraph> payloadGraphs = new ConcurrentHashMap<>();
+    /**
+     * Execution plans compiled during graph registration
+     */
+    private final Map<Class<?>, ReactorGraphExecutionPlan<?>> payloadGraphs = new ConcurrentHashMap<>();
 
     /**
      * {@code Function<PayloadType, CompletableFuture<PayloadType>>}
      */
     private final Map<Class<?>, Function> inlinePayloadGraphs = new ConcurrentHashMap<>();
 
-    private final ScheduledExecutorService timeoutExecutorService = newScheduledThreadPool(
-            1,
-            "completable-reactor-check-timeout-");
+    /**
+     * Executors of graphs registered by {@link #registerReactorGraph(ReactorGraph, Executor)}
+     */
+    private final Map<Class<?>, Executor> payloadExecutors = new ConcurrentHashMap<>();
+
+    /**
+     * Default executor for graphs that does not have their own executor
+     */
+    private volatile Executor executor = ForkJoinPool.commonPool();
+
+    /**
+     * Executor of handlers marked as blocking, null to use executor of the graph
+     */
+    private volatile Executor blockingHandlerExecutor;
+
+    /**
+     * Created by {@link #enableVirtualThreads()}, shut down by {@link #close()}
+     */
+    private volatile ExecutorService virtualThreadExecutor;
+
+    /**
+     * Transition modes of payloads configured by {@link #setTransitionMode(Class, TransitionMode)}
+     */
+    private final Map<Class<?>, TransitionMode> payloadTransitionModes = new ConcurrentHashMap<>();
+
+    /**
+     * Default transition mode for payloads that does not have their own transition mode
+     */
+    private volatile TransitionMode transitionMode = TransitionMode.ASYNC;
+
+    /**
+     * Created by reactor and closed by {@link #close()}
+     */
+    private final TimeoutScheduler defaultTimeoutScheduler = new HashedWheelTimeoutScheduler();
+
+    private volatile TimeoutScheduler timeoutScheduler = defaultTimeoutScheduler;
 
     private volatile long executionTimeoutMs = TimeUnit.MINUTES.toMillis(15);
 
@@ -63,6 +135,12 @@ public class CompletableReactor implements AutoCloseable {
 
     private final AtomicLong maxPendingRequestCount = new AtomicLong(100_000);
 
+    /**
+     * Admission controllers configured by {@link #setAdmissionController(Class, AdmissionController)}.
+     * Payloads without controller are limited by {@link #getMaxPendingRequestCount()}.
+     */
+    private final Map<Class<?>, AdmissionController> admissionControllers = new ConcurrentHashMap<>();
+
     /**
      * Used as a synchronized monitor.
      * Notify when reach 0.
@@ -71,6 +149,20 @@ public class CompletableReactor implements AutoCloseable {
 
     private final AtomicLong closeTimeoutMs = new AtomicLong(120_000);
 
+    /**
+     * Payloads submitted by {@link #submitAsync(Object)} that wait for capacity, FIFO per payload type
+     */
+    private final Map<Class<?>, SubmitQueue> submitQueues = new ConcurrentHashMap<>();
+
+    /**
+     * Total number of waiting payloads, allows to skip queues lookup on release when nobody waits
+     */
+    private final AtomicInteger submitWaitingCount = new AtomicInteger();
+
+    private volatile int maxSubmitQueueSize = 10_000;
+
+    private volatile long maxSubmitWaitMs = TimeUnit.MINUTES.toMillis(1);
+
     private static class ReactorTracer implements Tracer {
 
         private volatile Tracer tracer;
@@ -108,13 +200,22 @@ public class CompletableReactor implements AutoCloseable {
 
     public CompletableReactor(Profiler profiler) {
         this.profiler = new PrefixedProfiler(profiler, ProfilerNames.PROFILER_PREFIX);
+        this.payloadProfiler = profiler;
         this.executionBuilder = new ReactorGraphExecutionBuilder(
                 profiler,
                 immutabilityChecker,
                 threadsafeCopyMaker,
-                payload -> {
+                (payload, timeoutMs, parentTrace) -> {
                     try {
-                        return this.internalSubmit(payload, executionTimeoutMs).getResultFuture();
+                        CompletableFuture<?> result = this.internalSubmit(payload, timeoutMs, null, parentTrace)
+                                .getResultFuture();
+                        /**
+                         * Parent graph cancels subgraph result when subgraph is detached.
+                         * Result of functional graph is returned by user function and could be shared.
+                         */
+                        return inlinePayloadGraphs.containsKey(payload.getClass()) ?
+                                result.thenApply(Function.identity()) :
+                                result;
                     } catch (Exception exc) {
                         CompletableFuture result = new CompletableFuture();
                         result.completeExceptionally(exc);
@@ -123,6 +224,11 @@ public class CompletableReactor implements AutoCloseable {
                 },
                 debugSerializer,
                 reactorTracer);
+        this.executionBuilder.setTimeoutScheduler(timeoutScheduler);
+        /**
+         * SimpleProfiler does not report anything
+         */
+        setProfilingEnabled(!(profiler instanceof SimpleProfiler));
     }
 
     /**
@@ -132,12 +238,98 @@ public class CompletableReactor implements AutoCloseable {
      * until all reference to execution result dies.
      *
      * @param debugProcessingVertexGraphState By default this flag is disabled.
+     * @deprecated pins execution state of every execution, use {@link #setFlightRecording(Class, double)}
      */
+    @Deprecated
     public CompletableReactor setDebugProcessingVertexGraphState(boolean debugProcessingVertexGraphState) {
         executionBuilder.setDebugProcessingVertexGraphState(debugProcessingVertexGraphState);
         return this;
     }
 
+    /**
+     * Records events of sampled executions of given payload class into bounded ring buffer of
+     * {@link #getFlightRecorder()}. Events of recorded execution are logged when execution deadline is reached.
+     * Recorder with {@link FlightRecorder#DEFAULT_CAPACITY} is created at first invocation
+     * unless it was set by {@link #setFlightRecorder(FlightRecorder)}.
+     *
+     * @param samplingRate share of recorded executions from 0 to 1, 0 disables recording
+     */
+    public CompletableReactor setFlightRecording(Class<?> payloadClass, double samplingRate) {
+        synchronized (executionBuilder) {
+            if (samplingRate > 0 && executionBuilder.getFlightRecorder() == null) {
+                executionBuilder.setFlightRecorder(new FlightRecorder());
+            }
+        }
+        executionBuilder.setFlightRecording(payloadClass, samplingRate);
+        return this;
+    }
+
+    /**
+     * @param flightRecorder replaces recorder of execution events, e.g. with one of larger capacity
+     */
+    public CompletableReactor setFlightRecorder(FlightRecorder flightRecorder) {
+        Objects.requireNonNull(flightRecorder);
+        executionBuilder.setFlightRecorder(flightRecorder);
+        return this;
+    }
+
+    /**
+     * @return recorder of execution events, null if flight recording was never enabled
+     */
+    public FlightRecorder getFlightRecorder() {
+        return executionBuilder.getFlightRecorder();
+    }
+
+    /**
+     * @param dumpOnTimeout whether events of recorded execution are logged when execution deadline is reached.
+     *                      By default enabled.
+     */
+    public CompletableReactor setFlightRecorderDumpOnTimeout(boolean dumpOnTimeout) {
+        executionBuilder.setFlightRecorderDumpOnTimeout(dumpOnTimeout);
+        return this;
+    }
+
+    /**
+     * Set admission controller of graph for given payload type.
+     * {@link #trySubmit(Object)} rejects payload when controller does not admit it,
+     * {@link #submit(Object)} logs error and accepts payload.
+     * Subgraph executions are part of already admitted parent execution and are not checked.
+     *
+     * @param payloadType
+     * @param admissionController controller of the payload type,
+     *                            null to use static {@link #getMaxPendingRequestCount()} limit
+     */
+    public CompletableReactor setAdmissionController(Class<?> payloadType, AdmissionController admissionController) {
+        String indicatorName = ProfilerNames.ADMISSION_LIMIT + payloadType.getSimpleName();
+        if (admissionController == null) {
+            if (admissionControllers.remove(payloadType) != null) {
+                profiler.detachIndicator(indicatorName);
+            }
+        } else {
+            if (admissionControllers.put(payloadType, admissionController) != null) {
+                profiler.detachIndicator(indicatorName);
+            }
+            profiler.attachIndicator(indicatorName, () -> (long) admissionController.getLimit());
+        }
+        return this;
+    }
+
+    public AdmissionController getAdmissionController(Class<?> payloadType) {
+        return admissionControllers.get(payloadType);
+    }
+
+    /**
+     * @return number of payloads of given type that can be submitted now
+     * without exceeding limit of admission controller or max pending request count
+     */
+    public long getFreeCapacity(Class<?> payloadType) {
+        AdmissionController admissionController = admissionControllers.get(payloadType);
+        if (admissionController != null) {
+            return Math.max(0, admissionController.getLimit() - admissionController.getInflight());
+        }
+        return Math.max(0, maxPendingRequestCount.get() - pendingRequestCount.get());
+    }
+
     public long getMaxPendingRequestCount() {
         return maxPendingRequestCount.get();
     }
@@ -147,6 +339,38 @@ public class CompletableReactor implements AutoCloseable {
         return this;
     }
 
+    public int getMaxSubmitQueueSize() {
+        return maxSubmitQueueSize;
+    }
+
+    /**
+     * @param maxSubmitQueueSize max number of payloads of single payload type that wait for capacity
+     *                           in {@link #submitAsync(Object)}. By default 10 000.
+     */
+    public CompletableReactor setMaxSubmitQueueSize(int maxSubmitQueueSize) {
+        if (maxSubmitQueueSize < 0) {
+            throw new IllegalArgumentException(String.format("Invalid max submit queue size %d", maxSubmitQueueSize));
+        }
+        this.maxSubmitQueueSize = maxSubmitQueueSize;
+        return this;
+    }
+
+    public long getMaxSubmitWaitMs() {
+        return maxSubmitWaitMs;
+    }
+
+    /**
+     * @param maxSubmitWaitMs how long {@link #submitAsync(Object)} waits for capacity
+     *                        until completing with TimeoutException. By default 1 minute.
+     */
+    public CompletableReactor setMaxSubmitWaitMs(long maxSubmitWaitMs) {
+        if (maxSubmitWaitMs <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid max submit wait %d", maxSubmitWaitMs));
+        }
+        this.maxSubmitWaitMs = maxSubmitWaitMs;
+        return this;
+    }
+
     /**
      * @return timeout in millisecond reactor will wain pending flows during {@link #close()} method
      */
@@ -177,6 +401,190 @@ public class CompletableReactor implements AutoCloseable {
         executionTimeoutMs = value;
     }
 
+    /**
+     * @return executor that is used by graphs registered without their own executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Executor runs handler invocations, asynchronous transitions and bookkeeping stages of graph executions.
+     * Graphs registered by {@link #registerReactorGraph(ReactorGraph, Executor)} use their own executor instead.
+     *
+     * @param executor By default {@link ForkJoinPool#commonPool()} is used.
+     */
+    public CompletableReactor setExecutor(Executor executor) {
+        Objects.requireNonNull(executor);
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @return executor of handlers marked as blocking, null if blocking handlers are invoked by executor of the graph
+     */
+    public Executor getBlockingHandlerExecutor() {
+        return blockingHandlerExecutor;
+    }
+
+    /**
+     * Executor that invokes handlers marked by {@link ProcessorDescription#blockingHandler()}.
+     *
+     * @param blockingHandlerExecutor By default null, blocking handlers are invoked by executor of the graph.
+     */
+    public CompletableReactor setBlockingHandlerExecutor(Executor blockingHandlerExecutor) {
+        this.blockingHandlerExecutor = blockingHandlerExecutor;
+        return this;
+    }
+
+    /**
+     * Run graph executions and blocking handlers on virtual thread per task executor
+     * if JVM supports virtual threads.
+     * Graphs registered with their own executor keep using it, blocking handlers of all graphs use virtual threads.
+     * Executor is shut down by {@link #close()}.
+     *
+     * @return true if virtual threads are supported and enabled
+     */
+    public synchronized boolean enableVirtualThreads() {
+        if (virtualThreadExecutor != null) {
+            return true;
+        }
+        Optional<ExecutorService> virtualExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        if (!virtualExecutor.isPresent()) {
+            log.info("Virtual threads are not supported by JVM. Reactor continues to use executor {}.", executor);
+            return false;
+        }
+        virtualThreadExecutor = virtualExecutor.get();
+        executor = virtualThreadExecutor;
+        blockingHandlerExecutor = virtualThreadExecutor;
+        return true;
+    }
+
+    /**
+     * @return transition mode that is used by graphs without their own transition mode
+     */
+    public TransitionMode getTransitionMode() {
+        return transitionMode;
+    }
+
+    /**
+     * @param transitionMode By default {@link TransitionMode#ASYNC} is used.
+     */
+    public CompletableReactor setTransitionMode(TransitionMode transitionMode) {
+        Objects.requireNonNull(transitionMode);
+        this.transitionMode = transitionMode;
+        return this;
+    }
+
+    /**
+     * Set transition mode of graph for given payload type
+     *
+     * @param payloadType
+     * @param transitionMode mode of the graph, null to use {@link #getTransitionMode()}
+     */
+    public CompletableReactor setTransitionMode(Class<?> payloadType, TransitionMode transitionMode) {
+        if (transitionMode == null) {
+            payloadTransitionModes.remove(payloadType);
+        } else {
+            payloadTransitionModes.put(payloadType, transitionMode);
+        }
+        return this;
+    }
+
+    /**
+     * @param maxInlineDepth max number of nested handler invocations on single thread
+     *                       in {@link TransitionMode#SYNC} mode. By default 32.
+     */
+    public CompletableReactor setMaxInlineDepth(int maxInlineDepth) {
+        executionBuilder.setMaxInlineDepth(maxInlineDepth);
+        return this;
+    }
+
+    /**
+     * @param threadsafeCopyMaker copies arguments of processors and subgraphs marked with copyArg
+     *                            and coalesced results of single flight handlers.
+     *                            By default {@link ImmutabilityAwareThreadsafeCopyMaker}.
+     *                            {@link ru.fix.completable.reactor.runtime.cloning.MethodHandleThreadsafeCopyMaker}
+     *                            copies faster with copiers generated for each class.
+     */
+    public CompletableReactor setThreadsafeCopyMaker(ThreadsafeCopyMaker threadsafeCopyMaker) {
+        Objects.requireNonNull(threadsafeCopyMaker);
+        executionBuilder.setThreadsafeCopyMaker(threadsafeCopyMaker);
+        return this;
+    }
+
+    /**
+     * @param latencyHistogramsEnabled whether executions record latencies of handle and merge phases
+     *                                 of processors. By default disabled.
+     * @see #buildLatencyReport()
+     */
+    public CompletableReactor setLatencyHistogramsEnabled(boolean latencyHistogramsEnabled) {
+        executionBuilder.setLatencyHistogramsEnabled(latencyHistogramsEnabled);
+        return this;
+    }
+
+    /**
+     * @param criticalPathAnalysisEnabled whether each execution computes chain of processors that determined
+     *                                    its latency. By default disabled.
+     * @see #buildCriticalPathReport()
+     */
+    public CompletableReactor setCriticalPathAnalysisEnabled(boolean criticalPathAnalysisEnabled) {
+        executionBuilder.setCriticalPathAnalysisEnabled(criticalPathAnalysisEnabled);
+        return this;
+    }
+
+    /**
+     * @param jfrEventsEnabled whether executions emit events to JDK Flight Recorder: submit and completion
+     *                         of execution, handler invocations, merges, dead transitions and timeouts.
+     *                         Events cost almost nothing while they are not enabled by active recording.
+     *                         By default enabled if JVM supports Flight Recorder.
+     * @see ExecutionEvents
+     */
+    public CompletableReactor setJfrEventsEnabled(boolean jfrEventsEnabled) {
+        executionBuilder.setExecutionEvents(jfrEventsEnabled ? ExecutionEvents.jfrIfAvailable() : ExecutionEvents.NOOP);
+        return this;
+    }
+
+    /**
+     * @param profilingEnabled whether submitted payloads and handle and merge phases of processors are reported
+     *                         to profiler. Disabled profiling does not allocate profiled calls.
+     *                         By default enabled unless reactor is created with {@link SimpleProfiler}
+     *                         that does not report anything.
+     */
+    public CompletableReactor setProfilingEnabled(boolean profilingEnabled) {
+        this.profilingEnabled = profilingEnabled;
+        executionBuilder.setProfilingEnabled(profilingEnabled);
+        return this;
+    }
+
+    public TimeoutScheduler getTimeoutScheduler() {
+        return timeoutScheduler;
+    }
+
+    /**
+     * Scheduler of execution and handler timeouts.
+     * Should be set before first submit. Reactor does not close scheduler provided by user.
+     *
+     * @param timeoutScheduler By default {@link HashedWheelTimeoutScheduler} is used.
+     */
+    public CompletableReactor setTimeoutScheduler(TimeoutScheduler timeoutScheduler) {
+        Objects.requireNonNull(timeoutScheduler);
+        this.timeoutScheduler = timeoutScheduler;
+        this.executionBuilder.setTimeoutScheduler(timeoutScheduler);
+        return this;
+    }
+
+    /**
+     * Traces executions as trees of spans. Whether execution is traced is decided once when root execution starts,
+     * subgraph executions are traced as children of handler spans of parent execution.
+     *
+     * @param executionTracer null disables execution tracing. By default disabled.
+     */
+    public CompletableReactor setExecutionTracer(ExecutionTracer executionTracer) {
+        executionBuilder.setExecutionTracer(executionTracer);
+        return this;
+    }
+
     public void setTracer(Tracer tracer) {
         this.reactorTracer.tracer = tracer;
     }
@@ -190,14 +598,35 @@ public class CompletableReactor implements AutoCloseable {
     }
 
     /**
-     * Register reactor graph
+     * Register reactor graph.
+     * Graph is compiled to execution plan during registration, so all submitted payloads share same plan.
      *
      * @param reactorGraph
+     * @throws IllegalArgumentException if graph structure is invalid
      */
     public void registerReactorGraph(ReactorGraph reactorGraph) {
-        val crReactorGraph = (CRReactorGraph) reactorGraph;
-        payloadGraphs.put(crReactorGraph.getPayloadClass(), crReactorGraph);
-        inlinePayloadGraphs.remove(crReactorGraph.getPayloadClass());
+        ReactorGraphExecutionPlan<?> plan = ReactorGraphExecutionPlan.compile(reactorGraph);
+        payloadExecutors.remove(plan.getPayloadClass());
+        registerPayloadProfilingName(plan.getPayloadClass());
+        payloadGraphs.put(plan.getPayloadClass(), plan);
+        inlinePayloadGraphs.remove(plan.getPayloadClass());
+    }
+
+    /**
+     * Register reactor graph that will be executed by given executor instead of {@link #getExecutor()}.
+     * Allows to isolate latency critical graphs within dedicated pool.
+     *
+     * @param reactorGraph
+     * @param executor     runs handler invocations, asynchronous transitions and bookkeeping stages of the graph
+     * @throws IllegalArgumentException if graph structure is invalid
+     */
+    public void registerReactorGraph(ReactorGraph reactorGraph, Executor executor) {
+        Objects.requireNonNull(executor);
+        ReactorGraphExecutionPlan<?> plan = ReactorGraphExecutionPlan.compile(reactorGraph);
+        payloadExecutors.put(plan.getPayloadClass(), executor);
+        registerPayloadProfilingName(plan.getPayloadClass());
+        payloadGraphs.put(plan.getPayloadClass(), plan);
+        inlinePayloadGraphs.remove(plan.getPayloadClass());
     }
 
     /**
@@ -214,8 +643,43 @@ public class CompletableReactor implements AutoCloseable {
             Class<PayloadType> payloadType,
             Function<PayloadType, CompletableFuture<PayloadType>> payloadProcessingFunction) {
 
+        registerPayloadProfilingName(payloadType);
         inlinePayloadGraphs.put(payloadType, payloadProcessingFunction);
         payloadGraphs.remove(payloadType);
+        payloadExecutors.remove(payloadType);
+    }
+
+    private void registerPayloadProfilingName(Class<?> payloadType) {
+        payloadProfilingNames.put(payloadType, new PayloadProfilingNames(payloadType));
+    }
+
+    private PayloadProfilingNames payloadProfilingNames(Class<?> payloadType) {
+        PayloadProfilingNames names = payloadProfilingNames.get(payloadType);
+        /**
+         * Names of payload class without registered graph are not cached
+         */
+        return names != null ? names : new PayloadProfilingNames(payloadType);
+    }
+
+    /**
+     * Profiler names of payload class, resolved once so submits do not build names
+     */
+    static class PayloadProfilingNames {
+        /**
+         * Full name, reported by profiler without prefix
+         */
+        final String payload;
+        final String rejected;
+        final String batch;
+        final String wait;
+
+        PayloadProfilingNames(Class<?> payloadType) {
+            String name = payloadType.getSimpleName();
+            this.payload = ProfilerNames.PROFILER_PREFIX + ProfilerNames.PAYLOAD + name;
+            this.rejected = ProfilerNames.PAYLOAD_REJECTED + name;
+            this.batch = ProfilerNames.PAYLOAD_BATCH + name;
+            this.wait = ProfilerNames.PAYLOAD_WAIT + name;
+        }
     }
 
     @Data
@@ -240,21 +704,50 @@ public class CompletableReactor implements AutoCloseable {
         final Map<Class<?>, PayloadStatisticsReport> payloadStatisticsReports = new HashMap<>();
     }
 
-    private static ScheduledThreadPoolExecutor newScheduledThreadPool(int poolSize, String threadsNamePrefix) {
-        AtomicInteger counter = new AtomicInteger();
-        ThreadFactory threadFactory = runnable -> new Thread(
-                runnable,
-                threadsNamePrefix + counter.getAndIncrement());
-
-        ScheduledThreadPoolExecutor scheduledThreadPoolExecutor =
-                new ScheduledThreadPoolExecutor(poolSize, threadFactory);
-        scheduledThreadPoolExecutor.setRemoveOnCancelPolicy(true);
-        return scheduledThreadPoolExecutor;
+    @Data
+    @Accessors(chain = true)
+    public static class LatencyReport {
+        /**
+         * Payload class -> debug name of processor, subgraph or detached merge point -> phase latencies.
+         * Debug name is used instead of profiling name since processors of the same class share profiling name.
+         */
+        final Map<Class<?>, Map<String, Map<LatencyPhase, LatencyHistogram.Snapshot>>> payloadLatencies =
+                new HashMap<>();
     }
 
 
     public void setImmutabilityControlLevel(ImmutabilityControlLevel immutabilityControlLevel) {
         this.immutabilityControlLevel.set(immutabilityControlLevel);
+        executionBuilder.setImmutabilityControlLevel(immutabilityControlLevel);
+    }
+
+    /**
+     * Immutability check takes payload fingerprint before handler invocation and compares it after completion.
+     * Sampling allows to keep check enabled under production load.
+     *
+     * @param samplingPercent percent of executions that are checked, by default 100
+     * @see #setImmutabilityControlLevel(ImmutabilityControlLevel)
+     */
+    public CompletableReactor setImmutabilityCheckSamplingPercent(int samplingPercent) {
+        return setImmutabilityCheckSampling(ImmutabilityCheckSampling.percent(samplingPercent));
+    }
+
+    /**
+     * @param sampling selects executions that are checked for payload modification,
+     *                 separately for each payload class. By default every execution is checked.
+     * @see ProcessorDescription#withImmutabilityCheckSampling(ImmutabilityCheckSampling)
+     */
+    public CompletableReactor setImmutabilityCheckSampling(ImmutabilityCheckSampling sampling) {
+        executionBuilder.setImmutabilityCheckSampling(sampling);
+        return this;
+    }
+
+    /**
+     * @param sampling selects executions of given payload class that are checked for payload modification
+     */
+    public CompletableReactor setImmutabilityCheckSampling(Class<?> payloadClass, ImmutabilityCheckSampling sampling) {
+        executionBuilder.setImmutabilityCheckSampling(payloadClass, sampling);
+        return this;
     }
 
     final AtomicReference<ImmutabilityControlLevel> immutabilityControlLevel =
@@ -274,6 +767,75 @@ public class CompletableReactor implements AutoCloseable {
         return report;
     }
 
+    @Data
+    @Accessors(chain = true)
+    public static class PayloadCriticalPathReport {
+        final long executionCount;
+        final long averagePathNanos;
+        /**
+         * Debug name of processor, subgraph or detached merge point -> its critical path statistics
+         */
+        final Map<String, CriticalPathStatistics.VertexSnapshot> vertices;
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class CriticalPathReport {
+        final Map<Class<?>, PayloadCriticalPathReport> payloadCriticalPaths = new HashMap<>();
+    }
+
+    /**
+     * Reports how often each processor lies on critical path of execution and how much slack it has.
+     * Report covers executions completed since previous invocation.
+     *
+     * @see #setCriticalPathAnalysisEnabled(boolean)
+     */
+    public CriticalPathReport buildCriticalPathReport() {
+        CriticalPathReport report = new CriticalPathReport();
+
+        payloadGraphs.forEach((payloadType, plan) -> {
+            CriticalPathStatistics.Snapshot snapshot = plan.getCriticalPathStatistics().intervalSnapshot();
+            Map<String, CriticalPathStatistics.VertexSnapshot> vertices = new HashMap<>();
+            for (ReactorGraphExecutionPlan.Vertex vertex : plan.getVertices()) {
+                CriticalPathStatistics.VertexSnapshot vertexSnapshot = snapshot.getVertices()[vertex.getId()];
+                if (vertexSnapshot != null) {
+                    vertices.put(vertex.getProcessingItem().getDebugName(), vertexSnapshot);
+                }
+            }
+            report.getPayloadCriticalPaths().put(
+                    payloadType,
+                    new PayloadCriticalPathReport(
+                            snapshot.getExecutionCount(),
+                            snapshot.getAveragePathNanos(),
+                            vertices));
+        });
+
+        return report;
+    }
+
+    /**
+     * Reports latency percentiles of handle and merge phases recorded since previous invocation.
+     * Processors without recorded values are omitted.
+     *
+     * @see #setLatencyHistogramsEnabled(boolean)
+     */
+    public LatencyReport buildLatencyReport() {
+        LatencyReport report = new LatencyReport();
+
+        payloadGraphs.forEach((payloadType, plan) -> {
+            Map<String, Map<LatencyPhase, LatencyHistogram.Snapshot>> processorLatencies = new HashMap<>();
+            for (ReactorGraphExecutionPlan.Vertex vertex : plan.getVertices()) {
+                Map<LatencyPhase, LatencyHistogram.Snapshot> snapshot = vertex.getLatency().intervalSnapshot();
+                if (!snapshot.isEmpty()) {
+                    processorLatencies.put(vertex.getProcessingItem().getDebugName(), snapshot);
+                }
+            }
+            report.getPayloadLatencies().put(payloadType, processorLatencies);
+        });
+
+        return report;
+    }
+
     @Data
     @Builder
     public static class Execution<PayloadType> {
@@ -291,18 +853,105 @@ public class CompletableReactor implements AutoCloseable {
          */
         @Getter(AccessLevel.NONE)
         private final Collection debugProcessingVertexGraphState;
+
+        /**
+         * Id of execution events in {@link FlightRecorder#dump(long)}, 0 if execution is not recorded
+         */
+        final long flightRecordingId;
+
+        /**
+         * Stops graph execution and releases pending request slot of the reactor
+         */
+        @Getter(AccessLevel.NONE)
+        private final Runnable cancellation;
+
+        /**
+         * Cancel execution, so no more work is done for result that nobody will read.
+         * Result future completes with {@link CancellationException}.
+         * Running handlers are detached and processors that are not invoked yet are skipped.
+         * Running subgraph executions are cancelled too. Futures of running processor handlers are cancelled
+         * only if handlers are marked by {@link ProcessorDescription#cancellableHandler()},
+         * other handler futures could be shared between executions and are left intact.
+         * Pending request slot of the reactor is released immediately.
+         * Cancellation of {@link #getResultFuture()} has the same effect.
+         *
+         * @return true if result future was cancelled by this invocation, false if it was already complete
+         */
+        public boolean cancel() {
+            boolean cancelled = resultFuture.completeExceptionally(new CancellationException("Execution cancelled"));
+            if (cancellation != null) {
+                cancellation.run();
+            }
+            return cancelled;
+        }
     }
 
 
+    /**
+     * Executions of payloads submitted together by {@link #submitAll(Collection)}
+     */
+    @Data
+    public static class BatchExecution<PayloadType> {
+        /**
+         * Executions in order of submitted payloads
+         */
+        final List<Execution<PayloadType>> executions;
+
+        /**
+         * Completes when result futures of all executions are complete, normally or exceptionally
+         */
+        final CompletableFuture<Void> completionFuture;
+
+        /**
+         * Cancel all executions of the batch
+         *
+         * @see Execution#cancel()
+         */
+        public void cancel() {
+            executions.forEach(Execution::cancel);
+        }
+    }
+
     public <PayloadType> Optional<Execution<PayloadType>> trySubmit(PayloadType payload) {
         return trySubmit(payload, executionTimeoutMs);
     }
 
+    /**
+     * Submit payload if admission controller of payload type or max pending request count allows it.
+     * Rejection is fast and does not block caller.
+     *
+     * @return execution or empty if payload is rejected
+     */
     public <PayloadType> Optional<Execution<PayloadType>> trySubmit(PayloadType payload, long timeoutMs) {
-        if (pendingRequestCount.get() > maxPendingRequestCount.get()) {
+        if (hasSubmitWaiters(payload.getClass())) {
+            /**
+             * Capacity that frees up belongs to payloads waiting in submitAsync
+             */
+            reportRejected(payload.getClass());
+            return Optional.empty();
+        }
+
+        AdmissionController admissionController = admissionControllers.get(payload.getClass());
+        if (admissionController == null) {
+            if (pendingRequestCount.get() > maxPendingRequestCount.get()) {
+                reportRejected(payload.getClass());
+                return Optional.empty();
+            }
+            return Optional.of(submit(payload, timeoutMs));
+        }
+
+        Optional<AdmissionController.Permit> permit = admissionController.tryAcquire();
+        if (!permit.isPresent()) {
+            reportRejected(payload.getClass());
             return Optional.empty();
         }
-        return Optional.of(submit(payload, timeoutMs));
+        return Optional.of(submit(payload, timeoutMs, permit.get()));
+    }
+
+    private void reportRejected(Class<?> payloadType) {
+        if (profilingEnabled) {
+            profiler.profiledCall(payloadProfilingNames(payloadType).rejected).call();
+        }
     }
 
     public <PayloadType> Execution<PayloadType> submit(PayloadType payload) {
@@ -310,11 +959,448 @@ public class CompletableReactor implements AutoCloseable {
     }
 
     public <PayloadType> Execution<PayloadType> submit(PayloadType payload, long timeoutMs) {
+        AdmissionController admissionController = admissionControllers.get(payload.getClass());
+        if (admissionController == null) {
+            return submit(payload, timeoutMs, null);
+        }
+
+        Optional<AdmissionController.Permit> permit = admissionController.tryAcquire();
+        if (!permit.isPresent()) {
+            log.error("Admission controller of payload {} rejected request. Limit: {}, inflight: {}." +
+                            " Request will be accepted but there is a possibility of " +
+                            "OOM or something wrong with back pressure logic in client code.\n" +
+                            "Use trySubmit method that supports back pressure or correctly handle the load on " +
+                            "CompletableReactor on client side.",
+                    payload.getClass(),
+                    admissionController.getLimit(),
+                    admissionController.getInflight());
+        }
+        return submit(payload, timeoutMs, permit.orElse(null));
+    }
+
+    public <PayloadType> BatchExecution<PayloadType> submitAll(Collection<? extends PayloadType> payloads) {
+        return submitAll(payloads, executionTimeoutMs);
+    }
+
+    /**
+     * Payloads of same type submitted together share graph lookup, admission check, statistics update,
+     * profiled call and timeout registration.
+     * Each payload still gets its own execution with its own result.
+     * Same as {@link #submit(Object)}, payloads are accepted even if admission controller
+     * or max pending request count does not allow it, single error is logged for the batch in that case.
+     *
+     * @param timeoutMs timeout of every execution in the batch
+     * @throws IllegalArgumentException if graph is not registered for one of payloads, no payload is submitted then
+     */
+    public <PayloadType> BatchExecution<PayloadType> submitAll(Collection<? extends PayloadType> payloads,
+                                                               long timeoutMs) {
+        if (isClosed.get()) {
+            throw new IllegalStateException(String.format(
+                    "CompletableReactor is closed. %d payloads are discarded.", payloads.size()));
+        }
+
+        /**
+         * Resolve graphs of all payload types before submitting anything
+         */
+        Map<Class<?>, List<Integer>> positionsByType = new HashMap<>();
+        List<PayloadType> payloadList = new ArrayList<>(payloads);
+        for (int position = 0; position < payloadList.size(); position++) {
+            Class<?> payloadType = payloadList.get(position).getClass();
+            if (!positionsByType.containsKey(payloadType)
+                    && !inlinePayloadGraphs.containsKey(payloadType)
+                    && !payloadGraphs.containsKey(payloadType)) {
+                throw new IllegalArgumentException(String.format(
+                        "Rector graph not found for payload %s", payloadType));
+            }
+            positionsByType.computeIfAbsent(payloadType, key -> new ArrayList<>()).add(position);
+        }
+
+        Execution<PayloadType>[] executions = new Execution[payloadList.size()];
+        positionsByType.forEach((payloadType, positions) ->
+                submitBatchOfType(payloadType, payloadList, positions, timeoutMs, executions));
+
+        CompletableFuture<?>[] results = new CompletableFuture[executions.length];
+        for (int i = 0; i < executions.length; i++) {
+            results[i] = executions[i].getResultFuture();
+        }
+        return new BatchExecution<>(
+                Arrays.asList(executions),
+                CompletableFuture.allOf(results).handle((any, thr) -> null));
+    }
+
+    private <PayloadType> void submitBatchOfType(Class<?> payloadType,
+                                                 List<PayloadType> payloads,
+                                                 List<Integer> positions,
+                                                 long timeoutMs,
+                                                 Execution<PayloadType>[] executions) {
+        /**
+         * Inline graphs are executed one by one, they are test mocks
+         */
+        if (inlinePayloadGraphs.containsKey(payloadType)) {
+            for (int position : positions) {
+                executions[position] = submit(payloads.get(position), timeoutMs);
+            }
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        int size = positions.size();
+
+        ReactorGraphExecutionPlan<PayloadType> plan =
+                (ReactorGraphExecutionPlan<PayloadType>) payloadGraphs.get(payloadType);
+        Executor payloadExecutor = payloadExecutors.getOrDefault(payloadType, executor);
+
+        /**
+         * Single admission check for the batch
+         */
+        AdmissionController.Permit[] permits = new AdmissionController.Permit[size];
+        AdmissionController admissionController = admissionControllers.get(payloadType);
+        if (admissionController != null) {
+            List<AdmissionController.Permit> granted = admissionController.tryAcquire(size);
+            for (int i = 0; i < granted.size(); i++) {
+                permits[i] = granted.get(i);
+            }
+            int rejected = size - granted.size();
+            if (rejected > 0) {
+                log.error("Admission controller of payload {} rejected {} of {} requests of the batch." +
+                                " Requests will be accepted but there is a possibility of " +
+                                "OOM or something wrong with back pressure logic in client code.",
+                        payloadType, rejected, size);
+            }
+        } else if (pendingRequestCount.get() + size > maxPendingRequestCount.get()) {
+            log.error("Max pending request count is reached by batch of {} payloads {}." +
+                            " Requests will be accepted but there is a possibility of " +
+                            "OOM or something wrong with back pressure logic in client code.",
+                    size, payloadType);
+        }
+
+        ProfiledCall batchCall = profilingEnabled ?
+                profiler.profiledCall(payloadProfilingNames(payloadType).batch).start() :
+                null;
+
+        List<ReactorGraphExecution<PayloadType>> graphExecutions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            graphExecutions.add(buildExecution(plan, payloadExecutor, timeoutMs, null));
+        }
+
+        /**
+         * Single statistics update for the batch
+         */
+        pendingRequestCount.addAndGet(size);
+        PayloadStatCounters statistics = payloadStatCounters.computeIfAbsent(
+                payloadType,
+                key -> new PayloadStatCounters());
+        statistics.getRunningTotal().add(size);
+
+        /**
+         * Single timeout for the batch, cancelled when all executions are released
+         */
+        AtomicInteger unreleased = new AtomicInteger(size);
+        AtomicReference<TimeoutScheduler.Timeout> schedule = new AtomicReference<>();
+        Runnable onRelease = () -> {
+            if (unreleased.decrementAndGet() == 0) {
+                TimeoutScheduler.Timeout timeout = schedule.getAndSet(null);
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+            }
+        };
+
+        CompletableFuture<?>[] results = new CompletableFuture[size];
+        for (int i = 0; i < size; i++) {
+            int position = positions.get(i);
+            ReactorGraphExecution<PayloadType> execution = graphExecutions.get(i);
+            executions[position] = launchExecution(
+                    execution,
+                    payloads.get(position),
+                    payloadExecutor,
+                    statistics,
+                    permits[i],
+                    startTime,
+                    onRelease);
+            results[i] = execution.getResultFuture();
+        }
+
+        schedule.set(timeoutScheduler.schedule(
+                () -> {
+                    for (int i = 0; i < size; i++) {
+                        ReactorGraphExecution<PayloadType> execution = graphExecutions.get(i);
+                        if (!execution.getResultFuture().isDone() || !execution.getChainExecutionFuture().isDone()) {
+                            timeoutExecution(execution, payloads.get(positions.get(i)), timeoutMs);
+                        }
+                    }
+                },
+                timeoutMs,
+                TimeUnit.MILLISECONDS));
+        if (unreleased.get() == 0) {
+            TimeoutScheduler.Timeout timeout = schedule.getAndSet(null);
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+
+        if (batchCall != null) {
+            CompletableFuture.allOf(results).handleAsync((any, thr) -> {
+                batchCall.stop();
+                return null;
+            }, payloadExecutor);
+        }
+    }
+
+    private <PayloadType> Execution<PayloadType> submit(PayloadType payload,
+                                                        long timeoutMs,
+                                                        AdmissionController.Permit permit) {
         if (isClosed.get()) {
+            if (permit != null) {
+                permit.onIgnore();
+            }
             throw new IllegalStateException(String.format(
                     "CompletableReactor is closed. Payload %s is discarded.", payload));
         }
-        return internalSubmit(payload, timeoutMs);
+        try {
+            return internalSubmit(payload, timeoutMs, permit, null);
+        } catch (RuntimeException exc) {
+            if (permit != null) {
+                permit.onIgnore();
+            }
+            throw exc;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class SubmitWaiter {
+        final Object payload;
+        final long timeoutMs;
+        final CompletableFuture<Execution<?>> future;
+        /**
+         * Null if profiling is disabled
+         */
+        final ProfiledCall waitCall;
+        AdmissionController.Permit permit;
+    }
+
+    /**
+     * Guarded by itself
+     */
+    private static class SubmitQueue {
+        final ArrayDeque<SubmitWaiter> waiters = new ArrayDeque<>();
+    }
+
+    public <PayloadType> CompletableFuture<Execution<PayloadType>> submitAsync(PayloadType payload) {
+        return submitAsync(payload, executionTimeoutMs, maxSubmitWaitMs);
+    }
+
+    /**
+     * Submit payload as soon as admission controller of payload type or max pending request count allows it.
+     * Payloads of same type wait for capacity in FIFO order, {@link #trySubmit(Object)} does not overtake them.
+     * Caller is not blocked.
+     * Cancellation of returned future before execution starts removes payload from the queue.
+     *
+     * @param timeoutMs execution timeout, starts when payload is submitted
+     * @param maxWaitMs how long to wait for capacity
+     * @return future that completes with execution when payload is submitted,
+     * with TimeoutException if capacity was not available during maxWaitMs,
+     * with RejectedExecutionException if wait queue of payload type is full
+     */
+    public <PayloadType> CompletableFuture<Execution<PayloadType>> submitAsync(PayloadType payload,
+                                                                            long timeoutMs,
+                                                                            long maxWaitMs) {
+        CompletableFuture<Execution<?>> future = new CompletableFuture<>();
+        if (isClosed.get()) {
+            future.completeExceptionally(new IllegalStateException(String.format(
+                    "CompletableReactor is closed. Payload %s is discarded.", payload)));
+            return (CompletableFuture) future;
+        }
+
+        Class<?> payloadType = payload.getClass();
+        SubmitQueue queue = submitQueues.computeIfAbsent(payloadType, key -> new SubmitQueue());
+        SubmitWaiter waiter = new SubmitWaiter(
+                payload,
+                timeoutMs,
+                future,
+                profilingEnabled ? profiler.profiledCall(payloadProfilingNames(payloadType).wait).start() : null);
+
+        synchronized (queue) {
+            if (queue.waiters.size() >= maxSubmitQueueSize) {
+                removeCompletedWaiters(queue);
+            }
+            if (queue.waiters.size() >= maxSubmitQueueSize) {
+                if (waiter.waitCall != null) {
+                    waiter.waitCall.cancel();
+                }
+                reportRejected(payloadType);
+                future.completeExceptionally(new RejectedExecutionException(String.format(
+                        "Submit queue of payload %s is full. Max size: %d.", payloadType, maxSubmitQueueSize)));
+                return (CompletableFuture) future;
+            }
+            queue.waiters.add(waiter);
+            submitWaitingCount.incrementAndGet();
+        }
+
+        /**
+         * Capacity could free up before payload was added to the queue
+         */
+        drainSubmitQueue(payloadType, queue);
+
+        if (!future.isDone()) {
+            TimeoutScheduler.Timeout waitTimeout = timeoutScheduler.schedule(
+                    () -> {
+                        if (future.completeExceptionally(new TimeoutException(String.format(
+                                "Payload %s waited for submit more than %d ms.", payload, maxWaitMs)))) {
+                            reportRejected(payloadType);
+                        }
+                    },
+                    maxWaitMs,
+                    TimeUnit.MILLISECONDS);
+
+            future.whenComplete((execution, thr) -> {
+                waitTimeout.cancel();
+                if (thr != null) {
+                    /**
+                     * Wait timeout, cancellation by caller or close of reactor
+                     */
+                    if (waiter.waitCall != null) {
+                        waiter.waitCall.cancel();
+                    }
+                    synchronized (queue) {
+                        if (queue.waiters.remove(waiter)) {
+                            submitWaitingCount.decrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        return (CompletableFuture) future;
+    }
+
+    /**
+     * Waiter that expired or was cancelled is removed by completion callback of its future,
+     * caller of the future can observe completion before that.
+     * Guarded by queue lock.
+     */
+    private void removeCompletedWaiters(SubmitQueue queue) {
+        Iterator<SubmitWaiter> waiters = queue.waiters.iterator();
+        while (waiters.hasNext()) {
+            if (waiters.next().future.isDone()) {
+                waiters.remove();
+                submitWaitingCount.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean hasSubmitWaiters(Class<?> payloadType) {
+        if (submitWaitingCount.get() == 0) {
+            return false;
+        }
+        SubmitQueue queue = submitQueues.get(payloadType);
+        if (queue == null) {
+            return false;
+        }
+        synchronized (queue) {
+            removeCompletedWaiters(queue);
+            return !queue.waiters.isEmpty();
+        }
+    }
+
+    /**
+     * Invoked when capacity frees up
+     */
+    private void drainSubmitQueues() {
+        if (submitWaitingCount.get() == 0) {
+            return;
+        }
+        submitQueues.forEach(this::drainSubmitQueue);
+    }
+
+    /**
+     * Admit waiting payloads in FIFO order while there is capacity.
+     * Payloads are submitted outside of the queue lock,
+     * since execution can complete and free capacity on the same thread.
+     */
+    private void drainSubmitQueue(Class<?> payloadType, SubmitQueue queue) {
+        List<SubmitWaiter> admitted = null;
+
+        synchronized (queue) {
+            AdmissionController admissionController = admissionControllers.get(payloadType);
+            while (!queue.waiters.isEmpty()) {
+                SubmitWaiter head = queue.waiters.peek();
+                if (head.future.isDone()) {
+                    queue.waiters.poll();
+                    submitWaitingCount.decrementAndGet();
+                    continue;
+                }
+
+                int admittedCount = admitted == null ? 0 : admitted.size();
+                if (admissionController != null) {
+                    Optional<AdmissionController.Permit> permit = admissionController.tryAcquire();
+                    if (!permit.isPresent()) {
+                        break;
+                    }
+                    head.permit = permit.get();
+                } else if (pendingRequestCount.get() + admittedCount > maxPendingRequestCount.get()) {
+                    break;
+                }
+
+                queue.waiters.poll();
+                submitWaitingCount.decrementAndGet();
+                if (admitted == null) {
+                    admitted = new ArrayList<>();
+                }
+                admitted.add(head);
+            }
+        }
+
+        if (admitted == null) {
+            return;
+        }
+        for (SubmitWaiter waiter : admitted) {
+            if (waiter.waitCall != null) {
+                waiter.waitCall.stop();
+            }
+            Execution<?> execution;
+            try {
+                execution = submit(waiter.payload, waiter.timeoutMs, waiter.permit);
+            } catch (Exception exc) {
+                waiter.future.completeExceptionally(exc);
+                continue;
+            }
+            if (!waiter.future.complete(execution)) {
+                /**
+                 * Caller cancelled waiting or wait timeout expired concurrently, nobody will read the result
+                 */
+                execution.cancel();
+            }
+        }
+    }
+
+    /**
+     * Report outcome of execution to admission controller
+     */
+    private static void releasePermit(AdmissionController.Permit permit,
+                                      CompletableFuture<?> resultFuture,
+                                      long startTime) {
+        if (!resultFuture.isDone()) {
+            permit.onIgnore();
+        } else if (!resultFuture.isCompletedExceptionally()) {
+            permit.onSuccess(System.nanoTime() - startTime);
+        } else {
+            try {
+                resultFuture.getNow(null);
+                permit.onIgnore();
+            } catch (CancellationException exc) {
+                permit.onIgnore();
+            } catch (CompletionException exc) {
+                Throwable cause = exc.getCause();
+                while (cause != null && !(cause instanceof TimeoutException)) {
+                    cause = cause.getCause();
+                }
+                if (cause != null) {
+                    permit.onDropped();
+                } else {
+                    permit.onIgnore();
+                }
+            }
+        }
     }
 
     /**
@@ -322,10 +1408,16 @@ public class CompletableReactor implements AutoCloseable {
      * If maxPendingRequestCount limit is reached prints error message and accepts request.
      * @param payload
      * @param timeoutMs
+     * @param permit admission of the request, null if request was not admitted by admission controller
+     * @param parentTrace context of parent span, null for root execution
      * @param <PayloadType>
      * @return
      */
-    private <PayloadType> Execution<PayloadType> internalSubmit(PayloadType payload, long timeoutMs) {
+    private <PayloadType> Execution<PayloadType> internalSubmit(PayloadType payload,
+                                                                long timeoutMs,
+                                                                AdmissionController.Permit permit,
+                                                                TraceContext parentTrace) {
+        long startTime = System.nanoTime();
 
         if (pendingRequestCount.get() > maxPendingRequestCount.get()) {
             log.error("Max pending request count is reached. Request will be accepted but there is a possibility of " +
@@ -334,8 +1426,11 @@ public class CompletableReactor implements AutoCloseable {
                     "CompletableReactor on client side.");
         }
 
-        ProfiledCall payloadCall = profiler.profiledCall(ProfilerNames.PAYLOAD + payload.getClass().getSimpleName())
-                .start();
+        ProfiledCall payloadCall = profilingEnabled ?
+                payloadProfiler.profiledCall(payloadProfilingNames(payload.getClass()).payload).start() :
+                null;
+
+        Executor payloadExecutor = payloadExecutors.getOrDefault(payload.getClass(), executor);
 
         /**
          * Inline graph execution scenario
@@ -345,7 +1440,15 @@ public class CompletableReactor implements AutoCloseable {
             CompletableFuture<PayloadType> inlineGraphResult =
                     (CompletableFuture<PayloadType>) inlineGraphFunction.apply(payload);
 
-            inlineGraphResult.thenAcceptAsync(any -> payloadCall.stop());
+            if (payloadCall != null) {
+                inlineGraphResult.thenRunAsync(payloadCall::stop, payloadExecutor);
+            }
+            if (permit != null) {
+                inlineGraphResult.whenComplete((result, thr) -> {
+                    releasePermit(permit, inlineGraphResult, startTime);
+                    drainSubmitQueues();
+                });
+            }
 
             return Execution.<PayloadType>builder()
                             .chainExecutionFuture(inlineGraphResult.thenAccept(any -> {/* do nothing */}))
@@ -358,14 +1461,14 @@ public class CompletableReactor implements AutoCloseable {
          * Standard graph execution scenario
          */
 
-        ReactorGraph<PayloadType> graph = payloadGraphs.get(payload.getClass());
-        if (graph == null) {
+        ReactorGraphExecutionPlan<PayloadType> plan =
+                (ReactorGraphExecutionPlan<PayloadType>) payloadGraphs.get(payload.getClass());
+        if (plan == null) {
             throw new IllegalArgumentException(String.format(
                     "Rector graph not found for payload %s", payload.getClass()));
         }
 
-        ReactorGraphExecution<PayloadType> execution = executionBuilder.build(graph);
-
+        ReactorGraphExecution<PayloadType> execution = buildExecution(plan, payloadExecutor, timeoutMs, parentTrace);
 
         /**
          * Handling pending request counts
@@ -378,48 +1481,97 @@ public class CompletableReactor implements AutoCloseable {
 
         statistics.getRunningTotal().increment();
 
-        execution.getChainExecutionFuture().handleAsync((result, thr) -> {
-            statistics.getRunningTotal().decrement();
-            return null;
-        });
-
+        /**
+         * Single completion stage reports statistics and payload call
+         */
         execution.getResultFuture().handleAsync((result, thr) -> {
             statistics.getRunningWithoutResult().decrement();
+            if (payloadCall != null && thr == null) {
+                payloadCall.stop();
+            }
             return null;
-        });
+        }, payloadExecutor);
 
         /**
-         * Launching chain execution
+         * Add timeout protection to execution
          */
-        execution.getSubmitFuture().complete(payload);
+        TimeoutScheduler.Timeout schedule = timeoutScheduler.schedule(
+                () -> timeoutExecution(execution, payload, timeoutMs),
+                timeoutMs,
+                TimeUnit.MILLISECONDS);
 
+        Execution<PayloadType> result = launchExecution(
+                execution,
+                payload,
+                payloadExecutor,
+                statistics,
+                permit,
+                startTime,
+                schedule::cancel);
 
+        return result;
+    }
+
+    private <PayloadType> ReactorGraphExecution<PayloadType> buildExecution(ReactorGraphExecutionPlan<PayloadType> plan,
+                                                                            Executor payloadExecutor,
+                                                                            long timeoutMs,
+                                                                            TraceContext parentTrace) {
+        Executor payloadBlockingHandlerExecutor = blockingHandlerExecutor;
+
+        return executionBuilder.build(
+                plan,
+                payloadExecutor,
+                payloadBlockingHandlerExecutor != null ? payloadBlockingHandlerExecutor : payloadExecutor,
+                payloadTransitionModes.getOrDefault(plan.getPayloadClass(), transitionMode),
+                timeoutMs,
+                parentTrace);
+    }
+
+    private static void timeoutExecution(ReactorGraphExecution<?> execution, Object payload, long timeoutMs) {
         /**
-         * Add timeout protection to execution
+         * Temporary solution.
+         * Should be fixed by completing all futures in processor chain
          */
-        ScheduledFuture<?> schedule = timeoutExecutorService.schedule(
-                () -> {
-                    /**
-                     * Temporary solution.
-                     * Should be fixed by completing all futures in processor chain
-                     */
-                    if (!execution.getResultFuture().isDone()) {
-                        execution.getResultFuture().completeExceptionally(
-                                new TimeoutException(
-                                        String.format(
-                                                "Response for payload %s took more than %d ms.", payload, timeoutMs)));
-                    }
-                    if (!execution.getChainExecutionFuture().isDone()) {
-                        execution.getChainExecutionFuture().completeExceptionally(
-                                new TimeoutException(
-                                        String.format(
-                                                "Execution of payload %s took more than %d ms.", payload, timeoutMs)));
-                    }
-                },
-                timeoutMs,
-                TimeUnit.MILLISECONDS);
+        if (!execution.getResultFuture().isDone()) {
+            execution.getResultFuture().completeExceptionally(
+                    new TimeoutException(
+                            String.format(
+                                    "Response for payload %s took more than %d ms.", payload, timeoutMs)));
+        }
+        if (!execution.getChainExecutionFuture().isDone()) {
+            execution.getChainExecutionFuture().completeExceptionally(
+                    new TimeoutException(
+                            String.format(
+                                    "Execution of payload %s took more than %d ms.", payload, timeoutMs)));
+        }
+        /**
+         * Stop processors that are still running or waiting for activation
+         */
+        execution.getCancellation().run();
+    }
 
-        execution.getChainExecutionFuture().thenRunAsync(() -> {
+    /**
+     * Launch chain execution of already counted pending request
+     * and release pending request slot once: either on chain completion or on cancellation.
+     *
+     * @param onRelease invoked after pending request slot is released
+     */
+    private <PayloadType> Execution<PayloadType> launchExecution(ReactorGraphExecution<PayloadType> execution,
+                                                                 PayloadType payload,
+                                                                 Executor payloadExecutor,
+                                                                 PayloadStatCounters statistics,
+                                                                 AdmissionController.Permit permit,
+                                                                 long startTime,
+                                                                 Runnable onRelease) {
+        AtomicBoolean isReleased = new AtomicBoolean();
+        Runnable release = () -> {
+            if (!isReleased.compareAndSet(false, true)) {
+                return;
+            }
+            statistics.getRunningTotal().decrement();
+            if (permit != null) {
+                releasePermit(permit, execution.getResultFuture(), startTime);
+            }
             long count = pendingRequestCount.decrementAndGet();
             if (count == 0) {
                 synchronized (pendingRequestCount) {
@@ -427,15 +1579,43 @@ public class CompletableReactor implements AutoCloseable {
                 }
             }
 
-            schedule.cancel(false);
+            onRelease.run();
+
+            drainSubmitQueues();
+        };
+
+        /**
+         * Chain completes exceptionally on timeout, pending request should be released in that case too
+         */
+        execution.getChainExecutionFuture().handleAsync((result, thr) -> {
+            release.run();
+            return null;
+        }, payloadExecutor);
+
+        execution.getResultFuture().whenComplete((result, thr) -> {
+            if (thr instanceof CancellationException) {
+                /**
+                 * Result future cancelled by client or by parent graph. Stop processors of this graph.
+                 */
+                execution.getCancellation().run();
+                release.run();
+            }
         });
 
-        execution.getResultFuture().thenRunAsync(payloadCall::stop);
+        /**
+         * Launching chain execution
+         */
+        execution.getSubmitFuture().complete(payload);
 
         return Execution.<PayloadType>builder()
                         .chainExecutionFuture(execution.getChainExecutionFuture())
                         .resultFuture(execution.getResultFuture())
                         .debugProcessingVertexGraphState(execution.getDebugProcessingVertexGraphState())
+                        .flightRecordingId(execution.getFlightRecordingId())
+                        .cancellation(() -> {
+                            execution.getCancellation().run();
+                            release.run();
+                        })
                         .build();
     }
 
@@ -448,6 +1628,15 @@ public class CompletableReactor implements AutoCloseable {
     public void close() throws Exception {
         isClosed.set(true);
 
+        submitQueues.forEach((payloadType, queue) -> {
+            List<SubmitWaiter> waiters;
+            synchronized (queue) {
+                waiters = new ArrayList<>(queue.waiters);
+            }
+            waiters.forEach(waiter -> waiter.future.completeExceptionally(new IllegalStateException(String.format(
+                    "CompletableReactor is closed. Payload %s is discarded.", waiter.payload))));
+        });
+
         if (pendingRequestCount.get() > 0) {
             long deadline = System.currentTimeMillis() + closeTimeoutMs.get();
 
@@ -461,5 +1650,10 @@ public class CompletableReactor implements AutoCloseable {
                 }
             }
         }
+
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+        defaultTimeoutScheduler.close();
     }
 }
\ No newline at end of file
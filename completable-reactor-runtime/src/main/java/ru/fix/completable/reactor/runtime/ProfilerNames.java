@@ -8,4 +8,14 @@ public final class ProfilerNames {
     public static final String PAYLOAD = "pld.";
     public static final String PROCESSOR_HANDLE = "proc.hndl.";
     public static final String PROCESSOR_MERGE = "proc.mrg.";
+    public static final String PROCESSOR_BATCH = "proc.btch.";
+    public static final String PROCESSOR_COALESCED = "proc.coal.";
+    public static final String PROCESSOR_CACHE_HIT = "proc.cache.hit.";
+    public static final String PROCESSOR_CACHE_MISS = "proc.cache.miss.";
+    public static final String PROCESSOR_CACHE_EVICTION = "proc.cache.evct.";
+    public static final String PAYLOAD_REJECTED = "pld.rjct.";
+    public static final String PAYLOAD_BATCH = "pld.btch.";
+    public static final String PAYLOAD_WAIT = "pld.wait.";
+    public static final String ADMISSION_LIMIT = "adm.lmt.";
+    public static final String IMMUTABILITY_VIOLATION = "imm.viol.";
 }
@@ -0,0 +1,70 @@
+package ru.fix.completable.reactor.runtime.admission;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decides whether new execution of the graph is accepted.
+ * Each accepted execution holds {@link Permit} until its chain completes.
+ * Outcome of execution reported through permit allows controller to adapt its limit.
+ */
+public interface AdmissionController {
+
+    /**
+     * Admission of single execution
+     */
+    interface Permit {
+        /**
+         * Execution completed with result
+         *
+         * @param latencyNanos time between admission and completion of execution chain
+         */
+        void onSuccess(long latencyNanos);
+
+        /**
+         * Execution was dropped by timeout, sign of overload
+         */
+        void onDropped();
+
+        /**
+         * Execution failed or was cancelled for reason that does not tell anything about load
+         */
+        void onIgnore();
+    }
+
+    /**
+     * Fast non blocking admission
+     *
+     * @return permit or empty if execution should be rejected
+     */
+    Optional<Permit> tryAcquire();
+
+    /**
+     * Fast non blocking admission of several executions at once
+     *
+     * @param count number of executions
+     * @return permits of admitted executions, from none up to given count
+     */
+    default List<Permit> tryAcquire(int count) {
+        List<Permit> permits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Optional<Permit> permit = tryAcquire();
+            if (!permit.isPresent()) {
+                break;
+            }
+            permits.add(permit.get());
+        }
+        return permits;
+    }
+
+    /**
+     * @return current limit of concurrent executions
+     */
+    int getLimit();
+
+    /**
+     * @return number of executions that hold permit
+     */
+    int getInflight();
+}
@@ -0,0 +1,51 @@
+package ru.fix.completable.reactor.runtime.admission;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Additive increase, multiplicative decrease of concurrency limit.
+ * Limit grows by one after each execution completed in time while at least half of the limit was in use.
+ * Limit is multiplied by backoff ratio after execution was dropped or took longer than latency threshold.
+ */
+public class AimdAdmissionController extends ConcurrencyLimitAdmissionController {
+
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    /**
+     * Limit from 20 to 1000 with backoff ratio 0.9
+     *
+     * @param latencyThreshold execution that takes longer is considered as overload sign
+     */
+    public AimdAdmissionController(long latencyThreshold, TimeUnit unit) {
+        this(20, 1, 1000, 0.9, latencyThreshold, unit);
+    }
+
+    public AimdAdmissionController(int initialLimit,
+                                   int minLimit,
+                                   int maxLimit,
+                                   double backoffRatio,
+                                   long latencyThreshold,
+                                   TimeUnit unit) {
+        super(initialLimit, minLimit, maxLimit);
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException(String.format("Invalid backoff ratio %s", backoffRatio));
+        }
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = unit.toNanos(latencyThreshold);
+    }
+
+    @Override
+    protected int calculateLimit(int currentLimit, long latencyNanos, int admittedInflight, boolean dropped) {
+        if (dropped || latencyNanos > latencyThresholdNanos) {
+            return (int) (currentLimit * backoffRatio);
+        }
+        if (admittedInflight * 2 >= currentLimit) {
+            return currentLimit + 1;
+        }
+        /**
+         * Load is far below the limit, there is no evidence that larger limit is safe
+         */
+        return currentLimit;
+    }
+}
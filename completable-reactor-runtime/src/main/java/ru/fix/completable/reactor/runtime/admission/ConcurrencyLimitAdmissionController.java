@@ -0,0 +1,119 @@
+package ru.fix.completable.reactor.runtime.admission;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits execution while number of inflight executions is below the limit.
+ * Admission and release are lock free. Limit is recalculated by subclass on every completed execution.
+ */
+public abstract class ConcurrencyLimitAdmissionController implements AdmissionController {
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    protected final int minLimit;
+    protected final int maxLimit;
+
+    private volatile int limit;
+
+    protected ConcurrencyLimitAdmissionController(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid limits: initial %d, min %d, max %d", initialLimit, minLimit, maxLimit));
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    private final class LimitPermit implements Permit {
+        /**
+         * Number of inflight executions when this one was admitted
+         */
+        final int admittedInflight;
+
+        LimitPermit(int admittedInflight) {
+            this.admittedInflight = admittedInflight;
+        }
+
+        @Override
+        public void onSuccess(long latencyNanos) {
+            inflight.decrementAndGet();
+            updateLimit(latencyNanos, admittedInflight, false);
+        }
+
+        @Override
+        public void onDropped() {
+            inflight.decrementAndGet();
+            updateLimit(-1, admittedInflight, true);
+        }
+
+        @Override
+        public void onIgnore() {
+            inflight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Optional<Permit> tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return Optional.empty();
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return Optional.of(new LimitPermit(current + 1));
+            }
+        }
+    }
+
+    /**
+     * Admits as many executions as fit below the limit by single update of inflight counter
+     */
+    @Override
+    public List<Permit> tryAcquire(int count) {
+        while (true) {
+            int current = inflight.get();
+            int granted = Math.min(count, limit - current);
+            if (granted <= 0) {
+                return Collections.emptyList();
+            }
+            if (inflight.compareAndSet(current, current + granted)) {
+                List<Permit> permits = new ArrayList<>(granted);
+                for (int i = 1; i <= granted; i++) {
+                    permits.add(new LimitPermit(current + i));
+                }
+                return permits;
+            }
+        }
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void updateLimit(long latencyNanos, int admittedInflight, boolean dropped) {
+        int newLimit = calculateLimit(limit, latencyNanos, admittedInflight, dropped);
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * Invoked under lock for every execution that completed with result or was dropped.
+     *
+     * @param currentLimit     current limit
+     * @param latencyNanos     latency of execution, -1 if execution was dropped
+     * @param admittedInflight number of inflight executions when execution was admitted
+     * @param dropped          execution was dropped by timeout
+     * @return new limit, will be bounded by min and max limits
+     */
+    protected abstract int calculateLimit(int currentLimit, long latencyNanos, int admittedInflight, boolean dropped);
+}
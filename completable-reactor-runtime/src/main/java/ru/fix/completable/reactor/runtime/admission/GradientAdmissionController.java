@@ -0,0 +1,84 @@
+package ru.fix.completable.reactor.runtime.admission;
+
+/**
+ * Adjusts concurrency limit by gradient between long term and short term latency.
+ * While recent latency stays close to long term baseline, limit grows by square root of itself,
+ * which plays role of allowed queue. When recent latency grows, limit shrinks proportionally,
+ * but not more than twice per update.
+ */
+public class GradientAdmissionController extends ConcurrencyLimitAdmissionController {
+
+    private static final double SHORT_WINDOW_FACTOR = 2.0 / (10 + 1);
+    private static final double LONG_WINDOW_FACTOR = 2.0 / (600 + 1);
+
+    /**
+     * Recent latency is allowed to exceed baseline by this ratio before limit starts to shrink
+     */
+    private final double tolerance;
+
+    private final double smoothing;
+
+    /**
+     * Fractional limit, so small smoothed changes accumulate
+     */
+    private double estimatedLimit;
+
+    private double shortLatency = -1;
+    private double longLatency = -1;
+
+    /**
+     * Limit from 20 to 1000 with tolerance 1.5 and smoothing 0.2
+     */
+    public GradientAdmissionController() {
+        this(20, 1, 1000, 1.5, 0.2);
+    }
+
+    public GradientAdmissionController(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        super(initialLimit, minLimit, maxLimit);
+        if (tolerance < 1) {
+            throw new IllegalArgumentException(String.format("Invalid tolerance %s", tolerance));
+        }
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException(String.format("Invalid smoothing %s", smoothing));
+        }
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.estimatedLimit = initialLimit;
+    }
+
+    @Override
+    protected int calculateLimit(int currentLimit, long latencyNanos, int admittedInflight, boolean dropped) {
+        if (dropped) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit / 2);
+            return (int) estimatedLimit;
+        }
+
+        if (shortLatency < 0) {
+            shortLatency = latencyNanos;
+            longLatency = latencyNanos;
+        } else {
+            shortLatency += (latencyNanos - shortLatency) * SHORT_WINDOW_FACTOR;
+            longLatency += (latencyNanos - longLatency) * LONG_WINDOW_FACTOR;
+        }
+
+        /**
+         * Baseline drifted too high after long overload, let it recover faster
+         */
+        if (longLatency > shortLatency * 2) {
+            longLatency *= 0.95;
+        }
+
+        if (admittedInflight * 2 < estimatedLimit) {
+            /**
+             * Load is far below the limit, latency does not tell anything about limit
+             */
+            return (int) estimatedLimit;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / Math.max(1.0, shortLatency)));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        return (int) estimatedLimit;
+    }
+}
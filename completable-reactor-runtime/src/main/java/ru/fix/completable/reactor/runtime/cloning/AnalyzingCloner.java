@@ -0,0 +1,37 @@
+package ru.fix.completable.reactor.runtime.cloning;
+
+import com.rits.cloning.Cloner;
+import ru.fix.completable.reactor.runtime.immutability.ClassImmutabilityAnalyzer;
+
+import java.util.Map;
+
+/**
+ * Reflective cloner that does not copy classes considered immutable by {@link ClassImmutabilityAnalyzer}.
+ */
+class AnalyzingCloner extends Cloner {
+
+    private final ClassImmutabilityAnalyzer analyzer;
+
+    AnalyzingCloner(ClassImmutabilityAnalyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    @Override
+    protected boolean considerImmutable(Class<?> clz) {
+        return analyzer.isImmutable(clz);
+    }
+
+    /**
+     * Deep copy that shares map of already copied objects with caller
+     */
+    Object deepClone(Object object, Map<Object, Object> copies) throws IllegalAccessException {
+        return cloneInternal(object, copies);
+    }
+
+    /**
+     * Instance created without constructor invocation
+     */
+    Object instantiate(Class<?> type) {
+        return newInstance(type);
+    }
+}
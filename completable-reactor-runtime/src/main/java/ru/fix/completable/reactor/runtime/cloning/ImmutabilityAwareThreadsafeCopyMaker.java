@@ -0,0 +1,35 @@
+package ru.fix.completable.reactor.runtime.cloning;
+
+import ru.fix.completable.reactor.runtime.immutability.ClassImmutabilityAnalyzer;
+
+/**
+ * Makes deep copy of mutable parts of object graph and shares immutable parts by reference.
+ * Immutable object is returned as is, without any allocation.
+ * @see ClassImmutabilityAnalyzer
+ */
+public class ImmutabilityAwareThreadsafeCopyMaker implements ThreadsafeCopyMaker {
+
+    final ClassImmutabilityAnalyzer analyzer;
+
+    final AnalyzingCloner cloner;
+
+    public ImmutabilityAwareThreadsafeCopyMaker() {
+        this(new ClassImmutabilityAnalyzer());
+    }
+
+    public ImmutabilityAwareThreadsafeCopyMaker(ClassImmutabilityAnalyzer analyzer) {
+        this.analyzer = analyzer;
+        this.cloner = new AnalyzingCloner(analyzer);
+    }
+
+    @Override
+    public <T> T makeThreadsafeCopy(T object) {
+        if (object == null || analyzer.isImmutable(object.getClass())) {
+            return object;
+        }
+        /**
+         * cloner is thread-safe and asks analyzer about every class of the graph
+         */
+        return cloner.deepClone(object);
+    }
+}
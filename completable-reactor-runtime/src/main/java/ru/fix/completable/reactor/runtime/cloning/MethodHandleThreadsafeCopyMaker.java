@@ -0,0 +1,273 @@
+package ru.fix.completable.reactor.runtime.cloning;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.fix.completable.reactor.runtime.immutability.ClassImmutabilityAnalyzer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes deep copy of object graph with copier generated for each class at first use.
+ * <p>
+ * Generated copier instantiates class without constructor invocation, copies primitive fields
+ * and fields of immutable types by single composed {@link MethodHandle} and copies other fields recursively.
+ * Immutable objects are shared by reference, see {@link ClassImmutabilityAnalyzer}.
+ * <p>
+ * Copier tracks already copied objects only when type graph of the class can contain cycles or shared references:
+ * when class has field of non final type, of array or JDK container type, of type that references the class back
+ * or when the same mutable type is reachable through several fields.
+ * Arrays, JDK classes and classes which fields are not accessible through method handles
+ * are copied by reflective cloner.
+ */
+@Slf4j
+public class MethodHandleThreadsafeCopyMaker implements ThreadsafeCopyMaker {
+
+    private static final MethodType COPY_FIELDS_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Copied payloads usually consist of several objects, default identity map size is too large for them
+     */
+    private static final int COPIES_EXPECTED_SIZE = 8;
+
+    private abstract static class ClassCopier {
+        /**
+         * Whether copied graph can reference the same object twice
+         */
+        final boolean tracksCopies;
+
+        ClassCopier(boolean tracksCopies) {
+            this.tracksCopies = tracksCopies;
+        }
+
+        /**
+         * @param copies already copied objects, null if type graph does not contain cycles
+         */
+        abstract Object copy(Object origin, Map<Object, Object> copies) throws Throwable;
+    }
+
+    private class ReflectiveCopier extends ClassCopier {
+        ReflectiveCopier() {
+            super(true);
+        }
+
+        @Override
+        Object copy(Object origin, Map<Object, Object> copies) throws Throwable {
+            return cloner.deepClone(origin, copies);
+        }
+    }
+
+    private class GeneratedCopier extends ClassCopier {
+        final Class<?> type;
+
+        /**
+         * {@code (Object copy, Object origin)void} copies all primitive and immutable fields, null if there is none
+         */
+        final MethodHandle copySharedFields;
+
+        /**
+         * {@code (Object origin)Object} getters and {@code (Object copy, Object value)void} setters
+         * of fields that are copied recursively
+         */
+        final MethodHandle[] getters;
+        final MethodHandle[] setters;
+
+        GeneratedCopier(Class<?> type,
+                        boolean tracksCopies,
+                        MethodHandle copySharedFields,
+                        MethodHandle[] getters,
+                        MethodHandle[] setters) {
+            super(tracksCopies);
+            this.type = type;
+            this.copySharedFields = copySharedFields;
+            this.getters = getters;
+            this.setters = setters;
+        }
+
+        @Override
+        Object copy(Object origin, Map<Object, Object> copies) throws Throwable {
+            Object copy = cloner.instantiate(type);
+            if (copies != null) {
+                copies.put(origin, copy);
+            }
+            if (copySharedFields != null) {
+                copySharedFields.invokeExact(copy, origin);
+            }
+            for (int i = 0; i < getters.length; i++) {
+                Object value = (Object) getters[i].invokeExact(origin);
+                if (value != null) {
+                    setters[i].invokeExact(copy, copyValue(value, copies));
+                }
+            }
+            return copy;
+        }
+    }
+
+    final ClassImmutabilityAnalyzer analyzer;
+
+    final AnalyzingCloner cloner;
+
+    private final ConcurrentHashMap<Class<?>, ClassCopier> copiers = new ConcurrentHashMap<>();
+
+    /**
+     * Whether type graph of the class can contain cycles or shared references, see {@link #mayContainCycles(Class)}
+     */
+    private final ConcurrentHashMap<Class<?>, Boolean> cyclicTypes = new ConcurrentHashMap<>();
+
+    public MethodHandleThreadsafeCopyMaker() {
+        this(new ClassImmutabilityAnalyzer());
+    }
+
+    public MethodHandleThreadsafeCopyMaker(ClassImmutabilityAnalyzer analyzer) {
+        this.analyzer = analyzer;
+        this.cloner = new AnalyzingCloner(analyzer);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T makeThreadsafeCopy(T object) {
+        if (object == null || analyzer.isImmutable(object.getClass())) {
+            return object;
+        }
+        try {
+            return (T) copyValue(object, null);
+        } catch (RuntimeException | Error exc) {
+            throw exc;
+        } catch (Throwable thr) {
+            throw new IllegalStateException(String.format(
+                    "Failed to make copy of %s", object.getClass().getName()), thr);
+        }
+    }
+
+    private Object copyValue(Object value, Map<Object, Object> copies) throws Throwable {
+        Class<?> type = value.getClass();
+        if (analyzer.isImmutable(type)) {
+            return value;
+        }
+        if (copies != null) {
+            Object copy = copies.get(value);
+            if (copy != null) {
+                return copy;
+            }
+        }
+        ClassCopier copier = copiers.get(type);
+        if (copier == null) {
+            copier = copiers.computeIfAbsent(type, this::createCopier);
+        }
+        if (copies == null && copier.tracksCopies) {
+            /**
+             * Objects copied above this one can not be referenced from its graph
+             */
+            copies = new IdentityHashMap<>(COPIES_EXPECTED_SIZE);
+        }
+        return copier.copy(value, copies);
+    }
+
+    private ClassCopier createCopier(Class<?> type) {
+        if (!isGeneratable(type)) {
+            return new ReflectiveCopier();
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle copySharedFields = null;
+            List<MethodHandle> getters = new ArrayList<>();
+            List<MethodHandle> setters = new ArrayList<>();
+
+            for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    MethodHandle getter = lookup.unreflectGetter(field);
+                    MethodHandle setter = lookup.unreflectSetter(field);
+
+                    if (analyzer.isImmutableFieldType(field.getType())) {
+                        /**
+                         * setter(copy, getter(origin)) without boxing of primitive values
+                         */
+                        MethodHandle copyField = MethodHandles.filterArguments(setter, 1, getter)
+                                .asType(COPY_FIELDS_TYPE);
+                        copySharedFields = copySharedFields == null ?
+                                copyField :
+                                MethodHandles.foldArguments(copySharedFields, copyField);
+                    } else {
+                        getters.add(getter.asType(GETTER_TYPE));
+                        setters.add(setter.asType(COPY_FIELDS_TYPE));
+                    }
+                }
+            }
+            return new GeneratedCopier(
+                    type,
+                    mayContainCycles(type),
+                    copySharedFields,
+                    getters.toArray(new MethodHandle[0]),
+                    setters.toArray(new MethodHandle[0]));
+
+        } catch (Exception exc) {
+            log.warn("Failed to generate copier for {}. Reflective cloner will be used instead.", type, exc);
+            return new ReflectiveCopier();
+        }
+    }
+
+    private static boolean isGeneratable(Class<?> type) {
+        return !type.isArray()
+                && !type.isSynthetic()
+                && !type.getName().startsWith("java.")
+                && !type.getName().startsWith("javax.")
+                && !type.getName().startsWith("sun.");
+    }
+
+    /**
+     * Conservative check whether object graph of given class can reference the same object twice.
+     */
+    private boolean mayContainCycles(Class<?> type) {
+        Boolean cached = cyclicTypes.get(type);
+        if (cached != null) {
+            return cached;
+        }
+        boolean result = reachesTypeTwice(type, new HashSet<>());
+        cyclicTypes.put(type, result);
+        return result;
+    }
+
+    /**
+     * Object of mutable type reachable through two different paths, e.g. through two fields of final types,
+     * can be shared between them. Type reachable from itself can form a cycle.
+     *
+     * @param reached mutable classes already reached from analyzed class
+     */
+    private boolean reachesTypeTwice(Class<?> type, Set<Class<?>> reached) {
+        if (analyzer.isImmutable(type)) {
+            return false;
+        }
+        if (!isGeneratable(type) || !reached.add(type) || Boolean.TRUE.equals(cyclicTypes.get(type))) {
+            return true;
+        }
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                Class<?> fieldType = field.getType();
+                if (Modifier.isStatic(field.getModifiers()) || analyzer.isImmutableFieldType(fieldType)) {
+                    continue;
+                }
+                if (!Modifier.isFinal(fieldType.getModifiers()) || reachesTypeTwice(fieldType, reached)) {
+                    /**
+                     * Field of non final type can hold subclass instance that references analyzed class back
+                     */
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
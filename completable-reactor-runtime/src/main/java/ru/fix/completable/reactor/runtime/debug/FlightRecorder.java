@@ -0,0 +1,259 @@
+package ru.fix.completable.reactor.runtime.debug;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock free ring buffer of compact execution events.
+ * <p>
+ * Events are stored in preallocated arrays, one array per event field, so recording does not allocate.
+ * When buffer is full the oldest events are overwritten.
+ * Each slot is guarded by its sequence number: writer clears it before writing event fields and publishes it after.
+ * Reader skips slots that are overwritten while being read.
+ * Buffer should be large enough to not wrap around during recording of single event.
+ * <p>
+ * Only sampled executions are recorded, see {@link #nextExecutionId()}.
+ */
+public class FlightRecorder {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * Vertex id of events that belong to execution as a whole
+     */
+    public static final int NO_VERTEX = -1;
+
+    public enum EventType {
+        EXECUTION_STARTED,
+        /**
+         * All incoming handle transitions arrived, handler is submitted to executor or invoked inline
+         */
+        HANDLER_DISPATCHED,
+        HANDLER_STARTED,
+        HANDLER_COMPLETED,
+        /**
+         * Handler is not invoked: incoming transitions are dead or terminal or execution is stopped
+         */
+        HANDLER_SKIPPED,
+        HANDLER_TIMEOUT,
+        MERGE_STARTED,
+        MERGE_COMPLETED,
+        /**
+         * Merger is not invoked: handler failed or skipped, incoming merge transitions are dead or terminal
+         */
+        MERGE_SKIPPED,
+        EXECUTION_COMPLETED,
+        EXECUTION_CANCELLED,
+        EXECUTION_TIMEOUT
+    }
+
+    @Data
+    public static class Event {
+        final long sequence;
+        final long executionId;
+        final Class<?> payloadClass;
+        final int vertexId;
+        /**
+         * Debug name of processor, subgraph or merge point, null for execution events
+         */
+        final String vertexName;
+        final EventType type;
+        final long timestampNanos;
+        /**
+         * Status returned by merger, null for other events
+         */
+        final Enum<?> mergeStatus;
+        final long threadId;
+        final String threadName;
+        /**
+         * Class of handler or merger failure, null if there is no failure
+         */
+        final Class<?> errorClass;
+
+        @Override
+        public String toString() {
+            return String.format("#%d %dns execution=%d %s %s%s%s thread=%s",
+                    sequence,
+                    timestampNanos,
+                    executionId,
+                    type,
+                    vertexName != null ? vertexName : payloadClass.getSimpleName(),
+                    mergeStatus != null ? " status=" + mergeStatus : "",
+                    errorClass != null ? " error=" + errorClass.getName() : "",
+                    threadName);
+        }
+    }
+
+    private final int mask;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong executionIds = new AtomicLong();
+
+    /**
+     * Sequence number of event stored in the slot, -1 while slot is being written
+     */
+    private final AtomicLongArray published;
+
+    private final AtomicLongArray executionIdSlots;
+    private final AtomicLongArray timestamps;
+    private final AtomicIntegerArray vertexIds;
+    private final AtomicReferenceArray<Class<?>> payloadClasses;
+    private final AtomicReferenceArray<String> vertexNames;
+    private final AtomicReferenceArray<EventType> types;
+    private final AtomicReferenceArray<Enum<?>> mergeStatuses;
+    private final AtomicReferenceArray<Thread> threads;
+    private final AtomicReferenceArray<Class<?>> errorClasses;
+
+    public FlightRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity max number of stored events, rounded up to power of two
+     */
+    public FlightRecorder(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException(String.format("Invalid flight recorder capacity %d", capacity));
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.lazySet(i, -1);
+        }
+        this.executionIdSlots = new AtomicLongArray(size);
+        this.timestamps = new AtomicLongArray(size);
+        this.vertexIds = new AtomicIntegerArray(size);
+        this.payloadClasses = new AtomicReferenceArray<>(size);
+        this.vertexNames = new AtomicReferenceArray<>(size);
+        this.types = new AtomicReferenceArray<>(size);
+        this.mergeStatuses = new AtomicReferenceArray<>(size);
+        this.threads = new AtomicReferenceArray<>(size);
+        this.errorClasses = new AtomicReferenceArray<>(size);
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return unique positive id of recorded execution
+     */
+    public long nextExecutionId() {
+        return executionIds.incrementAndGet();
+    }
+
+    public void record(long executionId,
+                       Class<?> payloadClass,
+                       int vertexId,
+                       String vertexName,
+                       EventType type,
+                       Enum<?> mergeStatus,
+                       Class<?> errorClass) {
+
+        long seq = sequence.getAndIncrement();
+        int slot = (int) (seq & mask);
+
+        published.set(slot, -1);
+        executionIdSlots.lazySet(slot, executionId);
+        timestamps.lazySet(slot, System.nanoTime());
+        vertexIds.lazySet(slot, vertexId);
+        payloadClasses.lazySet(slot, payloadClass);
+        vertexNames.lazySet(slot, vertexName);
+        types.lazySet(slot, type);
+        mergeStatuses.lazySet(slot, mergeStatus);
+        threads.lazySet(slot, Thread.currentThread());
+        errorClasses.lazySet(slot, errorClass);
+        published.lazySet(slot, seq);
+    }
+
+    /**
+     * @return stored events in order of recording
+     */
+    public List<Event> dump() {
+        return dump(0);
+    }
+
+    /**
+     * @param executionId id of execution which events should be returned, 0 for all events
+     * @return stored events of given execution in order of recording
+     */
+    public List<Event> dump(long executionId) {
+        long last = sequence.get();
+        long first = Math.max(0, last - getCapacity());
+
+        List<Event> events = new ArrayList<>();
+        for (long seq = first; seq < last; seq++) {
+            int slot = (int) (seq & mask);
+            if (published.get(slot) != seq) {
+                continue;
+            }
+            long eventExecutionId = executionIdSlots.get(slot);
+            Class<?> payloadClass = payloadClasses.get(slot);
+            int vertexId = vertexIds.get(slot);
+            String vertexName = vertexNames.get(slot);
+            EventType type = types.get(slot);
+            long timestamp = timestamps.get(slot);
+            Enum<?> mergeStatus = mergeStatuses.get(slot);
+            Thread thread = threads.get(slot);
+            Class<?> errorClass = errorClasses.get(slot);
+
+            if (published.get(slot) != seq) {
+                /**
+                 * Slot was overwritten while being read
+                 */
+                continue;
+            }
+            if (executionId != 0 && eventExecutionId != executionId) {
+                continue;
+            }
+            events.add(new Event(
+                    seq,
+                    eventExecutionId,
+                    payloadClass,
+                    vertexId,
+                    vertexName,
+                    type,
+                    timestamp,
+                    mergeStatus,
+                    thread.getId(),
+                    thread.getName(),
+                    errorClass));
+        }
+        return events;
+    }
+
+    /**
+     * Human readable representation of events with time relative to the first one
+     */
+    public static String format(List<Event> events) {
+        if (events.isEmpty()) {
+            return "";
+        }
+        long start = events.get(0).getTimestampNanos();
+        StringBuilder result = new StringBuilder();
+        for (Event event : events) {
+            result.append(String.format("+%dus execution=%d %s %s",
+                    TimeUnit.NANOSECONDS.toMicros(event.getTimestampNanos() - start),
+                    event.getExecutionId(),
+                    event.getType(),
+                    event.getVertexName() != null ? event.getVertexName() : event.getPayloadClass().getSimpleName()));
+            if (event.getMergeStatus() != null) {
+                result.append(" status=").append(event.getMergeStatus());
+            }
+            if (event.getErrorClass() != null) {
+                result.append(" error=").append(event.getErrorClass().getName());
+            }
+            result.append(" thread=").append(event.getThreadName()).append('\n');
+        }
+        return result.toString();
+    }
+}
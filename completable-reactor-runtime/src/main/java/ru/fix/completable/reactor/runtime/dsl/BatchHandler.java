@@ -0,0 +1,14 @@
+package ru.fix.completable.reactor.runtime.dsl;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handler that processes arguments of many processor invocations at once.
+ * Result list should have same size and order as argument list.
+ */
+@FunctionalInterface
+public interface BatchHandler<Arg1, ProcessorResult> extends Serializable {
+    CompletableFuture<List<ProcessorResult>> handle(List<Arg1> args);
+}
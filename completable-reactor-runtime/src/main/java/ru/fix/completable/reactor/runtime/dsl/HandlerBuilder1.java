@@ -1,5 +1,6 @@
 package ru.fix.completable.reactor.runtime.dsl;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -29,4 +30,19 @@ public interface HandlerBuilder1<PayloadType, Arg1> {
             String[] docs,
             Handler1Arg<Arg1, ProcessorResult> handler
     );
+
+    /**
+     * Handler that is invoked once for arguments of many concurrent executions of the graph.
+     * Arguments are collected until batch reaches max size or max linger time elapses since first argument
+     * of the batch, then results of the batch handler are dispatched to mergers of each execution.
+     *
+     * @param maxBatchSize max number of arguments in single batch handler invocation
+     * @param maxLinger    max time first argument of the batch waits for other arguments
+     */
+    <ProcessorResult> ProcessorMergerBuilder<PayloadType, ProcessorResult> withBatchHandler(
+            BatchHandler<Arg1, ProcessorResult> handler,
+            int maxBatchSize,
+            long maxLinger,
+            TimeUnit unit
+    );
 }
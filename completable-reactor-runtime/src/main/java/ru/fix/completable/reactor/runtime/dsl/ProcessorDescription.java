@@ -1,10 +1,90 @@
 package ru.fix.completable.reactor.runtime.dsl;
 
+import ru.fix.completable.reactor.runtime.immutability.ImmutabilityCheckSampling;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
 /**
  * Describe processor handing and merging methods
  *
  * @author Kamil Asfandiyarov
  */
 public interface ProcessorDescription<PayloadType> {
+
+    /**
+     * Marks handler of the processor as blocking.
+     * Blocking handler is always invoked by blocking handler executor of the reactor
+     * and never inline on the thread that completed previous handler.
+     * Such handler can perform blocking I/O directly and return completed future.
+     */
+    ProcessorDescription<PayloadType> blockingHandler();
+
+    /**
+     * Limits duration of handler invocation.
+     * If handler future does not complete in time, processor is marked as dead:
+     * its merger and all processors that depend on it are skipped.
+     * Execution continues by other paths of the graph. If none of them reaches terminal state,
+     * execution result completes with {@link java.util.concurrent.TimeoutException}.
+     * Late result of handler is ignored. Handler future is cancelled only if handler is marked
+     * by {@link #cancellableHandler()}.
+     */
+    ProcessorDescription<PayloadType> withTimeout(long timeout, TimeUnit unit);
+
+    /**
+     * Marks handler of the processor as returning new future on each invocation.
+     * When processor is detached by its timeout or by cancellation of execution, handler future is cancelled.
+     * Handlers that return shared futures, e.g. memoized or cached ones, should not be marked:
+     * cancellation by one execution would fail the future for all other executions.
+     */
+    ProcessorDescription<PayloadType> cancellableHandler();
+
+    /**
+     * Concurrent handler invocations with equal arguments share single handler call and its result.
+     * Result instance is shared between executions, so it should not be modified by mergers.
+     */
+    ProcessorDescription<PayloadType> coalesceCalls();
+
+    /**
+     * Concurrent handler invocations with equal arguments share single handler call.
+     * Each execution receives its own thread safe copy of the result, so mergers can modify it.
+     */
+    ProcessorDescription<PayloadType> coalesceCallsWithResultCopy();
+
+    /**
+     * Cache successful handler results by handler arguments.
+     * Cache hit skips handler invocation and continues execution on current thread.
+     * Cached result instance is shared between executions, so it should not be modified by mergers.
+     *
+     * @param maxEntries max number of cached results, the oldest results are evicted first
+     * @param ttl        time since handler invocation during which result is used
+     */
+    ProcessorDescription<PayloadType> withCache(int maxEntries, long ttl, TimeUnit unit);
+
+    /**
+     * Cache successful handler results by key.
+     *
+     * @param keyExtractor builds cache key from handler arguments
+     * @param maxEntries   max number of cached results, the oldest results are evicted first
+     * @param ttl          time since handler invocation during which result is used
+     * @param refreshAhead hit on result that expires within this interval starts background handler invocation
+     *                     that replaces cached result, zero to disable
+     * @see #withCache(int, long, TimeUnit)
+     */
+    ProcessorDescription<PayloadType> withCache(Function<List<Object>, Object> keyExtractor,
+                                                int maxEntries,
+                                                long ttl,
+                                                long refreshAhead,
+                                                TimeUnit unit);
+
+    /**
+     * Check handler invocations of this processor for payload modification with own sampling,
+     * independently of sampling of payload class.
+     *
+     * @see ru.fix.completable.reactor.runtime.CompletableReactor#setImmutabilityControlLevel
+     */
+    ProcessorDescription<PayloadType> withImmutabilityCheckSampling(ImmutabilityCheckSampling sampling);
+
     Processor<PayloadType> buildProcessor();
 }
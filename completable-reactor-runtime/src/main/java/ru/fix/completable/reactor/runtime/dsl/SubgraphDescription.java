@@ -1,10 +1,23 @@
 package ru.fix.completable.reactor.runtime.dsl;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Describe processor handing and merging methods
  *
  * @author Kamil Asfandiyarov
  */
 public interface SubgraphDescription<PayloadType> {
+
+    /**
+     * Limits duration of subgraph execution.
+     * Subgraph is submitted with remaining time of parent execution.
+     * If subgraph does not complete within this timeout, it is marked as dead in parent graph
+     * and subgraph execution is cancelled. Its merger and all processors that depend on it are skipped.
+     * Parent execution continues by other paths of the graph. If none of them reaches terminal state,
+     * execution result completes with {@link java.util.concurrent.TimeoutException}.
+     */
+    SubgraphDescription<PayloadType> withTimeout(long timeout, TimeUnit unit);
+
     Subgraph<PayloadType> buildSubgraph();
 }
@@ -0,0 +1,174 @@
+package ru.fix.completable.reactor.runtime.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.fix.commons.profiler.Profiler;
+import ru.fix.completable.reactor.runtime.ProfilerNames;
+import ru.fix.completable.reactor.runtime.dsl.BatchHandler;
+import ru.fix.completable.reactor.runtime.timeout.TimeoutScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects arguments of batch handler from concurrent executions of the graph
+ * and invokes batch handler once per batch.
+ * Batch is flushed when it reaches max size or when max linger time elapses since its first argument.
+ * Each execution gets its own future, so cancellation of one execution does not affect others in the batch.
+ */
+@Slf4j
+public class MicroBatcher {
+
+    private final BatchHandler batchHandler;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final String profilingName;
+    private final String batchName;
+
+    private static class Batch {
+        final List<Object> args;
+        final List<CompletableFuture<Object>> futures;
+        volatile TimeoutScheduler.Timeout linger;
+
+        Batch(int capacity) {
+            args = new ArrayList<>(capacity);
+            futures = new ArrayList<>(capacity);
+        }
+    }
+
+    /**
+     * Batch that collects arguments, guarded by this
+     */
+    private Batch current;
+
+    public MicroBatcher(BatchHandler batchHandler, int maxBatchSize, long maxLingerNanos, String profilingName) {
+        this.batchHandler = batchHandler;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = maxLingerNanos;
+        this.profilingName = profilingName;
+        this.batchName = ProfilerNames.PROCESSOR_BATCH + profilingName;
+    }
+
+    /**
+     * @param scheduler schedules flush of incomplete batch
+     * @param executor  invokes batch handler when linger time elapses
+     * @param profiler  counts batch sizes, null if profiling is disabled
+     * @return future of result for given argument
+     */
+    public CompletableFuture<?> submit(Object arg, TimeoutScheduler scheduler, Executor executor, Profiler profiler) {
+        if (scheduler == null && maxLingerNanos != 0) {
+            /**
+             * Checked before argument joins the batch: batch without linger timer would wait for max size
+             */
+            throw new IllegalStateException(String.format(
+                    "Timeout scheduler is not set. Can not linger batch of %s.", profilingName));
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        Batch full = null;
+        Batch created = null;
+
+        synchronized (this) {
+            if (current == null) {
+                current = new Batch(Math.min(maxBatchSize, 1024));
+                created = current;
+            }
+            current.args.add(arg);
+            current.futures.add(future);
+            if (current.args.size() >= maxBatchSize || maxLingerNanos == 0) {
+                full = current;
+                current = null;
+            }
+        }
+
+        if (full != null) {
+            TimeoutScheduler.Timeout linger = full.linger;
+            if (linger != null) {
+                linger.cancel();
+            }
+            flush(full, profiler);
+
+        } else if (created != null) {
+            Batch batch = created;
+            batch.linger = scheduler.schedule(
+                    () -> {
+                        try {
+                            executor.execute(() -> flushExpired(batch, profiler));
+                        } catch (RejectedExecutionException exc) {
+                            flushExpired(batch, profiler);
+                        }
+                    },
+                    maxLingerNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+        return future;
+    }
+
+    private void flushExpired(Batch batch, Profiler profiler) {
+        synchronized (this) {
+            if (current != batch) {
+                /**
+                 * Batch reached max size and was already flushed
+                 */
+                return;
+            }
+            current = null;
+        }
+        flush(batch, profiler);
+    }
+
+    private void flush(Batch batch, Profiler profiler) {
+        /**
+         * Skip arguments of executions that were cancelled or timed out while batch was collected
+         */
+        List<Object> args = new ArrayList<>(batch.args.size());
+        List<CompletableFuture<Object>> futures = new ArrayList<>(batch.futures.size());
+        for (int i = 0; i < batch.args.size(); i++) {
+            if (!batch.futures.get(i).isDone()) {
+                args.add(batch.args.get(i));
+                futures.add(batch.futures.get(i));
+            }
+        }
+        if (args.isEmpty()) {
+            return;
+        }
+
+        if (profiler != null) {
+            profiler.profiledCall(batchName).call(args.size());
+        }
+
+        CompletableFuture<List<Object>> results;
+        try {
+            results = batchHandler.handle(args);
+        } catch (Exception exc) {
+            log.error("Batch handler of {} raised exception for {} arguments", profilingName, args.size(), exc);
+            futures.forEach(future -> future.completeExceptionally(exc));
+            return;
+        }
+        if (results == null) {
+            IllegalStateException exc = new IllegalStateException(String.format(
+                    "Batch handler of %s returned NULL. Instance of CompletableFuture expected.", profilingName));
+            futures.forEach(future -> future.completeExceptionally(exc));
+            return;
+        }
+
+        results.whenComplete((resultList, thr) -> {
+            if (thr != null) {
+                futures.forEach(future -> future.completeExceptionally(thr));
+            } else if (resultList == null || resultList.size() != futures.size()) {
+                IllegalStateException exc = new IllegalStateException(String.format(
+                        "Batch handler of %s returned %s results for %d arguments.",
+                        profilingName,
+                        resultList == null ? "NULL" : String.valueOf(resultList.size()),
+                        futures.size()));
+                futures.forEach(future -> future.completeExceptionally(exc));
+            } else {
+                for (int i = 0; i < futures.size(); i++) {
+                    futures.get(i).complete(resultList.get(i));
+                }
+            }
+        });
+    }
+}
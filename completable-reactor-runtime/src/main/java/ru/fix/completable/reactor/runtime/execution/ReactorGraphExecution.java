@@ -32,7 +32,22 @@ public class ReactorGraphExecution<PayloadType > {
 
     /**
      * Debug purpose field that allows to check internal execution graph state
+     *
+     * @deprecated use {@link ru.fix.completable.reactor.runtime.debug.FlightRecorder}
      */
+    @Deprecated
     private final Collection<ru.fix.completable.reactor.runtime.execution.ReactorGraphExecutionBuilder.ProcessingVertex>
             debugProcessingVertexGraphState;
+
+    /**
+     * Stops execution when deadline is reached or execution is cancelled.
+     * Detaches running handlers, cancels their futures and skips all handlers that are not invoked yet.
+     */
+    final Runnable cancellation;
+
+    /**
+     * Id of execution events in {@link ru.fix.completable.reactor.runtime.debug.FlightRecorder},
+     * 0 if execution is not recorded
+     */
+    final long flightRecordingId;
 }
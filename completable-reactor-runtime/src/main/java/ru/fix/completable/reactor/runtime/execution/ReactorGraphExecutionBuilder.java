@@ -1,35 +1,67 @@
 package ru.fix.completable.reactor.runtime.execution;
 
-import lombok.Data;
-import lombok.experimental.Accessors;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import lombok.val;
 import ru.fix.commons.profiler.ProfiledCall;
 import ru.fix.commons.profiler.Profiler;
-import ru.fix.completable.reactor.api.ReactorGraphModel;
 import ru.fix.completable.reactor.runtime.ProfilerNames;
 import ru.fix.completable.reactor.runtime.ReactorGraph;
 import ru.fix.completable.reactor.runtime.cloning.ThreadsafeCopyMaker;
 import ru.fix.completable.reactor.runtime.debug.DebugSerializer;
+import ru.fix.completable.reactor.runtime.debug.FlightRecorder;
+import ru.fix.completable.reactor.runtime.immutability.ImmutabilityCheckSampling;
 import ru.fix.completable.reactor.runtime.immutability.ImmutabilityChecker;
 import ru.fix.completable.reactor.runtime.immutability.ImmutabilityControlLevel;
 import ru.fix.completable.reactor.runtime.internal.CRProcessingItem;
 import ru.fix.completable.reactor.runtime.internal.CRReactorGraph;
 import ru.fix.completable.reactor.runtime.internal.dsl.CRProcessorDescription;
+import ru.fix.completable.reactor.runtime.jfr.ExecutionEvents;
+import ru.fix.completable.reactor.runtime.metrics.CriticalPathStatistics;
+import ru.fix.completable.reactor.runtime.metrics.LatencyPhase;
+import ru.fix.completable.reactor.runtime.timeout.TimeoutScheduler;
+import ru.fix.completable.reactor.runtime.tracing.ExecutionTrace;
+import ru.fix.completable.reactor.runtime.tracing.ExecutionTracer;
+import ru.fix.completable.reactor.runtime.tracing.Span;
+import ru.fix.completable.reactor.runtime.tracing.SpanKind;
+import ru.fix.completable.reactor.runtime.tracing.TraceContext;
 import ru.fix.completable.reactor.runtime.tracing.Tracer;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-
+/**
+ * Builds and runs executions of {@link ReactorGraphExecutionPlan}.
+ * <p>
+ * Each vertex of the plan has two join points: handler and merge point.
+ * Each join point has atomic counter of pending incoming transitions and slots where incoming transitions
+ * store their state. Transition that decrements counter to zero activates join point directly,
+ * without intermediate futures.
+ * <p>
+ * Each execution has deadline. Handlers that are activated after deadline or after cancellation
+ * are skipped and marked as dead.
+ * Running handlers are detached from graph when execution is stopped or when their own timeout expires:
+ * handler future is cancelled, graph continues as if handler was dead and late handler result is ignored.
+ */
 @Slf4j
 public class ReactorGraphExecutionBuilder {
 
     private final Profiler profiler;
     private final ImmutabilityChecker immutabilityChecker;
-    private final ThreadsafeCopyMaker threadsafeCopyMaker;
+    private volatile ThreadsafeCopyMaker threadsafeCopyMaker;
     private final DebugSerializer debugSerializer;
     private final Tracer tracer;
 
@@ -37,101 +69,360 @@ public class ReactorGraphExecutionBuilder {
 
     volatile ImmutabilityControlLevel immutabilityControlLevel = ImmutabilityControlLevel.NO_CONTROL;
 
+    /**
+     * Selects executions which handler invocations are checked by {@link ImmutabilityChecker}.
+     * Explicit sampling of payload class overrides default one.
+     */
+    volatile ImmutabilityCheckSampling immutabilityCheckSampling = ImmutabilityCheckSampling.always();
+    final ConcurrentHashMap<Class<?>, ImmutabilityCheckSampling> payloadImmutabilityCheckSamplings =
+            new ConcurrentHashMap<>();
+    final ConcurrentHashMap<Class<?>, ImmutabilityCheckSampling.Sampler> payloadImmutabilityCheckSamplers =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Max number of nested handler invocations on single thread in {@link TransitionMode#SYNC} mode
+     */
+    volatile int maxInlineDepth = 32;
+
+    /**
+     * Whether executions record handle and merge phase latencies of vertices, see {@link LatencyPhase}
+     */
+    volatile boolean latencyHistogramsEnabled = false;
+
+    /**
+     * Whether executions compute critical path when execution result completes, see {@link CriticalPathStatistics}
+     */
+    volatile boolean criticalPathAnalysisEnabled = false;
+
+    /**
+     * Records events of sampled executions, null if flight recording is disabled
+     */
+    volatile FlightRecorder flightRecorder;
+
+    /**
+     * Share of recorded executions by payload class, from 0 to 1
+     */
+    final ConcurrentHashMap<Class<?>, Double> flightRecordingRates = new ConcurrentHashMap<>();
+
+    /**
+     * Whether events of recorded execution are logged when execution deadline is reached
+     */
+    volatile boolean flightRecorderDumpOnTimeout = true;
+
+    /**
+     * Emits events of executions to JDK Flight Recorder
+     */
+    volatile ExecutionEvents executionEvents = ExecutionEvents.jfrIfAvailable();
+
+    /**
+     * Whether handle and merge phases of processors are reported to {@link Profiler}
+     */
+    volatile boolean profilingEnabled = true;
+
+    /**
+     * Traces sampled executions as trees of spans, null if execution tracing is disabled
+     */
+    volatile ExecutionTracer executionTracer;
+
+    /**
+     * Phase timestamps of vertex within {@link ExecutionState#timestamps}
+     */
+    static final int HANDLE_READY = 0;
+    static final int HANDLE_COMPLETED = 1;
+    static final int MERGE_READY = 2;
+    static final int MERGE_COMPLETED = 3;
+    static final int TIMESTAMPS_PER_VERTEX = 4;
+
+    /**
+     * Current number of nested inline handler invocations on this thread
+     */
+    private static final ThreadLocal<int[]> inlineDepth = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Schedules timeouts of handlers declared by {@code withTimeout}
+     */
+    volatile TimeoutScheduler timeoutScheduler;
 
     private final SubgraphRunner subgraphRunner;
 
     @FunctionalInterface
     public interface SubgraphRunner {
-        CompletableFuture<?> run(Object paylaod);
+        /**
+         * @param paylaod   payload of subgraph
+         * @param timeoutMs remaining time of parent execution or timeout of subgraph, whatever is smaller
+         * @param parentTrace context of subgraph handler span in parent execution,
+         *                    {@link TraceContext#NOT_SAMPLED} if parent execution is not traced
+         */
+        CompletableFuture<?> run(Object paylaod, long timeoutMs, TraceContext parentTrace);
     }
 
-
-    @Data
-    @Accessors(chain = true)
-    static class MergePayloadContext {
-        Object payload;
+    /**
+     * State of transition stored in incoming transition slot
+     */
+    enum TransitionState {
+        /**
+         * Transition carries payload
+         */
+        ACTIVE,
         /**
          * Transition marked as dead when merge status does not match transition condition
          */
-        boolean isDeadTransition = false;
+        DEAD,
         /**
          * Terminal graph state reached.
          * No further merging (or payload modification) is allowed.
-         * All transitions except copy-transition for detached processors is allowed.
          */
-        boolean isTerminal = false;
-        Enum<?> mergeResult;
+        TERMINAL
     }
 
-    private static final MergePayloadContext INVALID_MERGE_PAYLOAD_CONTEXT = new MergePayloadContext();
+    /**
+     * State of single execution of the plan.
+     * Holds pending transition counters and transition slots of all vertices in flat arrays.
+     */
+    static class ExecutionState<PayloadType> {
+
+        final ReactorGraphExecutionPlan<PayloadType> plan;
 
-    @Data
-    @Accessors(chain = true)
-    static class TransitionPayloadContext {
-        Object payload;
         /**
-         * Transition marked as dead when merge status does not match transition condition
+         * Executes handler invocations and asynchronous stages of this execution
          */
-        boolean isDeadTransition = false;
+        final Executor executor;
+
         /**
-         * Terminal graph state reached.
-         * No further merging (or payload modification) is allowed.
-         * All transitions except copy-transition for detached processors is allowed.
+         * Executes invocations of handlers marked as blocking
          */
-        boolean isTerminal;
-    }
+        final Executor blockingHandlerExecutor;
 
-    private static final TransitionPayloadContext INVALID_TRANSITION_PAYLOAD_CONTEXT = new TransitionPayloadContext();
+        final TransitionMode transitionMode;
 
-    @Data
-    @Accessors(chain = true)
-    static class HandlePayloadContext {
-        Object payload;
         /**
-         * Transition marked as dead when merge status does not match transition condition
+         * Will be completed with payload when terminal graph state would be reached.
          */
-        boolean isDeadTransition = false;
+        final CompletableFuture<PayloadType> resultFuture = new CompletableFuture<>();
+
         /**
-         * Terminal graph state reached.
-         * No further merging (or payload modification) is allowed.
-         * All transitions except copy-transition for detached processors is allowed.
+         * Completes when all handlers of the graph complete or was skipped.
          */
-        boolean isTerminal;
-        Object processorResult;
-    }
+        final CompletableFuture<Void> chainExecutionFuture = new CompletableFuture<>();
+
+        /**
+         * Pending incoming transitions: handler of vertex at {@code 2 * id}, merge point at {@code 2 * id + 1}
+         */
+        final AtomicIntegerArray pendingTransitions;
+
+        /**
+         * Indexed by {@link ReactorGraphExecutionPlan.Vertex#getHandleSlotOffset()} and
+         * {@link ReactorGraphExecutionPlan.Vertex#getMergeSlotOffset()}.
+         * Slot is written before counter decrement, so thread that activates join point sees all slots.
+         */
+        final TransitionState[] slots;
+
+        /**
+         * Handler results indexed by vertex id
+         */
+        final Object[] handlerResults;
+
+        /**
+         * Number of vertices which handlers are not complete yet
+         */
+        final AtomicInteger pendingHandlers;
+
+        /**
+         * Number of vertices which merge points are not complete yet
+         */
+        final AtomicInteger pendingMergePoints;
+
+        /**
+         * Timeout of the first handler that did not complete in time, null if there is none.
+         * Execution result fails with it if graph drains without reaching terminal state.
+         */
+        volatile TimeoutException handlerTimeout;
+
+        /**
+         * Futures of handlers that are invoked and not complete yet, indexed by vertex id.
+         * Whoever removes future from this array first - handler completion or timeout - completes the handler.
+         */
+        final AtomicReferenceArray<CompletableFuture<?>> runningHandlers;
+
+        /**
+         * {@link System#nanoTime()} when execution was built
+         */
+        final long startTime;
+
+        final long timeoutNanos;
+
+        /**
+         * Set when execution deadline is reached or execution is cancelled
+         */
+        volatile boolean stopped;
+
+        /**
+         * Whether handlers of processors without own sampling are checked for payload modification
+         */
+        final boolean immutabilityChecked;
+
+        /**
+         * Number of started and completed merges, null if immutability control is disabled.
+         * Payload modification is not checked for handler invocation which overlaps with merge.
+         */
+        final AtomicInteger startedMerges;
+        final AtomicInteger completedMerges;
+
+        /**
+         * Phase timestamps of vertices, null if neither latency histograms nor critical path analysis are enabled.
+         * Vertex occupies {@link #TIMESTAMPS_PER_VERTEX} cells starting from {@code id * TIMESTAMPS_PER_VERTEX}:
+         * {@link #HANDLE_READY} - all incoming handle transitions arrived,
+         * {@link #HANDLE_COMPLETED} - handler completed or skipped,
+         * {@link #MERGE_READY} - all incoming merge transitions and handler result arrived,
+         * {@link #MERGE_COMPLETED} - merge point completed or skipped.
+         * Written before decrement of pending transition counter and read after it, so no additional
+         * synchronization is required.
+         */
+        final long[] timestamps;
 
-    private static final HandlePayloadContext INVALID_HANDLE_PAYLOAD_CONTEXT = new HandlePayloadContext();
+        final boolean latencyRecorded;
+
+        final boolean criticalPathAnalyzed;
+
+        /**
+         * Recorder of execution events, null if execution is not sampled for flight recording
+         */
+        final FlightRecorder flightRecorder;
+        final long flightRecordingId;
+
+        final ExecutionEvents events;
+
+        /**
+         * Whether handle and merge phases of vertices are reported to profiler
+         */
+        final boolean profiled;
+
+        /**
+         * Whether payload is traced by {@link Tracer}, resolved once when execution starts
+         */
+        boolean traced;
 
-    @Data
-    static class TransitionFuture<PayloadContextType> {
-        final CompletableFuture<PayloadContextType> future;
+        final ExecutionTracer executionTracer;
+
+        /**
+         * Context of parent span, null for root execution
+         */
+        final TraceContext parentTrace;
+
+        /**
+         * Tracing context of execution, null if execution is not sampled by {@link ExecutionTracer}.
+         * Resolved once when execution starts.
+         */
+        ExecutionTrace trace;
+
+        PayloadType payload;
+
+        ExecutionState(ReactorGraphExecutionPlan<PayloadType> plan,
+                       Executor executor,
+                       Executor blockingHandlerExecutor,
+                       TransitionMode transitionMode,
+                       long timeoutNanos,
+                       boolean immutabilityControlled,
+                       boolean immutabilityChecked,
+                       boolean latencyRecorded,
+                       boolean criticalPathAnalyzed,
+                       FlightRecorder flightRecorder,
+                       ExecutionEvents events,
+                       boolean profiled,
+                       ExecutionTracer executionTracer,
+                       TraceContext parentTrace) {
+            this.plan = plan;
+            this.executor = executor;
+            this.blockingHandlerExecutor = blockingHandlerExecutor;
+            this.transitionMode = transitionMode;
+            this.startTime = System.nanoTime();
+            this.timeoutNanos = timeoutNanos;
+            this.immutabilityChecked = immutabilityChecked;
+            this.startedMerges = immutabilityControlled ? new AtomicInteger() : null;
+            this.completedMerges = immutabilityControlled ? new AtomicInteger() : null;
+            this.latencyRecorded = latencyRecorded;
+            this.criticalPathAnalyzed = criticalPathAnalyzed;
+            this.flightRecorder = flightRecorder;
+            this.flightRecordingId = flightRecorder != null ? flightRecorder.nextExecutionId() : 0;
+            this.events = events;
+            this.profiled = profiled;
+            this.executionTracer = executionTracer;
+            this.parentTrace = parentTrace;
+            this.timestamps = latencyRecorded || criticalPathAnalyzed ?
+                    new long[plan.getVertices().length * TIMESTAMPS_PER_VERTEX] :
+                    null;
+
+            ReactorGraphExecutionPlan.Vertex[] vertices = plan.getVertices();
+            this.pendingTransitions = new AtomicIntegerArray(vertices.length * 2);
+            for (ReactorGraphExecutionPlan.Vertex vertex : vertices) {
+                pendingTransitions.lazySet(vertex.getId() * 2, vertex.getIncomingHandleTransitionCount());
+                pendingTransitions.lazySet(vertex.getId() * 2 + 1, vertex.getMergeInputCount());
+            }
+            this.slots = new TransitionState[plan.getSlotCount()];
+            this.handlerResults = new Object[vertices.length];
+            this.pendingHandlers = new AtomicInteger(plan.getHandlerVertexCount());
+            this.pendingMergePoints = new AtomicInteger(vertices.length);
+            this.runningHandlers = new AtomicReferenceArray<>(vertices.length);
+        }
+
+        long remainingNanos() {
+            return timeoutNanos - (System.nanoTime() - startTime);
+        }
+
+        boolean isStopped() {
+            return stopped || remainingNanos() <= 0;
+        }
     }
 
     /**
-     * <img src="./doc-files/processing-item.png" alt="">
+     * Debug view of single vertex state within execution
+     * <img src="../doc-files/processing-item.png" alt="">
      */
-    @Data
-    @Accessors(chain = true)
+    @Getter
     static class ProcessingVertex {
 
-        CRProcessingItem processingItem;
+        final ReactorGraphExecutionPlan.Vertex vertex;
 
-        CRReactorGraph.ProcessingItemInfo processingItemInfo;
+        final ExecutionState<?> executionState;
 
-        final List<TransitionFuture<TransitionPayloadContext>> incomingProcessorFlows = new ArrayList<>();
+        ProcessingVertex(ReactorGraphExecutionPlan.Vertex vertex, ExecutionState<?> executionState) {
+            this.vertex = vertex;
+            this.executionState = executionState;
+        }
 
-        final List<TransitionFuture<MergePayloadContext>> incomingMergeFlows = new ArrayList<>();
+        public int getPendingHandleTransitions() {
+            return executionState.pendingTransitions.get(vertex.getId() * 2);
+        }
 
-        final CompletableFuture<HandlePayloadContext> processorFuture = new CompletableFuture<>();
+        public int getPendingMergeTransitions() {
+            return executionState.pendingTransitions.get(vertex.getId() * 2 + 1);
+        }
 
-        final CompletableFuture<MergePayloadContext> mergePointFuture = new CompletableFuture<>();
+        public List<TransitionState> getIncomingHandleTransitions() {
+            return Arrays.asList(executionState.slots).subList(
+                    vertex.getHandleSlotOffset(),
+                    vertex.getHandleSlotOffset() + vertex.getIncomingHandleTransitionCount());
+        }
 
-        /**
-         * Holds information about outgoing transitions from this merge point.
-         * If during merging process we will receive merge status that match any of terminal transitions
-         * then we should complete mergePointFuture with Terminal MergePayloadContext
-         */
-        final List<CRReactorGraph.Transition> mergePointTransition = new ArrayList<>();
+        public List<TransitionState> getIncomingMergeTransitions() {
+            return Arrays.asList(executionState.slots).subList(
+                    vertex.getMergeSlotOffset(),
+                    vertex.getMergeSlotOffset() + vertex.getMergeInputCount());
+        }
+
+        public Object getHandlerResult() {
+            return executionState.handlerResults[vertex.getId()];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ProcessingVertex(%s, pendingHandle=%d, pendingMerge=%d, handle=%s, merge=%s)",
+                    vertex.getProcessingItem().getDebugName(),
+                    getPendingHandleTransitions(),
+                    getPendingMergeTransitions(),
+                    getIncomingHandleTransitions(),
+                    getIncomingMergeTransitions());
+        }
     }
 
 
@@ -157,661 +448,877 @@ public class ReactorGraphExecutionBuilder {
         return this;
     }
 
-    /**
-     * If this flag is enabled then internal processing graph state will be attached to Execution result.
-     * This allows easy access to execution state during debug.
-     * One of drawbacks of this future is that GC will be prevented form removing internal state objects
-     * until all reference to execution result dies.
-     * <p>
-     * By default this flag is disabled.
-     *
-     * @param debugProcessingVertexGraphState
-     * @return
-     */
-    public ReactorGraphExecutionBuilder setDebugProcessingVertexGraphState(boolean debugProcessingVertexGraphState) {
-        this.debugProcessingVertexGraphState = debugProcessingVertexGraphState;
-        return this;
+    /**
+     * @param sampling selects executions checked for payload modification during handler invocation
+     *                 when immutability control level is enabled. By default every execution is checked.
+     *                 Applies to payload classes without own sampling.
+     */
+    public ReactorGraphExecutionBuilder setImmutabilityCheckSampling(ImmutabilityCheckSampling sampling) {
+        Objects.requireNonNull(sampling);
+        this.immutabilityCheckSampling = sampling;
+        payloadImmutabilityCheckSamplers.clear();
+        return this;
+    }
+
+    /**
+     * @param sampling selects executions of given payload class checked for payload modification
+     */
+    public ReactorGraphExecutionBuilder setImmutabilityCheckSampling(Class<?> payloadClass,
+                                                                    ImmutabilityCheckSampling sampling) {
+        Objects.requireNonNull(payloadClass);
+        Objects.requireNonNull(sampling);
+        payloadImmutabilityCheckSamplings.put(payloadClass, sampling);
+        payloadImmutabilityCheckSamplers.remove(payloadClass);
+        return this;
+    }
+
+    private boolean sampleImmutabilityCheck(Class<?> payloadClass) {
+        ImmutabilityCheckSampling.Sampler sampler = payloadImmutabilityCheckSamplers.get(payloadClass);
+        if (sampler == null) {
+            sampler = payloadImmutabilityCheckSamplers.computeIfAbsent(
+                    payloadClass,
+                    type -> payloadImmutabilityCheckSamplings.getOrDefault(type, immutabilityCheckSampling)
+                            .newSampler());
+        }
+        return sampler.sample();
+    }
+
+    /**
+     * @param maxInlineDepth max number of nested handler invocations on single thread
+     *                       in {@link TransitionMode#SYNC} mode. When limit is reached next handler invocation
+     *                       is submitted to executor. By default 32.
+     */
+    public ReactorGraphExecutionBuilder setMaxInlineDepth(int maxInlineDepth) {
+        if (maxInlineDepth < 0) {
+            throw new IllegalArgumentException(String.format("Invalid max inline depth %d", maxInlineDepth));
+        }
+        this.maxInlineDepth = maxInlineDepth;
+        return this;
+    }
+
+    public ReactorGraphExecutionBuilder setThreadsafeCopyMaker(ThreadsafeCopyMaker threadsafeCopyMaker) {
+        Objects.requireNonNull(threadsafeCopyMaker);
+        this.threadsafeCopyMaker = threadsafeCopyMaker;
+        return this;
+    }
+
+    /**
+     * @param latencyHistogramsEnabled whether executions record latencies of handle and merge phases
+     *                                 of processors, see {@link LatencyPhase}. By default disabled.
+     */
+    public ReactorGraphExecutionBuilder setLatencyHistogramsEnabled(boolean latencyHistogramsEnabled) {
+        this.latencyHistogramsEnabled = latencyHistogramsEnabled;
+        return this;
+    }
+
+    /**
+     * @param criticalPathAnalysisEnabled whether each execution computes its critical path when execution result
+     *                                    completes. Paths are aggregated per graph,
+     *                                    see {@link ReactorGraphExecutionPlan#getCriticalPathStatistics()}.
+     *                                    By default disabled.
+     */
+    public ReactorGraphExecutionBuilder setCriticalPathAnalysisEnabled(boolean criticalPathAnalysisEnabled) {
+        this.criticalPathAnalysisEnabled = criticalPathAnalysisEnabled;
+        return this;
+    }
+
+    /**
+     * @param flightRecorder recorder of sampled execution events, null to disable flight recording
+     * @see #setFlightRecording(Class, double)
+     */
+    public ReactorGraphExecutionBuilder setFlightRecorder(FlightRecorder flightRecorder) {
+        this.flightRecorder = flightRecorder;
+        return this;
+    }
+
+    public FlightRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
+    /**
+     * @param samplingRate share of executions of given payload class that are recorded by flight recorder,
+     *                     from 0 to 1. By default executions are not recorded.
+     */
+    public ReactorGraphExecutionBuilder setFlightRecording(Class<?> payloadClass, double samplingRate) {
+        Objects.requireNonNull(payloadClass);
+        if (!(samplingRate >= 0 && samplingRate <= 1)) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid flight recording sampling rate %s", samplingRate));
+        }
+        if (samplingRate == 0) {
+            flightRecordingRates.remove(payloadClass);
+        } else {
+            flightRecordingRates.put(payloadClass, samplingRate);
+        }
+        return this;
+    }
+
+    /**
+     * @param dumpOnTimeout whether events of recorded execution are logged when execution deadline is reached.
+     *                      By default enabled.
+     */
+    public ReactorGraphExecutionBuilder setFlightRecorderDumpOnTimeout(boolean dumpOnTimeout) {
+        this.flightRecorderDumpOnTimeout = dumpOnTimeout;
+        return this;
+    }
+
+    /**
+     * @return recorder if execution of given payload class is sampled for flight recording, null otherwise
+     */
+    private FlightRecorder sampleFlightRecording(Class<?> payloadClass) {
+        FlightRecorder recorder = flightRecorder;
+        if (recorder == null || flightRecordingRates.isEmpty()) {
+            return null;
+        }
+        Double rate = flightRecordingRates.get(payloadClass);
+        if (rate == null || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return null;
+        }
+        return recorder;
+    }
+
+    /**
+     * @param executionEvents emits events of executions to JVM level profiling tools.
+     *                        By default events are emitted to JDK Flight Recorder when JVM supports it.
+     *                        {@link ExecutionEvents#NOOP} disables events.
+     */
+    public ReactorGraphExecutionBuilder setExecutionEvents(ExecutionEvents executionEvents) {
+        Objects.requireNonNull(executionEvents);
+        this.executionEvents = executionEvents;
+        return this;
+    }
+
+    /**
+     * @param profilingEnabled whether handle and merge phases of processors are reported to profiler.
+     *                         By default enabled.
+     */
+    public ReactorGraphExecutionBuilder setProfilingEnabled(boolean profilingEnabled) {
+        this.profilingEnabled = profilingEnabled;
+        return this;
+    }
+
+    /**
+     * @param executionTracer traces sampled executions as trees of spans, null disables execution tracing.
+     *                        By default disabled.
+     */
+    public ReactorGraphExecutionBuilder setExecutionTracer(ExecutionTracer executionTracer) {
+        this.executionTracer = executionTracer;
+        return this;
+    }
+
+    /**
+     * @param timeoutScheduler schedules timeouts of handlers and subgraphs declared by {@code withTimeout}
+     */
+    public ReactorGraphExecutionBuilder setTimeoutScheduler(TimeoutScheduler timeoutScheduler) {
+        Objects.requireNonNull(timeoutScheduler);
+        this.timeoutScheduler = timeoutScheduler;
+        return this;
+    }
+
+    /**
+     * If this flag is enabled then internal processing graph state will be attached to Execution result.
+     * This allows easy access to execution state during debug.
+     * One of drawbacks of this future is that GC will be prevented form removing internal state objects
+     * until all reference to execution result dies.
+     * <p>
+     * By default this flag is disabled.
+     *
+     * @param debugProcessingVertexGraphState
+     * @return
+     * @deprecated pins execution state of every execution, use {@link #setFlightRecording(Class, double)}
+     */
+    @Deprecated
+    public ReactorGraphExecutionBuilder setDebugProcessingVertexGraphState(boolean debugProcessingVertexGraphState) {
+        this.debugProcessingVertexGraphState = debugProcessingVertexGraphState;
+        return this;
+    }
+
+    /**
+     * @param plan     execution plan compiled by {@link ReactorGraphExecutionPlan#compile(ReactorGraph)}
+     * @param executor                executor that runs handler invocations and asynchronous stages
+     *                                of the execution
+     * @param blockingHandlerExecutor executor that runs invocations of handlers marked as blocking
+     * @param transitionMode          defines whether handlers are invoked by executor or inline
+     * @param timeoutMs               execution deadline relative to now.
+     *                                Handlers activated after deadline are skipped.
+     * @param <PayloadType>
+     * @return
+     */
+    public <PayloadType> ReactorGraphExecution<PayloadType> build(ReactorGraphExecutionPlan<PayloadType> plan,
+                                                                  Executor executor,
+                                                                  Executor blockingHandlerExecutor,
+                                                                  TransitionMode transitionMode,
+                                                                  long timeoutMs) {
+        return build(plan, executor, blockingHandlerExecutor, transitionMode, timeoutMs, null);
+    }
+
+    /**
+     * @param parentTrace context of parent span, null for root execution.
+     *                    Execution is traced by {@link ExecutionTracer} only if parent is sampled.
+     * @see #build(ReactorGraphExecutionPlan, Executor, Executor, TransitionMode, long)
+     */
+    public <PayloadType> ReactorGraphExecution<PayloadType> build(ReactorGraphExecutionPlan<PayloadType> plan,
+                                                                  Executor executor,
+                                                                  Executor blockingHandlerExecutor,
+                                                                  TransitionMode transitionMode,
+                                                                  long timeoutMs,
+                                                                  TraceContext parentTrace) {
+        Objects.requireNonNull(executor);
+        Objects.requireNonNull(blockingHandlerExecutor);
+        Objects.requireNonNull(transitionMode);
+
+        boolean immutabilityControlled = immutabilityControlLevel != ImmutabilityControlLevel.NO_CONTROL;
+        boolean immutabilityChecked = immutabilityControlled && sampleImmutabilityCheck(plan.getPayloadClass());
+
+        final ExecutionState<PayloadType> state = new ExecutionState<>(
+                plan,
+                executor,
+                blockingHandlerExecutor,
+                transitionMode,
+                TimeUnit.MILLISECONDS.toNanos(timeoutMs),
+                immutabilityControlled,
+                immutabilityChecked,
+                latencyHistogramsEnabled,
+                criticalPathAnalysisEnabled,
+                sampleFlightRecording(plan.getPayloadClass()),
+                executionEvents,
+                profilingEnabled,
+                executionTracer,
+                parentTrace);
+
+        Object executionEventMarker = state.events.beforeExecution(plan.getPayloadClass(), timeoutMs);
+        if (executionEventMarker != null) {
+            state.resultFuture.whenComplete((result, throwable) -> state.events.afterExecution(
+                    executionEventMarker,
+                    plan.getPayloadClass(),
+                    throwable));
+        }
+
+        final CompletableFuture<PayloadType> submitFuture = new CompletableFuture<>();
+        /**
+         * Start execution asynchronously, so submit does not block caller
+         */
+        submitFuture.thenAcceptAsync(payload -> start(state, payload), executor);
+
+        List<ProcessingVertex> debugState = null;
+        if (debugProcessingVertexGraphState) {
+            debugState = new ArrayList<>();
+            for (ReactorGraphExecutionPlan.Vertex vertex : plan.getVertices()) {
+                debugState.add(new ProcessingVertex(vertex, state));
+            }
+        }
+
+        return ReactorGraphExecution.<PayloadType>builder()
+                .resultFuture(state.resultFuture)
+                .submitFuture(submitFuture)
+                .chainExecutionFuture(state.chainExecutionFuture)
+                .debugProcessingVertexGraphState(debugState)
+                .cancellation(() -> stop(state))
+                .flightRecordingId(state.flightRecordingId)
+                .build();
+    }
+
+    /**
+     * Execution deadline reached or execution cancelled.
+     * All running handlers are detached, marked as dead and their futures are cancelled.
+     * Handlers that are not activated yet will be skipped.
+     */
+    private void stop(ExecutionState<?> state) {
+        if (state.stopped) {
+            return;
+        }
+        state.stopped = true;
+
+        boolean deadlineReached = state.remainingNanos() <= 0;
+        if (deadlineReached) {
+            state.events.timeout(
+                    state.plan.getPayloadClass(),
+                    null,
+                    TimeUnit.NANOSECONDS.toMillis(state.timeoutNanos));
+        }
+
+        if (state.flightRecorder != null) {
+            recordEvent(state,
+                    null,
+                    deadlineReached ?
+                            FlightRecorder.EventType.EXECUTION_TIMEOUT :
+                            FlightRecorder.EventType.EXECUTION_CANCELLED,
+                    null,
+                    null);
+            if (deadlineReached && flightRecorderDumpOnTimeout) {
+                /**
+                 * Dump scans whole ring buffer, so it does not run on timeout scheduler thread
+                 */
+                runAsync(state, () -> log.warn(
+                        "Execution {} of {} reached deadline of {} ms. Flight recorder events:\n{}",
+                        state.flightRecordingId,
+                        state.plan.getPayloadClass().getName(),
+                        TimeUnit.NANOSECONDS.toMillis(state.timeoutNanos),
+                        FlightRecorder.format(state.flightRecorder.dump(state.flightRecordingId))));
+            }
+        }
+
+        /**
+         * Stop could be triggered by timeout scheduler thread, graph continues within executor
+         */
+        runAsync(state, () -> {
+            for (ReactorGraphExecutionPlan.Vertex vertex : state.plan.getVertices()) {
+                detachHandler(state, vertex, state.runningHandlers.get(vertex.getId()));
+            }
+        });
+    }
+
+    /**
+     * Completes handler as dead without waiting for handler future, if handler is still running.
+     * Handler future is cancelled only if it belongs to this execution,
+     * see {@link ReactorGraphExecutionPlan.Vertex#isCancellableHandler()}.
+     *
+     * @return true if handler was detached by this invocation
+     */
+    private boolean detachHandler(ExecutionState<?> state,
+                                  ReactorGraphExecutionPlan.Vertex vertex,
+                                  CompletableFuture<?> handlingResult) {
+        if (handlingResult == null
+                || !state.runningHandlers.compareAndSet(vertex.getId(), handlingResult, null)) {
+            return false;
+        }
+        activateVertex(state, vertex, (st, vx) -> completeHandler(st, vx, TransitionState.DEAD, null));
+        if (vertex.isCancellableHandler()) {
+            handlingResult.cancel(false);
+        }
+        return true;
+    }
+
+    private static void runAsync(ExecutionState<?> state, Runnable task) {
+        try {
+            state.executor.execute(task);
+        } catch (RejectedExecutionException exc) {
+            log.warn("Executor rejected task that stops handlers. Task will be executed by current thread.", exc);
+            task.run();
+        }
+    }
+
+    private <PayloadType> void start(ExecutionState<PayloadType> state, PayloadType payload) {
+        state.payload = payload;
+        state.traced = tracer.isTraceable(payload);
+        if (state.executionTracer != null) {
+            ExecutionTrace trace = state.executionTracer.startExecution(
+                    state.plan.getPayloadClass(),
+                    payload,
+                    state.parentTrace,
+                    state.startTime);
+            if (trace != null) {
+                state.trace = trace;
+                state.resultFuture.whenComplete((result, throwable) -> trace.end(throwable));
+            }
+        }
+        recordEvent(state, null, FlightRecorder.EventType.EXECUTION_STARTED, null, null);
+
+        if (state.plan.getHandlerVertexCount() == 0) {
+            state.chainExecutionFuture.complete(null);
+        }
+
+        transit(state, state.plan.getStartPointTransitions(), TransitionState.ACTIVE, null);
+    }
+
+    /**
+     * Propagates state of merge point or start point to outgoing transitions.
+     * All transitions arrive to target vertices before any activated handler is invoked,
+     * so handler activation does not depend on order of outgoing transitions.
+     *
+     * @param mergeStatus result of merger, null for start point
+     */
+    private void transit(ExecutionState<?> state,
+                         ReactorGraphExecutionPlan.Transition[] transitions,
+                         TransitionState sourceState,
+                         Enum<?> mergeStatus) {
+
+        ReactorGraphExecutionPlan.Vertex[] activatedHandlers = null;
+        int activatedHandlerCount = 0;
+        int activeHandleTransitions = 0;
+
+        for (ReactorGraphExecutionPlan.Transition transition : transitions) {
+            if (transition.getHandleByVertex() < 0) {
+                continue;
+            }
+            ReactorGraphExecutionPlan.Vertex target = state.plan.getVertices()[transition.getHandleByVertex()];
+
+            TransitionState transitionState = outgoingTransitionState(transition, sourceState, mergeStatus);
+            if (transitionState == TransitionState.ACTIVE
+                    && state.resultFuture.isDone()
+                    && !state.resultFuture.isCompletedExceptionally()) {
+                /**
+                 * Execution reached terminal vertex.
+                 * All transitions to handlers that arrive after that are considered dead.
+                 */
+                transitionState = TransitionState.DEAD;
+            }
+            if (transitionState == TransitionState.ACTIVE) {
+                activeHandleTransitions++;
+            } else if (transitionState == TransitionState.DEAD) {
+                deadTransition(state, transition, target, sourceState, mergeStatus);
+            }
+            state.slots[target.getHandleSlotOffset() + transition.getHandleBySlot()] = transitionState;
+
+            if (state.pendingTransitions.decrementAndGet(target.getId() * 2) == 0) {
+                if (activatedHandlers == null) {
+                    activatedHandlers = new ReactorGraphExecutionPlan.Vertex[transitions.length];
+                }
+                activatedHandlers[activatedHandlerCount++] = target;
+            }
+        }
+
+        for (ReactorGraphExecutionPlan.Transition transition : transitions) {
+            if (transition.getMergeVertex() < 0) {
+                continue;
+            }
+            ReactorGraphExecutionPlan.Vertex target = state.plan.getVertices()[transition.getMergeVertex()];
+            TransitionState transitionState = outgoingTransitionState(transition, sourceState, mergeStatus);
+            if (transitionState == TransitionState.DEAD) {
+                deadTransition(state, transition, target, sourceState, mergeStatus);
+            }
+            state.slots[target.getMergeSlotOffset() + transition.getMergeSlot()] = transitionState;
+
+            if (state.pendingTransitions.decrementAndGet(target.getId() * 2 + 1) == 0) {
+                /**
+                 * Mergers are synchronous and invoked directly by last incoming transition
+                 */
+                activateVertex(state, target, this::activateMergePoint);
+            }
+        }
+
+        /**
+         * Handlers are invoked by executor, so independent handlers run concurrently.
+         * In SYNC mode single handler runs inline. Fan out to several handlers goes through executor.
+         */
+        boolean inline = state.transitionMode == TransitionMode.SYNC && activeHandleTransitions <= 1;
+        for (int i = 0; i < activatedHandlerCount; i++) {
+            dispatchHandler(state, activatedHandlers[i], inline);
+        }
+    }
+
+    /**
+     * @param mergeStatus status of source merge point, reported only when transition does not match it
+     */
+    private static void deadTransition(ExecutionState<?> state,
+                                       ReactorGraphExecutionPlan.Transition transition,
+                                       ReactorGraphExecutionPlan.Vertex target,
+                                       TransitionState sourceState,
+                                       Enum<?> mergeStatus) {
+        state.events.deadTransition(
+                state.plan.getPayloadClass(),
+                transition.getSourceVertex() >= 0 ?
+                        state.plan.getVertices()[transition.getSourceVertex()].getProcessingItem().getIdentity() :
+                        null,
+                target.getProcessingItem().getIdentity(),
+                sourceState == TransitionState.ACTIVE ? mergeStatus : null);
+    }
+
+    private void dispatchHandler(ExecutionState<?> state, ReactorGraphExecutionPlan.Vertex vertex, boolean inline) {
+        recordTimestamp(state, vertex, HANDLE_READY, System.nanoTime());
+        recordEvent(state, vertex, FlightRecorder.EventType.HANDLER_DISPATCHED, null, null);
+
+        /**
+         * Blocking handler never runs inline, so it does not block thread of other handler or merger
+         */
+        if (inline && !vertex.isBlockingHandler()) {
+            int[] depth = inlineDepth.get();
+            if (depth[0] < maxInlineDepth) {
+                depth[0]++;
+                try {
+                    activateVertex(state, vertex, this::activateHandler);
+                } finally {
+                    depth[0]--;
+                }
+                return;
+            }
+        }
+
+        try {
+            Executor handlerExecutor = vertex.isBlockingHandler() ? state.blockingHandlerExecutor : state.executor;
+            handlerExecutor.execute(() -> activateVertex(state, vertex, this::activateHandler));
+        } catch (RejectedExecutionException exc) {
+            RuntimeException resultException = new RuntimeException(String.format(
+                    "Executor rejected handler invocation of %s.",
+                    vertex.getProcessingItem().getDebugName()), exc);
+            log.error(resultException.getMessage(), resultException);
+            state.resultFuture.completeExceptionally(resultException);
+            completeHandler(state, vertex, TransitionState.TERMINAL, null);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JoinPointActivation {
+        void activate(ExecutionState<?> state, ReactorGraphExecutionPlan.Vertex vertex);
+    }
+
+    private void activateVertex(ExecutionState<?> state,
+                                ReactorGraphExecutionPlan.Vertex vertex,
+                                JoinPointActivation activation) {
+        try {
+            activation.activate(state, vertex);
+        } catch (Throwable exc) {
+            RuntimeException resultException = new RuntimeException(String.format(
+                    "Illegal graph execution state. Activation of %s failed.",
+                    vertex.getProcessingItem().getDebugName()), exc);
+            log.error(resultException.getMessage(), resultException);
+            state.resultFuture.completeExceptionally(resultException);
+        }
+    }
+
+    /**
+     * Joined state of incoming transitions
+     */
+    private static TransitionState joinIncomingTransitions(TransitionState[] slots, int offset, int count) {
+        int active = 0;
+        for (int slot = offset; slot < offset + count; slot++) {
+            if (slots[slot] == TransitionState.TERMINAL) {
+                return TransitionState.TERMINAL;
+            } else if (slots[slot] == TransitionState.ACTIVE) {
+                active++;
+            }
+        }
+        if (active > 1) {
+            return null;
+        }
+        return active == 1 ? TransitionState.ACTIVE : TransitionState.DEAD;
+    }
+
+    private static Exception tooManyActiveIncomingFlowsException(String joinPoint, CRProcessingItem item) {
+        return new Exception(String.format(
+                "There is more than one active incoming flow for %s %s." +
+                        " Reactor can not determinate from which of transitions take payload." +
+                        " Possible loss of computation results." +
+                        " Possible concurrent modifications of payload.",
+                joinPoint,
+                item.getDebugName()));
     }
 
     /**
-     * @param reactorGraph
-     * @param <PayloadType>
-     * @return
+     * All incoming handle transitions of the vertex arrived
      */
-    public <PayloadType> ReactorGraphExecution<PayloadType> build(ReactorGraph<PayloadType> reactorGraph) {
+    private void activateHandler(ExecutionState<?> state, ReactorGraphExecutionPlan.Vertex vertex) {
 
-        val crReactorGraph = (CRReactorGraph<PayloadType>) reactorGraph;
+        TransitionState incoming = joinIncomingTransitions(
+                state.slots,
+                vertex.getHandleSlotOffset(),
+                vertex.getIncomingHandleTransitionCount());
 
-        /**
-         * Internal representation of processing graph based on processing vertices.
-         */
-        final Map<CRProcessingItem, ProcessingVertex> processingVertices = new HashMap<>();
+        if (incoming == null) {
+            /**
+             * Illegal graph state. Too many active incoming flows.
+             * Mark as terminal all outgoing flows
+             * Complete graph with exception
+             */
+            state.resultFuture.completeExceptionally(
+                    tooManyActiveIncomingFlowsException("processor", vertex.getProcessingItem()));
+            skipHandler(state, vertex, TransitionState.TERMINAL, null);
 
+        } else if (incoming != TransitionState.ACTIVE) {
+            /**
+             * Terminal state reached or there is no active incoming flow for given processor.
+             * Processor will not be invoked.
+             * All outgoing flows from processor will be marked as terminal or dead.
+             */
+            skipHandler(state, vertex, incoming, null);
 
-        final CompletableFuture<PayloadType> submitFuture = new CompletableFuture<>();
+        } else if (state.isStopped()) {
+            /**
+             * Execution deadline reached or execution cancelled. Nobody waits for result,
+             * so processor will not be invoked.
+             * All outgoing flows from processor will be marked as dead.
+             */
+            state.resultFuture.completeExceptionally(state.stopped ?
+                    new CancellationException(String.format(
+                            "Execution cancelled before activation of %s.",
+                            vertex.getProcessingItem().getDebugName())) :
+                    new TimeoutException(String.format(
+                            "Execution deadline of %d ms reached before activation of %s.",
+                            TimeUnit.NANOSECONDS.toMillis(state.timeoutNanos),
+                            vertex.getProcessingItem().getDebugName())));
+            skipHandler(state, vertex, TransitionState.DEAD, null);
+
+        } else {
+            handle(state, vertex);
+        }
+    }
 
-        /**
-         * Will be completed on payload submission to processor chain
-         */
-        final CompletableFuture<ReactorGraphExecutionBuilder.TransitionPayloadContext> startPointTransitionFuture =
-                submitFuture.thenApplyAsync(payload -> new TransitionPayloadContext().setPayload(payload));
+    /**
+     * Handler of the vertex is not invoked
+     */
+    private void skipHandler(ExecutionState<?> state,
+                             ReactorGraphExecutionPlan.Vertex vertex,
+                             TransitionState handlerState,
+                             Object handlerResult) {
+        recordEvent(state, vertex, FlightRecorder.EventType.HANDLER_SKIPPED, null, null);
+        completeHandler(state, vertex, handlerState, handlerResult);
+    }
 
-        /**
-         * Will be completed with payload when terminal graph state would be reached.
-         */
-        final CompletableFuture<PayloadType> executionResultFuture = new CompletableFuture<>();
+    /**
+     * Handler of the vertex completed, skipped or failed
+     */
+    private void completeHandler(ExecutionState<?> state,
+                                 ReactorGraphExecutionPlan.Vertex vertex,
+                                 TransitionState handlerState,
+                                 Object handlerResult) {
 
-        /**
-         * Init Processing Vertices.
-         */
-        crReactorGraph.getProcessingItems().forEach((proc, info) -> {
-            ProcessingVertex vertex = new ProcessingVertex()
-                    .setProcessingItem(proc)
-                    .setProcessingItemInfo(info);
+        state.handlerResults[vertex.getId()] = handlerResult;
+        state.slots[vertex.getHandlerResultSlot()] = handlerState;
+        recordTimestamp(state, vertex, HANDLE_COMPLETED, System.nanoTime());
 
-            if (info.getProcessingItemType() == CRReactorGraph.ProcessingItemType.MERGE_POINT) {
-                /**
-                 * Detached merge point does not uses {@code {@link ProcessingVertex#getProcessorFuture()}
-                 */
-                vertex.getProcessorFuture().completeExceptionally(new IllegalStateException(
-                        String.format("Detached Merge Point %s should not use processorFuture.",
-                                vertex.getProcessingItem().getDebugName())));
-            }
+        if (state.pendingHandlers.decrementAndGet() == 0) {
+            state.chainExecutionFuture.complete(null);
+        }
 
-            processingVertices.put(proc, vertex);
-        });
+        if (state.pendingTransitions.decrementAndGet(vertex.getId() * 2 + 1) == 0) {
+            activateVertex(state, vertex, this::activateMergePoint);
+        }
+    }
 
-        /**
-         * Populate start point transition
-         */
-        for (CRProcessingItem processor : crReactorGraph.getStartPoint().getProcessingItems()) {
-            ProcessingVertex vertex = processingVertices.get(processor);
+    /**
+     * All incoming merge transitions of the vertex arrived and handler of the vertex is complete
+     */
+    private void activateMergePoint(ExecutionState<?> state, ReactorGraphExecutionPlan.Vertex vertex) {
+
+        recordTimestamp(state, vertex, MERGE_READY, System.nanoTime());
 
-            if (vertex.getProcessingItemInfo().getProcessingItemType() == CRReactorGraph.ProcessingItemType.MERGE_POINT) {
+        if (!vertex.isDetachedMergePoint()) {
+            TransitionState handlerState = state.slots[vertex.getHandlerResultSlot()];
+            if (handlerState != TransitionState.ACTIVE) {
                 /**
-                 * In case of Detached merge point transition from start point is being converted
-                 * to a {@link MergePayloadContext}
+                 * Processor was marked as terminal or disabled during flow by dead transition
+                 * or handler failed.
+                 * Merging will not be applied to payload.
+                 * All outgoing flows from merge point will be marked as terminal or dead.
                  */
-                vertex.getIncomingMergeFlows().add(new TransitionFuture<>(
-                        startPointTransitionFuture.thenApplyAsync(
-                                transitionPayloadContext ->
-                                        new MergePayloadContext()
-                                                .setDeadTransition(transitionPayloadContext.isDeadTransition())
-                                                .setTerminal(transitionPayloadContext.isTerminal())
-                                                .setPayload(transitionPayloadContext.getPayload())
-                                                .setMergeResult(null))));
-            } else {
-                vertex.getIncomingProcessorFlows()
-                        .add(new TransitionFuture<>(startPointTransitionFuture));
+                skipMergePoint(state, vertex, handlerState, null);
+                return;
             }
         }
 
         /**
-         * Populate MergePoints
+         * Incoming merge flows, could be empty for processors Merge Point
          */
-        crReactorGraph.getMergePoints()
-                .forEach(mergePoint -> {
-                    ProcessingVertex mergePointVertex = processingVertices.get(mergePoint.asProcessingItem());
-                    mergePoint.getTransitions().forEach(mergePointVertex.getMergePointTransition()::add);
-                });
+        TransitionState incoming = joinIncomingTransitions(
+                state.slots,
+                vertex.getMergeSlotOffset(),
+                vertex.getIncomingMergeTransitionCount());
 
-        /**
-         * Populate transitions to all MergePoints
-         */
-        crReactorGraph.getMergePoints().forEach(mergePoint -> {
-            ProcessingVertex mergePointVertex = processingVertices.get(mergePoint.asProcessingItem());
-            mergePoint.getTransitions().forEach(mergePointVertex.getMergePointTransition()::add);
-        });
+        if (incoming == null) {
+            /**
+             * Illegal graph state. Too many active incoming flows.
+             * Mark as terminal all outgoing flows from merge point
+             * Complete graph with exception
+             */
+            state.resultFuture.completeExceptionally(tooManyActiveIncomingFlowsException(
+                    vertex.isDetachedMergePoint() ? "routing point" : "merge point for processor",
+                    vertex.getProcessingItem()));
+            skipMergePoint(state, vertex, TransitionState.TERMINAL, null);
 
+        } else if (incoming == TransitionState.TERMINAL) {
+            /**
+             * Terminal state reached.
+             * Mark as terminal all outgoing flows from merge point
+             */
+            skipMergePoint(state, vertex, TransitionState.TERMINAL, null);
 
-        /**
-         * Populate outgoing flows
-         */
-        for (CRReactorGraph.MergePoint mergePoint : crReactorGraph.getMergePoints()) {
+        } else if (incoming == TransitionState.DEAD && vertex.getIncomingMergeTransitionCount() > 0) {
+            /**
+             * There is no active incoming merge flow for given merge point.
+             * Mark as dead all outgoing flows from merge point
+             */
+            skipMergePoint(state, vertex, TransitionState.DEAD, null);
 
+        } else {
             /**
-             * MergeGroup can contain more that one MergePoint, so we have to wait all merge points to complete before
-             * invoke processors.
-             * We should not wait all merge point to complete if we are invoking other merge point within mergeGroup.
+             * Single active incoming merge flow
+             * or no incoming merge flows, only one flow from processors handle
              */
-            ProcessingVertex mergePointVertex = processingVertices.get(mergePoint.asProcessingItem());
+            merge(state, vertex, state.handlerResults[vertex.getId()]);
+        }
+    }
 
-            CompletableFuture<MergePayloadContext> mergePointFuture = mergePointVertex.getMergePointFuture();
+    /**
+     * Merge point of the vertex completed, skipped or failed.
+     * Propagates state to all outgoing transitions.
+     * Terminal transitions are handled synchronously with merging process and does not activate any vertex.
+     */
+    private void completeMergePoint(ExecutionState<?> state,
+                                    ReactorGraphExecutionPlan.Vertex vertex,
+                                    TransitionState mergePointState,
+                                    Enum<?> mergeStatus) {
 
-            for (CRReactorGraph.Transition transition : mergePoint.getTransitions()) {
+        recordTimestamp(state, vertex, MERGE_COMPLETED, System.nanoTime());
+        transit(state, vertex.getOutgoingTransitions(), mergePointState, mergeStatus);
 
-                /**
-                 * Terminal merge point vertex handled synchronously with merging process
-                 * Skip that kind of transition during pre-processing.
-                 */
-                if (!transition.isComplete()) {
-                    /**
-                     * Populate outgoing processor flows
-                     * activates when all merge points within merge group is completed
-                     */
-                    if (transition.getHandleBy() != null) {
-                        CRProcessingItem proc = transition.getHandleBy();
-
-                        processingVertices.get(proc).getIncomingProcessorFlows().add(
-                                new TransitionFuture<>(
-                                        mergePointFuture.thenApplyAsync(
-                                                context -> {
-                                                    if (context.isTerminal()) {
-                                                        return new TransitionPayloadContext().setTerminal(true);
-
-                                                    } else if (context.isDeadTransition()) {
-                                                        return new TransitionPayloadContext().setDeadTransition(true);
-
-                                                    } else if (transition.isOnAny()
-                                                            || transition.getMergeStatuses()
-                                                            .contains(context.mergeResult)) {
-
-                                                        return new TransitionPayloadContext()
-                                                                .setPayload(context.payload);
-                                                    } else {
-                                                        return new TransitionPayloadContext()
-                                                                .setPayload(context.payload)
-                                                                .setDeadTransition(true);
-                                                    }
-                                                }
-                                        )
-                                )
-                        );
+        if (state.pendingMergePoints.decrementAndGet() == 0 && state.handlerTimeout != null) {
+            /**
+             * Graph drained without reaching terminal state, because timed out handler cut off the only path to it
+             */
+            state.resultFuture.completeExceptionally(state.handlerTimeout);
+        }
+    }
 
-                    }
+    /**
+     * Merger of the vertex is not invoked
+     */
+    private void skipMergePoint(ExecutionState<?> state,
+                                ReactorGraphExecutionPlan.Vertex vertex,
+                                TransitionState mergePointState,
+                                Enum<?> mergeStatus) {
+        recordEvent(state, vertex, FlightRecorder.EventType.MERGE_SKIPPED, null, null);
+        completeMergePoint(state, vertex, mergePointState, mergeStatus);
+    }
 
-                    /**
-                     * Populate outgoing merge flows
-                     */
-                    if (transition.getMerge() != null) {
-                        CRProcessingItem proc = transition.getMerge();
-
-                        ProcessingVertex transitionDestinationVertex = processingVertices.get(proc);
-
-                        transitionDestinationVertex.getIncomingMergeFlows().add(
-                                new TransitionFuture<>(
-                                        mergePointFuture.thenApplyAsync(
-                                                context -> {
-                                                    if (context.isTerminal()) {
-                                                        return new MergePayloadContext().setTerminal(true);
-
-                                                    } else if (context.isDeadTransition()) {
-                                                        return new MergePayloadContext().setDeadTransition(true);
-
-                                                    } else if (transition.isOnAny() ||
-                                                            transition.getMergeStatuses()
-                                                                    .contains(context.mergeResult)) {
-
-                                                        return new MergePayloadContext()
-                                                                .setPayload(context.payload)
-                                                                .setMergeResult(context.mergeResult);
-                                                    } else {
-                                                        return new MergePayloadContext()
-                                                                .setDeadTransition(true);
-                                                    }
-                                                }
-                                        )
-
-                                )
-                        );
+    /**
+     * @param vertex null for events of execution as a whole
+     * @param error  failure of handler or merger, null if there is none
+     */
+    private static void recordEvent(ExecutionState<?> state,
+                                    ReactorGraphExecutionPlan.Vertex vertex,
+                                    FlightRecorder.EventType type,
+                                    Enum<?> mergeStatus,
+                                    Throwable error) {
+        if (state.flightRecorder == null) {
+            return;
+        }
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        state.flightRecorder.record(
+                state.flightRecordingId,
+                state.plan.getPayloadClass(),
+                vertex != null ? vertex.getId() : FlightRecorder.NO_VERTEX,
+                vertex != null ? vertex.getProcessingItem().getDebugName() : null,
+                type,
+                mergeStatus,
+                error != null ? error.getClass() : null);
+    }
 
-                    }
-                }
-            }
+    private static void recordTimestamp(ExecutionState<?> state,
+                                        ReactorGraphExecutionPlan.Vertex vertex,
+                                        int phase,
+                                        long nanos) {
+        if (state.timestamps != null) {
+            state.timestamps[vertex.getId() * TIMESTAMPS_PER_VERTEX + phase] = nanos;
         }
+    }
 
-        /**
-         * Join incoming processor flows to single processor invocation
-         */
-        processingVertices.forEach((processor, processingItem) -> {
+    private static long timestamp(ExecutionState<?> state, int vertexId, int phase) {
+        return state.timestamps[vertexId * TIMESTAMPS_PER_VERTEX + phase];
+    }
 
-            if (processingItem.getProcessingItemInfo().getProcessingItemType()
-                    == CRReactorGraph.ProcessingItemType.MERGE_POINT) {
-                /**
-                 * Detached merge point does not have graph processor, only merge point.
-                 * No processor invocation is needed
-                 */
-                if (processingItem.getIncomingProcessorFlows().size() != 0) {
-                    throw new IllegalStateException(String.format(
-                            "Invalid graph state. Detached merge point %s have more than 0 incoming flows.",
-                            processor.getDebugName()));
-                }
-                return;
-            }
+    /**
+     * Time when output of the source arrived to join point, see {@link ReactorGraphExecutionPlan#getSlotSources()}
+     *
+     * @param joinVertex vertex which join point is analyzed, handler result slot of this vertex has it as source
+     */
+    private static long arrivalTime(ExecutionState<?> state, int source, int joinVertex, boolean mergeJoin) {
+        if (source < 0) {
+            return state.startTime;
+        }
+        if (mergeJoin && source == joinVertex) {
+            return timestamp(state, source, HANDLE_COMPLETED);
+        }
+        return timestamp(state, source, MERGE_COMPLETED);
+    }
 
-            if (processingItem.getIncomingProcessorFlows().size() <= 0) {
-                throw new IllegalArgumentException(String.format(
-                        "Invalid graph descriptor. Processor %s does not have incoming flows." +
-                                " Probably missing handleBy directive for this processor.",
-                        processor.getDebugName()));
-            }
+    /**
+     * Walks from merge point that completed execution result back to start point.
+     * At each join point the input that arrived last activated the join point and belongs to critical path.
+     * Other inputs of the join point get slack.
+     * All inputs of join point arrived before its activation,
+     * so visited timestamps are published by pending transition counters.
+     *
+     * @param completionTime time when merger of terminal vertex completes execution result
+     */
+    private static void analyzeCriticalPath(ExecutionState<?> state,
+                                            ReactorGraphExecutionPlan.Vertex terminal,
+                                            long completionTime) {
 
-            CompletableFuture.allOf(
-                    processingItem.getIncomingProcessorFlows().stream()
-                            .map(TransitionFuture::getFuture)
-                            .toArray(CompletableFuture[]::new)
-            )
-
-                    .thenRunAsync(() -> {
-
-                                List<TransitionPayloadContext> incomingFlows = processingItem
-                                        .getIncomingProcessorFlows()
-                                        .stream()
-                                        .map(future -> {
-                                            try {
-                                                /**
-                                                 * Future should be already complete
-                                                 */
-                                                if (!future.getFuture().isDone()) {
-                                                    Exception resultException = new Exception(String.format(
-                                                            "Illegal graph execution state." +
-                                                                    " Future is not completed. Processor: %s",
-                                                            processingItem.getProcessingItem().getDebugName()));
-
-                                                    log.error(resultException.getMessage(), resultException);
-                                                    executionResultFuture.completeExceptionally(resultException);
-                                                    return INVALID_TRANSITION_PAYLOAD_CONTEXT;
-                                                } else {
-                                                    return future.getFuture().get();
-                                                }
-                                            } catch (Exception exc) {
-                                                Exception resultException = new Exception(String.format(
-                                                        "Failed to get incoming processor flow future result" +
-                                                                " for processor: %s",
-                                                        processingItem.getProcessingItem().getDebugName()), exc);
-                                                log.error(resultException.getMessage(), resultException);
-                                                executionResultFuture.completeExceptionally(resultException);
-
-                                                return INVALID_TRANSITION_PAYLOAD_CONTEXT;
-                                            }
-                                        })
-                                        .collect(Collectors.toList());
-
-                                if (incomingFlows.stream().anyMatch(
-                                        context -> context == INVALID_TRANSITION_PAYLOAD_CONTEXT)) {
-                                    /**
-                                     * Invalid graph execution state
-                                     * Mark as terminal all outgoing flows from processor
-                                     */
-                                    processingItem.getProcessorFuture().complete(
-                                            new HandlePayloadContext()
-                                                    .setTerminal(true));
-
-                                } else if (incomingFlows.stream().anyMatch(TransitionPayloadContext::isTerminal)) {
-                                    /**
-                                     * Terminal state reached.
-                                     * Mark as terminal all outgoing flows from processor
-                                     */
-                                    processingItem.getProcessorFuture().complete(new HandlePayloadContext()
-                                            .setTerminal(true));
-
-                                } else {
-                                    List<TransitionPayloadContext> activeIncomingFlows = incomingFlows.stream()
-                                            .filter(context -> !context.isDeadTransition())
-                                            .collect(Collectors.toList());
-
-                                    if (activeIncomingFlows.size() <= 0) {
-                                        /**
-                                         * There is no active incoming flow for given processor.
-                                         * Processor will not be invoked.
-                                         * All outgoing flows from processor will be marked as dead.
-                                         */
-                                        processingItem.getProcessorFuture().complete(new HandlePayloadContext()
-                                                .setDeadTransition(true));
-                                    } else {
-                                        if (activeIncomingFlows.size() > 1) {
-
-                                            /**
-                                             * Illegal graph state. Too many active incoming flows.
-                                             * Mark as terminal all outgoing flows
-                                             * Complete graph with exception
-                                             */
-                                            Exception tooManyActiveIncomingFlowsExc = new Exception(String.format(
-                                                    "There is more than one active incoming flow for processor %s." +
-                                                            " Reactor can not determinate from which of transitions" +
-                                                            " take payload." +
-                                                            " Possible loss of computation results." +
-                                                            " Possible concurrent modifications of payload.",
-                                                    processingItem.getProcessingItem().getDebugName()));
-
-                                            executionResultFuture.completeExceptionally(tooManyActiveIncomingFlowsExc);
-                                            processingItem.getProcessorFuture().complete(new HandlePayloadContext()
-                                                    .setTerminal(true));
-
-                                        } else {
-
-                                            handle(processingItem, activeIncomingFlows.get(0), executionResultFuture);
-                                        }
-                                    }
-                                }
-                            }
-                    )
-                    .exceptionally(throwable -> {
-                        log.error("Join incoming processor flows failed.", throwable);
-                        return null;
-                    });
+        ReactorGraphExecutionPlan<?> plan = state.plan;
+        CriticalPathStatistics statistics = plan.getCriticalPathStatistics();
+        int[] slotSources = plan.getSlotSources();
 
-        });//processingVertices
+        int vertexId = terminal.getId();
+        boolean mergeJoin = true;
+        long phaseEnd = completionTime;
+        long vertexCriticalNanos = 0;
 
         /**
-         * Join incoming merge flows and processor handing future with single merging invocation
+         * Each step moves to earlier phase, limit protects from inconsistent timestamps
          */
-        processingVertices.forEach((processor, vertex) -> {
-
-            List<CompletableFuture> incomingFlows = new ArrayList<>();
-            vertex.getIncomingMergeFlows()
-                    .stream()
-                    .map(TransitionFuture::getFuture)
-                    .forEach(incomingFlows::add);
+        for (int step = 0; step <= plan.getVertices().length * 2; step++) {
+            ReactorGraphExecutionPlan.Vertex vertex = plan.getVertices()[vertexId];
+
+            long joinTime = timestamp(state, vertexId, mergeJoin ? MERGE_READY : HANDLE_READY);
+            vertexCriticalNanos += Math.max(0, phaseEnd - joinTime);
+
+            int offset = mergeJoin ? vertex.getMergeSlotOffset() : vertex.getHandleSlotOffset();
+            int count = mergeJoin ? vertex.getMergeInputCount() : vertex.getIncomingHandleTransitionCount();
+
+            int lastSource = -1;
+            long lastArrival = Long.MIN_VALUE;
+            for (int slot = offset; slot < offset + count; slot++) {
+                long arrival = arrivalTime(state, slotSources[slot], vertexId, mergeJoin);
+                if (lastArrival == Long.MIN_VALUE || arrival - lastArrival > 0) {
+                    lastArrival = arrival;
+                    lastSource = slotSources[slot];
+                }
+            }
+            for (int slot = offset; slot < offset + count; slot++) {
+                int source = slotSources[slot];
+                if (source >= 0 && source != lastSource) {
+                    long arrival = arrivalTime(state, source, vertexId, mergeJoin);
+                    statistics.recordSlack(source, Math.max(0, joinTime - arrival));
+                }
+            }
 
-            if (vertex.getProcessingItemInfo().getProcessingItemType() !=
-                    CRReactorGraph.ProcessingItemType.MERGE_POINT) {
+            if (mergeJoin && lastSource == vertexId) {
                 /**
-                 * Ignore processor future for detached merge point
-                 * And use it for all other cases
+                 * Merge point waited for handler of the same vertex
                  */
-                incomingFlows.add(vertex.getProcessorFuture());
+                mergeJoin = false;
+                phaseEnd = lastArrival;
+                continue;
             }
 
-            CompletableFuture.allOf(incomingFlows.toArray(new CompletableFuture[incomingFlows.size()]))
-                    .thenRunAsync(() -> {
-
-                        /**
-                         * Processor result, could be INVALID_HANDLE_PAYLOAD_CONTEXT in case of exception
-                         * Could be NULL in case of detached merge point
-                         */
-                        HandlePayloadContext handlePayloadContext = null;
-
-                        if (vertex.getProcessingItemInfo().getProcessingItemType()
-                                != CRReactorGraph.ProcessingItemType.MERGE_POINT) {
-
-                            handlePayloadContext = Optional.of(vertex.getProcessorFuture())
-                                    .map(future -> {
-                                        try {
-                                            if (!future.isDone()) {
-                                                RuntimeException resultException = new RuntimeException(String.format(
-                                                        "Illegal graph execution state. Processor future" +
-                                                                " is not completed. Processor %s",
-                                                        vertex.getProcessingItem().getDebugName()));
-                                                log.error(resultException.getMessage(), resultException);
-                                                executionResultFuture.completeExceptionally(resultException);
-
-                                                return INVALID_HANDLE_PAYLOAD_CONTEXT;
-                                            } else {
-                                                return future.get();
-                                            }
-                                        } catch (Exception exc) {
-                                            RuntimeException resultException = new RuntimeException(String.format(
-                                                    "Failed to get processor future result for processor: %s",
-                                                    vertex.getProcessingItem().getDebugName()), exc);
-
-                                            log.error(resultException.getMessage(), resultException);
-                                            executionResultFuture.completeExceptionally(resultException);
-
-                                            return INVALID_HANDLE_PAYLOAD_CONTEXT;
-                                        }
-                                    })
-                                    .orElse(INVALID_HANDLE_PAYLOAD_CONTEXT);
-
-                            if (handlePayloadContext == INVALID_HANDLE_PAYLOAD_CONTEXT) {
-                                /**
-                                 * Failed to get processor result.
-                                 * Merging will not be applied to payload.
-                                 * All outgoing flows from merge point will be marked as terminal.
-                                 * executionResult completed by exception
-                                 */
-                                vertex.getMergePointFuture().complete(new MergePayloadContext().setTerminal(true));
-                                return;
-
-                            } else if (handlePayloadContext.isTerminal()) {
-                                /**
-                                 * Processor was marked as terminal during flow by terminal transition.
-                                 * Merging will not be applied to payload.
-                                 * All outgoing flows from merge point will be marked as terminal.
-                                 */
-                                vertex.getMergePointFuture().complete(new MergePayloadContext().setTerminal(true));
-                                return;
-
-                            } else if (handlePayloadContext.isDeadTransition()) {
-                                /**
-                                 * Processor was disabled during flow by dead transition.
-                                 * Merging will not be applied to payload.
-                                 * All outgoing flows from merge point will be marked as dead.
-                                 */
-                                vertex.getMergePointFuture().complete(new MergePayloadContext().setDeadTransition(true));
-                                return;
-                            }
-                        }
-
-                        /**
-                         * Incoming merge flows, could be empty for processors Merge Point
-                         */
-                        List<MergePayloadContext> incomingMergeFlows = vertex.getIncomingMergeFlows().stream()
-                                .map(future -> {
-                                    try {
-                                        if (!future.getFuture().isDone()) {
-
-                                            RuntimeException resultException = new RuntimeException(String.format(
-                                                    "Illegal graph execution state. Incoming merge future" +
-                                                            " is not complete." +
-                                                            " ProcessingVertex: %s", vertex));
-                                            log.error(resultException.getMessage(), resultException);
-                                            executionResultFuture.completeExceptionally(resultException);
-                                            return INVALID_MERGE_PAYLOAD_CONTEXT;
-                                        } else {
-                                            return future.getFuture().get();
-                                        }
-                                    } catch (Exception exc) {
-                                        RuntimeException resultException = new RuntimeException(String.format(
-                                                "Failed to get incoming merge flow future result for processor: %s",
-                                                vertex.getProcessingItem().getDebugName()), exc);
-
-                                        log.error(resultException.getMessage(), resultException);
-                                        executionResultFuture.completeExceptionally(resultException);
-                                        return INVALID_MERGE_PAYLOAD_CONTEXT;
-                                    }
-                                }).collect(Collectors.toList());
-
-                        if (incomingMergeFlows.stream().anyMatch(context -> context == INVALID_MERGE_PAYLOAD_CONTEXT)) {
-                            /**
-                             * Exception during merging
-                             * Mark as terminal all outgoing flows from merge point
-                             */
-                            vertex.getMergePointFuture().complete(new MergePayloadContext().setTerminal(true));
-
-                        } else if (incomingMergeFlows.stream().anyMatch(MergePayloadContext::isTerminal)) {
-                            /**
-                             * Terminal state reached.
-                             * Mark as terminal all outgoing flows from merge point
-                             */
-                            vertex.getMergePointFuture().complete(new MergePayloadContext().setTerminal(true));
-
-                        } else {
-
-                            final List<MergePayloadContext> activeIncomingMergeFlows = incomingMergeFlows.stream()
-                                    .filter(context -> !context.isDeadTransition())
-                                    .collect(Collectors.toList());
-
-                            if (vertex.getProcessingItemInfo().getProcessingItemType()
-                                    == CRReactorGraph.ProcessingItemType.MERGE_POINT) {
-                                /**
-                                 * Detached merge point
-                                 */
-                                if (activeIncomingMergeFlows.size() == 0) {
-
-                                    /**
-                                     * Check that there are at least one incoming transition that marked as dead
-                                     */
-                                    if (incomingMergeFlows.stream().anyMatch(MergePayloadContext::isDeadTransition)) {
-                                        /**
-                                         * Detached MergePoint marked as Dead, because there are no active incoming
-                                         * flows and there is at least one incoming dead transition
-                                         * Mark as dead all outgoing flows from merge point
-                                         */
-                                        vertex.getMergePointFuture().complete(
-                                                new MergePayloadContext()
-                                                        .setDeadTransition(true));
-                                    } else {
-                                        throw new IllegalStateException(String.format(
-                                                "There is no incoming merge flows for detached merge point %s." +
-                                                        " At least dead incoming transition expected.",
-                                                vertex.getProcessingItem().getDebugName()));
-                                    }
-
-                                } else {
-                                    if (activeIncomingMergeFlows.size() > 1) {
-                                        /**
-                                         * Illegal graph state. Too many active incoming flows.
-                                         * Mark as terminal all outgoing flows from merge point
-                                         * Complete graph with exception
-                                         */
-                                        Exception tooManyActiveIncomingFlowsExc = new Exception(String.format(
-                                                "There is more than one active incoming flow for routing point %s." +
-                                                        " Reactor can not determinate from which of transitions take" +
-                                                        " payload." +
-                                                        " Possible loss of computation results." +
-                                                        " Possible concurrent modifications of payload.",
-                                                vertex.getProcessingItem().getDebugName()));
-
-                                        executionResultFuture.completeExceptionally(tooManyActiveIncomingFlowsExc);
-                                        vertex.getMergePointFuture().complete(
-                                                new MergePayloadContext()
-                                                        .setTerminal(true));
-
-                                    } else {
-                                        /**
-                                         * Single active incoming merge flow
-                                         */
-                                        merge(vertex,
-                                                Optional.empty(),
-                                                activeIncomingMergeFlows.get(0).getPayload(),
-                                                executionResultFuture);
-                                    }
-                                }
-                            } else {
-                                /**
-                                 * Processors MergePoint
-                                 */
-                                if (incomingMergeFlows.size() == 0) {
-                                    /**
-                                     * No incoming merge flows, only one flow from processors handle
-                                     */
-                                    merge(vertex,
-                                            handlePayloadContext.getProcessorResult(),
-                                            handlePayloadContext.getPayload(),
-                                            executionResultFuture);
-                                } else {
-                                    /**
-                                     * Incoming merge flows exists. But some of them can be marked as dead.
-                                     */
-                                    if (activeIncomingMergeFlows.size() == 0) {
-                                        /**
-                                         * There is no active incoming merge flow for given merge point.
-                                         * Mark merge point as dead.
-                                         */
-                                        vertex.getMergePointFuture().complete(new MergePayloadContext()
-
-                                                .setDeadTransition(true));
-
-                                    } else {
-
-                                        if (activeIncomingMergeFlows.size() > 1) {
-                                            /**
-                                             * Illegal graph state. Too many active incoming flows.
-                                             * Mark as terminal all outgoing flows from merge point
-                                             * Complete graph with exception
-                                             */
-                                            Exception tooManyActiveIncomingFlowsExc = new Exception(String.format(
-                                                    "There is more than one active incoming flow for merge point for" +
-                                                            " processor %s." +
-                                                            " Reactor can not determinate from which of transitions" +
-                                                            " take payload." +
-                                                            " Possible loss of computation results." +
-                                                            " Possible concurrent modifications of payload.",
-                                                    vertex.getProcessingItem().getDebugName()));
-
-                                            executionResultFuture.completeExceptionally(tooManyActiveIncomingFlowsExc);
-                                            vertex.getMergePointFuture().complete(
-                                                    new MergePayloadContext()
-                                                            .setTerminal(true));
-
-                                        } else {
-
-                                            merge(vertex,
-                                                    handlePayloadContext.getProcessorResult(),
-                                                    activeIncomingMergeFlows.get(0).getPayload(),
-                                                    executionResultFuture);
-                                        }
-                                    }
-                                }
-
-                            }
-                        }
-                    })
-                    .exceptionally(throwable -> {
-                        log.error("Joining incoming merge flows failed.", throwable);
-                        return null;
-                    });
-
-        });//processingVertices
-
-        /**
-         * Handle terminal vertices.
-         * When execution reaches 'complete' vertex all transitions should be marked dead and complete.
-         */
-        executionResultFuture.thenRunAsync(() -> {
-            processingVertices.entrySet().stream()
-                    .map(Map.Entry::getValue)
-                    .map(ProcessingVertex::getIncomingProcessorFlows)
-                    .flatMap(Collection::stream)
-                    .map(TransitionFuture::getFuture)
-                    .forEach(future -> future.complete(new TransitionPayloadContext().setDeadTransition(true)));
-
-            processingVertices.entrySet().stream()
-                    .map(Map.Entry::getValue)
-                    .map(ProcessingVertex::getIncomingProcessorFlows)
-                    .flatMap(Collection::stream)
-                    .map(TransitionFuture::getFuture)
-                    .forEach(future -> future.complete(new TransitionPayloadContext().setDeadTransition(true)));
-        }).exceptionally(throwable -> {
-            log.error("Marking transitions as dead is failed.", throwable);
-            return null;
-        });
+            statistics.recordCritical(vertexId, vertexCriticalNanos);
+            if (lastSource < 0) {
+                break;
+            }
+            vertexId = lastSource;
+            mergeJoin = true;
+            phaseEnd = lastArrival;
+            vertexCriticalNanos = 0;
+        }
 
-        /**
-         * Collect chain execution processor handling futures
-         * Processors futures holds handle invocation result or dead context.
-         * Exception is an detached merge point which processorFuture is not used
-         * Then all processors futures completes chainExecutionFuture completes too.
-         */
-        CompletableFuture<Void> chainExecutionFuture = CompletableFuture.allOf(
-                processingVertices.entrySet().stream()
-                        .map(Map.Entry::getValue)
-                        //detached merge point does not have processor future
-                        .filter(vertex -> vertex.getProcessingItemInfo().getProcessingItemType() !=
-                                CRReactorGraph.ProcessingItemType.MERGE_POINT)
-                        .map(ProcessingVertex::getProcessorFuture)
-                        .toArray(CompletableFuture[]::new)
-        );
+        statistics.recordExecution(completionTime - state.startTime);
+    }
 
-        return ReactorGraphExecution.<PayloadType>builder()
-                .resultFuture(executionResultFuture)
-                .submitFuture(submitFuture)
-                .chainExecutionFuture(chainExecutionFuture)
-                .debugProcessingVertexGraphState(debugProcessingVertexGraphState ? processingVertices.values() : null)
-                .build();
+    private static TransitionState outgoingTransitionState(ReactorGraphExecutionPlan.Transition transition,
+                                                           TransitionState mergePointState,
+                                                           Enum<?> mergeStatus) {
+        if (mergePointState == TransitionState.ACTIVE && !transition.isMatch(mergeStatus)) {
+            return TransitionState.DEAD;
+        }
+        return mergePointState;
     }
 
     private CompletableFuture<?> invokeHandlingMethod(
-            CRReactorGraph.ProcessingItemInfo processorInfo,
-            CRProcessingItem processingItem,
-            Object payload) {
+            ExecutionState<?> state,
+            ReactorGraphExecutionPlan.Vertex vertex,
+            Object payload,
+            Span handleSpan) {
+
+        CRReactorGraph.ProcessingItemInfo processorInfo = vertex.getProcessingItemInfo();
+        CRProcessingItem processingItem = vertex.getProcessingItem();
 
         switch (processorInfo.getProcessingItemType()) {
             case PROCESSOR:
-                return invokeProcessorHandlingMethod(processorInfo, processingItem, payload);
+                return invokeProcessorHandlingMethod(state, vertex, payload);
             case SUBGRAPH:
-                return invokeSubgraphHandlingMethod(processorInfo, payload);
+                return invokeSubgraphHandlingMethod(state, vertex, payload, handleSpan);
             default:
                 throw new IllegalStateException(
                         String.format("Processing item %s of type %s not supported",
@@ -821,22 +1328,41 @@ public class ReactorGraphExecutionBuilder {
     }
 
     private CompletableFuture<?> invokeSubgraphHandlingMethod(
-            CRReactorGraph.ProcessingItemInfo processorInfo,
-            Object payload) {
+            ExecutionState<?> state,
+            ReactorGraphExecutionPlan.Vertex vertex,
+            Object payload,
+            Span handleSpan) {
+
+        CRReactorGraph.ProcessingItemInfo processorInfo = vertex.getProcessingItemInfo();
 
         Object param = processorInfo.getSubgraphDescription().getArg().apply(payload);
         if (processorInfo.getSubgraphDescription().isCopyArg()) {
             param = threadsafeCopyMaker.makeThreadsafeCopy(param);
         }
 
-        return subgraphRunner.run(param);
+        /**
+         * Subgraph inherits deadline of parent execution.
+         * Timeout of subgraph itself is enforced by parent graph, that marks subgraph as dead and cancels it.
+         */
+        long timeoutMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(state.remainingNanos()));
+
+        /**
+         * Subgraph execution is traced as child of handler span and only if parent execution is traced
+         */
+        return subgraphRunner.run(
+                param,
+                timeoutMs,
+                handleSpan != null ? handleSpan.getContext() : TraceContext.NOT_SAMPLED);
     }
 
     private CompletableFuture<?> invokeProcessorHandlingMethod(
-            CRReactorGraph.ProcessingItemInfo processorInfo,
-            CRProcessingItem processingItem,
+            ExecutionState<?> state,
+            ReactorGraphExecutionPlan.Vertex vertex,
             Object payload) {
 
+        CRReactorGraph.ProcessingItemInfo processorInfo = vertex.getProcessingItemInfo();
+        CRProcessingItem processingItem = vertex.getProcessingItem();
+
         CRProcessorDescription description = processorInfo.getDescription();
 
         try {
@@ -893,71 +1419,25 @@ public class ReactorGraphExecutionBuilder {
             }
 
 
-            if (description.getHandler0() != null) {
-                return (CompletableFuture) description.getHandler0().handle();
-
-            } else if (description.getHandler1() != null) {
-                return (CompletableFuture) description.getHandler1().handle(param1);
-
-
-            } else if (description.getHandler2() != null) {
-                return (CompletableFuture) description.getHandler2().handle(
+            if (vertex.getBatcher() != null) {
+                return vertex.getBatcher().submit(
                         param1,
-                        param2
-                );
-            } else if (description.getHandler3() != null) {
-                return (CompletableFuture) description.getHandler3().handle(
-                        param1,
-                        param2,
-                        param3
-                );
+                        timeoutScheduler,
+                        state.executor,
+                        state.profiled ? profiler : null);
+            }
 
-            } else if (description.getHandler4() != null) {
-                return (CompletableFuture) description.getHandler4().handle(
-                        param1,
-                        param2,
-                        param3,
-                        param4
-                );
+            Object[] params = {param1, param2, param3, param4, param5, param6, param7};
 
-            } else if (description.getHandler5() != null) {
-                return (CompletableFuture) description.getHandler5().handle(
-                        param1,
-                        param2,
-                        param3,
-                        param4,
-                        param5
-                );
-            } else if (description.getHandler6() != null) {
-                return (CompletableFuture) description.getHandler6().handle(
-                        param1,
-                        param2,
-                        param3,
-                        param4,
-                        param5,
-                        param6
-                );
-            } else if (description.getHandler7() != null) {
-                return (CompletableFuture) description.getHandler7().handle(
-                        param1,
-                        param2,
-                        param3,
-                        param4,
-                        param5,
-                        param6,
-                        param7
-                );
-            } else {
-                CompletableFuture result = new CompletableFuture();
-                result.completeExceptionally(
-                        new IllegalArgumentException(
-                                String.format("There is no handler in processor %s for payload %s %s",
-                                        processingItem.getDebugName(),
-                                        payload.getClass(),
-                                        debugSerializer.dumpObject(payload))));
-                return result;
+            if (vertex.getResultCache() != null) {
+                return vertex.getResultCache().get(
+                        description.getCacheKeyExtractor().apply(Arrays.asList(params)),
+                        () -> invokeUncachedHandler(state, vertex, description, payload, params),
+                        state.profiled ? profiler : null);
             }
 
+            return invokeUncachedHandler(state, vertex, description, payload, params);
+
         } catch (Exception exc) {
             CompletableFuture result = new CompletableFuture();
             result.completeExceptionally(
@@ -972,12 +1452,97 @@ public class ReactorGraphExecutionBuilder {
     }
 
 
-    private <PayloadType> void handle(ProcessingVertex processingVertex,
-                                      TransitionPayloadContext payloadContext,
-                                      CompletableFuture<PayloadType> executionResultFuture) {
+
+    private CompletableFuture<?> invokeUncachedHandler(ExecutionState<?> state,
+                                                       ReactorGraphExecutionPlan.Vertex vertex,
+                                                       CRProcessorDescription description,
+                                                       Object payload,
+                                                       Object[] params) {
+        if (vertex.getSingleFlight() != null) {
+            return vertex.getSingleFlight().invoke(
+                    Arrays.asList(params),
+                    () -> invokeHandler(description, vertex.getProcessingItem(), payload, params),
+                    description.isCopyCoalescedResult() ? threadsafeCopyMaker : null,
+                    state.profiled ? profiler : null);
+        }
+        return invokeHandler(description, vertex.getProcessingItem(), payload, params);
+    }
+
+    private CompletableFuture<?> invokeHandler(CRProcessorDescription description,
+                                               CRProcessingItem processingItem,
+                                               Object payload,
+                                               Object[] params) {
+
+        if (description.getHandler0() != null) {
+            return (CompletableFuture) description.getHandler0().handle();
+
+        } else if (description.getHandler1() != null) {
+            return (CompletableFuture) description.getHandler1().handle(params[0]);
+
+        } else if (description.getHandler2() != null) {
+            return (CompletableFuture) description.getHandler2().handle(
+                    params[0],
+                    params[1]
+            );
+        } else if (description.getHandler3() != null) {
+            return (CompletableFuture) description.getHandler3().handle(
+                    params[0],
+                    params[1],
+                    params[2]
+            );
+
+        } else if (description.getHandler4() != null) {
+            return (CompletableFuture) description.getHandler4().handle(
+                    params[0],
+                    params[1],
+                    params[2],
+                    params[3]
+            );
+
+        } else if (description.getHandler5() != null) {
+            return (CompletableFuture) description.getHandler5().handle(
+                    params[0],
+                    params[1],
+                    params[2],
+                    params[3],
+                    params[4]
+            );
+        } else if (description.getHandler6() != null) {
+            return (CompletableFuture) description.getHandler6().handle(
+                    params[0],
+                    params[1],
+                    params[2],
+                    params[3],
+                    params[4],
+                    params[5]
+            );
+        } else if (description.getHandler7() != null) {
+            return (CompletableFuture) description.getHandler7().handle(
+                    params[0],
+                    params[1],
+                    params[2],
+                    params[3],
+                    params[4],
+                    params[5],
+                    params[6]
+            );
+        } else {
+            CompletableFuture result = new CompletableFuture();
+            result.completeExceptionally(
+                    new IllegalArgumentException(
+                            String.format("There is no handler in processor %s for payload %s %s",
+                                    processingItem.getDebugName(),
+                                    payload.getClass(),
+                                    debugSerializer.dumpObject(payload))));
+            return result;
+        }
+    }
+
+    private void handle(ExecutionState<?> state, ReactorGraphExecutionPlan.Vertex processingVertex) {
 
         CRReactorGraph.ProcessingItemInfo processorInfo = processingVertex.getProcessingItemInfo();
-        Object payload = payloadContext.getPayload();
+        Object payload = state.payload;
+        CompletableFuture<?> executionResultFuture = state.resultFuture;
 
         /**
          * In case of detached merge point processor should not have incoming handling transition.
@@ -989,24 +1554,50 @@ public class ReactorGraphExecutionBuilder {
                     processorInfo.getProcessingItemType()));
         }
 
-        ProfiledCall handleCall = profiler.profiledCall(
-                ProfilerNames.PROCESSOR_HANDLE + processingVertex.getProcessingItem().getProfilingName())
-                .start();
+        ProfiledCall handleCall = state.profiled ?
+                profiler.profiledCall(processingVertex.getHandleProfilingName()).start() :
+                null;
+
+        recordEvent(state, processingVertex, FlightRecorder.EventType.HANDLER_STARTED, null, null);
+        Object handleEventMarker = state.events.beforeHandle();
+
+        final long handleStartTime = state.latencyRecorded ? System.nanoTime() : 0;
+        if (state.latencyRecorded) {
+            processingVertex.getLatency().record(
+                    LatencyPhase.QUEUE_WAIT,
+                    handleStartTime - timestamp(state, processingVertex.getId(), HANDLE_READY));
+        }
 
-        boolean isTraceablePayload = tracer.isTraceable(payload);
+        boolean isTraceablePayload = state.traced;
         Object handleTracingMarker = isTraceablePayload ?
                 tracer.beforeHandle(processingVertex.getProcessingItem().getIdentity(), payload) :
                 null;
-        ReactorGraphModel.Identity handleTracingIdentity = isTraceablePayload ?
-                processingVertex.getProcessingItem().getIdentity() :
+        Span handleSpan = state.trace != null ?
+                state.trace.startSpan(SpanKind.HANDLE, processingVertex.getProcessingItem().getDebugName()) :
                 null;
 
         CompletableFuture<?> handlingResult;
 
         /**
          * Immutability check ensures that there is no payload modification during handling.
+         * Processor with own sampling is checked independently of execution sampling.
+         * Mergers of the same execution modify payload legally, so handler invocation
+         * that overlaps with merge is not checked.
          */
-        final ImmutabilityControlLevel controlLevel = this.immutabilityControlLevel;
+        final ImmutabilityControlLevel controlLevel;
+        final int mergesBeforeHandling;
+        ImmutabilityCheckSampling.Sampler processorSampler = processingVertex.getImmutabilityCheckSampler();
+        if (state.startedMerges != null
+                && (processorSampler != null ? processorSampler.sample() : state.immutabilityChecked)) {
+            int completedMerges = state.completedMerges.get();
+            mergesBeforeHandling = state.startedMerges.get();
+            controlLevel = mergesBeforeHandling == completedMerges ?
+                    this.immutabilityControlLevel :
+                    ImmutabilityControlLevel.NO_CONTROL;
+        } else {
+            mergesBeforeHandling = 0;
+            controlLevel = ImmutabilityControlLevel.NO_CONTROL;
+        }
 
         ImmutabilityChecker.Snapshot payloadSnapshot;
 
@@ -1017,7 +1608,7 @@ public class ReactorGraphExecutionBuilder {
                  */
                 payloadSnapshot = immutabilityChecker.takeSnapshot(payload);
 
-                handlingResult = invokeHandlingMethod(processorInfo, processingVertex.getProcessingItem(), payload);
+                handlingResult = invokeHandlingMethod(state, processingVertex, payload, handleSpan);
 
             } else {
                 /**
@@ -1025,7 +1616,7 @@ public class ReactorGraphExecutionBuilder {
                  */
                 payloadSnapshot = null;
 
-                handlingResult = invokeHandlingMethod(processorInfo, processingVertex.getProcessingItem(), payload);
+                handlingResult = invokeHandlingMethod(state, processingVertex, payload, handleSpan);
             }
         } catch (Exception handlingException) {
             RuntimeException exc = new RuntimeException(
@@ -1038,8 +1629,11 @@ public class ReactorGraphExecutionBuilder {
                     handlingException);
 
             log.error(exc.getMessage(), exc);
+            if (handleSpan != null) {
+                handleSpan.end(null, exc);
+            }
             executionResultFuture.completeExceptionally(exc);
-            processingVertex.getProcessorFuture().complete(new HandlePayloadContext().setTerminal(true));
+            completeHandler(state, processingVertex, TransitionState.TERMINAL, null);
             return;
         }
 
@@ -1053,22 +1647,69 @@ public class ReactorGraphExecutionBuilder {
                             debugSerializer.dumpObject(payload)));
 
             log.error(exc.getMessage(), exc);
+            if (handleSpan != null) {
+                handleSpan.end(null, exc);
+            }
             executionResultFuture.completeExceptionally(exc);
-            processingVertex.getProcessorFuture().complete(new HandlePayloadContext().setTerminal(true));
+            completeHandler(state, processingVertex, TransitionState.TERMINAL, null);
             return;
         }
 
-        handlingResult.handleAsync((res, thr) -> {
-            handleCall.stop();
+        state.runningHandlers.set(processingVertex.getId(), handlingResult);
+        if (state.stopped) {
+            /**
+             * Execution stopped while handler was invoked, after stop swept running handlers
+             */
+            detachHandler(state, processingVertex, handlingResult);
+        }
+        TimeoutScheduler.Timeout handlerTimeout = processingVertex.getHandlerTimeoutNanos() > 0 ?
+                scheduleHandlerTimeout(state, processingVertex, handlingResult) :
+                null;
+
+        BiFunction<Object, Throwable, Object> handlerCompletion = (res, thr) -> {
+            if (handleCall != null) {
+                handleCall.stop();
+            }
+            recordEvent(state, processingVertex, FlightRecorder.EventType.HANDLER_COMPLETED, null, thr);
+            if (handleEventMarker != null) {
+                state.events.afterHandle(
+                        handleEventMarker,
+                        state.plan.getPayloadClass(),
+                        processingVertex.getProcessingItem().getIdentity(),
+                        thr);
+            }
+
+            if (state.latencyRecorded) {
+                processingVertex.getLatency().record(LatencyPhase.HANDLE, System.nanoTime() - handleStartTime);
+            }
 
             if (isTraceablePayload) {
-                tracer.afterHandle(handleTracingMarker, handleTracingIdentity, res, thr);
+                tracer.afterHandle(handleTracingMarker, processingVertex.getProcessingItem().getIdentity(), res, thr);
+            }
+            if (handleSpan != null) {
+                handleSpan.end(null, thr);
             }
 
-            if (controlLevel != ImmutabilityControlLevel.NO_CONTROL) {
+            if (handlerTimeout != null) {
+                handlerTimeout.cancel();
+            }
+            if (!state.runningHandlers.compareAndSet(processingVertex.getId(), handlingResult, null)) {
+                /**
+                 * Handler timeout expired or execution stopped earlier and already marked processor as dead.
+                 * Late result is ignored.
+                 */
+                return null;
+            }
+
+            if (controlLevel != ImmutabilityControlLevel.NO_CONTROL
+                    && state.startedMerges.get() == mergesBeforeHandling) {
 
                 Optional<String> diff = immutabilityChecker.diff(payloadSnapshot, payload);
                 if (diff.isPresent()) {
+                    profiler.profiledCall(ProfilerNames.IMMUTABILITY_VIOLATION
+                            + processingVertex.getProcessingItem().getProfilingName())
+                            .call();
+
                     String message = String.format("Concurrent modification of payload %s detected. Diff: %s.",
                             debugSerializer.dumpObject(payload),
                             diff.get());
@@ -1109,27 +1750,82 @@ public class ReactorGraphExecutionBuilder {
                 log.error(exc.getMessage(), exc);
                 executionResultFuture.completeExceptionally(exc);
 
-                processingVertex.getProcessorFuture().complete(new HandlePayloadContext().setTerminal(true));
+                completeHandler(state, processingVertex, TransitionState.TERMINAL, null);
             } else {
-                processingVertex.getProcessorFuture().complete(new HandlePayloadContext()
-                        .setPayload(payload)
-                        .setProcessorResult(res));
+                completeHandler(state, processingVertex, TransitionState.ACTIVE, res);
             }
             return null;
+        };
+
+        boolean cacheHit = processingVertex.getResultCache() != null && handlingResult.isDone();
+
+        boolean continueInline = !processingVertex.isBlockingHandler()
+                && (state.transitionMode == TransitionMode.SYNC || cacheHit);
+
+        CompletableFuture<?> handlerCompletionFuture = continueInline ?
+                /**
+                 * Continue execution on the thread that completed handler future.
+                 * Result of cache hit is already available, there is no point to hop to executor.
+                 * Blocking handler completes its future on blocking handler executor,
+                 * merge and following transitions always return to execution executor.
+                 */
+                handlingResult.handle(handlerCompletion) :
+                handlingResult.handleAsync(handlerCompletion, state.executor);
+
+        handlerCompletionFuture.exceptionally(throwable -> {
+            log.error("Completion of handler failed.", throwable);
+            executionResultFuture.completeExceptionally(throwable);
+            return null;
         });
     }
 
+    private TimeoutScheduler.Timeout scheduleHandlerTimeout(ExecutionState<?> state,
+                                                           ReactorGraphExecutionPlan.Vertex vertex,
+                                                           CompletableFuture<?> handlingResult) {
+        TimeoutScheduler scheduler = this.timeoutScheduler;
+        if (scheduler == null) {
+            throw new IllegalStateException(String.format(
+                    "Timeout scheduler is not set. Can not limit handler duration of %s.",
+                    vertex.getProcessingItem().getDebugName()));
+        }
+
+        return scheduler.schedule(() -> runAsync(state, () -> {
+            if (!state.runningHandlers.compareAndSet(vertex.getId(), handlingResult, null)) {
+                return;
+            }
+            /**
+             * Handler did not complete in time. Processor is marked as dead, so nothing downstream is invoked.
+             * Execution result fails only if graph can not reach terminal state without this processor.
+             */
+            recordEvent(state, vertex, FlightRecorder.EventType.HANDLER_TIMEOUT, null, null);
+            state.events.timeout(
+                    state.plan.getPayloadClass(),
+                    vertex.getProcessingItem().getIdentity(),
+                    TimeUnit.NANOSECONDS.toMillis(vertex.getHandlerTimeoutNanos()));
+            if (state.handlerTimeout == null) {
+                state.handlerTimeout = new TimeoutException(String.format(
+                        "Handler of %s took more than %d ms.",
+                        vertex.getProcessingItem().getDebugName(),
+                        TimeUnit.NANOSECONDS.toMillis(vertex.getHandlerTimeoutNanos())));
+            }
+            activateVertex(state, vertex, (st, vx) -> completeHandler(st, vx, TransitionState.DEAD, null));
+            if (vertex.isCancellableHandler()) {
+                handlingResult.cancel(false);
+            }
+        }), vertex.getHandlerTimeoutNanos(), TimeUnit.NANOSECONDS);
+    }
+
     /**
+     * @param state
      * @param processingVertex
-     * @param processorResult       empty in case of detached merge point
-     * @param payload
-     * @param executionResultFuture
-     * @param <PayloadType>
+     * @param processorResult  empty in case of detached merge point
      */
-    private <PayloadType> void merge(ProcessingVertex processingVertex,
-                                     Object processorResult,
-                                     Object payload,
-                                     CompletableFuture<PayloadType> executionResultFuture) {
+    private <PayloadType> void merge(ExecutionState<PayloadType> state,
+                                     ReactorGraphExecutionPlan.Vertex processingVertex,
+                                     Object processorResult) {
+
+        PayloadType payload = state.payload;
+        CompletableFuture<PayloadType> executionResultFuture = state.resultFuture;
 
         CRReactorGraph.ProcessingItemInfo processorInfo = processingVertex.getProcessingItemInfo();
 
@@ -1141,7 +1837,7 @@ public class ReactorGraphExecutionBuilder {
                     /**
                      * This Processor does not have merger
                      */
-                    processingVertex.getMergePointFuture().complete(new MergePayloadContext().setDeadTransition(true));
+                    skipMergePoint(state, processingVertex, TransitionState.DEAD, null);
                     return;
                 } else {
                     mergerInvocation = () -> (Enum) processorInfo.getDescription().getMerger().merge(
@@ -1154,7 +1850,7 @@ public class ReactorGraphExecutionBuilder {
                     /**
                      * This Subgraph does not have merger
                      */
-                    processingVertex.getMergePointFuture().complete(new MergePayloadContext().setDeadTransition(true));
+                    skipMergePoint(state, processingVertex, TransitionState.DEAD, null);
                     return;
                 } else {
                     mergerInvocation = () -> (Enum) processorInfo.getSubgraphDescription().getMerger().merge(
@@ -1174,18 +1870,68 @@ public class ReactorGraphExecutionBuilder {
         }
 
 
+        Enum mergeStatus;
+        boolean terminal = false;
+        Object mergeEventMarker = null;
+        Span mergeSpan = null;
+
         try {
-            ProfiledCall mergeCall = profiler.profiledCall(
-                    ProfilerNames.PROCESSOR_MERGE + processingVertex.getProcessingItem().getProfilingName())
-                    .start();
-            boolean isTraceablePayload = tracer.isTraceable(payload);
+            ProfiledCall mergeCall = state.profiled ?
+                    profiler.profiledCall(processingVertex.getMergeProfilingName()).start() :
+                    null;
+
+            long mergeStartTime = state.latencyRecorded ? System.nanoTime() : 0;
+            if (state.latencyRecorded && !processingVertex.isDetachedMergePoint()) {
+                /**
+                 * Handler result is ready, merge point waited for merges of previous vertices
+                 */
+                processingVertex.getLatency().record(
+                        LatencyPhase.MERGE_WAIT,
+                        mergeStartTime - timestamp(state, processingVertex.getId(), HANDLE_COMPLETED));
+            }
+            recordEvent(state, processingVertex, FlightRecorder.EventType.MERGE_STARTED, null, null);
+            mergeEventMarker = state.events.beforeMerge();
+
+            boolean isTraceablePayload = state.traced;
             Object mergeTracingMarker = isTraceablePayload ?
                     tracer.beforeMerge(processingVertex.getProcessingItem().getIdentity(), payload, processorResult) :
                     null;
+            if (state.trace != null) {
+                mergeSpan = state.trace.startSpan(SpanKind.MERGE, processingVertex.getProcessingItem().getDebugName());
+            }
+
+            if (state.startedMerges != null) {
+                state.startedMerges.incrementAndGet();
+                try {
+                    mergeStatus = mergerInvocation.get();
+                } finally {
+                    state.completedMerges.incrementAndGet();
+                }
+            } else {
+                mergeStatus = mergerInvocation.get();
+            }
 
-            Enum mergeStatus = mergerInvocation.get();
+            if (mergeCall != null) {
+                mergeCall.stop();
+            }
+            recordEvent(state, processingVertex, FlightRecorder.EventType.MERGE_COMPLETED, mergeStatus, null);
+            if (mergeEventMarker != null) {
+                state.events.afterMerge(
+                        mergeEventMarker,
+                        state.plan.getPayloadClass(),
+                        processingVertex.getProcessingItem().getIdentity(),
+                        mergeStatus,
+                        null);
+                mergeEventMarker = null;
+            }
+            if (mergeSpan != null) {
+                mergeSpan.end(mergeStatus, null);
+                mergeSpan = null;
+            }
 
-            mergeCall.stop();
+            if (state.latencyRecorded) {
+                processingVertex.getLatency().record(LatencyPhase.MERGE, System.nanoTime() - mergeStartTime);
+            }
 
             if (isTraceablePayload) {
                 tracer.afterMerger(mergeTracingMarker, processingVertex.getProcessingItem().getIdentity(), payload);
@@ -1194,8 +1940,9 @@ public class ReactorGraphExecutionBuilder {
             /**
              * Select outgoing transitions that matches mergeStatus
              */
-            List<CRReactorGraph.Transition> activeTransitions = processingVertex.getMergePointTransition().stream()
-                    .filter(transition -> transition.isOnAny() || transition.getMergeStatuses().contains(mergeStatus))
+            List<ReactorGraphExecutionPlan.Transition> activeTransitions = Arrays.stream(
+                    processingVertex.getOutgoingTransitions())
+                    .filter(transition -> transition.isMatch(mergeStatus))
                     .collect(Collectors.toList());
 
             if (activeTransitions.size() <= 0) {
@@ -1204,20 +1951,29 @@ public class ReactorGraphExecutionBuilder {
                                 " Expected status from merger function one of: %s",
                         mergeStatus.getDeclaringClass(), mergeStatus,
                         processingVertex.getProcessingItem().getDebugName(),
-                        processingVertex.getMergePointTransition().stream()
-                                .map(CRReactorGraph.Transition::getDebugDescription)
+                        Arrays.stream(processingVertex.getOutgoingTransitions())
+                                .map(ReactorGraphExecutionPlan.Transition::getDebugDescription)
                                 .collect(Collectors.joining(",", "{", "}"))));
             }
 
             /**
              * check if this merge point have terminal transitions that matches merge status
              */
-            if (activeTransitions.stream().anyMatch(CRReactorGraph.Transition::isComplete)) {
+            if (activeTransitions.stream().anyMatch(ReactorGraphExecutionPlan.Transition::isComplete)) {
 
                 /**
                  * Handle terminal transition by completing execution result
                  */
-                if (!executionResultFuture.complete((PayloadType) payload)) {
+                if (!executionResultFuture.isDone()) {
+                    recordEvent(state, processingVertex, FlightRecorder.EventType.EXECUTION_COMPLETED, null, null);
+                    if (state.criticalPathAnalyzed) {
+                        /**
+                         * Analyzed before completion, so statistics include execution once its result is visible
+                         */
+                        analyzeCriticalPath(state, processingVertex, System.nanoTime());
+                    }
+                }
+                if (!executionResultFuture.complete(payload)) {
 
                     Object previousResult = null;
                     try {
@@ -1244,17 +2000,7 @@ public class ReactorGraphExecutionBuilder {
                  * Terminal state reached. Execution result completed.
                  * Throw poison pill - terminal context. All following merge points should be deactivated.
                  */
-                processingVertex.getMergePointFuture().complete(new MergePayloadContext()
-                        .setPayload(null)
-                        .setMergeResult(mergeStatus)
-                        .setTerminal(true));
-            } else {
-                /**
-                 * There is no terminal state reached after merging.
-                 */
-                processingVertex.getMergePointFuture().complete(new MergePayloadContext()
-                        .setPayload(payload)
-                        .setMergeResult(mergeStatus));
+                terminal = true;
             }
 
         } catch (Exception exc) {
@@ -1264,10 +2010,32 @@ public class ReactorGraphExecutionBuilder {
                     processingVertex.getProcessingItem().getDebugName(),
                     debugSerializer.dumpObject(processorResult),
                     exc);
+            recordEvent(state, processingVertex, FlightRecorder.EventType.MERGE_COMPLETED, null, exc);
+            if (mergeEventMarker != null) {
+                state.events.afterMerge(
+                        mergeEventMarker,
+                        state.plan.getPayloadClass(),
+                        processingVertex.getProcessingItem().getIdentity(),
+                        null,
+                        exc);
+            }
+            if (mergeSpan != null) {
+                mergeSpan.end(null, exc);
+            }
 
             executionResultFuture.completeExceptionally(exc);
 
-            processingVertex.getMergePointFuture().complete(new MergePayloadContext().setDeadTransition(true));
+            completeMergePoint(state, processingVertex, TransitionState.DEAD, null);
+            return;
+        }
+
+        if (terminal) {
+            completeMergePoint(state, processingVertex, TransitionState.TERMINAL, mergeStatus);
+        } else {
+            /**
+             * There is no terminal state reached after merging.
+             */
+            completeMergePoint(state, processingVertex, TransitionState.ACTIVE, mergeStatus);
         }
     }
 }
@@ -0,0 +1,456 @@
+package ru.fix.completable.reactor.runtime.execution;
+
+import lombok.Getter;
+import ru.fix.completable.reactor.runtime.ProfilerNames;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.immutability.ImmutabilityCheckSampling;
+import ru.fix.completable.reactor.runtime.internal.CRProcessingItem;
+import ru.fix.completable.reactor.runtime.internal.CRReactorGraph;
+import ru.fix.completable.reactor.runtime.metrics.CriticalPathStatistics;
+import ru.fix.completable.reactor.runtime.metrics.ProcessorLatency;
+
+import java.util.*;
+
+/**
+ * Immutable index based representation of {@link CRReactorGraph}.
+ * <p>
+ * Plan is compiled once during graph registration and shared between all executions of given payload type.
+ * Every processing item of the graph gets vertex id - index in {@link #getVertices()} array.
+ * Every incoming transition of a vertex gets slot - index within incoming handle or merge transitions
+ * of that vertex. So execution of the graph does not need to walk graph model or to lookup vertices in maps,
+ * it only allocates state arrays of precomputed size.
+ */
+@Getter
+public class ReactorGraphExecutionPlan<PayloadType> {
+
+    /**
+     * Transition from merge point or from start point to processing vertex.
+     */
+    @Getter
+    public static class Transition {
+        /**
+         * Null for start point transitions
+         */
+        final CRReactorGraph.Transition graphTransition;
+
+        /**
+         * Id of vertex which merge point is the source of this transition, -1 for start point transitions
+         */
+        final int sourceVertex;
+
+        final boolean isOnAny;
+        final boolean isComplete;
+        final Set<Enum<?>> mergeStatuses;
+
+        /**
+         * Id of vertex which handler will be activated by this transition, -1 if there is none
+         */
+        final int handleByVertex;
+        /**
+         * Slot of this transition among incoming handle transitions of {@link #handleByVertex}
+         */
+        final int handleBySlot;
+
+        /**
+         * Id of vertex which merge point will be activated by this transition, -1 if there is none
+         */
+        final int mergeVertex;
+        /**
+         * Slot of this transition among incoming merge transitions of {@link #mergeVertex}
+         */
+        final int mergeSlot;
+
+        Transition(CRReactorGraph.Transition graphTransition,
+                   int sourceVertex,
+                   int handleByVertex,
+                   int handleBySlot,
+                   int mergeVertex,
+                   int mergeSlot) {
+            this.graphTransition = graphTransition;
+            this.sourceVertex = sourceVertex;
+            this.isOnAny = graphTransition == null || graphTransition.isOnAny();
+            this.isComplete = graphTransition != null && graphTransition.isComplete();
+            this.mergeStatuses = graphTransition != null && graphTransition.getMergeStatuses() != null ?
+                    graphTransition.getMergeStatuses() :
+                    Collections.emptySet();
+            this.handleByVertex = handleByVertex;
+            this.handleBySlot = handleBySlot;
+            this.mergeVertex = mergeVertex;
+            this.mergeSlot = mergeSlot;
+        }
+
+        public boolean isMatch(Enum<?> mergeStatus) {
+            return isOnAny || mergeStatuses.contains(mergeStatus);
+        }
+
+        public String getDebugDescription() {
+            return graphTransition != null ? graphTransition.getDebugDescription() : "{startPoint}";
+        }
+    }
+
+    /**
+     * Processor, Subgraph or detached MergePoint of the graph.
+     * <img src="../doc-files/processing-item.png" alt="">
+     */
+    @Getter
+    public static class Vertex {
+        final int id;
+
+        final CRProcessingItem processingItem;
+
+        final CRReactorGraph.ProcessingItemInfo processingItemInfo;
+
+        final CRReactorGraph.ProcessingItemType processingItemType;
+
+        /**
+         * Handler of processor is marked as blocking and should be invoked by blocking handler executor
+         */
+        final boolean blockingHandler;
+
+        /**
+         * Handler future belongs to single execution and is cancelled when vertex is detached:
+         * subgraph execution or future of handler marked as cancellable.
+         * Other handler futures could be shared between executions and are never cancelled.
+         */
+        final boolean cancellableHandler;
+
+        /**
+         * Max duration of handler invocation or subgraph execution in nanoseconds, zero if there is no limit
+         */
+        final long handlerTimeoutNanos;
+
+        /**
+         * Collects arguments of batch handler from all executions of the plan, null if processor has regular handler
+         */
+        final MicroBatcher batcher;
+
+        /**
+         * Deduplicates concurrent handler invocations with equal arguments, null if processor does not coalesce calls
+         */
+        final SingleFlight singleFlight;
+
+        /**
+         * Cache of handler results, null if processor does not cache results
+         */
+        final ResultCache resultCache;
+
+        /**
+         * Selects handler invocations checked for payload modification,
+         * null if processor follows sampling of execution
+         */
+        final ImmutabilityCheckSampling.Sampler immutabilityCheckSampler;
+
+        /**
+         * Latency histograms of handle and merge phases of this vertex collected by all executions of the plan
+         */
+        final ProcessorLatency latency = new ProcessorLatency();
+
+        /**
+         * Profiler names of handle and merge phases, resolved once so invocations do not build names
+         */
+        final String handleProfilingName;
+        final String mergeProfilingName;
+
+        /**
+         * Number of transitions that activate handler of this vertex: from start point and handleBy transitions.
+         */
+        int incomingHandleTransitionCount;
+
+        /**
+         * Number of transitions that activate merge point of this vertex: from start point and merge transitions.
+         * Does not include transition from handler of this vertex to its own merge point.
+         */
+        int incomingMergeTransitionCount;
+
+        /**
+         * Outgoing transitions of merge point of this vertex
+         */
+        Transition[] outgoingTransitions = new Transition[0];
+
+        /**
+         * Offset of incoming handle transition slots of this vertex within execution slot array
+         */
+        int handleSlotOffset;
+
+        /**
+         * Offset of incoming merge transition slots of this vertex within execution slot array.
+         * Merge slots are followed by slot of handler result for all vertices except detached merge point.
+         */
+        int mergeSlotOffset;
+
+        Vertex(int id, CRProcessingItem processingItem, CRReactorGraph.ProcessingItemInfo processingItemInfo) {
+            this.id = id;
+            this.processingItem = processingItem;
+            this.processingItemInfo = processingItemInfo;
+            this.processingItemType = processingItemInfo.getProcessingItemType();
+            this.blockingHandler = processingItemType == CRReactorGraph.ProcessingItemType.PROCESSOR
+                    && processingItemInfo.getDescription().isBlockingHandler();
+            this.cancellableHandler = processingItemType == CRReactorGraph.ProcessingItemType.SUBGRAPH
+                    || processingItemType == CRReactorGraph.ProcessingItemType.PROCESSOR
+                    && processingItemInfo.getDescription().isCancellableHandler();
+            this.handleProfilingName = ProfilerNames.PROCESSOR_HANDLE + processingItem.getProfilingName();
+            this.mergeProfilingName = ProfilerNames.PROCESSOR_MERGE + processingItem.getProfilingName();
+
+            switch (processingItemType) {
+                case PROCESSOR:
+                    this.handlerTimeoutNanos = processingItemInfo.getDescription().getTimeoutNanos();
+                    break;
+                case SUBGRAPH:
+                    this.handlerTimeoutNanos = processingItemInfo.getSubgraphDescription().getTimeoutNanos();
+                    break;
+                default:
+                    this.handlerTimeoutNanos = 0;
+            }
+
+            if (processingItemType == CRReactorGraph.ProcessingItemType.PROCESSOR
+                    && processingItemInfo.getDescription().getBatchHandler() != null) {
+                this.batcher = new MicroBatcher(
+                        processingItemInfo.getDescription().getBatchHandler(),
+                        processingItemInfo.getDescription().getMaxBatchSize(),
+                        processingItemInfo.getDescription().getMaxBatchLingerNanos(),
+                        processingItem.getProfilingName());
+            } else {
+                this.batcher = null;
+            }
+
+            if (processingItemType == CRReactorGraph.ProcessingItemType.PROCESSOR
+                    && processingItemInfo.getDescription().isCoalesceCalls()) {
+                this.singleFlight = new SingleFlight(processingItem.getProfilingName());
+            } else {
+                this.singleFlight = null;
+            }
+
+            if (processingItemType == CRReactorGraph.ProcessingItemType.PROCESSOR
+                    && processingItemInfo.getDescription().getCacheMaxEntries() > 0) {
+                this.resultCache = new ResultCache(
+                        processingItemInfo.getDescription().getCacheMaxEntries(),
+                        processingItemInfo.getDescription().getCacheTtlNanos(),
+                        processingItemInfo.getDescription().getCacheRefreshAheadNanos(),
+                        processingItem.getProfilingName());
+            } else {
+                this.resultCache = null;
+            }
+
+            if (processingItemType == CRReactorGraph.ProcessingItemType.PROCESSOR
+                    && processingItemInfo.getDescription().getImmutabilityCheckSampling() != null) {
+                this.immutabilityCheckSampler = processingItemInfo.getDescription()
+                        .getImmutabilityCheckSampling()
+                        .newSampler();
+            } else {
+                this.immutabilityCheckSampler = null;
+            }
+        }
+
+        /**
+         * @return true if vertex is a detached merge point, that does not have handler
+         */
+        public boolean isDetachedMergePoint() {
+            return processingItemType == CRReactorGraph.ProcessingItemType.MERGE_POINT;
+        }
+
+        /**
+         * @return number of inputs merge point of this vertex waits for: incoming merge transitions
+         * and handler result of this vertex
+         */
+        public int getMergeInputCount() {
+            return isDetachedMergePoint() ? incomingMergeTransitionCount : incomingMergeTransitionCount + 1;
+        }
+
+        /**
+         * @return slot of handler result within execution slot array
+         */
+        public int getHandlerResultSlot() {
+            return mergeSlotOffset + incomingMergeTransitionCount;
+        }
+    }
+
+    final Class<PayloadType> payloadClass;
+
+    final Vertex[] vertices;
+
+    /**
+     * Transitions from start point. Each of them targets either handler or detached merge point.
+     */
+    final Transition[] startPointTransitions;
+
+    /**
+     * Size of execution slot array: all incoming transitions of all vertices and handler results
+     */
+    final int slotCount;
+
+    /**
+     * Number of vertices that have handler, i.e. all vertices except detached merge points
+     */
+    final int handlerVertexCount;
+
+    /**
+     * Source vertex id of each slot of execution slot array: source of incoming transition,
+     * -1 for start point transitions, own id for handler result slots
+     */
+    final int[] slotSources;
+
+    /**
+     * Critical path statistics collected by all executions of the plan
+     */
+    final CriticalPathStatistics criticalPathStatistics;
+
+    private ReactorGraphExecutionPlan(Class<PayloadType> payloadClass,
+                                      Vertex[] vertices,
+                                      Transition[] startPointTransitions) {
+        this.payloadClass = payloadClass;
+        this.vertices = vertices;
+        this.startPointTransitions = startPointTransitions;
+
+        int offset = 0;
+        int handlers = 0;
+        for (Vertex vertex : vertices) {
+            vertex.handleSlotOffset = offset;
+            offset += vertex.incomingHandleTransitionCount;
+            vertex.mergeSlotOffset = offset;
+            offset += vertex.getMergeInputCount();
+            if (!vertex.isDetachedMergePoint()) {
+                handlers++;
+            }
+        }
+        this.slotCount = offset;
+        this.handlerVertexCount = handlers;
+
+        this.slotSources = new int[slotCount];
+        for (Transition transition : startPointTransitions) {
+            assignSlotSource(transition);
+        }
+        for (Vertex vertex : vertices) {
+            for (Transition transition : vertex.outgoingTransitions) {
+                assignSlotSource(transition);
+            }
+            if (!vertex.isDetachedMergePoint()) {
+                slotSources[vertex.getHandlerResultSlot()] = vertex.id;
+            }
+        }
+        this.criticalPathStatistics = new CriticalPathStatistics(vertices.length);
+    }
+
+    private void assignSlotSource(Transition transition) {
+        if (transition.handleByVertex >= 0) {
+            Vertex target = vertices[transition.handleByVertex];
+            slotSources[target.handleSlotOffset + transition.handleBySlot] = transition.sourceVertex;
+        }
+        if (transition.mergeVertex >= 0) {
+            Vertex target = vertices[transition.mergeVertex];
+            slotSources[target.mergeSlotOffset + transition.mergeSlot] = transition.sourceVertex;
+        }
+    }
+
+    /**
+     * Compiles graph into execution plan.
+     *
+     * @throws IllegalArgumentException if graph structure is invalid
+     */
+    public static <PayloadType> ReactorGraphExecutionPlan<PayloadType> compile(ReactorGraph<PayloadType> reactorGraph) {
+
+        CRReactorGraph<PayloadType> graph = (CRReactorGraph<PayloadType>) reactorGraph;
+
+        /**
+         * Sort processing items so vertex ids does not depend on hash map iteration order
+         */
+        List<Map.Entry<CRProcessingItem, CRReactorGraph.ProcessingItemInfo>> items =
+                new ArrayList<>(graph.getProcessingItems().entrySet());
+        items.sort(Comparator.comparing(entry -> CRReactorGraph.serialize(entry.getKey())));
+
+        Vertex[] vertices = new Vertex[items.size()];
+        Map<CRProcessingItem, Vertex> vertexByItem = new HashMap<>();
+        for (int id = 0; id < vertices.length; id++) {
+            vertices[id] = new Vertex(id, items.get(id).getKey(), items.get(id).getValue());
+            vertexByItem.put(vertices[id].processingItem, vertices[id]);
+        }
+
+        /**
+         * Start point transitions
+         */
+        List<Transition> startPointTransitions = new ArrayList<>();
+        for (CRProcessingItem item : graph.getStartPoint().getProcessingItems()) {
+            Vertex target = resolve(vertexByItem, item);
+            if (target.isDetachedMergePoint()) {
+                startPointTransitions.add(new Transition(
+                        null, -1, -1, -1, target.id, target.incomingMergeTransitionCount++));
+            } else {
+                startPointTransitions.add(new Transition(
+                        null, -1, target.id, target.incomingHandleTransitionCount++, -1, -1));
+            }
+        }
+
+        /**
+         * Merge point transitions
+         */
+        for (CRReactorGraph.MergePoint mergePoint : graph.getMergePoints()) {
+            Vertex source = resolve(vertexByItem, mergePoint.asProcessingItem());
+
+            List<Transition> outgoingTransitions = new ArrayList<>(Arrays.asList(source.outgoingTransitions));
+
+            for (CRReactorGraph.Transition graphTransition : mergePoint.getTransitions()) {
+                int handleByVertex = -1;
+                int handleBySlot = -1;
+                int mergeVertex = -1;
+                int mergeSlot = -1;
+
+                /**
+                 * Terminal transition handled synchronously with merging process
+                 * and does not activate any vertex.
+                 */
+                if (!graphTransition.isComplete()) {
+                    if (graphTransition.getHandleBy() != null) {
+                        Vertex target = resolve(vertexByItem, graphTransition.getHandleBy());
+                        handleByVertex = target.id;
+                        handleBySlot = target.incomingHandleTransitionCount++;
+                    }
+                    if (graphTransition.getMerge() != null) {
+                        Vertex target = resolve(vertexByItem, graphTransition.getMerge());
+                        mergeVertex = target.id;
+                        mergeSlot = target.incomingMergeTransitionCount++;
+                    }
+                }
+                outgoingTransitions.add(new Transition(
+                        graphTransition, source.id, handleByVertex, handleBySlot, mergeVertex, mergeSlot));
+            }
+            source.outgoingTransitions = outgoingTransitions.toArray(new Transition[outgoingTransitions.size()]);
+        }
+
+        /**
+         * Validate fan-in of vertices
+         */
+        for (Vertex vertex : vertices) {
+            if (vertex.isDetachedMergePoint()) {
+                if (vertex.incomingHandleTransitionCount != 0) {
+                    throw new IllegalArgumentException(String.format(
+                            "Invalid graph state. Detached merge point %s have more than 0 incoming flows.",
+                            vertex.processingItem.getDebugName()));
+                }
+                if (vertex.incomingMergeTransitionCount == 0) {
+                    throw new IllegalArgumentException(String.format(
+                            "Invalid graph descriptor. There is no incoming merge flows for detached merge point %s.",
+                            vertex.processingItem.getDebugName()));
+                }
+            } else if (vertex.incomingHandleTransitionCount <= 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid graph descriptor. Processor %s does not have incoming flows." +
+                                " Probably missing handleBy directive for this processor.",
+                        vertex.processingItem.getDebugName()));
+            }
+        }
+
+        return new ReactorGraphExecutionPlan<>(
+                graph.getPayloadClass(),
+                vertices,
+                startPointTransitions.toArray(new Transition[startPointTransitions.size()]));
+    }
+
+    private static Vertex resolve(Map<CRProcessingItem, Vertex> vertexByItem, CRProcessingItem item) {
+        Vertex vertex = vertexByItem.get(item);
+        if (vertex == null) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid graph descriptor. Processing item %s is not registered in graph.",
+                    item.getDebugName()));
+        }
+        return vertex;
+    }
+}
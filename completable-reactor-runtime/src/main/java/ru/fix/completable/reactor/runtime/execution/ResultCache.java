@@ -0,0 +1,147 @@
+package ru.fix.completable.reactor.runtime.execution;
+
+import ru.fix.commons.profiler.Profiler;
+import ru.fix.completable.reactor.runtime.ProfilerNames;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Caches successful handler results by key.
+ * Lookup is lock free. Insertion evicts the oldest inserted entries when cache exceeds max entries.
+ * Entry expires after ttl. Hit on entry that is older than ttl minus refresh ahead interval
+ * returns cached result and starts single background handler invocation that replaces the entry.
+ */
+public class ResultCache {
+
+    private static class Entry {
+        final Object key;
+        final Object value;
+        final long createdNanos;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(Object key, Object value, long createdNanos) {
+            this.key = key;
+            this.value = value;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Entries in order of insertion, guarded by itself.
+     * Can contain replaced entries, they are skipped during eviction.
+     */
+    private final ArrayDeque<Entry> insertionOrder = new ArrayDeque<>();
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+
+    private final String hitName;
+    private final String missName;
+    private final String evictionName;
+
+    /**
+     * @param refreshAheadNanos zero to disable refresh ahead
+     */
+    public ResultCache(int maxEntries, long ttlNanos, long refreshAheadNanos, String profilingName) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        this.refreshAheadNanos = refreshAheadNanos;
+        this.hitName = ProfilerNames.PROCESSOR_CACHE_HIT + profilingName;
+        this.missName = ProfilerNames.PROCESSOR_CACHE_MISS + profilingName;
+        this.evictionName = ProfilerNames.PROCESSOR_CACHE_EVICTION + profilingName;
+    }
+
+    /**
+     * @param invocation invokes handler on cache miss or refresh
+     * @param profiler   counts hits, misses and evictions, null if profiling is disabled
+     * @return completed future on hit, handler result on miss
+     */
+    public CompletableFuture<?> get(Object key, Supplier<CompletableFuture<?>> invocation, Profiler profiler) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+
+        if (entry != null) {
+            long age = now - entry.createdNanos;
+            if (age < ttlNanos) {
+                if (profiler != null) {
+                    profiler.profiledCall(hitName).call();
+                }
+                if (refreshAheadNanos > 0
+                        && age >= ttlNanos - refreshAheadNanos
+                        && entry.refreshing.compareAndSet(false, true)) {
+                    refresh(entry, invocation, profiler);
+                }
+                return CompletableFuture.completedFuture(entry.value);
+            }
+            entries.remove(key, entry);
+        }
+
+        if (profiler != null) {
+            profiler.profiledCall(missName).call();
+        }
+        CompletableFuture<?> result = invocation.get();
+        if (result != null) {
+            result.thenAccept(value -> put(key, value, profiler));
+        }
+        return result;
+    }
+
+    private void refresh(Entry entry, Supplier<CompletableFuture<?>> invocation, Profiler profiler) {
+        CompletableFuture<?> result;
+        try {
+            result = invocation.get();
+        } catch (Exception exc) {
+            entry.refreshing.set(false);
+            return;
+        }
+        if (result == null) {
+            entry.refreshing.set(false);
+            return;
+        }
+        result.whenComplete((value, thr) -> {
+            if (thr != null) {
+                /**
+                 * Cached value is still valid, next hit retries refresh
+                 */
+                entry.refreshing.set(false);
+            } else {
+                put(entry.key, value, profiler);
+            }
+        });
+    }
+
+    private void put(Object key, Object value, Profiler profiler) {
+        Entry entry = new Entry(key, value, System.nanoTime());
+        int evicted = 0;
+        synchronized (insertionOrder) {
+            entries.put(key, entry);
+            insertionOrder.add(entry);
+            while (entries.size() > maxEntries || insertionOrder.size() > 2 * maxEntries) {
+                Entry oldest = insertionOrder.poll();
+                if (oldest == null) {
+                    break;
+                }
+                if (entries.remove(oldest.key, oldest)) {
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0 && profiler != null) {
+            profiler.profiledCall(evictionName).call(evicted);
+        }
+    }
+
+    /**
+     * @return number of cached entries, including expired ones that were not looked up since expiration
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,97 @@
+package ru.fix.completable.reactor.runtime.execution;
+
+import ru.fix.commons.profiler.Profiler;
+import ru.fix.completable.reactor.runtime.ProfilerNames;
+import ru.fix.completable.reactor.runtime.cloning.ThreadsafeCopyMaker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent handler invocations with equal arguments.
+ * First invocation for a key calls handler, invocations with the same key that arrive
+ * before handler result completes share that result.
+ * Each invocation gets its own future, so cancellation of one execution does not cancel shared handler call.
+ */
+public class SingleFlight {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inflight = new ConcurrentHashMap<>();
+
+    private final String profilingName;
+    private final String coalescedName;
+
+    public SingleFlight(String profilingName) {
+        this.profilingName = profilingName;
+        this.coalescedName = ProfilerNames.PROCESSOR_COALESCED + profilingName;
+    }
+
+    /**
+     * @param key        arguments of invocation, compared by equals
+     * @param invocation invokes handler
+     * @param copyMaker  copies shared result for every invocation, null to share result instance
+     * @param profiler   counts coalesced invocations, null if profiling is disabled
+     */
+    public CompletableFuture<?> invoke(Object key,
+                                       Supplier<CompletableFuture<?>> invocation,
+                                       ThreadsafeCopyMaker copyMaker,
+                                       Profiler profiler) {
+
+        CompletableFuture<Object> shared = inflight.get(key);
+        if (shared == null) {
+            CompletableFuture<Object> created = new CompletableFuture<>();
+            shared = inflight.putIfAbsent(key, created);
+            if (shared == null) {
+                shared = created;
+                invokeHandler(key, created, invocation);
+            } else if (profiler != null) {
+                profiler.profiledCall(coalescedName).call();
+            }
+        } else if (profiler != null) {
+            profiler.profiledCall(coalescedName).call();
+        }
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        shared.whenComplete((value, thr) -> {
+            if (thr != null) {
+                result.completeExceptionally(thr);
+            } else {
+                try {
+                    result.complete(copyMaker != null ? copyMaker.makeThreadsafeCopy(value) : value);
+                } catch (Exception exc) {
+                    result.completeExceptionally(exc);
+                }
+            }
+        });
+        return result;
+    }
+
+    private void invokeHandler(Object key, CompletableFuture<Object> shared, Supplier<CompletableFuture<?>> invocation) {
+        CompletableFuture<?> handlerResult;
+        try {
+            handlerResult = invocation.get();
+        } catch (Exception exc) {
+            inflight.remove(key, shared);
+            shared.completeExceptionally(exc);
+            return;
+        }
+        if (handlerResult == null) {
+            inflight.remove(key, shared);
+            shared.completeExceptionally(new IllegalStateException(String.format(
+                    "Handler of %s returned NULL. Instance of CompletableFuture expected.", profilingName)));
+            return;
+        }
+
+        handlerResult.whenComplete((value, thr) -> {
+            /**
+             * Invocations that arrive after completion should call handler again
+             */
+            inflight.remove(key, shared);
+            if (thr != null) {
+                shared.completeExceptionally(thr);
+            } else {
+                shared.complete(value);
+            }
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package ru.fix.completable.reactor.runtime.execution;
+
+/**
+ * Defines which thread runs transitions between merge points and following handlers.
+ */
+public enum TransitionMode {
+    /**
+     * Every handler invocation is submitted to executor of the graph.
+     * Handler completion is processed by executor too.
+     */
+    ASYNC,
+    /**
+     * Handler completion, merging and invocation of next handler run inline on the thread
+     * that completed handler future.
+     * Execution hops to executor only when merge point activates more than one handler
+     * or when inline invocation depth limit is reached.
+     * Suitable for linear graphs with non blocking handlers.
+     */
+    SYNC
+}
@@ -0,0 +1,55 @@
+package ru.fix.completable.reactor.runtime.execution;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads of modern JDKs.
+ * Reactor is compiled for Java 8, so virtual thread executor is resolved through reflection at runtime.
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} or null if JVM does not support virtual threads
+     */
+    private static final Method newVirtualThreadPerTaskExecutor = resolveNewVirtualThreadPerTaskExecutor();
+
+    private VirtualThreads() {
+    }
+
+    private static Method resolveNewVirtualThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException exc) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if JVM supports virtual threads
+     */
+    public static boolean isSupported() {
+        return newVirtualThreadPerTaskExecutor != null;
+    }
+
+    /**
+     * @return executor that starts new virtual thread for each task
+     * or empty if JVM does not support virtual threads
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        if (newVirtualThreadPerTaskExecutor == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null));
+        } catch (Exception exc) {
+            log.warn("Failed to create virtual thread per task executor.", exc);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package ru.fix.completable.reactor.runtime.immutability;
+
+import ru.fix.completable.reactor.api.Immutable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Decides whether instances of class can not be modified after construction.
+ * <p>
+ * Class is immutable if it is primitive, enum, known immutable JDK type,
+ * annotated with {@link Immutable} or if all its instance fields, including inherited ones,
+ * are final and have primitive or immutable final types.
+ * Field of non final type can reference mutable subclass instance, so such field makes class mutable,
+ * except fields of known immutable JDK types like {@link BigDecimal}.
+ * Arrays are always mutable.
+ * <p>
+ * Verdict is computed once per class and cached.
+ */
+public class ClassImmutabilityAnalyzer {
+
+    private static final Set<Class<?>> KNOWN_IMMUTABLE_CLASSES = new HashSet<>(Arrays.asList(
+            String.class,
+            Boolean.class,
+            Byte.class,
+            Character.class,
+            Short.class,
+            Integer.class,
+            Long.class,
+            Float.class,
+            Double.class,
+            Void.class,
+            Class.class,
+            BigDecimal.class,
+            BigInteger.class,
+            URI.class,
+            UUID.class,
+            Pattern.class,
+            Locale.class,
+            Currency.class,
+            Instant.class,
+            Duration.class,
+            Period.class,
+            LocalDate.class,
+            LocalTime.class,
+            LocalDateTime.class,
+            OffsetDateTime.class,
+            OffsetTime.class,
+            ZonedDateTime.class,
+            ZoneId.class,
+            ZoneOffset.class,
+            /**
+             * Package private region based implementation of ZoneId
+             */
+            ZoneId.of("UTC").getClass(),
+            Year.class,
+            YearMonth.class,
+            MonthDay.class,
+            DayOfWeek.class,
+            Month.class,
+            DateTimeFormatter.class
+    ));
+
+    private final ConcurrentHashMap<Class<?>, Boolean> verdicts = new ConcurrentHashMap<>();
+
+    public boolean isImmutable(Class<?> type) {
+        Boolean verdict = verdicts.get(type);
+        if (verdict != null) {
+            return verdict;
+        }
+        verdict = analyze(type, new HashSet<>());
+        verdicts.put(type, verdict);
+        return verdict;
+    }
+
+    /**
+     * Whether any value that field of given type can hold is immutable
+     */
+    public boolean isImmutableFieldType(Class<?> fieldType) {
+        return isImmutableFieldType(fieldType, null);
+    }
+
+    private boolean isImmutableFieldType(Class<?> fieldType, Set<Class<?>> inProgress) {
+        if (fieldType.isPrimitive() || KNOWN_IMMUTABLE_CLASSES.contains(fieldType)) {
+            return true;
+        }
+        if (!Modifier.isFinal(fieldType.getModifiers()) && !fieldType.isEnum()) {
+            return false;
+        }
+        return inProgress == null ? isImmutable(fieldType) : analyze(fieldType, inProgress);
+    }
+
+    /**
+     * @param inProgress classes which verdict is being computed up the stack.
+     *                   They are assumed immutable, so only negative verdicts of nested classes are cached.
+     */
+    private boolean analyze(Class<?> type, Set<Class<?>> inProgress) {
+        Boolean cached = verdicts.get(type);
+        if (cached != null) {
+            return cached;
+        }
+        if (inProgress.contains(type)) {
+            return true;
+        }
+
+        if (type.isPrimitive()
+                || type.isEnum()
+                || (type.getSuperclass() != null && type.getSuperclass().isEnum())
+                || KNOWN_IMMUTABLE_CLASSES.contains(type)
+                || type.isAnnotationPresent(Immutable.class)) {
+            return true;
+        }
+
+        if (type.isArray()
+                || type.isInterface()
+                || type.getName().startsWith("java.")
+                || type.getName().startsWith("javax.")) {
+            /**
+             * Other JDK classes are considered mutable: collections, dates, atomics, streams, formatter builders.
+             */
+            verdicts.put(type, false);
+            return false;
+        }
+
+        inProgress.add(type);
+        try {
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers)) {
+                        continue;
+                    }
+                    if (!Modifier.isFinal(modifiers) || !isImmutableFieldType(field.getType(), inProgress)) {
+                        verdicts.put(type, false);
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            inProgress.remove(type);
+        }
+    }
+}
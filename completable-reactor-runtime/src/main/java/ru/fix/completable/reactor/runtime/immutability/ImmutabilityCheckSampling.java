@@ -0,0 +1,83 @@
+package ru.fix.completable.reactor.runtime.immutability;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Defines which executions or handler invocations are checked for payload modification
+ * when {@link ImmutabilityControlLevel} is enabled.
+ * <p>
+ * Sampling is a policy: each payload class and each processor with its own sampling
+ * gets separate {@link Sampler}, so rate of one payload class does not depend on load of others.
+ */
+public interface ImmutabilityCheckSampling {
+
+    /**
+     * Thread safe decision maker for single payload class or processor
+     */
+    interface Sampler {
+        /**
+         * @return true if current execution or handler invocation should be checked
+         */
+        boolean sample();
+    }
+
+    Sampler newSampler();
+
+    /**
+     * Check every execution
+     */
+    static ImmutabilityCheckSampling always() {
+        return () -> () -> true;
+    }
+
+    /**
+     * Check 1 of every {@code n} executions
+     */
+    static ImmutabilityCheckSampling oneIn(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid sampling interval %d", n));
+        }
+        if (n == 1) {
+            return always();
+        }
+        return () -> {
+            AtomicLong counter = new AtomicLong();
+            return () -> counter.getAndIncrement() % n == 0;
+        };
+    }
+
+    /**
+     * Check randomly selected executions
+     *
+     * @param percent from 0 to 100
+     */
+    static ImmutabilityCheckSampling percent(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException(String.format("Invalid sampling percent %d", percent));
+        }
+        if (percent == 100) {
+            return always();
+        }
+        return () -> () -> ThreadLocalRandom.current().nextInt(100) < percent;
+    }
+
+    /**
+     * Check at most given number of executions per second, evenly spread in time
+     */
+    static ImmutabilityCheckSampling perSecond(double checksPerSecond) {
+        if (!(checksPerSecond > 0)) {
+            throw new IllegalArgumentException(String.format("Invalid checks per second %s", checksPerSecond));
+        }
+        long intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / checksPerSecond));
+        return () -> {
+            AtomicLong nextCheckTime = new AtomicLong(System.nanoTime());
+            return () -> {
+                long now = System.nanoTime();
+                long next = nextCheckTime.get();
+                return now - next >= 0 && nextCheckTime.compareAndSet(next, now + intervalNanos);
+            };
+        };
+    }
+}
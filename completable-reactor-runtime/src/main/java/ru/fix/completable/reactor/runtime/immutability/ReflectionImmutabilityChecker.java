@@ -1,26 +1,279 @@
 package ru.fix.completable.reactor.runtime.immutability;
 
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Takes structural fingerprint of object graph instead of its copy.
+ * <p>
+ * Fingerprint is a sequence of long values, one per visited field, array element or collection element,
+ * in order of depth first traversal.
+ * Primitive value is stored as is. Reference is stored as its identity hash combined with
+ * {@link Object#hashCode()} for immutable objects, so replacement of reference is detected even if
+ * new value is equal to previous one. Objects of immutable classes are not traversed.
+ * Collections and maps are traversed through their iterators, other objects through
+ * non static and non transient fields that are resolved once per class.
+ * <p>
+ * Human readable diff is built only when fingerprints differ: object graph is traversed again
+ * with tracking of field paths.
+ *
  * @author Kamil Asfandiyarov
  */
 public class ReflectionImmutabilityChecker implements ImmutabilityChecker {
 
-    static class ReflectionSnapshot implements Snapshot{
+    /**
+     * Max number of differences listed in diff description
+     */
+    private static final int MAX_DIFF_PATHS = 5;
 
+    static class ReflectionSnapshot implements Snapshot {
+        final long[] fingerprint;
+
+        ReflectionSnapshot(long[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final ClassImmutabilityAnalyzer analyzer;
+
+    private final ConcurrentHashMap<Class<?>, Field[]> fields = new ConcurrentHashMap<>();
+
+    public ReflectionImmutabilityChecker() {
+        this(new ClassImmutabilityAnalyzer());
+    }
+
+    public ReflectionImmutabilityChecker(ClassImmutabilityAnalyzer analyzer) {
+        this.analyzer = analyzer;
     }
 
     @Override
     public <T> ReflectionSnapshot takeSnapshot(T pojo) {
-        return new ReflectionSnapshot();
+        Fingerprint fingerprint = new Fingerprint(null);
+        fingerprint.visit(pojo);
+        return new ReflectionSnapshot(fingerprint.toArray());
     }
 
     @Override
     public <T> Optional<String> diff(Snapshot pojoSnapshot, T pojo) {
+        long[] previous = ((ReflectionSnapshot) pojoSnapshot).fingerprint;
+
+        Fingerprint current = new Fingerprint(null);
+        current.visit(pojo);
+        if (current.matches(previous)) {
+            return Optional.empty();
+        }
+
+        /**
+         * Fingerprints differ, traverse graph again to find paths of modified values
+         */
+        Fingerprint described = new Fingerprint(new ArrayList<>());
+        described.visit(pojo);
+
+        List<String> modifiedPaths = new ArrayList<>();
+        int commonSize = Math.min(previous.length, described.size);
+        for (int i = 0; i < commonSize && modifiedPaths.size() < MAX_DIFF_PATHS; i++) {
+            if (previous[i] != described.values[i]) {
+                modifiedPaths.add(described.paths.get(i));
+            }
+        }
+        StringBuilder diff = new StringBuilder();
+        if (!modifiedPaths.isEmpty()) {
+            diff.append("modified ").append(String.join(", ", modifiedPaths));
+        }
+        if (previous.length != described.size) {
+            if (diff.length() > 0) {
+                diff.append("; ");
+            }
+            diff.append(String.format("structure changed: %d values before, %d values after",
+                    previous.length, described.size));
+            if (modifiedPaths.isEmpty() && commonSize < described.size) {
+                diff.append(", first added value ").append(described.paths.get(commonSize));
+            }
+        }
+        return Optional.of(diff.toString());
+    }
+
+    private Field[] fieldsOf(Class<?> type) {
+        Field[] result = fields.get(type);
+        if (result == null) {
+            result = fields.computeIfAbsent(type, this::resolveFields);
+        }
+        return result;
+    }
+
+    private Field[] resolveFields(Class<?> type) {
+        List<Field> result = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                result.add(field);
+            }
+        }
+        return result.toArray(new Field[0]);
+    }
+
+    /**
+     * Depth first traversal of object graph
+     */
+    private class Fingerprint {
+        long[] values = new long[16];
+        int size;
+
         /**
-         * Compare versions here
+         * Path of each value, null if paths are not tracked
          */
-        return Optional.empty();
+        final List<String> paths;
+
+        final Map<Object, Boolean> visited = new IdentityHashMap<>();
+
+        Fingerprint(List<String> paths) {
+            this.paths = paths;
+        }
+
+        void add(long value, String path) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            if (paths != null) {
+                paths.add(path);
+            }
+        }
+
+        boolean matches(long[] fingerprint) {
+            if (size != fingerprint.length) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (values[i] != fingerprint[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        /**
+         * Paths are built only when they are tracked
+         */
+        String path(String parent, String child) {
+            return paths == null ? null : parent + child;
+        }
+
+        String path(String parent, Field field) {
+            return paths == null ? null : parent + "." + field.getName();
+        }
+
+        String indexPath(String parent, int index) {
+            return paths == null ? null : parent + "[" + index + "]";
+        }
+
+        String keyPath(String parent, Object key) {
+            return paths == null ? null : parent + "[" + key + "]";
+        }
+
+        void visit(Object root) {
+            visitValue(root, paths == null ? null : "payload");
+        }
+
+        void visitValue(Object value, String path) {
+            if (value == null) {
+                add(0, path);
+                return;
+            }
+            Class<?> type = value.getClass();
+            long identity = System.identityHashCode(value);
+
+            if (analyzer.isImmutable(type)) {
+                add((identity << 32) | (value.hashCode() & 0xFFFFFFFFL), path);
+                return;
+            }
+            add(identity, path);
+            if (visited.put(value, Boolean.TRUE) != null) {
+                return;
+            }
+
+            if (type.isArray()) {
+                visitArray(value, path);
+            } else if (value instanceof Collection) {
+                Collection<?> collection = (Collection<?>) value;
+                add(collection.size(), path(path, ".size"));
+                int index = 0;
+                for (Object element : collection) {
+                    visitValue(element, indexPath(path, index++));
+                }
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                add(map.size(), path(path, ".size"));
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    visitValue(entry.getKey(), path(path, ".key"));
+                    visitValue(entry.getValue(), keyPath(path, entry.getKey()));
+                }
+            } else {
+                visitFields(value, type, path);
+            }
+        }
+
+        void visitArray(Object array, String path) {
+            int length = Array.getLength(array);
+            add(length, path(path, ".length"));
+            Class<?> componentType = array.getClass().getComponentType();
+            for (int i = 0; i < length; i++) {
+                String elementPath = indexPath(path, i);
+                if (componentType.isPrimitive()) {
+                    add(primitiveValue(Array.get(array, i)), elementPath);
+                } else {
+                    visitValue(Array.get(array, i), elementPath);
+                }
+            }
+        }
+
+        void visitFields(Object value, Class<?> type, String path) {
+            for (Field field : fieldsOf(type)) {
+                String fieldPath = path(path, field);
+                Object fieldValue;
+                try {
+                    fieldValue = field.get(value);
+                } catch (IllegalAccessException exc) {
+                    throw new IllegalStateException(String.format(
+                            "Failed to read field %s of %s", field.getName(), type.getName()), exc);
+                }
+                if (field.getType().isPrimitive()) {
+                    add(primitiveValue(fieldValue), fieldPath);
+                } else {
+                    visitValue(fieldValue, fieldPath);
+                }
+            }
+        }
+
+        long primitiveValue(Object boxed) {
+            if (boxed instanceof Double) {
+                return Double.doubleToRawLongBits((Double) boxed);
+            } else if (boxed instanceof Float) {
+                return Float.floatToRawIntBits((Float) boxed);
+            } else if (boxed instanceof Number) {
+                return ((Number) boxed).longValue();
+            } else if (boxed instanceof Boolean) {
+                return (Boolean) boxed ? 1 : 0;
+            } else {
+                return (Character) boxed;
+            }
+        }
     }
 }
@@ -1,10 +1,12 @@
 package ru.fix.completable.reactor.runtime.internal.dsl;
 
+import ru.fix.completable.reactor.runtime.dsl.BatchHandler;
 import ru.fix.completable.reactor.runtime.dsl.Handler1Arg;
 import ru.fix.completable.reactor.runtime.dsl.HandlerBuilder1;
 import ru.fix.completable.reactor.runtime.dsl.HandlerBuilder2;
 import ru.fix.completable.reactor.runtime.dsl.ProcessorMergerBuilder;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -65,4 +67,26 @@ public class CRHandlerBuilder1<PayloadType, Arg1>  implements HandlerBuilder1<Pa
 
         return new CRProcessorMergerBuilder<>(processorDescription);
     }
+
+    @Override
+    public <ProcessorResult> ProcessorMergerBuilder<PayloadType, ProcessorResult> withBatchHandler(
+            BatchHandler<Arg1, ProcessorResult> handler,
+            int maxBatchSize,
+            long maxLinger,
+            TimeUnit unit) {
+
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid max batch size %d", maxBatchSize));
+        }
+        if (maxLinger < 0) {
+            throw new IllegalArgumentException(String.format("Invalid max linger %d %s", maxLinger, unit));
+        }
+
+        processorDescription.batchHandler = handler;
+        processorDescription.maxBatchSize = maxBatchSize;
+        processorDescription.maxBatchLingerNanos = unit.toNanos(maxLinger);
+        BuilderReflector.initializeProcessorDescription(handler, processorDescription);
+
+        return new CRProcessorMergerBuilder<>(processorDescription);
+    }
 }
@@ -3,7 +3,11 @@ package ru.fix.completable.reactor.runtime.internal.dsl;
 import lombok.Data;
 import ru.fix.completable.reactor.api.ReactorGraphModel;
 import ru.fix.completable.reactor.runtime.dsl.*;
+import ru.fix.completable.reactor.runtime.immutability.ImmutabilityCheckSampling;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -99,6 +103,15 @@ public class CRProcessorDescription<PayloadType> implements ProcessorDescription
      */
     Handler7Args handler7;
 
+    /**
+     * {@code BatchHandler<Arg1, ProcessorResult>}, invoked instead of handler1 for batch of arguments
+     */
+    BatchHandler batchHandler;
+
+    int maxBatchSize;
+
+    long maxBatchLingerNanos;
+
     /**
      * Source where {@code handleBy} method was used
      */
@@ -130,12 +143,126 @@ public class CRProcessorDescription<PayloadType> implements ProcessorDescription
 
     String[] handlerDocs;
 
+    /**
+     * Handler blocks calling thread and should be invoked by blocking handler executor
+     */
+    boolean isBlockingHandler = false;
+
+    /**
+     * Handler returns new future on each invocation, so the future is cancelled when processor is detached
+     */
+    boolean isCancellableHandler = false;
+
+    /**
+     * Max duration of handler invocation in nanoseconds, zero if handler is limited only by execution timeout
+     */
+    long timeoutNanos = 0;
+
+    /**
+     * Concurrent handler invocations with equal arguments share single handler call
+     */
+    boolean isCoalesceCalls = false;
+
+    /**
+     * Every coalesced invocation receives thread safe copy of shared result
+     */
+    boolean isCopyCoalescedResult = false;
+
+    /**
+     * Max number of cached handler results, zero if results are not cached
+     */
+    int cacheMaxEntries = 0;
+
+    long cacheTtlNanos;
+
+    long cacheRefreshAheadNanos;
+
+    /**
+     * {@code Function<List<Object>, Object>} builds cache key from handler arguments
+     */
+    Function cacheKeyExtractor;
+
+    /**
+     * Sampling of immutability check of this processor, null if processor follows sampling of execution
+     */
+    ImmutabilityCheckSampling immutabilityCheckSampling;
+
 
 
     public CRProcessorDescription() {
         //Do nothing
     }
 
+    @Override
+    public ProcessorDescription<PayloadType> blockingHandler() {
+        this.isBlockingHandler = true;
+        return this;
+    }
+
+    @Override
+    public ProcessorDescription<PayloadType> cancellableHandler() {
+        this.isCancellableHandler = true;
+        return this;
+    }
+
+    @Override
+    public ProcessorDescription<PayloadType> withTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid processor timeout %d %s", timeout, unit));
+        }
+        this.timeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    @Override
+    public ProcessorDescription<PayloadType> coalesceCalls() {
+        this.isCoalesceCalls = true;
+        this.isCopyCoalescedResult = false;
+        return this;
+    }
+
+    @Override
+    public ProcessorDescription<PayloadType> coalesceCallsWithResultCopy() {
+        this.isCoalesceCalls = true;
+        this.isCopyCoalescedResult = true;
+        return this;
+    }
+
+    @Override
+    public ProcessorDescription<PayloadType> withCache(int maxEntries, long ttl, TimeUnit unit) {
+        return withCache(args -> args, maxEntries, ttl, 0, unit);
+    }
+
+    @Override
+    public ProcessorDescription<PayloadType> withCache(Function<List<Object>, Object> keyExtractor,
+                                                       int maxEntries,
+                                                       long ttl,
+                                                       long refreshAhead,
+                                                       TimeUnit unit) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid cache max entries %d", maxEntries));
+        }
+        if (ttl <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid cache ttl %d %s", ttl, unit));
+        }
+        if (refreshAhead < 0 || refreshAhead >= ttl) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid cache refresh ahead %d %s for ttl %d %s", refreshAhead, unit, ttl, unit));
+        }
+        this.cacheKeyExtractor = keyExtractor;
+        this.cacheMaxEntries = maxEntries;
+        this.cacheTtlNanos = unit.toNanos(ttl);
+        this.cacheRefreshAheadNanos = unit.toNanos(refreshAhead);
+        return this;
+    }
+
+    @Override
+    public ProcessorDescription<PayloadType> withImmutabilityCheckSampling(ImmutabilityCheckSampling sampling) {
+        Objects.requireNonNull(sampling);
+        this.immutabilityCheckSampling = sampling;
+        return this;
+    }
+
     @Override
     public Processor<PayloadType> buildProcessor() {
         return new CRProcessor<>( this);
@@ -6,6 +6,7 @@ import ru.fix.completable.reactor.runtime.dsl.Subgraph;
 import ru.fix.completable.reactor.runtime.dsl.SubgraphDescription;
 import ru.fix.completable.reactor.runtime.dsl.SubgraphMerger;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -49,11 +50,25 @@ public class CRSubgraphDescription<PayloadType> implements SubgraphDescription<P
 
     boolean isCopyArg = false;
 
+    /**
+     * Max duration of subgraph execution in nanoseconds, zero if subgraph is limited only by execution timeout
+     */
+    long timeoutNanos = 0;
+
 
     public CRSubgraphDescription(Class<?> subgraphPayload) {
         this.subgraphPayload = subgraphPayload;
     }
 
+    @Override
+    public SubgraphDescription<PayloadType> withTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid subgraph timeout %d %s", timeout, unit));
+        }
+        this.timeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
     @Override
     public Subgraph<PayloadType> buildSubgraph() {
         return new CRSubgraph<>(this);
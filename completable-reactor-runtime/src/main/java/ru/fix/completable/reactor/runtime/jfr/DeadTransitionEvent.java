@@ -0,0 +1,24 @@
+package ru.fix.completable.reactor.runtime.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Dead transition arrived to {@link #processor}.
+ * Merge status is set when transition does not match status of source merge point
+ * and is empty when dead state is propagated from source.
+ */
+@Name("ru.fix.completable.reactor.DeadTransition")
+@Label("Dead Transition")
+@Category("Completable Reactor")
+@StackTrace(false)
+class DeadTransitionEvent extends ReactorEvent {
+
+    /**
+     * Merge point that produced transition, null for start point
+     */
+    @Label("Source")
+    String source;
+}
@@ -0,0 +1,19 @@
+package ru.fix.completable.reactor.runtime.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans execution from submit to completion of its result
+ */
+@Name("ru.fix.completable.reactor.ExecutionComplete")
+@Label("Execution Complete")
+@Category("Completable Reactor")
+@StackTrace(false)
+class ExecutionCompleteEvent extends ReactorEvent {
+
+    @Label("Error Class")
+    Class<?> errorClass;
+}
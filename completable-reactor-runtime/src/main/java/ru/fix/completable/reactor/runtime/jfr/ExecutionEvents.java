@@ -0,0 +1,88 @@
+package ru.fix.completable.reactor.runtime.jfr;
+
+import ru.fix.completable.reactor.api.ReactorGraphModel;
+
+/**
+ * Emits events of graph execution to JVM level profiling tools.
+ * <p>
+ * Duration events are split into before and after methods,
+ * like {@link ru.fix.completable.reactor.runtime.tracing.Tracer}.
+ * Before methods return marker that should be passed to after method, null marker means that event is disabled
+ * and after method should not be invoked.
+ */
+public interface ExecutionEvents {
+
+    ExecutionEvents NOOP = new ExecutionEvents() {
+    };
+
+    /**
+     * @return events emitted to JDK Flight Recorder if it is supported by current JVM, {@link #NOOP} otherwise
+     */
+    static ExecutionEvents jfrIfAvailable() {
+        return ExecutionEventsLoader.JFR_IF_AVAILABLE;
+    }
+
+    /**
+     * Execution is submitted to reactor
+     *
+     * @return marker that will be passed to {@link #afterExecution(Object, Class, Throwable)}
+     */
+    default Object beforeExecution(Class<?> payloadClass, long timeoutMs) {
+        return null;
+    }
+
+    /**
+     * @param error in case execution completed with an exception
+     */
+    default void afterExecution(Object marker, Class<?> payloadClass, Throwable error) {
+    }
+
+    /**
+     * @return marker that will be passed to
+     * {@link #afterHandle(Object, Class, ReactorGraphModel.Identity, Throwable)}
+     */
+    default Object beforeHandle() {
+        return null;
+    }
+
+    /**
+     * @param error in case handler completed with an exception
+     */
+    default void afterHandle(Object marker, Class<?> payloadClass, ReactorGraphModel.Identity identity,
+                             Throwable error) {
+    }
+
+    /**
+     * @return marker that will be passed to
+     * {@link #afterMerge(Object, Class, ReactorGraphModel.Identity, Enum, Throwable)}
+     */
+    default Object beforeMerge() {
+        return null;
+    }
+
+    /**
+     * @param mergeStatus status returned by merger, null if merger failed
+     * @param error       in case merger failed
+     */
+    default void afterMerge(Object marker, Class<?> payloadClass, ReactorGraphModel.Identity identity,
+                            Enum<?> mergeStatus, Throwable error) {
+    }
+
+    /**
+     * Dead transition arrived to handler or merge point
+     *
+     * @param source      merge point that produced transition, null for start point
+     * @param target      processor which handler or merge point receives transition
+     * @param mergeStatus status of source merge point if transition does not match it,
+     *                    null if dead state is propagated from source
+     */
+    default void deadTransition(Class<?> payloadClass, ReactorGraphModel.Identity source,
+                                ReactorGraphModel.Identity target, Enum<?> mergeStatus) {
+    }
+
+    /**
+     * @param identity processor which handler timeout expired, null if execution deadline is reached
+     */
+    default void timeout(Class<?> payloadClass, ReactorGraphModel.Identity identity, long timeoutMs) {
+    }
+}
@@ -0,0 +1,31 @@
+package ru.fix.completable.reactor.runtime.jfr;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolves JFR implementation of {@link ExecutionEvents} by name,
+ * so runtime does not link jdk.jfr classes on JVM without Flight Recorder.
+ */
+@Slf4j
+final class ExecutionEventsLoader {
+
+    static final ExecutionEvents JFR_IF_AVAILABLE = load();
+
+    private ExecutionEventsLoader() {
+    }
+
+    private static ExecutionEvents load() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (ExecutionEvents) Class.forName(ExecutionEventsLoader.class.getPackage().getName()
+                    + ".JfrExecutionEvents")
+                    .newInstance();
+        } catch (ClassNotFoundException | LinkageError exc) {
+            log.debug("JDK Flight Recorder is not supported by JVM. Execution events are not emitted.");
+            return ExecutionEvents.NOOP;
+        } catch (ReflectiveOperationException exc) {
+            log.warn("Failed to initialize JDK Flight Recorder events. Execution events are not emitted.", exc);
+            return ExecutionEvents.NOOP;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.fix.completable.reactor.runtime.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("ru.fix.completable.reactor.ExecutionSubmit")
+@Label("Execution Submit")
+@Category("Completable Reactor")
+@StackTrace(false)
+class ExecutionSubmitEvent extends ReactorEvent {
+
+    @Label("Timeout")
+    @Timespan(Timespan.MILLISECONDS)
+    long timeout;
+}
@@ -0,0 +1,19 @@
+package ru.fix.completable.reactor.runtime.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans handler invocation from start to completion of handler future
+ */
+@Name("ru.fix.completable.reactor.Handler")
+@Label("Handler")
+@Category("Completable Reactor")
+@StackTrace(false)
+class HandlerEvent extends ReactorEvent {
+
+    @Label("Error Class")
+    Class<?> errorClass;
+}
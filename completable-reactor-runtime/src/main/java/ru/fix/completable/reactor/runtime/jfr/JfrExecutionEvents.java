@@ -0,0 +1,144 @@
+package ru.fix.completable.reactor.runtime.jfr;
+
+import jdk.jfr.EventType;
+import ru.fix.completable.reactor.api.ReactorGraphModel;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Emits execution events to JDK Flight Recorder.
+ * <p>
+ * Event type is checked for being enabled before event is created,
+ * so without active recording emitting costs a check of event state and does not allocate.
+ * Duration events are returned as markers only when enabled.
+ */
+class JfrExecutionEvents implements ExecutionEvents {
+
+    private static final EventType SUBMIT = EventType.getEventType(ExecutionSubmitEvent.class);
+    private static final EventType COMPLETE = EventType.getEventType(ExecutionCompleteEvent.class);
+    private static final EventType HANDLER = EventType.getEventType(HandlerEvent.class);
+    private static final EventType MERGE = EventType.getEventType(MergeEvent.class);
+    private static final EventType DEAD_TRANSITION = EventType.getEventType(DeadTransitionEvent.class);
+    private static final EventType TIMEOUT = EventType.getEventType(TimeoutEvent.class);
+
+    @Override
+    public Object beforeExecution(Class<?> payloadClass, long timeoutMs) {
+        if (SUBMIT.isEnabled()) {
+            ExecutionSubmitEvent submitEvent = new ExecutionSubmitEvent();
+            if (submitEvent.shouldCommit()) {
+                submitEvent.payloadClass = payloadClass;
+                submitEvent.timeout = timeoutMs;
+                submitEvent.commit();
+            }
+        }
+
+        if (!COMPLETE.isEnabled()) {
+            return null;
+        }
+        ExecutionCompleteEvent event = new ExecutionCompleteEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void afterExecution(Object marker, Class<?> payloadClass, Throwable error) {
+        ExecutionCompleteEvent event = (ExecutionCompleteEvent) marker;
+        event.end();
+        if (event.shouldCommit()) {
+            event.payloadClass = payloadClass;
+            event.errorClass = errorClass(error);
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beforeHandle() {
+        if (!HANDLER.isEnabled()) {
+            return null;
+        }
+        HandlerEvent event = new HandlerEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void afterHandle(Object marker,
+                            Class<?> payloadClass,
+                            ReactorGraphModel.Identity identity,
+                            Throwable error) {
+        HandlerEvent event = (HandlerEvent) marker;
+        event.end();
+        if (event.shouldCommit()) {
+            event.payloadClass = payloadClass;
+            event.processor = identity.toString();
+            event.errorClass = errorClass(error);
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beforeMerge() {
+        if (!MERGE.isEnabled()) {
+            return null;
+        }
+        MergeEvent event = new MergeEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void afterMerge(Object marker,
+                           Class<?> payloadClass,
+                           ReactorGraphModel.Identity identity,
+                           Enum<?> mergeStatus,
+                           Throwable error) {
+        MergeEvent event = (MergeEvent) marker;
+        event.end();
+        if (event.shouldCommit()) {
+            event.payloadClass = payloadClass;
+            event.processor = identity.toString();
+            event.mergeStatus = mergeStatus != null ? mergeStatus.name() : null;
+            event.errorClass = errorClass(error);
+            event.commit();
+        }
+    }
+
+    @Override
+    public void deadTransition(Class<?> payloadClass,
+                               ReactorGraphModel.Identity source,
+                               ReactorGraphModel.Identity target,
+                               Enum<?> mergeStatus) {
+        if (!DEAD_TRANSITION.isEnabled()) {
+            return;
+        }
+        DeadTransitionEvent event = new DeadTransitionEvent();
+        if (event.shouldCommit()) {
+            event.payloadClass = payloadClass;
+            event.source = source != null ? source.toString() : null;
+            event.processor = target.toString();
+            event.mergeStatus = mergeStatus != null ? mergeStatus.name() : null;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void timeout(Class<?> payloadClass, ReactorGraphModel.Identity identity, long timeoutMs) {
+        if (!TIMEOUT.isEnabled()) {
+            return;
+        }
+        TimeoutEvent event = new TimeoutEvent();
+        if (event.shouldCommit()) {
+            event.payloadClass = payloadClass;
+            event.processor = identity != null ? identity.toString() : null;
+            event.timeout = timeoutMs;
+            event.commit();
+        }
+    }
+
+    private static Class<?> errorClass(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error != null ? error.getClass() : null;
+    }
+}
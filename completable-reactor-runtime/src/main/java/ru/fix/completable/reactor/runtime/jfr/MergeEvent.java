@@ -0,0 +1,16 @@
+package ru.fix.completable.reactor.runtime.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.fix.completable.reactor.Merge")
+@Label("Merge")
+@Category("Completable Reactor")
+@StackTrace(false)
+class MergeEvent extends ReactorEvent {
+
+    @Label("Error Class")
+    Class<?> errorClass;
+}
@@ -0,0 +1,25 @@
+package ru.fix.completable.reactor.runtime.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Fields shared by all execution events
+ */
+abstract class ReactorEvent extends Event {
+
+    @Label("Payload Class")
+    Class<?> payloadClass;
+
+    /**
+     * Identity of processor, subgraph or merge point, null for events of execution as a whole
+     */
+    @Label("Processor")
+    String processor;
+
+    /**
+     * Status returned by merger, null for other events
+     */
+    @Label("Merge Status")
+    String mergeStatus;
+}
@@ -0,0 +1,21 @@
+package ru.fix.completable.reactor.runtime.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Handler timeout expired or execution deadline reached, in which case processor is empty
+ */
+@Name("ru.fix.completable.reactor.Timeout")
+@Label("Timeout")
+@Category("Completable Reactor")
+@StackTrace(false)
+class TimeoutEvent extends ReactorEvent {
+
+    @Label("Timeout")
+    @Timespan(Timespan.MILLISECONDS)
+    long timeout;
+}
@@ -0,0 +1,122 @@
+package ru.fix.completable.reactor.runtime.metrics;
+
+import lombok.Data;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates critical paths of executions of single graph.
+ * <p>
+ * Critical path of execution is the chain of handle and merge phases which completion activated next phase
+ * of the chain, from start point to merge point that completed execution result.
+ * Vertex lies on critical path if any of its phases belongs to the chain.
+ * Slack of vertex is time between arrival of its output to a join point of critical path
+ * and activation of that join point by the last input, i.e. how much longer the vertex could take
+ * without delaying the execution.
+ * <p>
+ * Slack histogram of vertex is created at first recorded slack,
+ * so graphs without critical path analysis do not hold bucket arrays.
+ */
+public class CriticalPathStatistics {
+
+    @Data
+    public static class VertexSnapshot {
+        /**
+         * Number of executions where vertex lies on critical path
+         */
+        final long criticalCount;
+        /**
+         * Share of executions where vertex lies on critical path, from 0 to 1
+         */
+        final double criticalRatio;
+        /**
+         * Average time of vertex phases on critical path
+         */
+        final long averageCriticalNanos;
+        /**
+         * Slack of vertex outputs that arrived to join points of critical path before the last input
+         */
+        final LatencyHistogram.Snapshot slack;
+    }
+
+    @Data
+    public static class Snapshot {
+        final long executionCount;
+        final long averagePathNanos;
+        /**
+         * Indexed by vertex id, null for vertices that were neither on critical path nor had slack
+         */
+        final VertexSnapshot[] vertices;
+    }
+
+    private static final LatencyHistogram.Snapshot EMPTY_SLACK = new LatencyHistogram.Snapshot(0, 0, 0, 0, 0);
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder pathNanos = new LongAdder();
+
+    private final LongAdder[] criticalCounts;
+    private final LongAdder[] criticalNanos;
+    private final AtomicReferenceArray<LatencyHistogram> slacks;
+
+    public CriticalPathStatistics(int vertexCount) {
+        criticalCounts = new LongAdder[vertexCount];
+        criticalNanos = new LongAdder[vertexCount];
+        slacks = new AtomicReferenceArray<>(vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            criticalCounts[i] = new LongAdder();
+            criticalNanos[i] = new LongAdder();
+        }
+    }
+
+    public void recordExecution(long pathNanos) {
+        this.executions.increment();
+        this.pathNanos.add(pathNanos);
+    }
+
+    /**
+     * @param nanos duration of vertex phases that belong to critical path
+     */
+    public void recordCritical(int vertex, long nanos) {
+        criticalCounts[vertex].increment();
+        criticalNanos[vertex].add(nanos);
+    }
+
+    public void recordSlack(int vertex, long nanos) {
+        LatencyHistogram slack = slacks.get(vertex);
+        if (slack == null) {
+            slacks.compareAndSet(vertex, null, new LatencyHistogram());
+            slack = slacks.get(vertex);
+        }
+        slack.record(nanos);
+    }
+
+    /**
+     * Statistics of executions recorded since previous invocation
+     */
+    public synchronized Snapshot intervalSnapshot() {
+        long executionCount = executions.sumThenReset();
+        long totalPathNanos = pathNanos.sumThenReset();
+
+        VertexSnapshot[] vertices = new VertexSnapshot[criticalCounts.length];
+        for (int i = 0; i < vertices.length; i++) {
+            long count = criticalCounts[i].sumThenReset();
+            long nanos = criticalNanos[i].sumThenReset();
+            LatencyHistogram slackHistogram = slacks.get(i);
+            LatencyHistogram.Snapshot slack = slackHistogram != null ?
+                    slackHistogram.intervalSnapshot() :
+                    EMPTY_SLACK;
+            if (count > 0 || slack.getCount() > 0) {
+                vertices[i] = new VertexSnapshot(
+                        count,
+                        executionCount > 0 ? Math.min(1.0, (double) count / executionCount) : 0,
+                        count > 0 ? nanos / count : 0,
+                        slack);
+            }
+        }
+        return new Snapshot(
+                executionCount,
+                executionCount > 0 ? totalPathNanos / executionCount : 0,
+                vertices);
+    }
+}
@@ -0,0 +1,139 @@
+package ru.fix.completable.reactor.runtime.metrics;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock free latency histogram with log-linear buckets in the spirit of HdrHistogram.
+ * <p>
+ * Values below 64 ns have own bucket. Each following power of two range is split into 32 buckets,
+ * so recorded value is known with relative error below 3.2%. Values above ~73 minutes fall into the last bucket.
+ * Recording is single atomic increment of bucket counter and update of striped max accumulator.
+ * <p>
+ * {@link #intervalSnapshot()} reports values recorded since previous snapshot.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+    private static final int MAX_SHIFT = 36;
+
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + MAX_SHIFT * SUB_BUCKET_HALF_COUNT;
+
+    @Data
+    public static class Snapshot {
+        /**
+         * Number of values recorded during interval
+         */
+        final long count;
+        final long p50Nanos;
+        final long p99Nanos;
+        final long p999Nanos;
+        final long maxNanos;
+
+        @Override
+        public String toString() {
+            return String.format("count=%d p50=%dus p99=%dus p999=%dus max=%dus",
+                    count,
+                    TimeUnit.NANOSECONDS.toMicros(p50Nanos),
+                    TimeUnit.NANOSECONDS.toMicros(p99Nanos),
+                    TimeUnit.NANOSECONDS.toMicros(p999Nanos),
+                    TimeUnit.NANOSECONDS.toMicros(maxNanos));
+        }
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Bucket counts at the moment of previous snapshot, guarded by this
+     */
+    private final long[] previousCounts = new long[BUCKET_COUNT];
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int) value;
+        }
+        /**
+         * value >> shift is within [SUB_BUCKET_HALF_COUNT, SUB_BUCKET_COUNT)
+         */
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        if (shift > MAX_SHIFT) {
+            return BUCKET_COUNT - 1;
+        }
+        return SUB_BUCKET_COUNT
+                + (shift - 1) * SUB_BUCKET_HALF_COUNT
+                + (int) ((value >> shift) - SUB_BUCKET_HALF_COUNT);
+    }
+
+    /**
+     * @return max value that falls into given bucket
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+        long lowerBound = (long) (offset % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketIndex(nanos));
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Percentiles of values recorded since previous invocation.
+     * Values recorded concurrently with snapshot are reported by this or next snapshot.
+     */
+    public synchronized Snapshot intervalSnapshot() {
+        long[] interval = new long[BUCKET_COUNT];
+        long count = 0;
+        int highestBucket = -1;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long current = counts.get(i);
+            interval[i] = current - previousCounts[i];
+            previousCounts[i] = current;
+            if (interval[i] > 0) {
+                count += interval[i];
+                highestBucket = i;
+            }
+        }
+        long intervalMax = max.getThenReset();
+        if (count == 0) {
+            return new Snapshot(0, 0, 0, 0, 0);
+        }
+        long bucketMax = bucketUpperBound(highestBucket);
+        if (intervalMax == 0 || intervalMax > bucketMax) {
+            /**
+             * Max was reset by previous snapshot while value was recorded, fall back to bucket precision
+             */
+            intervalMax = bucketMax;
+        }
+        return new Snapshot(
+                count,
+                Math.min(valueAtPercentile(interval, count, 50.0), intervalMax),
+                Math.min(valueAtPercentile(interval, count, 99.0), intervalMax),
+                Math.min(valueAtPercentile(interval, count, 99.9), intervalMax),
+                intervalMax);
+    }
+
+    private static long valueAtPercentile(long[] interval, long count, double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long accumulated = 0;
+        for (int i = 0; i < interval.length; i++) {
+            accumulated += interval[i];
+            if (accumulated >= rank) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(interval.length - 1);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.fix.completable.reactor.runtime.metrics;
+
+/**
+ * Phases of processor vertex execution measured by {@link LatencyHistogram}
+ */
+public enum LatencyPhase {
+    /**
+     * From arrival of the last incoming handle transition to handler invocation.
+     * Time spent in executor queue.
+     */
+    QUEUE_WAIT,
+    /**
+     * From handler invocation to completion of handler future
+     */
+    HANDLE,
+    /**
+     * From completion of handler to merger invocation.
+     * Time spent waiting for the last incoming merge transition from previous merge points.
+     */
+    MERGE_WAIT,
+    /**
+     * Merger invocation
+     */
+    MERGE
+}
@@ -0,0 +1,51 @@
+package ru.fix.completable.reactor.runtime.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency histograms of all {@link LatencyPhase}s of single processor, subgraph or detached merge point.
+ * Shared by all executions of the graph.
+ * Histogram of a phase is created at first recorded value, so graphs without latency recording
+ * do not hold bucket arrays.
+ */
+public class ProcessorLatency {
+
+    private final AtomicReferenceArray<LatencyHistogram> histograms =
+            new AtomicReferenceArray<>(LatencyPhase.values().length);
+
+    public void record(LatencyPhase phase, long nanos) {
+        LatencyHistogram histogram = histograms.get(phase.ordinal());
+        if (histogram == null) {
+            histograms.compareAndSet(phase.ordinal(), null, new LatencyHistogram());
+            histogram = histograms.get(phase.ordinal());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * @return histogram of given phase, null if no value of the phase was recorded yet
+     */
+    public LatencyHistogram getHistogram(LatencyPhase phase) {
+        return histograms.get(phase.ordinal());
+    }
+
+    /**
+     * @return snapshots of phases that have values recorded since previous invocation
+     */
+    public Map<LatencyPhase, LatencyHistogram.Snapshot> intervalSnapshot() {
+        Map<LatencyPhase, LatencyHistogram.Snapshot> result = new EnumMap<>(LatencyPhase.class);
+        for (LatencyPhase phase : LatencyPhase.values()) {
+            LatencyHistogram histogram = histograms.get(phase.ordinal());
+            if (histogram == null) {
+                continue;
+            }
+            LatencyHistogram.Snapshot snapshot = histogram.intervalSnapshot();
+            if (snapshot.getCount() > 0) {
+                result.put(phase, snapshot);
+            }
+        }
+        return result;
+    }
+}
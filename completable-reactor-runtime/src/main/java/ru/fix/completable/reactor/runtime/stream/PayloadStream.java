@@ -0,0 +1,288 @@
+package ru.fix.completable.reactor.runtime.stream;
+
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streaming ingestion of payloads into {@link CompletableReactor}.
+ * Stream subscribes to upstream publisher of payloads, submits each payload to the reactor
+ * and publishes completed payloads to single downstream subscriber in order of completion.
+ * <p>
+ * Upstream demand follows free capacity of the reactor for the payload type
+ * (admission controller limit or max pending request count) and is bounded by max inflight window,
+ * that counts executing payloads together with completed payloads that downstream did not request yet.
+ * So slow downstream subscriber or overloaded reactor slows down upstream publisher.
+ * <p>
+ * Failed execution terminates stream: upstream subscription and running executions are cancelled
+ * and downstream receives {@link Subscriber#onError(Throwable)}.
+ * Upstream error is delivered to downstream after running executions complete.
+ */
+public class PayloadStream<PayloadType> implements Subscriber<PayloadType>, Publisher<PayloadType> {
+
+    private final CompletableReactor reactor;
+    private final Class<PayloadType> payloadType;
+    private final int maxInflight;
+
+    private final AtomicReference<Subscription> upstream = new AtomicReference<>();
+    private final AtomicReference<Subscriber<? super PayloadType>> downstream = new AtomicReference<>();
+
+    /**
+     * Requested from upstream but not received yet
+     */
+    private final AtomicLong upstreamOutstanding = new AtomicLong();
+
+    private final AtomicLong downstreamRequested = new AtomicLong();
+
+    /**
+     * Submitted and not completed yet
+     */
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    /**
+     * Completed payloads waiting for downstream demand
+     */
+    private final Queue<PayloadType> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+
+    private final Set<CompletableFuture<CompletableReactor.Execution<PayloadType>>> executions =
+            ConcurrentHashMap.newKeySet();
+
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+
+    /**
+     * Execution failure or invalid downstream request
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    /**
+     * Only drain loop touches upstream subscription and signals downstream subscriber
+     */
+    private final AtomicInteger drainWip = new AtomicInteger();
+    private boolean terminated;
+
+    /**
+     * @param maxInflight max number of payloads that are executing or wait for downstream demand
+     */
+    public PayloadStream(CompletableReactor reactor, Class<PayloadType> payloadType, int maxInflight) {
+        Objects.requireNonNull(reactor);
+        Objects.requireNonNull(payloadType);
+        if (maxInflight <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid max inflight %d", maxInflight));
+        }
+        this.reactor = reactor;
+        this.payloadType = payloadType;
+        this.maxInflight = maxInflight;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        Objects.requireNonNull(subscription);
+        if (!upstream.compareAndSet(null, subscription)) {
+            /**
+             * Stream can be subscribed to single publisher only
+             */
+            subscription.cancel();
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(PayloadType payload) {
+        Objects.requireNonNull(payload);
+        upstreamOutstanding.decrementAndGet();
+        if (cancelled.get()) {
+            /**
+             * Element was in flight when stream was cancelled
+             */
+            return;
+        }
+        inflight.incrementAndGet();
+
+        CompletableFuture<CompletableReactor.Execution<PayloadType>> execution = reactor.submitAsync(payload);
+        executions.add(execution);
+
+        execution.thenCompose(CompletableReactor.Execution::getResultFuture)
+                .whenComplete((result, thr) -> {
+                    executions.remove(execution);
+                    if (thr != null) {
+                        failure.compareAndSet(null, thr);
+                    } else {
+                        completed.add(result);
+                        completedCount.incrementAndGet();
+                    }
+                    inflight.decrementAndGet();
+                    drain();
+                });
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamError = throwable;
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super PayloadType> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("PayloadStream supports single subscriber only"));
+            return;
+        }
+
+        subscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    failure.compareAndSet(null, new IllegalArgumentException(String.format(
+                            "Non positive number of elements requested: %d", n)));
+                } else {
+                    downstreamRequested.accumulateAndGet(n, (current, added) -> {
+                        long sum = current + added;
+                        return sum < 0 ? Long.MAX_VALUE : sum;
+                    });
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.set(true);
+                drain();
+            }
+        });
+        drain();
+    }
+
+    /**
+     * Serializes signals to downstream subscriber and requests to upstream subscription.
+     * Invoked by any thread after state change, the last invocation does the work of concurrent ones.
+     */
+    private void drain() {
+        if (drainWip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            drainLoop();
+            missed = drainWip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drainLoop() {
+        if (terminated) {
+            return;
+        }
+        Subscriber<? super PayloadType> subscriber = downstream.get();
+
+        if (cancelled.get()) {
+            terminate();
+            return;
+        }
+
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            terminate();
+            if (subscriber != null) {
+                subscriber.onError(throwable);
+            }
+            return;
+        }
+
+        if (subscriber != null) {
+            while (downstreamRequested.get() > 0) {
+                PayloadType payload = completed.poll();
+                if (payload == null) {
+                    break;
+                }
+                completedCount.decrementAndGet();
+                if (downstreamRequested.get() != Long.MAX_VALUE) {
+                    downstreamRequested.decrementAndGet();
+                }
+                subscriber.onNext(payload);
+            }
+
+            if (upstreamDone && inflight.get() == 0 && completed.isEmpty()) {
+                terminated = true;
+                if (upstreamError != null) {
+                    subscriber.onError(upstreamError);
+                } else {
+                    subscriber.onComplete();
+                }
+                return;
+            }
+        }
+
+        requestUpstream();
+    }
+
+    private void requestUpstream() {
+        Subscription subscription = upstream.get();
+        if (subscription == null || upstreamDone) {
+            return;
+        }
+        long outstanding = upstreamOutstanding.get();
+        long window = maxInflight - inflight.get() - completedCount.get() - outstanding;
+        long demand = Math.min(window, reactor.getFreeCapacity(payloadType) - outstanding);
+
+        if (demand <= 0 && inflight.get() == 0 && outstanding == 0 && window > 0) {
+            /**
+             * Capacity is taken by other clients of the reactor.
+             * Nothing of this stream is running, so nothing will trigger next request.
+             * Single payload waits for capacity in reactor submit queue instead.
+             */
+            demand = 1;
+        }
+        if (demand > 0) {
+            upstreamOutstanding.addAndGet(demand);
+            subscription.request(demand);
+        }
+    }
+
+    /**
+     * Cancel upstream subscription and running executions
+     */
+    private void terminate() {
+        terminated = true;
+        cancelled.set(true);
+        Subscription subscription = upstream.get();
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        for (CompletableFuture<CompletableReactor.Execution<PayloadType>> execution : executions) {
+            if (!execution.cancel(false)) {
+                execution.thenAccept(CompletableReactor.Execution::cancel);
+            }
+        }
+        completed.clear();
+    }
+}
@@ -0,0 +1,15 @@
+package ru.fix.completable.reactor.runtime.stream;
+
+/**
+ * Provider of potentially unbounded number of elements, published according to demand of {@link Subscriber}.
+ * Contract is the same as of Reactive Streams {@code org.reactivestreams.Publisher}
+ * and {@code java.util.concurrent.Flow.Publisher}, see {@link ReactiveStreams} adapters.
+ */
+public interface Publisher<T> {
+
+    /**
+     * Request publisher to start streaming elements.
+     * Each subscriber receives {@link Subscriber#onSubscribe(Subscription)} before any other signal.
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+}
@@ -0,0 +1,106 @@
+package ru.fix.completable.reactor.runtime.stream;
+
+import java.util.Objects;
+
+/**
+ * Adapters between {@link PayloadStream} interfaces and Reactive Streams {@code org.reactivestreams} interfaces.
+ * <p>
+ * Reactive Streams dependency is optional: application that uses adapters should declare
+ * {@code org.reactivestreams:reactive-streams} itself.
+ * {@code java.util.concurrent.Flow} publishers are adapted through {@code org.reactivestreams.FlowAdapters}
+ * on Java 9 and later, e.g. {@code fromReactiveStreams(FlowAdapters.toPublisher(flowPublisher))}.
+ * <pre>{@code
+ * PayloadStream<Payload> stream = new PayloadStream<>(reactor, Payload.class, 256);
+ * ReactiveStreams.fromReactiveStreams(payloads).subscribe(stream);
+ * ReactiveStreams.toReactiveStreams(stream).subscribe(resultSubscriber);
+ * }</pre>
+ */
+public final class ReactiveStreams {
+
+    private ReactiveStreams() {
+    }
+
+    public static <T> Publisher<T> fromReactiveStreams(org.reactivestreams.Publisher<T> publisher) {
+        Objects.requireNonNull(publisher);
+        return subscriber -> {
+            Objects.requireNonNull(subscriber);
+            publisher.subscribe(new org.reactivestreams.Subscriber<T>() {
+                @Override
+                public void onSubscribe(org.reactivestreams.Subscription subscription) {
+                    subscriber.onSubscribe(fromReactiveStreams(subscription));
+                }
+
+                @Override
+                public void onNext(T item) {
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            });
+        };
+    }
+
+    public static <T> org.reactivestreams.Publisher<T> toReactiveStreams(Publisher<T> publisher) {
+        Objects.requireNonNull(publisher);
+        return subscriber -> {
+            Objects.requireNonNull(subscriber);
+            publisher.subscribe(new Subscriber<T>() {
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    subscriber.onSubscribe(toReactiveStreams(subscription));
+                }
+
+                @Override
+                public void onNext(T item) {
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            });
+        };
+    }
+
+    private static Subscription fromReactiveStreams(org.reactivestreams.Subscription subscription) {
+        return new Subscription() {
+            @Override
+            public void request(long n) {
+                subscription.request(n);
+            }
+
+            @Override
+            public void cancel() {
+                subscription.cancel();
+            }
+        };
+    }
+
+    private static org.reactivestreams.Subscription toReactiveStreams(Subscription subscription) {
+        return new org.reactivestreams.Subscription() {
+            @Override
+            public void request(long n) {
+                subscription.request(n);
+            }
+
+            @Override
+            public void cancel() {
+                subscription.cancel();
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package ru.fix.completable.reactor.runtime.stream;
+
+/**
+ * Receiver of elements from {@link Publisher}.
+ * Signals are invoked serially.
+ * Contract is the same as of Reactive Streams {@code org.reactivestreams.Subscriber}
+ * and {@code java.util.concurrent.Flow.Subscriber}.
+ */
+public interface Subscriber<T> {
+
+    /**
+     * Invoked once before any other signal. No elements are published until {@link Subscription#request(long)}.
+     */
+    void onSubscribe(Subscription subscription);
+
+    /**
+     * Next element, invoked not more times than was requested through subscription
+     */
+    void onNext(T item);
+
+    /**
+     * Terminal signal, no more signals will follow
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * Terminal signal, no more signals will follow
+     */
+    void onComplete();
+}
@@ -0,0 +1,21 @@
+package ru.fix.completable.reactor.runtime.stream;
+
+/**
+ * Link between {@link Publisher} and {@link Subscriber}.
+ * Contract is the same as of Reactive Streams {@code org.reactivestreams.Subscription}
+ * and {@code java.util.concurrent.Flow.Subscription}.
+ */
+public interface Subscription {
+
+    /**
+     * Add demand for given number of elements
+     *
+     * @param n positive number of elements, {@link Long#MAX_VALUE} means unbounded demand
+     */
+    void request(long n);
+
+    /**
+     * Stop receiving elements. Some elements can be still delivered after cancellation.
+     */
+    void cancel();
+}
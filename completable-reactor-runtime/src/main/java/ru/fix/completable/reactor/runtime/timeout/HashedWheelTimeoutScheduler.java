@@ -0,0 +1,296 @@
+package ru.fix.completable.reactor.runtime.timeout;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Hashed timing wheel.
+ * <p>
+ * Wheel is an array of buckets, each bucket covers one tick.
+ * Schedule and cancel operations are O(1) and lock free: they only enqueue timeout to pending or cancelled queue.
+ * Queues are striped by thread to reduce contention between submitting threads.
+ * Timeout cancelled before worker moved it to the wheel is simply dropped by worker.
+ * Single worker thread wakes up once per tick, moves pending timeouts to buckets, unlinks cancelled ones
+ * and expires whole bucket of current tick in one batch.
+ * Timeout expires with tick precision, never earlier than requested.
+ */
+@Slf4j
+public class HashedWheelTimeoutScheduler implements TimeoutScheduler {
+
+    /**
+     * Timeout is in pending queue and not yet moved to the wheel
+     */
+    private static final int STATE_PENDING = 0;
+    /**
+     * Timeout is linked into wheel bucket
+     */
+    private static final int STATE_SCHEDULED = 1;
+    private static final int STATE_CANCELLED = 2;
+    private static final int STATE_EXPIRED = 3;
+
+    private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "state");
+
+    /**
+     * Max number of pending timeouts moved to wheel during single tick,
+     * so flood of new timeouts does not delay expiration
+     */
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private final class WheelTimeout implements Timeout {
+        final Runnable task;
+
+        /**
+         * Nanoseconds since {@link #startTime}
+         */
+        final long deadline;
+
+        /**
+         * Number of full wheel rotations left before expiration
+         */
+        long remainingRounds;
+
+        volatile int state = STATE_PENDING;
+
+        WheelTimeout next;
+        WheelTimeout prev;
+        Bucket bucket;
+
+        WheelTimeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (STATE.compareAndSet(this, STATE_PENDING, STATE_CANCELLED)) {
+                /**
+                 * Worker will drop it when polling pending queue
+                 */
+                return true;
+            }
+            if (!STATE.compareAndSet(this, STATE_SCHEDULED, STATE_CANCELLED)) {
+                return false;
+            }
+            /**
+             * Worker unlinks cancelled timeout from bucket, so bucket lists are modified by single thread only
+             */
+            cancelledTimeouts[stripe()].add(this);
+            return true;
+        }
+
+        void expire() {
+            if (!STATE.compareAndSet(this, STATE_SCHEDULED, STATE_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable exc) {
+                log.error("Timeout task {} failed.", task, exc);
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts. Accessed by worker thread only.
+     */
+    private static final class Bucket {
+        WheelTimeout head;
+        WheelTimeout tail;
+
+        void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(WheelTimeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        void expire(long deadline) {
+            WheelTimeout timeout = head;
+            while (timeout != null) {
+                WheelTimeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.state == STATE_CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    private final Queue<WheelTimeout>[] pendingTimeouts;
+    private final Queue<WheelTimeout>[] cancelledTimeouts;
+    private final int stripeMask;
+
+    private final long startTime;
+    private final Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * Wheel with 10 millisecond tick and 512 buckets
+     */
+    public HashedWheelTimeoutScheduler() {
+        this(10, TimeUnit.MILLISECONDS, 512, "completable-reactor-check-timeout");
+    }
+
+    /**
+     * @param tickDuration    precision of timeouts
+     * @param unit            unit of tick duration
+     * @param wheelSize       number of buckets, rounded up to power of two
+     * @param threadName      name of worker thread
+     */
+    public HashedWheelTimeoutScheduler(long tickDuration, TimeUnit unit, int wheelSize, String threadName) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid tick duration %d", tickDuration));
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException(String.format("Invalid wheel size %d", wheelSize));
+        }
+
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.tickNanos = unit.toNanos(tickDuration);
+
+        int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        this.pendingTimeouts = newQueues(stripes);
+        this.cancelledTimeouts = newQueues(stripes);
+        this.stripeMask = stripes - 1;
+
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Queue<WheelTimeout>[] newQueues(int count) {
+        Queue<WheelTimeout>[] queues = new Queue[count];
+        for (int i = 0; i < count; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+        }
+        return queues;
+    }
+
+    private int stripe() {
+        return (int) Thread.currentThread().getId() & stripeMask;
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (closed) {
+            throw new IllegalStateException("Timeout scheduler is closed");
+        }
+        WheelTimeout timeout = new WheelTimeout(task, System.nanoTime() + unit.toNanos(delay) - startTime);
+        pendingTimeouts[stripe()].add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos = deadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException exc) {
+                    if (closed) {
+                        break;
+                    }
+                    continue;
+                }
+            }
+
+            removeCancelledTimeouts();
+            transferPendingTimeouts(tick);
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        for (Queue<WheelTimeout> queue : cancelledTimeouts) {
+            WheelTimeout timeout;
+            while ((timeout = queue.poll()) != null) {
+                if (timeout.bucket != null) {
+                    timeout.bucket.remove(timeout);
+                }
+            }
+        }
+    }
+
+    private void transferPendingTimeouts(long tick) {
+        int limit = MAX_TRANSFER_PER_TICK / pendingTimeouts.length;
+        for (Queue<WheelTimeout> queue : pendingTimeouts) {
+            for (int i = 0; i < limit; i++) {
+                WheelTimeout timeout = queue.poll();
+                if (timeout == null) {
+                    break;
+                }
+                transfer(timeout, tick);
+            }
+        }
+    }
+
+    private void transfer(WheelTimeout timeout, long tick) {
+        if (!STATE.compareAndSet(timeout, STATE_PENDING, STATE_SCHEDULED)) {
+            /**
+             * Cancelled before it reached the wheel
+             */
+            return;
+        }
+        long expirationTick = timeout.deadline / tickNanos;
+        timeout.remainingRounds = (expirationTick - tick) / wheel.length;
+
+        /**
+         * Timeout that is already late expires in current tick
+         */
+        long bucketTick = Math.max(expirationTick, tick);
+        wheel[(int) (bucketTick & mask)].add(timeout);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.fix.completable.reactor.runtime.timeout;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timeout scheduler based on {@link ScheduledThreadPoolExecutor}.
+ * Schedule and cancel operations take O(log n) under lock of executor delay queue.
+ */
+public class ScheduledExecutorTimeoutScheduler implements TimeoutScheduler {
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    public ScheduledExecutorTimeoutScheduler() {
+        this("completable-reactor-check-timeout-");
+    }
+
+    public ScheduledExecutorTimeoutScheduler(String threadsNamePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, threadsNamePrefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        ScheduledFuture<?> future;
+        try {
+            future = executor.schedule(task, delay, unit);
+        } catch (RejectedExecutionException exc) {
+            throw new IllegalStateException("Timeout scheduler is closed", exc);
+        }
+        return () -> future.cancel(false);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
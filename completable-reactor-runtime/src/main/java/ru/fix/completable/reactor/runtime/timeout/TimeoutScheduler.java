@@ -0,0 +1,37 @@
+package ru.fix.completable.reactor.runtime.timeout;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules timeout tasks of graph executions.
+ * Almost all timeouts are cancelled before expiration, so schedule and cancel operations should be cheap
+ * even with hundreds of thousands pending timeouts.
+ */
+public interface TimeoutScheduler extends AutoCloseable {
+
+    /**
+     * Handle of scheduled task
+     */
+    interface Timeout {
+        /**
+         * Cancel task if it is not executed yet
+         *
+         * @return true if task was cancelled by this invocation
+         */
+        boolean cancel();
+    }
+
+    /**
+     * @param task  task to run when timeout expires
+     * @param delay delay from now
+     * @param unit  unit of delay
+     * @throws IllegalStateException if scheduler is closed
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Stops scheduler. Pending timeouts will not be executed.
+     */
+    @Override
+    void close();
+}
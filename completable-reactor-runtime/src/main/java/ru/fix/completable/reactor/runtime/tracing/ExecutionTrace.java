@@ -0,0 +1,89 @@
+package ru.fix.completable.reactor.runtime.tracing;
+
+import lombok.Getter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracing context of single sampled execution.
+ * Holds execution span, spans of handlers and mergers are its children.
+ */
+public final class ExecutionTrace {
+
+    /**
+     * Wall clock time of {@link System#nanoTime()} origin, spans are timed by monotonic clock.
+     * Resolved once, so start times of spans from different executions are consistent with each other.
+     */
+    private static final long ORIGIN_EPOCH_MICROS = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis())
+            - TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+
+    @Getter
+    private final SpanExporter exporter;
+
+    @Getter
+    private final Class<?> payloadClass;
+
+    private final Span executionSpan;
+
+    /**
+     * @param parent     context of parent span, null for root execution
+     * @param startNanos {@link System#nanoTime()} of execution submit
+     */
+    ExecutionTrace(SpanExporter exporter, Class<?> payloadClass, TraceContext parent, long startNanos) {
+        this.exporter = exporter;
+        this.payloadClass = payloadClass;
+        this.executionSpan = new Span(
+                this,
+                new TraceContext(parent != null ? parent.getTraceId() : newId(), newId()),
+                parent != null ? parent.getSpanId() : 0,
+                SpanKind.EXECUTION,
+                payloadClass.getSimpleName(),
+                startNanos);
+    }
+
+    /**
+     * @return context of execution span
+     */
+    public TraceContext getContext() {
+        return executionSpan.getContext();
+    }
+
+    /**
+     * @param name debug name of processing item
+     * @return child span of execution span
+     */
+    public Span startSpan(SpanKind kind, String name) {
+        return new Span(
+                this,
+                new TraceContext(getContext().getTraceId(), newId()),
+                getContext().getSpanId(),
+                kind,
+                name,
+                System.nanoTime());
+    }
+
+    /**
+     * Ends execution span
+     *
+     * @param error failure of execution, null if execution completed successfully
+     */
+    public void end(Throwable error) {
+        executionSpan.end(null, error);
+    }
+
+    long epochMicros(long nanos) {
+        return ORIGIN_EPOCH_MICROS + TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * @return random non zero id
+     */
+    private static long newId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.fix.completable.reactor.runtime.tracing;
+
+import java.util.Objects;
+
+/**
+ * Traces graph executions as trees of spans: execution span is a parent of handler and merger spans,
+ * handler span of subgraph vertex is a parent of subgraph execution span.
+ * <p>
+ * Whether execution is traced is decided once when execution starts: root executions are sampled by
+ * {@link TraceSampler}, subgraph executions follow parent execution.
+ * Executions that are not sampled do not create spans.
+ */
+public class ExecutionTracer {
+
+    private final TraceSampler sampler;
+    private final SpanExporter exporter;
+
+    /**
+     * Traces every execution
+     */
+    public ExecutionTracer(SpanExporter exporter) {
+        this(TraceSampler.always(), exporter);
+    }
+
+    public ExecutionTracer(TraceSampler sampler, SpanExporter exporter) {
+        this.sampler = Objects.requireNonNull(sampler);
+        this.exporter = Objects.requireNonNull(exporter);
+    }
+
+    /**
+     * @param parent     context of parent span, null for root execution
+     * @param startNanos {@link System#nanoTime()} of execution submit
+     * @return context of execution, null if execution is not sampled
+     */
+    public ExecutionTrace startExecution(Class<?> payloadClass, Object payload, TraceContext parent, long startNanos) {
+        if (parent != null ? !parent.isSampled() : !sampler.sample(payload)) {
+            return null;
+        }
+        return new ExecutionTrace(exporter, payloadClass, parent, startNanos);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.fix.completable.reactor.runtime.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps completed spans in memory, intended for tests.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final Queue<SpanData> spans = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void export(SpanData span) {
+        spans.add(span);
+    }
+
+    /**
+     * @return spans in order of completion
+     */
+    public List<SpanData> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    public List<SpanData> getSpans(long traceId) {
+        return spans.stream()
+                .filter(span -> span.getTraceId() == traceId)
+                .collect(Collectors.toList());
+    }
+
+    public List<SpanData> getChildren(SpanData parent) {
+        return spans.stream()
+                .filter(span -> span.getTraceId() == parent.getTraceId())
+                .filter(span -> span.getParentSpanId() == parent.getSpanId())
+                .collect(Collectors.toList());
+    }
+
+    public void clear() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,62 @@
+package ru.fix.completable.reactor.runtime.tracing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Span that is in progress. Exported when {@link #end(Enum, Throwable)} is invoked.
+ */
+@Slf4j
+public final class Span {
+
+    private final ExecutionTrace trace;
+    private final TraceContext context;
+    private final long parentSpanId;
+    private final SpanKind kind;
+    private final String name;
+    private final long startNanos;
+
+    Span(ExecutionTrace trace, TraceContext context, long parentSpanId, SpanKind kind, String name, long startNanos) {
+        this.trace = trace;
+        this.context = context;
+        this.parentSpanId = parentSpanId;
+        this.kind = kind;
+        this.name = name;
+        this.startNanos = startNanos;
+    }
+
+    public TraceContext getContext() {
+        return context;
+    }
+
+    /**
+     * @param mergeStatus status returned by merger, null for other spans
+     * @param error       failure of execution, handler or merger, null if there is no failure
+     */
+    public void end(Enum<?> mergeStatus, Throwable error) {
+        SpanData span = new SpanData(
+                context.getTraceId(),
+                context.getSpanId(),
+                parentSpanId,
+                kind,
+                name,
+                trace.getPayloadClass(),
+                trace.epochMicros(startNanos),
+                System.nanoTime() - startNanos,
+                mergeStatus,
+                errorClass(error));
+        try {
+            trace.getExporter().export(span);
+        } catch (Exception exc) {
+            log.error("Failed to export span {}", span, exc);
+        }
+    }
+
+    private static Class<?> errorClass(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error != null ? error.getClass() : null;
+    }
+}
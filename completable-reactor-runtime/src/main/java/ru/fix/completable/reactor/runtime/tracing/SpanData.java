@@ -0,0 +1,36 @@
+package ru.fix.completable.reactor.runtime.tracing;
+
+import lombok.Data;
+
+/**
+ * Completed span
+ */
+@Data
+public class SpanData {
+    final long traceId;
+    final long spanId;
+    /**
+     * 0 for root execution span
+     */
+    final long parentSpanId;
+    final SpanKind kind;
+    /**
+     * Simple name of payload class for execution span, debug name of processing item for other spans
+     */
+    final String name;
+    final Class<?> payloadClass;
+    final long startEpochMicros;
+    final long durationNanos;
+    /**
+     * Status returned by merger, null for other spans
+     */
+    final Enum<?> mergeStatus;
+    /**
+     * Class of execution, handler or merger failure, null if there is no failure
+     */
+    final Class<?> errorClass;
+
+    public boolean isRoot() {
+        return parentSpanId == 0;
+    }
+}
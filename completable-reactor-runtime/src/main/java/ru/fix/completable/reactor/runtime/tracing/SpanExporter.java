@@ -0,0 +1,10 @@
+package ru.fix.completable.reactor.runtime.tracing;
+
+/**
+ * Receives completed spans of traced executions.
+ * Invoked by threads that complete spans, so implementation should be thread safe and should not block.
+ */
+@FunctionalInterface
+public interface SpanExporter {
+    void export(SpanData span);
+}
@@ -0,0 +1,16 @@
+package ru.fix.completable.reactor.runtime.tracing;
+
+public enum SpanKind {
+    /**
+     * Graph execution from submit until result completes
+     */
+    EXECUTION,
+    /**
+     * Invocation of processor or subgraph handler until its future completes
+     */
+    HANDLE,
+    /**
+     * Invocation of merger
+     */
+    MERGE
+}
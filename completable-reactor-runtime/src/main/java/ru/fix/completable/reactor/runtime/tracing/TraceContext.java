@@ -0,0 +1,40 @@
+package ru.fix.completable.reactor.runtime.tracing;
+
+import lombok.Getter;
+
+/**
+ * Identifies span within distributed trace.
+ * Context of handler span of subgraph vertex becomes parent of subgraph execution.
+ */
+@Getter
+public final class TraceContext {
+
+    /**
+     * Parent that is not traced, child executions are not traced too
+     */
+    public static final TraceContext NOT_SAMPLED = new TraceContext(0, 0, false);
+
+    private final long traceId;
+    private final long spanId;
+    private final boolean sampled;
+
+    /**
+     * Context of sampled span, e.g. received from remote caller
+     */
+    public TraceContext(long traceId, long spanId) {
+        this(traceId, spanId, true);
+    }
+
+    private TraceContext(long traceId, long spanId, boolean sampled) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.sampled = sampled;
+    }
+
+    @Override
+    public String toString() {
+        return sampled ?
+                String.format("TraceContext(%016x:%016x)", traceId, spanId) :
+                "TraceContext(NOT_SAMPLED)";
+    }
+}
@@ -0,0 +1,53 @@
+package ru.fix.completable.reactor.runtime.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Head based sampling: decides once per root execution whether it is traced.
+ * Subgraph executions follow decision of parent execution.
+ */
+@FunctionalInterface
+public interface TraceSampler {
+
+    /**
+     * @return true if execution of this payload should be traced
+     */
+    boolean sample(Object payload);
+
+    /**
+     * Trace every execution
+     */
+    static TraceSampler always() {
+        return payload -> true;
+    }
+
+    /**
+     * Trace 1 of every {@code n} executions
+     */
+    static TraceSampler oneIn(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid sampling interval %d", n));
+        }
+        if (n == 1) {
+            return always();
+        }
+        AtomicLong counter = new AtomicLong();
+        return payload -> counter.getAndIncrement() % n == 0;
+    }
+
+    /**
+     * Trace randomly selected executions
+     *
+     * @param ratio from 0 to 1
+     */
+    static TraceSampler ratio(double ratio) {
+        if (!(ratio >= 0 && ratio <= 1)) {
+            throw new IllegalArgumentException(String.format("Invalid sampling ratio %s", ratio));
+        }
+        if (ratio == 1) {
+            return always();
+        }
+        return payload -> ThreadLocalRandom.current().nextDouble() < ratio;
+    }
+}
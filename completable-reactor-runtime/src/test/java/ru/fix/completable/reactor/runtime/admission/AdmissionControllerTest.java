@@ -0,0 +1,92 @@
+package ru.fix.completable.reactor.runtime.admission;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdmissionControllerTest {
+
+    /**
+     * Acquire all available permits and complete them with given latency
+     */
+    private static void fullLoadRound(AdmissionController controller, long latencyMs) {
+        List<AdmissionController.Permit> permits = new ArrayList<>();
+        Optional<AdmissionController.Permit> permit;
+        while ((permit = controller.tryAcquire()).isPresent()) {
+            permits.add(permit.get());
+        }
+        for (AdmissionController.Permit acquired : permits) {
+            acquired.onSuccess(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        }
+    }
+
+    @Test
+    public void rejects_when_limit_reached() throws Exception {
+        AimdAdmissionController controller = new AimdAdmissionController(2, 1, 10, 0.5, 1, TimeUnit.SECONDS);
+
+        AdmissionController.Permit first = controller.tryAcquire().get();
+        assertTrue(controller.tryAcquire().isPresent());
+        assertFalse(controller.tryAcquire().isPresent());
+        assertEquals(2, controller.getInflight());
+
+        first.onIgnore();
+        assertEquals(1, controller.getInflight());
+        assertTrue(controller.tryAcquire().isPresent());
+    }
+
+    @Test
+    public void bulk_acquire_grants_permits_up_to_limit() throws Exception {
+        AimdAdmissionController controller = new AimdAdmissionController(3, 1, 10, 0.5, 1, TimeUnit.SECONDS);
+
+        AdmissionController.Permit first = controller.tryAcquire().get();
+        List<AdmissionController.Permit> permits = controller.tryAcquire(5);
+        assertEquals(2, permits.size());
+        assertEquals(3, controller.getInflight());
+        assertTrue(controller.tryAcquire(1).isEmpty());
+
+        first.onIgnore();
+        permits.forEach(AdmissionController.Permit::onIgnore);
+        assertEquals(0, controller.getInflight());
+        assertEquals(3, controller.tryAcquire(3).size());
+    }
+
+    @Test
+    public void aimd_increases_limit_under_load_and_backs_off_on_drop() throws Exception {
+        AimdAdmissionController controller = new AimdAdmissionController(10, 1, 100, 0.5, 1, TimeUnit.SECONDS);
+
+        fullLoadRound(controller, 1);
+        int grownLimit = controller.getLimit();
+        assertTrue(String.valueOf(grownLimit), grownLimit > 10);
+
+        controller.tryAcquire().get().onDropped();
+        assertEquals(grownLimit / 2, controller.getLimit());
+
+        /**
+         * Slow execution is treated as drop
+         */
+        int limit = controller.getLimit();
+        controller.tryAcquire().get().onSuccess(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(limit / 2, controller.getLimit());
+    }
+
+    @Test
+    public void gradient_decreases_limit_when_latency_grows() throws Exception {
+        GradientAdmissionController controller = new GradientAdmissionController(50, 1, 200, 1.0, 0.5);
+
+        for (int round = 0; round < 5; round++) {
+            fullLoadRound(controller, 10);
+        }
+        int stableLatencyLimit = controller.getLimit();
+        assertTrue(String.valueOf(stableLatencyLimit), stableLatencyLimit > 50);
+
+        fullLoadRound(controller, 100);
+        assertTrue(controller.getLimit() + " < " + stableLatencyLimit, controller.getLimit() < stableLatencyLimit);
+    }
+}
@@ -0,0 +1,133 @@
+package ru.fix.completable.reactor.runtime.cloning;
+
+import org.junit.Test;
+import ru.fix.completable.reactor.api.Immutable;
+import ru.fix.completable.reactor.runtime.immutability.ClassImmutabilityAnalyzer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImmutabilityAwareThreadsafeCopyMakerTest {
+
+    enum Currency {RUB, USD}
+
+    static final class Money {
+        final BigDecimal amount;
+        final Currency currency;
+
+        Money(BigDecimal amount, Currency currency) {
+            this.amount = amount;
+            this.currency = currency;
+        }
+    }
+
+    static final class Order {
+        final long id;
+        final Money total;
+        final LocalDate date;
+
+        Order(long id, Money total, LocalDate date) {
+            this.id = id;
+            this.total = total;
+            this.date = date;
+        }
+    }
+
+    static class Cart {
+        Order order;
+        final List<Money> items = new ArrayList<>();
+    }
+
+    /**
+     * Final field of interface type can reference mutable implementation
+     */
+    static final class Tags {
+        final List<String> values;
+
+        Tags(List<String> values) {
+            this.values = values;
+        }
+    }
+
+    @Immutable
+    static final class AnnotatedTags {
+        final List<String> values;
+
+        AnnotatedTags(List<String> values) {
+            this.values = values;
+        }
+    }
+
+    /**
+     * Final class that references itself through mutable class
+     */
+    static final class Node {
+        final Holder holder;
+
+        Node(Holder holder) {
+            this.holder = holder;
+        }
+    }
+
+    static final class Holder {
+        final Node node;
+        int counter;
+
+        Holder(Node node) {
+            this.node = node;
+        }
+    }
+
+    @Test
+    public void analyzer_detects_immutable_classes() throws Exception {
+        ClassImmutabilityAnalyzer analyzer = new ClassImmutabilityAnalyzer();
+
+        assertTrue(analyzer.isImmutable(String.class));
+        assertTrue(analyzer.isImmutable(Currency.class));
+        assertTrue(analyzer.isImmutable(LocalDate.class));
+        assertTrue(analyzer.isImmutable(ZoneId.of("Europe/Moscow").getClass()));
+        assertTrue(analyzer.isImmutable(Money.class));
+        assertTrue(analyzer.isImmutable(Order.class));
+        assertTrue(analyzer.isImmutable(AnnotatedTags.class));
+
+        assertFalse(analyzer.isImmutable(Cart.class));
+        assertFalse(analyzer.isImmutable(Tags.class));
+        assertFalse(analyzer.isImmutable(ArrayList.class));
+        assertFalse(analyzer.isImmutable(int[].class));
+        assertFalse(analyzer.isImmutable(DateTimeFormatterBuilder.class));
+
+        assertFalse(analyzer.isImmutable(Node.class));
+        assertFalse(analyzer.isImmutable(Holder.class));
+    }
+
+    @Test
+    public void immutable_objects_are_shared_and_mutable_parts_are_copied() throws Exception {
+        ThreadsafeCopyMaker copyMaker = new ImmutabilityAwareThreadsafeCopyMaker();
+
+        Order order = new Order(1, new Money(BigDecimal.TEN, Currency.RUB), LocalDate.now());
+        assertSame(order, copyMaker.makeThreadsafeCopy(order));
+
+        Cart cart = new Cart();
+        cart.order = order;
+        cart.items.add(order.total);
+
+        Cart copy = copyMaker.makeThreadsafeCopy(cart);
+        assertNotSame(cart, copy);
+        assertNotSame(cart.items, copy.items);
+        assertSame(order, copy.order);
+        assertSame(order.total, copy.items.get(0));
+
+        cart.items.clear();
+        assertEquals(1, copy.items.size());
+    }
+}
@@ -0,0 +1,147 @@
+package ru.fix.completable.reactor.runtime.cloning;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MethodHandleThreadsafeCopyMakerTest {
+
+    static final class Money {
+        final BigDecimal amount;
+
+        Money(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+
+    static class Account {
+        long id;
+        boolean blocked;
+        String name;
+        Money balance;
+        final List<String> tags = new ArrayList<>();
+    }
+
+    static final class Purchase {
+        final Account account;
+        int quantity;
+        double price;
+        char code;
+
+        Purchase(Account account) {
+            this.account = account;
+        }
+    }
+
+    static class Node {
+        String name;
+        Node parent;
+        final List<Node> children = new ArrayList<>();
+    }
+
+    static final class Counter {
+        int value;
+    }
+
+    static final class Counters {
+        Counter first;
+        Counter second;
+    }
+
+    static final class CountersHolder {
+        Counters counters;
+        Counter total;
+    }
+
+    private final ThreadsafeCopyMaker copyMaker = new MethodHandleThreadsafeCopyMaker();
+
+    @Test
+    public void mutable_graph_is_copied_and_immutable_parts_are_shared() throws Exception {
+        Account account = new Account();
+        account.id = 7;
+        account.blocked = true;
+        account.name = "name";
+        account.balance = new Money(BigDecimal.ONE);
+        account.tags.add("tag");
+
+        Purchase purchase = new Purchase(account);
+        purchase.quantity = 3;
+        purchase.price = 1.5;
+        purchase.code = 'x';
+
+        Purchase copy = copyMaker.makeThreadsafeCopy(purchase);
+
+        assertNotSame(purchase, copy);
+        assertNotSame(account, copy.account);
+        assertEquals(3, copy.quantity);
+        assertEquals(1.5, copy.price, 0);
+        assertEquals('x', copy.code);
+        assertEquals(7, copy.account.id);
+        assertEquals(true, copy.account.blocked);
+        assertSame(account.name, copy.account.name);
+        assertSame(account.balance, copy.account.balance);
+
+        assertNotSame(account.tags, copy.account.tags);
+        account.tags.add("other");
+        assertEquals(1, copy.account.tags.size());
+
+        Money money = new Money(BigDecimal.TEN);
+        assertSame(money, copyMaker.makeThreadsafeCopy(money));
+    }
+
+    @Test
+    public void cycles_and_shared_references_are_preserved() throws Exception {
+        Node root = new Node();
+        root.name = "root";
+        Node child = new Node();
+        child.name = "child";
+        child.parent = root;
+        root.children.add(child);
+        root.children.add(child);
+
+        Node copy = copyMaker.makeThreadsafeCopy(root);
+
+        assertNotSame(root, copy);
+        assertEquals(2, copy.children.size());
+        Node childCopy = copy.children.get(0);
+        assertNotSame(child, childCopy);
+        assertSame(childCopy, copy.children.get(1));
+        assertSame(copy, childCopy.parent);
+        assertEquals("child", childCopy.name);
+    }
+
+    @Test
+    public void shared_reference_between_fields_of_final_types_is_preserved() throws Exception {
+        Counter counter = new Counter();
+        counter.value = 5;
+        Counters counters = new Counters();
+        counters.first = counter;
+        counters.second = counter;
+
+        Counters copy = copyMaker.makeThreadsafeCopy(counters);
+
+        assertNotSame(counter, copy.first);
+        assertSame(copy.first, copy.second);
+        assertEquals(5, copy.first.value);
+
+        /**
+         * Diamond: the same counter is reachable from holder directly and through nested object
+         */
+        CountersHolder holder = new CountersHolder();
+        holder.counters = counters;
+        holder.total = counter;
+
+        CountersHolder holderCopy = copyMaker.makeThreadsafeCopy(holder);
+
+        assertNotSame(counters, holderCopy.counters);
+        assertNotSame(counter, holderCopy.total);
+        assertSame(holderCopy.total, holderCopy.counters.first);
+        assertSame(holderCopy.total, holderCopy.counters.second);
+    }
+}
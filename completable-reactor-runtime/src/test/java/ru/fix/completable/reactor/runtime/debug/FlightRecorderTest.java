@@ -0,0 +1,88 @@
+package ru.fix.completable.reactor.runtime.debug;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderTest {
+
+    enum Status {OK}
+
+    @Test
+    public void capacity_is_rounded_to_power_of_two() throws Exception {
+        assertEquals(1, new FlightRecorder(1).getCapacity());
+        assertEquals(8, new FlightRecorder(5).getCapacity());
+        assertEquals(8, new FlightRecorder(8).getCapacity());
+    }
+
+    @Test
+    public void oldest_events_are_overwritten() throws Exception {
+        FlightRecorder recorder = new FlightRecorder(4);
+        for (int vertex = 0; vertex < 6; vertex++) {
+            recorder.record(1, String.class, vertex, "vertex" + vertex,
+                    FlightRecorder.EventType.MERGE_COMPLETED, Status.OK, null);
+        }
+
+        List<FlightRecorder.Event> events = recorder.dump();
+        assertEquals(4, events.size());
+        for (int i = 0; i < 4; i++) {
+            FlightRecorder.Event event = events.get(i);
+            assertEquals(i + 2, event.getSequence());
+            assertEquals(i + 2, event.getVertexId());
+            assertEquals("vertex" + (i + 2), event.getVertexName());
+            assertEquals(Status.OK, event.getMergeStatus());
+            assertEquals(Thread.currentThread().getName(), event.getThreadName());
+            assertNull(event.getErrorClass());
+        }
+    }
+
+    @Test
+    public void dump_filters_events_of_execution() throws Exception {
+        FlightRecorder recorder = new FlightRecorder();
+        long first = recorder.nextExecutionId();
+        long second = recorder.nextExecutionId();
+
+        recorder.record(first, String.class, FlightRecorder.NO_VERTEX, null,
+                FlightRecorder.EventType.EXECUTION_STARTED, null, null);
+        recorder.record(second, String.class, FlightRecorder.NO_VERTEX, null,
+                FlightRecorder.EventType.EXECUTION_STARTED, null, null);
+        recorder.record(first, String.class, 0, "processor",
+                FlightRecorder.EventType.HANDLER_COMPLETED, null, IllegalStateException.class);
+
+        List<FlightRecorder.Event> events = recorder.dump(first);
+        assertEquals(2, events.size());
+        assertEquals(FlightRecorder.EventType.EXECUTION_STARTED, events.get(0).getType());
+        assertEquals(IllegalStateException.class, events.get(1).getErrorClass());
+
+        String dump = FlightRecorder.format(events);
+        assertTrue(dump, dump.contains("HANDLER_COMPLETED processor error=java.lang.IllegalStateException"));
+    }
+
+    @Test
+    public void concurrently_recorded_events_are_not_torn() throws Exception {
+        FlightRecorder recorder = new FlightRecorder(64);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    recorder.record(i, String.class, i, null, FlightRecorder.EventType.HANDLER_STARTED, null, null);
+                }
+            });
+        }
+        executor.shutdown();
+        do {
+            for (FlightRecorder.Event event : recorder.dump()) {
+                assertEquals(event.getExecutionId(), event.getVertexId());
+            }
+        } while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS));
+
+        assertEquals(64, recorder.dump().size());
+    }
+}
@@ -0,0 +1,50 @@
+package ru.fix.completable.reactor.runtime.execution;
+
+import org.junit.After;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.runtime.timeout.HashedWheelTimeoutScheduler;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class MicroBatcherTest {
+
+    private final HashedWheelTimeoutScheduler scheduler = new HashedWheelTimeoutScheduler();
+
+    @After
+    public void after() throws Exception {
+        scheduler.close();
+    }
+
+    @Test
+    public void submit_without_scheduler_does_not_leave_batch_without_linger_timer() throws Exception {
+        List<List<Object>> batches = new CopyOnWriteArrayList<>();
+        MicroBatcher batcher = new MicroBatcher(
+                args -> {
+                    batches.add(args);
+                    return CompletableFuture.completedFuture(args);
+                },
+                100,
+                TimeUnit.MILLISECONDS.toNanos(10),
+                "batcher");
+
+        try {
+            batcher.submit(1, null, Runnable::run, new SimpleProfiler());
+            fail("Submit without scheduler should fail");
+        } catch (IllegalStateException expected) {
+            /**
+             * Argument is rejected
+             */
+        }
+
+        assertEquals(2, batcher.submit(2, scheduler, Runnable::run, new SimpleProfiler()).get(5, TimeUnit.SECONDS));
+        assertEquals(1, batches.size());
+        assertEquals(1, batches.get(0).size());
+    }
+}
@@ -0,0 +1,120 @@
+package ru.fix.completable.reactor.runtime.execution;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.junit.Test;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+import ru.fix.completable.reactor.runtime.internal.CRProcessingItem;
+import ru.fix.completable.reactor.runtime.tests.IdProcessor;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReactorGraphExecutionPlanTest {
+
+    @Data
+    @Accessors(chain = true)
+    static class PlanPayload {
+        int number;
+    }
+
+    enum Status {OK}
+
+    static class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        Processor<PlanPayload> processor1 = processor(1);
+        Processor<PlanPayload> processor2 = processor(2);
+        Processor<PlanPayload> processor3 = processor(3);
+
+        Processor<PlanPayload> processor(int id) {
+            return graphBuilder.processor()
+                    .forPayload(PlanPayload.class)
+                    .withHandler(new IdProcessor(id)::handle)
+                    .withMerger((pld, any) -> Status.OK)
+                    .buildProcessor();
+        }
+
+        ReactorGraph<PlanPayload> graph() {
+            return graphBuilder.payload(PlanPayload.class)
+                    .handle(processor1)
+                    .handle(processor2)
+
+                    .mergePoint(processor1)
+                    .onAny().merge(processor2)
+
+                    .mergePoint(processor2)
+                    .onAny().handle(processor3)
+
+                    .mergePoint(processor3)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    static ReactorGraphExecutionPlan.Vertex vertex(ReactorGraphExecutionPlan<?> plan, Processor<?> processor) {
+        return Arrays.stream(plan.getVertices())
+                .filter(vertex -> vertex.getProcessingItem() == (CRProcessingItem) processor)
+                .findAny()
+                .orElseThrow(() -> new AssertionError("Vertex not found for " + processor));
+    }
+
+    @Test
+    public void compiled_plan_contains_fan_in_counts_and_transition_slots() throws Exception {
+        val config = new Config();
+        val plan = ReactorGraphExecutionPlan.compile(config.graph());
+
+        assertEquals(PlanPayload.class, plan.getPayloadClass());
+        assertEquals(3, plan.getVertices().length);
+        assertEquals(2, plan.getStartPointTransitions().length);
+
+        val vertex1 = vertex(plan, config.processor1);
+        val vertex2 = vertex(plan, config.processor2);
+        val vertex3 = vertex(plan, config.processor3);
+
+        assertEquals(1, vertex1.getIncomingHandleTransitionCount());
+        assertEquals(0, vertex1.getIncomingMergeTransitionCount());
+
+        assertEquals(1, vertex2.getIncomingHandleTransitionCount());
+        assertEquals(1, vertex2.getIncomingMergeTransitionCount());
+
+        assertEquals(1, vertex3.getIncomingHandleTransitionCount());
+        assertEquals(0, vertex3.getIncomingMergeTransitionCount());
+
+        val transition1 = vertex1.getOutgoingTransitions()[0];
+        assertEquals(vertex2.getId(), transition1.getMergeVertex());
+        assertEquals(0, transition1.getMergeSlot());
+        assertEquals(-1, transition1.getHandleByVertex());
+
+        val transition2 = vertex2.getOutgoingTransitions()[0];
+        assertEquals(vertex3.getId(), transition2.getHandleByVertex());
+        assertEquals(0, transition2.getHandleBySlot());
+
+        val transition3 = vertex3.getOutgoingTransitions()[0];
+        assertEquals(true, transition3.isComplete());
+        assertEquals(-1, transition3.getHandleByVertex());
+        assertEquals(-1, transition3.getMergeVertex());
+
+        /**
+         * Each vertex has handle slots, merge slots and handler result slot
+         */
+        assertEquals(7, plan.getSlotCount());
+        assertEquals(3, plan.getHandlerVertexCount());
+        assertEquals(vertex2.getMergeSlotOffset() + 1, vertex2.getHandlerResultSlot());
+
+        /**
+         * Slot sources: start point, merge point of source vertex, own handler
+         */
+        assertEquals(vertex1.getId(), transition1.getSourceVertex());
+        assertEquals(-1, plan.getSlotSources()[vertex1.getHandleSlotOffset()]);
+        assertEquals(vertex1.getId(), plan.getSlotSources()[vertex2.getMergeSlotOffset()]);
+        assertEquals(vertex2.getId(), plan.getSlotSources()[vertex2.getHandlerResultSlot()]);
+        assertEquals(vertex2.getId(), plan.getSlotSources()[vertex3.getHandleSlotOffset()]);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.fix.completable.reactor.runtime.execution;
+
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResultCacheTest {
+
+    private final SimpleProfiler profiler = new SimpleProfiler();
+
+    @Test
+    public void hit_within_refresh_ahead_interval_returns_cached_result_and_refreshes_it() throws Exception {
+        ResultCache cache = new ResultCache(
+                10,
+                TimeUnit.MILLISECONDS.toNanos(400),
+                TimeUnit.MILLISECONDS.toNanos(300),
+                "test");
+
+        AtomicInteger invocations = new AtomicInteger();
+        CompletableFuture<Integer> refreshResult = new CompletableFuture<>();
+        Supplier<CompletableFuture<?>> invocation = () -> invocations.incrementAndGet() == 1 ?
+                CompletableFuture.completedFuture(1) :
+                refreshResult;
+
+        assertEquals(1, cache.get("key", invocation, profiler).get());
+        Thread.sleep(150);
+
+        /**
+         * Concurrent hits during refresh start single invocation and get cached result
+         */
+        CompletableFuture<?> hit = cache.get("key", invocation, profiler);
+        assertTrue(hit.isDone());
+        assertEquals(1, hit.get());
+        assertEquals(1, cache.get("key", invocation, profiler).get());
+        assertEquals(2, invocations.get());
+
+        refreshResult.complete(2);
+        assertEquals(2, cache.get("key", invocation, profiler).get());
+        assertEquals(2, invocations.get());
+    }
+
+    @Test
+    public void failed_result_is_not_cached() throws Exception {
+        ResultCache cache = new ResultCache(10, TimeUnit.SECONDS.toNanos(10), 0, "test");
+
+        CompletableFuture<Integer> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("test"));
+
+        cache.get("key", () -> failed, profiler);
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.get("key", () -> CompletableFuture.completedFuture(2), profiler).get());
+        assertEquals(1, cache.size());
+    }
+}
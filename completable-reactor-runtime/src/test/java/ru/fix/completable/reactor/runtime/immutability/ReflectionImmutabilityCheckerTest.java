@@ -0,0 +1,88 @@
+package ru.fix.completable.reactor.runtime.immutability;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReflectionImmutabilityCheckerTest {
+
+    static class Address {
+        String city;
+        int[] zip = {1, 2, 3};
+    }
+
+    static class User {
+        long id;
+        double rating;
+        String name;
+        Address address = new Address();
+        final List<String> tags = new ArrayList<>();
+        final Map<String, Address> contacts = new HashMap<>();
+        User self = this;
+    }
+
+    private final ImmutabilityChecker checker = new ReflectionImmutabilityChecker();
+
+    private User user() {
+        User user = new User();
+        user.id = 1;
+        user.rating = 4.5;
+        user.name = "name";
+        user.address.city = "city";
+        user.tags.add("tag");
+        user.contacts.put("home", new Address());
+        return user;
+    }
+
+    @Test
+    public void unmodified_graph_has_no_diff() throws Exception {
+        User user = user();
+        ImmutabilityChecker.Snapshot snapshot = checker.takeSnapshot(user);
+
+        /**
+         * Read only access
+         */
+        user.tags.forEach(String::length);
+        user.contacts.keySet();
+
+        assertEquals(Optional.empty(), checker.diff(snapshot, user));
+    }
+
+    @Test
+    public void modifications_are_reported_with_paths() throws Exception {
+        User user = user();
+        ImmutabilityChecker.Snapshot snapshot = checker.takeSnapshot(user);
+        user.rating = 5;
+        user.address.zip[1] = 7;
+
+        Optional<String> diff = checker.diff(snapshot, user);
+        assertTrue(diff.isPresent());
+        assertTrue(diff.get(), diff.get().contains("payload.rating"));
+        assertTrue(diff.get(), diff.get().contains("payload.address.zip[1]"));
+
+        snapshot = checker.takeSnapshot(user);
+        user.address.city = new String("city");
+        diff = checker.diff(snapshot, user);
+        assertTrue(diff.get(), diff.get().contains("payload.address.city"));
+
+        snapshot = checker.takeSnapshot(user);
+        user.tags.add("other");
+        diff = checker.diff(snapshot, user);
+        assertTrue(diff.get(), diff.get().contains("payload.tags.size"));
+
+        snapshot = checker.takeSnapshot(user);
+        user.contacts.get("home").city = "other";
+        diff = checker.diff(snapshot, user);
+        assertTrue(diff.get(), diff.get().contains("payload.contacts[home].city"));
+
+        assertFalse(checker.diff(checker.takeSnapshot(user), user).isPresent());
+    }
+}
@@ -0,0 +1,77 @@
+package ru.fix.completable.reactor.runtime.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_are_contiguous_and_precise() throws Exception {
+        int previousIndex = 0;
+        for (long value = 0; value < 1_000_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index == previousIndex || index == previousIndex + 1);
+            assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+            assertTrue(LatencyHistogram.bucketUpperBound(index) - value <= value / 32);
+            previousIndex = index;
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentiles_of_interval() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.intervalSnapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertNear(TimeUnit.MICROSECONDS.toNanos(500), snapshot.getP50Nanos());
+        assertNear(TimeUnit.MICROSECONDS.toNanos(990), snapshot.getP99Nanos());
+        assertNear(TimeUnit.MICROSECONDS.toNanos(999), snapshot.getP999Nanos());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1000), snapshot.getMaxNanos());
+
+        /**
+         * Next interval contains only values recorded after previous snapshot
+         */
+        histogram.record(100);
+        snapshot = histogram.intervalSnapshot();
+        assertEquals(1, snapshot.getCount());
+        assertEquals(100, snapshot.getMaxNanos());
+        assertNear(100, snapshot.getP999Nanos());
+
+        assertEquals(0, histogram.intervalSnapshot().getCount());
+    }
+
+    @Test
+    public void concurrent_recording_is_not_lost() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        long count = 0;
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            count += histogram.intervalSnapshot().getCount();
+        }
+        count += histogram.intervalSnapshot().getCount();
+        assertEquals(400_000, count);
+    }
+
+    private static void assertNear(long expected, long actual) {
+        assertTrue(String.format("expected %d, actual %d", expected, actual),
+                Math.abs(expected - actual) <= expected / 32 + 1);
+    }
+}
@@ -0,0 +1,292 @@
+package ru.fix.completable.reactor.runtime.stream;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.example.unicast.AsyncIterablePublisher;
+import org.reactivestreams.example.unicast.AsyncSubscriber;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PayloadStreamTest {
+
+    @Reactored("Payload processed by streaming graph")
+    @Data
+    @Accessors(chain = true)
+    static class StreamPayload {
+        final int number;
+        boolean processed;
+    }
+
+    enum Status {OK}
+
+    static class ConcurrencyTrackingService {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Executor delayedExecutor = command -> CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+            }
+            command.run();
+        });
+
+        @Reactored("Completes asynchronously, fails for negative number")
+        public CompletableFuture<Status> process(int number) {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                running.decrementAndGet();
+                if (number < 0) {
+                    throw new IllegalArgumentException("Negative number " + number);
+                }
+                return Status.OK;
+            }, delayedExecutor);
+        }
+    }
+
+    /**
+     * Publishes numbers according to demand, records how many elements were requested
+     */
+    static class NumbersPublisher implements Publisher<StreamPayload> {
+        final List<Integer> numbers;
+        final AtomicLong requested = new AtomicLong();
+        volatile boolean cancelled;
+
+        NumbersPublisher(List<Integer> numbers) {
+            this.numbers = numbers;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super StreamPayload> subscriber) {
+            AtomicLong demand = new AtomicLong();
+            AtomicInteger position = new AtomicInteger();
+            AtomicInteger wip = new AtomicInteger();
+
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                    demand.addAndGet(n);
+                    if (wip.getAndIncrement() != 0) {
+                        return;
+                    }
+                    do {
+                        while (!cancelled && demand.get() > 0 && position.get() < numbers.size()) {
+                            demand.decrementAndGet();
+                            subscriber.onNext(new StreamPayload(numbers.get(position.getAndIncrement())));
+                        }
+                        if (!cancelled && position.get() == numbers.size()) {
+                            cancelled = true;
+                            subscriber.onComplete();
+                        }
+                    } while (wip.decrementAndGet() != 0);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    static class CollectingSubscriber implements Subscriber<StreamPayload> {
+        final List<StreamPayload> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch terminated = new CountDownLatch(1);
+        final long initialRequest;
+        volatile Subscription subscription;
+        volatile Throwable error;
+
+        CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(StreamPayload item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+    }
+
+    private final ConcurrencyTrackingService service = new ConcurrencyTrackingService();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<StreamPayload> processor = graphBuilder.processor()
+                .forPayload(StreamPayload.class)
+                .passArg(StreamPayload::getNumber)
+                .withHandler(service::process)
+                .withMerger((payload, status) -> {
+                    payload.setProcessed(true);
+                    return status;
+                })
+                .buildProcessor();
+
+        ReactorGraph<StreamPayload> graph() {
+            return graphBuilder.payload(StreamPayload.class)
+                    .handle(processor)
+
+                    .mergePoint(processor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler());
+        reactor.registerReactorGraph(new Config().graph());
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    private static List<Integer> numbers(int count) {
+        return IntStream.range(0, count).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    public void all_payloads_are_processed_within_max_inflight_window() throws Exception {
+        val stream = new PayloadStream<StreamPayload>(reactor, StreamPayload.class, 4);
+        val publisher = new NumbersPublisher(numbers(50));
+        val subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+        stream.subscribe(subscriber);
+        publisher.subscribe(stream);
+
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertEquals(null, subscriber.error);
+        assertEquals(50, subscriber.received.size());
+        assertEquals(numbers(50), subscriber.received.stream()
+                .map(StreamPayload::getNumber)
+                .sorted()
+                .collect(Collectors.toList()));
+        assertTrue(subscriber.received.stream().allMatch(StreamPayload::isProcessed));
+        assertTrue(String.valueOf(service.maxRunning.get()), service.maxRunning.get() <= 4);
+    }
+
+    @Test
+    public void slow_downstream_and_reactor_capacity_limit_upstream_demand() throws Exception {
+        reactor.setMaxPendingRequestCount(2);
+
+        val stream = new PayloadStream<StreamPayload>(reactor, StreamPayload.class, 10);
+        val publisher = new NumbersPublisher(numbers(50));
+        val subscriber = new CollectingSubscriber(3);
+
+        stream.subscribe(subscriber);
+        publisher.subscribe(stream);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (subscriber.received.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(200);
+
+        assertEquals(3, subscriber.received.size());
+        /**
+         * Window of 10 payloads waits for downstream demand
+         */
+        assertTrue(String.valueOf(publisher.requested.get()), publisher.requested.get() <= 3 + 10);
+        assertTrue(String.valueOf(service.maxRunning.get()), service.maxRunning.get() <= 3);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertEquals(50, subscriber.received.size());
+    }
+
+    @Test
+    public void failed_execution_terminates_stream() throws Exception {
+        val stream = new PayloadStream<StreamPayload>(reactor, StreamPayload.class, 4);
+        val publisher = new NumbersPublisher(IntStream.range(-1, 100).boxed().collect(Collectors.toList()));
+        val subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+        stream.subscribe(subscriber);
+        publisher.subscribe(stream);
+
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertTrue(String.valueOf(subscriber.error), subscriber.error != null);
+        assertTrue(publisher.cancelled);
+        assertTrue(subscriber.received.size() < 100);
+    }
+
+    @Test
+    public void stream_is_plugged_between_reactive_streams_publisher_and_subscriber() throws Exception {
+        val stream = new PayloadStream<StreamPayload>(reactor, StreamPayload.class, 4);
+        val publisher = new AsyncIterablePublisher<StreamPayload>(
+                numbers(50).stream().map(StreamPayload::new).collect(Collectors.toList()),
+                ForkJoinPool.commonPool());
+
+        val received = new CopyOnWriteArrayList<StreamPayload>();
+        val terminated = new CountDownLatch(1);
+        val subscriber = new AsyncSubscriber<StreamPayload>(ForkJoinPool.commonPool()) {
+            @Override
+            protected boolean whenNext(StreamPayload element) {
+                received.add(element);
+                return true;
+            }
+
+            @Override
+            protected void whenComplete() {
+                terminated.countDown();
+            }
+        };
+
+        ReactiveStreams.toReactiveStreams(stream).subscribe(subscriber);
+        ReactiveStreams.fromReactiveStreams(publisher).subscribe(stream);
+
+        assertTrue(terminated.await(10, TimeUnit.SECONDS));
+        assertEquals(numbers(50), received.stream()
+                .map(StreamPayload::getNumber)
+                .sorted()
+                .collect(Collectors.toList()));
+        assertTrue(received.stream().allMatch(StreamPayload::isProcessed));
+        assertTrue(String.valueOf(service.maxRunning.get()), service.maxRunning.get() <= 4);
+    }
+}
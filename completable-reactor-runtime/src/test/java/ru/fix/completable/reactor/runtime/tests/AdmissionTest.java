@@ -0,0 +1,132 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.admission.AimdAdmissionController;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdmissionTest {
+
+    @Reactored("Payload of graph which processor completes on demand")
+    @Data
+    @Accessors(chain = true)
+    static class PendingPayload {
+    }
+
+    enum Status {OK}
+
+    static class PendingService {
+        final Queue<CompletableFuture<Status>> futures = new ConcurrentLinkedQueue<>();
+        volatile boolean completeAll;
+
+        @Reactored("Returns future that is completed by test")
+        public CompletableFuture<Status> pending() {
+            CompletableFuture<Status> future = new CompletableFuture<>();
+            futures.add(future);
+            if (completeAll) {
+                future.complete(Status.OK);
+            }
+            return future;
+        }
+    }
+
+    private final PendingService pendingService = new PendingService();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<PendingPayload> pendingProcessor = graphBuilder.processor()
+                .forPayload(PendingPayload.class)
+                .withHandler(pendingService::pending)
+                .withMerger((payload, status) -> status)
+                .buildProcessor();
+
+        ReactorGraph<PendingPayload> graph() {
+            return graphBuilder.payload(PendingPayload.class)
+                    .handle(pendingProcessor)
+
+                    .mergePoint(pendingProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler());
+        reactor.registerReactorGraph(new Config().graph());
+    }
+
+    @After
+    public void after() throws Exception {
+        /**
+         * Handlers of submitted executions can be invoked after test completes
+         */
+        pendingService.completeAll = true;
+        pendingService.futures.forEach(future -> future.complete(Status.OK));
+        reactor.close();
+    }
+
+    @Test
+    public void payload_rejected_by_admission_controller_until_execution_completes() throws Exception {
+        val controller = new AimdAdmissionController(2, 1, 2, 0.5, 1, TimeUnit.MINUTES);
+        reactor.setAdmissionController(PendingPayload.class, controller);
+
+        val first = reactor.trySubmit(new PendingPayload());
+        assertTrue(first.isPresent());
+        assertTrue(reactor.trySubmit(new PendingPayload()).isPresent());
+        assertFalse(reactor.trySubmit(new PendingPayload()).isPresent());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pendingService.futures.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        pendingService.futures.poll().complete(Status.OK);
+
+        while (controller.getInflight() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, controller.getInflight());
+        assertTrue(reactor.trySubmit(new PendingPayload()).isPresent());
+    }
+
+    @Test
+    public void submit_accepts_payload_rejected_by_admission_controller() throws Exception {
+        reactor.setAdmissionController(
+                PendingPayload.class,
+                new AimdAdmissionController(1, 1, 1, 0.5, 1, TimeUnit.MINUTES));
+
+        assertTrue(reactor.trySubmit(new PendingPayload()).isPresent());
+        assertFalse(reactor.trySubmit(new PendingPayload()).isPresent());
+
+        val execution = reactor.submit(new PendingPayload());
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pendingService.futures.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        pendingService.futures.forEach(future -> future.complete(Status.OK));
+        execution.getResultFuture().get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,139 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchHandlerTest {
+
+    @Reactored("Payload which profile is loaded by batch handler")
+    @Data
+    @Accessors(chain = true)
+    static class ProfilePayload {
+        final long userId;
+        String profile;
+    }
+
+    enum Status {OK}
+
+    static class ProfileStore {
+        final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+        @Reactored("Loads profiles of many users by single request, fails for negative user id")
+        public CompletableFuture<List<String>> loadProfiles(List<Long> userIds) {
+            batches.add(userIds);
+            if (userIds.stream().anyMatch(userId -> userId < 0)) {
+                CompletableFuture<List<String>> result = new CompletableFuture<>();
+                result.completeExceptionally(new IllegalArgumentException("Negative user id"));
+                return result;
+            }
+            return CompletableFuture.completedFuture(userIds.stream()
+                    .map(userId -> "profile-" + userId)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    private final ProfileStore profileStore = new ProfileStore();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<ProfilePayload> profileProcessor = graphBuilder.processor()
+                .forPayload(ProfilePayload.class)
+                .passArg(ProfilePayload::getUserId)
+                .withBatchHandler(profileStore::loadProfiles, 10, 100, TimeUnit.MILLISECONDS)
+                .withMerger((payload, profile) -> {
+                    payload.setProfile(profile);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        ReactorGraph<ProfilePayload> graph() {
+            return graphBuilder.payload(ProfilePayload.class)
+                    .handle(profileProcessor)
+
+                    .mergePoint(profileProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler());
+        reactor.registerReactorGraph(new Config().graph());
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    @Test
+    public void concurrent_executions_share_batch_handler_invocations() throws Exception {
+        val batch = reactor.submitAll(IntStream.range(0, 25)
+                .mapToObj(ProfilePayload::new)
+                .collect(Collectors.toList()));
+        batch.getCompletionFuture().get(10, TimeUnit.SECONDS);
+
+        for (int userId = 0; userId < 25; userId++) {
+            assertEquals("profile-" + userId, batch.getExecutions().get(userId).getResultFuture().get().getProfile());
+        }
+        assertEquals(25, profileStore.batches.stream().mapToInt(List::size).sum());
+        assertTrue(profileStore.batches.toString(), profileStore.batches.stream().allMatch(args -> args.size() <= 10));
+        assertTrue(profileStore.batches.toString(), profileStore.batches.size() < 25);
+    }
+
+    @Test
+    public void incomplete_batch_is_flushed_after_linger_time() throws Exception {
+        val result = reactor.submit(new ProfilePayload(7)).getResultFuture().get(10, TimeUnit.SECONDS);
+
+        assertEquals("profile-7", result.getProfile());
+        assertEquals(1, profileStore.batches.size());
+    }
+
+    @Test
+    public void batch_handler_failure_fails_all_executions_of_batch() throws Exception {
+        val first = reactor.submit(new ProfilePayload(1));
+        val second = reactor.submit(new ProfilePayload(-1));
+
+        for (val execution : new CompletableReactor.Execution[]{first, second}) {
+            try {
+                execution.getResultFuture().get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException exc) {
+                Throwable cause = exc;
+                while (cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                assertEquals("Negative user id", cause.getMessage());
+            }
+        }
+        assertEquals(1, profileStore.batches.size());
+    }
+}
@@ -0,0 +1,228 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+import ru.fix.completable.reactor.runtime.dsl.Subgraph;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CancelTest {
+
+    @Reactored("Payload of graph where never completing processor is followed by counting processor")
+    @Data
+    @Accessors(chain = true)
+    static class HangingPayload {
+    }
+
+    @Reactored("Payload of graph where processor returns future shared between executions")
+    @Data
+    @Accessors(chain = true)
+    static class SharedFuturePayload {
+    }
+
+    @Reactored("Payload of graph that launches hanging subgraph")
+    @Data
+    @Accessors(chain = true)
+    static class ParentPayload {
+    }
+
+    enum Status {OK}
+
+    static class HangingService {
+        final Queue<CompletableFuture<Status>> futures = new ConcurrentLinkedQueue<>();
+
+        @Reactored("Returns future that is never completed")
+        public CompletableFuture<Status> hang() {
+            CompletableFuture<Status> future = new CompletableFuture<>();
+            futures.add(future);
+            return future;
+        }
+    }
+
+    static class SharedFutureService {
+        final CompletableFuture<Status> future = new CompletableFuture<>();
+
+        @Reactored("Returns the same never completed future to every caller")
+        public CompletableFuture<Status> shared() {
+            return future;
+        }
+    }
+
+    static class CountingService {
+        final AtomicInteger invocations = new AtomicInteger();
+
+        @Reactored("Counts invocations")
+        public CompletableFuture<Status> count() {
+            invocations.incrementAndGet();
+            return CompletableFuture.completedFuture(Status.OK);
+        }
+    }
+
+    private final HangingService hangingService = new HangingService();
+    private final CountingService countingService = new CountingService();
+    private final SharedFutureService sharedFutureService = new SharedFutureService();
+
+    private CompletableReactor reactor;
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<HangingPayload> hangingProcessor = graphBuilder.processor()
+                .forPayload(HangingPayload.class)
+                .withHandler(hangingService::hang)
+                .withMerger((payload, status) -> status)
+                .cancellableHandler()
+                .buildProcessor();
+
+        final Processor<SharedFuturePayload> sharedFutureProcessor = graphBuilder.processor()
+                .forPayload(SharedFuturePayload.class)
+                .withHandler(sharedFutureService::shared)
+                .withMerger((payload, status) -> status)
+                .buildProcessor();
+
+        final Processor<HangingPayload> countingProcessor = graphBuilder.processor()
+                .forPayload(HangingPayload.class)
+                .withHandler(countingService::count)
+                .withMerger((payload, status) -> status)
+                .buildProcessor();
+
+        final Subgraph<ParentPayload> subgraph = graphBuilder.subgraph(HangingPayload.class)
+                .forPayload(ParentPayload.class)
+                .passArg(payload -> new HangingPayload())
+                .withMerger((payload, result) -> Status.OK)
+                .buildSubgraph();
+
+        ReactorGraph<HangingPayload> graph() {
+            return graphBuilder.payload(HangingPayload.class)
+                    .handle(hangingProcessor)
+
+                    .mergePoint(hangingProcessor)
+                    .onAny().handle(countingProcessor)
+
+                    .mergePoint(countingProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+
+        ReactorGraph<SharedFuturePayload> sharedFutureGraph() {
+            return graphBuilder.payload(SharedFuturePayload.class)
+                    .handle(sharedFutureProcessor)
+
+                    .mergePoint(sharedFutureProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+
+        ReactorGraph<ParentPayload> parentGraph() {
+            return graphBuilder.payload(ParentPayload.class)
+                    .handle(subgraph)
+
+                    .mergePoint(subgraph)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler());
+        val config = new Config();
+        reactor.registerReactorGraph(config.graph());
+        reactor.registerReactorGraph(config.parentGraph());
+        reactor.registerReactorGraph(config.sharedFutureGraph());
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    private CompletableFuture<Status> awaitHandlerInvocation() throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (hangingService.futures.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertFalse("handler invoked", hangingService.futures.isEmpty());
+        return hangingService.futures.peek();
+    }
+
+    @Test
+    public void cancel_stops_running_handler_and_skips_downstream_processors() throws Exception {
+        val execution = reactor.submit(new HangingPayload());
+        val handlerFuture = awaitHandlerInvocation();
+
+        assertTrue(execution.cancel());
+        assertFalse("second cancel does not cancel completed result", execution.cancel());
+        assertTrue(execution.getResultFuture().isCancelled());
+
+        /**
+         * Chain does not wait for never completing handler
+         */
+        execution.getChainExecutionFuture().get(5, TimeUnit.SECONDS);
+        assertTrue(handlerFuture.isCancelled());
+        assertEquals(0, countingService.invocations.get());
+    }
+
+    @Test
+    public void cancel_releases_pending_request_slot() throws Exception {
+        reactor.setMaxPendingRequestCount(0);
+
+        val execution = reactor.trySubmit(new HangingPayload());
+        assertTrue(execution.isPresent());
+        assertFalse(reactor.trySubmit(new HangingPayload()).isPresent());
+
+        execution.get().cancel();
+        val next = reactor.trySubmit(new HangingPayload());
+        assertTrue(next.isPresent());
+        next.get().cancel();
+    }
+
+    @Test
+    public void cancellation_of_parent_result_stops_subgraph() throws Exception {
+        val execution = reactor.submit(new ParentPayload());
+        val subgraphHandlerFuture = awaitHandlerInvocation();
+
+        execution.getResultFuture().cancel(false);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!subgraphHandlerFuture.isCancelled() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(subgraphHandlerFuture.isCancelled());
+        execution.getChainExecutionFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void cancel_does_not_cancel_handler_future_that_is_not_marked_as_cancellable() throws Exception {
+        val execution = reactor.submit(new SharedFuturePayload());
+        Thread.sleep(50);
+
+        assertTrue(execution.cancel());
+        execution.getChainExecutionFuture().get(5, TimeUnit.SECONDS);
+        assertFalse(sharedFutureService.future.isDone());
+    }
+}
@@ -0,0 +1,199 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CoalesceCallsTest {
+
+    @Data
+    @Accessors(chain = true)
+    static class Profile {
+        final long userId;
+        final List<String> tags = new ArrayList<>();
+    }
+
+    @Reactored("Payload which profile is loaded by coalesced handler")
+    @Data
+    @Accessors(chain = true)
+    static class SharedProfilePayload {
+        final long userId;
+        Profile profile;
+    }
+
+    @Reactored("Payload which profile copy is loaded by coalesced handler")
+    @Data
+    @Accessors(chain = true)
+    static class CopiedProfilePayload {
+        final long userId;
+        Profile profile;
+    }
+
+    enum Status {OK}
+
+    static class ProfileService {
+        final AtomicInteger invocations = new AtomicInteger();
+        final Map<Long, CompletableFuture<Profile>> pending = new ConcurrentHashMap<>();
+
+        @Reactored("Returns profile when test completes it")
+        public CompletableFuture<Profile> loadProfile(long userId) {
+            invocations.incrementAndGet();
+            return pending.computeIfAbsent(userId, key -> new CompletableFuture<>());
+        }
+
+        void complete(long userId) {
+            pending.remove(userId).complete(new Profile(userId));
+        }
+    }
+
+    private final ProfileService profileService = new ProfileService();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<SharedProfilePayload> sharedProcessor = graphBuilder.processor()
+                .forPayload(SharedProfilePayload.class)
+                .passArg(SharedProfilePayload::getUserId)
+                .withHandler(profileService::loadProfile)
+                .withMerger((payload, profile) -> {
+                    payload.setProfile(profile);
+                    return Status.OK;
+                })
+                .coalesceCalls()
+                .buildProcessor();
+
+        final Processor<CopiedProfilePayload> copiedProcessor = graphBuilder.processor()
+                .forPayload(CopiedProfilePayload.class)
+                .passArg(CopiedProfilePayload::getUserId)
+                .withHandler(profileService::loadProfile)
+                .withMerger((payload, profile) -> {
+                    profile.getTags().add("merged");
+                    payload.setProfile(profile);
+                    return Status.OK;
+                })
+                .coalesceCallsWithResultCopy()
+                .buildProcessor();
+
+        ReactorGraph<SharedProfilePayload> sharedGraph() {
+            return graphBuilder.payload(SharedProfilePayload.class)
+                    .handle(sharedProcessor)
+
+                    .mergePoint(sharedProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+
+        ReactorGraph<CopiedProfilePayload> copiedGraph() {
+            return graphBuilder.payload(CopiedProfilePayload.class)
+                    .handle(copiedProcessor)
+
+                    .mergePoint(copiedProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler());
+        reactor.registerReactorGraph(new Config().sharedGraph());
+        reactor.registerReactorGraph(new Config().copiedGraph());
+    }
+
+    @After
+    public void after() throws Exception {
+        profileService.pending.keySet().forEach(profileService::complete);
+        reactor.close();
+    }
+
+    private void awaitInvocations(int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (profileService.invocations.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        /**
+         * Let other executions reach handler
+         */
+        Thread.sleep(100);
+    }
+
+    @Test
+    public void concurrent_calls_with_equal_arguments_share_handler_invocation() throws Exception {
+        List<CompletableReactor.Execution<SharedProfilePayload>> executions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            executions.add(reactor.submit(new SharedProfilePayload(1)));
+        }
+        val other = reactor.submit(new SharedProfilePayload(2));
+
+        awaitInvocations(2);
+        assertEquals(2, profileService.invocations.get());
+
+        /**
+         * Cancellation of one execution does not affect others
+         */
+        executions.get(0).cancel();
+
+        profileService.complete(1);
+        profileService.complete(2);
+
+        Profile shared = executions.get(1).getResultFuture().get(5, TimeUnit.SECONDS).getProfile();
+        for (int i = 1; i < 5; i++) {
+            assertSame(shared, executions.get(i).getResultFuture().get(5, TimeUnit.SECONDS).getProfile());
+        }
+        assertEquals(2, other.getResultFuture().get(5, TimeUnit.SECONDS).getProfile().getUserId());
+
+        /**
+         * Completed call is not reused
+         */
+        val next = reactor.submit(new SharedProfilePayload(1));
+        awaitInvocations(3);
+        assertEquals(3, profileService.invocations.get());
+        profileService.complete(1);
+        assertNotSame(shared, next.getResultFuture().get(5, TimeUnit.SECONDS).getProfile());
+    }
+
+    @Test
+    public void coalesced_result_is_copied_for_every_execution() throws Exception {
+        val first = reactor.submit(new CopiedProfilePayload(1));
+        val second = reactor.submit(new CopiedProfilePayload(1));
+
+        awaitInvocations(1);
+        assertEquals(1, profileService.invocations.get());
+        profileService.complete(1);
+
+        Profile firstProfile = first.getResultFuture().get(5, TimeUnit.SECONDS).getProfile();
+        Profile secondProfile = second.getResultFuture().get(5, TimeUnit.SECONDS).getProfile();
+        assertNotSame(firstProfile, secondProfile);
+        assertEquals(1, firstProfile.getTags().size());
+        assertEquals(1, secondProfile.getTags().size());
+        assertTrue(firstProfile.getTags().contains("merged"));
+    }
+}
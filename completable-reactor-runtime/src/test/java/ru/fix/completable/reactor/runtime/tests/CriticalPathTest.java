@@ -0,0 +1,177 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+import ru.fix.completable.reactor.runtime.metrics.CriticalPathStatistics;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CriticalPathTest {
+
+    @Reactored("Payload enriched by two parallel branches")
+    @Data
+    @Accessors(chain = true)
+    static class OrderPayload {
+        final int id;
+        String price;
+        String stock;
+    }
+
+    enum Status {OK}
+
+    static class DelayedService {
+        volatile long delayMs;
+
+        @Reactored("Returns value after configured delay")
+        public CompletableFuture<String> load(int id) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                }
+                return "value" + id;
+            });
+        }
+    }
+
+    private final DelayedService priceService = new DelayedService();
+    private final DelayedService stockService = new DelayedService();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<OrderPayload> priceProcessor = graphBuilder.processor()
+                .forPayload(OrderPayload.class)
+                .passArg(OrderPayload::getId)
+                .withHandler(priceService::load)
+                .withMerger((payload, price) -> {
+                    payload.setPrice(price);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        final Processor<OrderPayload> stockProcessor = graphBuilder.processor()
+                .forPayload(OrderPayload.class)
+                .passArg(OrderPayload::getId)
+                .withHandler(stockService::load)
+                .withMerger((payload, stock) -> {
+                    payload.setStock(stock);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        ReactorGraph<OrderPayload> graph() {
+            return graphBuilder.payload(OrderPayload.class)
+                    .handle(priceProcessor)
+                    .handle(stockProcessor)
+
+                    .mergePoint(stockProcessor)
+                    .onAny().merge(priceProcessor)
+
+                    .mergePoint(priceProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler())
+                .setCriticalPathAnalysisEnabled(true);
+        reactor.registerReactorGraph(new Config().graph());
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    private CompletableReactor.PayloadCriticalPathReport execute(int count) throws Exception {
+        for (int id = 0; id < count; id++) {
+            reactor.submit(new OrderPayload(id)).getResultFuture().get(5, TimeUnit.SECONDS);
+        }
+        return reactor.buildCriticalPathReport().getPayloadCriticalPaths().get(OrderPayload.class);
+    }
+
+    private static CriticalPathStatistics.VertexSnapshot vertex(CompletableReactor.PayloadCriticalPathReport report,
+                                                                String processorName) {
+        return report.getVertices().entrySet().stream()
+                .filter(entry -> entry.getKey().contains(processorName))
+                .map(Map.Entry::getValue)
+                .findAny()
+                .orElse(null);
+    }
+
+    @Test
+    public void slow_branch_lies_on_critical_path_and_fast_branch_has_slack() throws Exception {
+        long slowNanos = TimeUnit.MILLISECONDS.toNanos(20);
+
+        stockService.delayMs = 20;
+        priceService.delayMs = 0;
+        CompletableReactor.PayloadCriticalPathReport report = execute(5);
+
+        assertEquals(5, report.getExecutionCount());
+        assertTrue(report.getAveragePathNanos() >= slowNanos);
+
+        CriticalPathStatistics.VertexSnapshot stock = vertex(report, "stockProcessor");
+        assertEquals(5, stock.getCriticalCount());
+        assertEquals(1.0, stock.getCriticalRatio(), 0.0);
+        assertTrue(stock.getAverageCriticalNanos() >= slowNanos);
+
+        /**
+         * Terminal merge point of price processor is always critical, its handler result waits for stock
+         */
+        CriticalPathStatistics.VertexSnapshot price = vertex(report, "priceProcessor");
+        assertEquals(5, price.getCriticalCount());
+        assertTrue(price.getAverageCriticalNanos() < slowNanos);
+        assertEquals(5, price.getSlack().getCount());
+        assertTrue(price.getSlack().getP50Nanos() >= slowNanos / 2);
+
+        /**
+         * Swap branches: stock merge arrives before price handler completes
+         */
+        stockService.delayMs = 0;
+        priceService.delayMs = 20;
+        report = execute(5);
+
+        assertEquals(5, report.getExecutionCount());
+        stock = vertex(report, "stockProcessor");
+        assertEquals(0, stock.getCriticalCount());
+        assertEquals(5, stock.getSlack().getCount());
+        assertTrue(stock.getSlack().getP50Nanos() >= slowNanos / 2);
+
+        price = vertex(report, "priceProcessor");
+        assertEquals(5, price.getCriticalCount());
+        assertTrue(price.getAverageCriticalNanos() >= slowNanos);
+        assertEquals(0, price.getSlack().getCount());
+    }
+
+    @Test
+    public void disabled_analysis_is_not_reported() throws Exception {
+        reactor.setCriticalPathAnalysisEnabled(false);
+        CompletableReactor.PayloadCriticalPathReport report = execute(1);
+
+        assertEquals(0, report.getExecutionCount());
+        assertNull(vertex(report, "priceProcessor"));
+    }
+}
@@ -0,0 +1,234 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+import ru.fix.completable.reactor.runtime.dsl.Subgraph;
+import ru.fix.completable.reactor.runtime.tracing.ExecutionTracer;
+import ru.fix.completable.reactor.runtime.tracing.InMemorySpanExporter;
+import ru.fix.completable.reactor.runtime.tracing.SpanData;
+import ru.fix.completable.reactor.runtime.tracing.SpanKind;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutionTracingTest {
+
+    enum Status {OK}
+
+    @Reactored("Order which price is computed by subgraph")
+    @Data
+    @Accessors(chain = true)
+    static class OrderPayload {
+        final String symbol;
+        Integer quote;
+        Integer price;
+    }
+
+    @Reactored("Computes price of order")
+    @Data
+    @Accessors(chain = true)
+    static class PricePayload {
+        final int quote;
+        Integer price;
+    }
+
+    static class QuoteService {
+        @Reactored("Returns quote")
+        public CompletableFuture<Integer> loadQuote(String symbol) {
+            return CompletableFuture.completedFuture(42);
+        }
+
+        @Reactored("Returns price with commission")
+        public CompletableFuture<Integer> price(int quote) {
+            return CompletableFuture.completedFuture(quote + 1);
+        }
+    }
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final QuoteService quoteService = new QuoteService();
+
+        final Processor<OrderPayload> quoteProcessor = graphBuilder.processor()
+                .forPayload(OrderPayload.class)
+                .passArg(OrderPayload::getSymbol)
+                .withHandler(quoteService::loadQuote)
+                .withMerger((payload, quote) -> {
+                    payload.setQuote(quote);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        final Subgraph<OrderPayload> priceSubgraph = graphBuilder.subgraph(PricePayload.class)
+                .forPayload(OrderPayload.class)
+                .passArg(payload -> new PricePayload(payload.getQuote()))
+                .withMerger((payload, result) -> {
+                    payload.setPrice(result.getPrice());
+                    return Status.OK;
+                })
+                .buildSubgraph();
+
+        final Processor<PricePayload> priceProcessor = graphBuilder.processor()
+                .forPayload(PricePayload.class)
+                .passArg(PricePayload::getQuote)
+                .withHandler(quoteService::price)
+                .withMerger((payload, price) -> {
+                    payload.setPrice(price);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        ReactorGraph<OrderPayload> orderGraph() {
+            return graphBuilder.payload(OrderPayload.class)
+                    .handle(quoteProcessor)
+
+                    .mergePoint(quoteProcessor)
+                    .onAny().handle(priceSubgraph)
+
+                    .mergePoint(priceSubgraph)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+
+        ReactorGraph<PricePayload> priceGraph() {
+            return graphBuilder.payload(PricePayload.class)
+                    .handle(priceProcessor)
+
+                    .mergePoint(priceProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private final InMemorySpanExporter exporter = new InMemorySpanExporter();
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() {
+        reactor = new CompletableReactor(new SimpleProfiler());
+        Config config = new Config();
+        reactor.registerReactorGraph(config.orderGraph());
+        reactor.registerReactorGraph(config.priceGraph());
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    private void execute(String symbol) throws Exception {
+        assertEquals(43, (int) reactor.submit(new OrderPayload(symbol)).getResultFuture()
+                .get(5, TimeUnit.SECONDS)
+                .getPrice());
+    }
+
+    /**
+     * Execution span completes after execution result is returned to the caller
+     */
+    private List<SpanData> awaitSpans(int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (exporter.getSpans().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        return exporter.getSpans();
+    }
+
+    private static SpanData single(List<SpanData> spans, SpanKind kind, String name) {
+        List<SpanData> found = spans.stream()
+                .filter(span -> span.getKind() == kind)
+                .filter(span -> span.getName().equals(name) || span.getName().endsWith("@" + name))
+                .collect(Collectors.toList());
+        assertEquals(spans.toString(), 1, found.size());
+        return found.get(0);
+    }
+
+    @Test
+    public void subgraph_execution_is_traced_as_child_of_subgraph_handler_span() throws Exception {
+        reactor.setExecutionTracer(new ExecutionTracer(exporter));
+        execute("ACME");
+
+        /**
+         * Order execution, handle and merge of quote processor and of price subgraph,
+         * price execution, handle and merge of price processor
+         */
+        List<SpanData> spans = awaitSpans(8);
+        assertEquals(spans.toString(), 8, spans.size());
+
+        SpanData orderExecution = single(spans, SpanKind.EXECUTION, OrderPayload.class.getSimpleName());
+        assertTrue(orderExecution.isRoot());
+        assertEquals(OrderPayload.class, orderExecution.getPayloadClass());
+        assertNull(orderExecution.getErrorClass());
+        assertEquals(8, exporter.getSpans(orderExecution.getTraceId()).size());
+
+        SpanData quoteHandle = single(spans, SpanKind.HANDLE, "quoteProcessor");
+        SpanData quoteMerge = single(spans, SpanKind.MERGE, "quoteProcessor");
+        SpanData subgraphHandle = single(spans, SpanKind.HANDLE, "priceSubgraph");
+        SpanData subgraphMerge = single(spans, SpanKind.MERGE, "priceSubgraph");
+        assertEquals(Status.OK, quoteMerge.getMergeStatus());
+        assertTrue(exporter.getChildren(orderExecution).containsAll(
+                Arrays.asList(quoteHandle, quoteMerge, subgraphHandle, subgraphMerge)));
+        assertEquals(4, exporter.getChildren(orderExecution).size());
+
+        SpanData priceExecution = single(spans, SpanKind.EXECUTION, PricePayload.class.getSimpleName());
+        assertEquals(subgraphHandle.getSpanId(), priceExecution.getParentSpanId());
+        assertEquals(1, exporter.getChildren(subgraphHandle).size());
+
+        List<SpanData> priceSpans = exporter.getChildren(priceExecution);
+        assertEquals(2, priceSpans.size());
+        assertTrue(priceSpans.stream().allMatch(span -> span.getName().endsWith("@priceProcessor")));
+
+        /**
+         * Subgraph execution is nested within handler span of parent execution
+         */
+        assertTrue(priceExecution.getStartEpochMicros() >= subgraphHandle.getStartEpochMicros());
+        assertTrue(quoteMerge.getStartEpochMicros() >= quoteHandle.getStartEpochMicros());
+        assertTrue(orderExecution.getDurationNanos() >= subgraphHandle.getDurationNanos());
+    }
+
+    @Test
+    public void sampling_is_decided_once_per_root_execution() throws Exception {
+        reactor.setExecutionTracer(new ExecutionTracer(
+                payload -> payload instanceof OrderPayload && ((OrderPayload) payload).getSymbol().equals("TRACED"),
+                exporter));
+
+        execute("ACME");
+        execute("TRACED");
+        execute("ACME");
+
+        List<SpanData> spans = awaitSpans(8);
+        assertEquals(spans.toString(), 8, spans.size());
+        assertEquals(1, spans.stream().map(SpanData::getTraceId).distinct().count());
+        assertEquals(2, spans.stream().filter(span -> span.getKind() == SpanKind.EXECUTION).count());
+    }
+
+    @Test
+    public void disabled_tracer_does_not_export_spans() throws Exception {
+        reactor.setExecutionTracer(new ExecutionTracer(exporter));
+        reactor.setExecutionTracer(null);
+        execute("ACME");
+
+        Thread.sleep(50);
+        assertTrue(exporter.getSpans().isEmpty());
+    }
+}
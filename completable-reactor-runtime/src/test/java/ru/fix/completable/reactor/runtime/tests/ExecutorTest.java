@@ -0,0 +1,296 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+import ru.fix.completable.reactor.runtime.execution.TransitionMode;
+import ru.fix.completable.reactor.runtime.execution.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutorTest {
+
+    @Reactored("Payload keeps name of thread that invoked handler")
+    @Data
+    @Accessors(chain = true)
+    static class ThreadNamePayload {
+        String threadName;
+    }
+
+    @Reactored("Payload of graph with dedicated executor")
+    @Data
+    @Accessors(chain = true)
+    static class DedicatedThreadNamePayload {
+        String threadName;
+    }
+
+    @Reactored("Payload keeps names of threads that invoked handlers and mergers of linear graph")
+    @Data
+    @Accessors(chain = true)
+    static class LinearGraphPayload {
+        final List<String> threadNames = new ArrayList<>();
+        final List<String> mergerThreadNames = new ArrayList<>();
+    }
+
+    enum Status {OK}
+
+    static class ThreadNameService {
+        @Reactored("Returns name of current thread")
+        public CompletableFuture<String> threadName() {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName());
+        }
+    }
+
+    static ExecutorService newPool(String threadsNamePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(2, runnable -> new Thread(
+                runnable,
+                threadsNamePrefix + counter.getAndIncrement()));
+    }
+
+    private final ThreadNameService service = new ThreadNameService();
+
+    private CompletableReactor reactor;
+    private ExecutorService globalPool;
+    private ExecutorService dedicatedPool;
+
+    @Before
+    public void before() throws Exception {
+        globalPool = newPool("global-pool-");
+        dedicatedPool = newPool("dedicated-pool-");
+        reactor = new CompletableReactor(new SimpleProfiler())
+                .setExecutor(globalPool);
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+        globalPool.shutdown();
+        dedicatedPool.shutdown();
+    }
+
+    @Test
+    public void handlers_invoked_by_reactor_executor_and_by_graph_executor() throws Exception {
+
+        class Config {
+            ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+            Processor<ThreadNamePayload> processor = graphBuilder.processor()
+                    .forPayload(ThreadNamePayload.class)
+                    .withHandler(service::threadName)
+                    .withMerger((payload, threadName) -> {
+                        payload.setThreadName(threadName);
+                        return Status.OK;
+                    })
+                    .buildProcessor();
+
+            Processor<DedicatedThreadNamePayload> dedicatedProcessor = graphBuilder.processor()
+                    .forPayload(DedicatedThreadNamePayload.class)
+                    .withHandler(service::threadName)
+                    .withMerger((payload, threadName) -> {
+                        payload.setThreadName(threadName);
+                        return Status.OK;
+                    })
+                    .buildProcessor();
+
+            ReactorGraph<ThreadNamePayload> graph() {
+                return graphBuilder.payload(ThreadNamePayload.class)
+                        .handle(processor)
+
+                        .mergePoint(processor)
+                        .onAny().complete()
+
+                        .coordinates()
+                        .buildGraph();
+            }
+
+            ReactorGraph<DedicatedThreadNamePayload> dedicatedGraph() {
+                return graphBuilder.payload(DedicatedThreadNamePayload.class)
+                        .handle(dedicatedProcessor)
+
+                        .mergePoint(dedicatedProcessor)
+                        .onAny().complete()
+
+                        .coordinates()
+                        .buildGraph();
+            }
+        }
+
+        val config = new Config();
+        reactor.registerReactorGraph(config.graph());
+        reactor.registerReactorGraph(config.dedicatedGraph(), dedicatedPool);
+
+        val result = reactor.submit(new ThreadNamePayload())
+                .getResultFuture()
+                .get(5, TimeUnit.SECONDS);
+        assertTrue(result.getThreadName(), result.getThreadName().startsWith("global-pool-"));
+
+        val dedicatedResult = reactor.submit(new DedicatedThreadNamePayload())
+                .getResultFuture()
+                .get(5, TimeUnit.SECONDS);
+        assertTrue(dedicatedResult.getThreadName(), dedicatedResult.getThreadName().startsWith("dedicated-pool-"));
+    }
+
+    class LinearGraphConfig {
+        ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        Processor<LinearGraphPayload> processor1 = processor();
+        Processor<LinearGraphPayload> processor2 = processor();
+        Processor<LinearGraphPayload> processor3 = processor();
+
+        Processor<LinearGraphPayload> processor() {
+            return graphBuilder.processor()
+                    .forPayload(LinearGraphPayload.class)
+                    .withHandler(service::threadName)
+                    .withMerger((payload, threadName) -> {
+                        payload.getThreadNames().add(threadName);
+                        return Status.OK;
+                    })
+                    .buildProcessor();
+        }
+
+        ReactorGraph<LinearGraphPayload> graph() {
+            return graphBuilder.payload(LinearGraphPayload.class)
+                    .handle(processor1)
+
+                    .mergePoint(processor1)
+                    .onAny().handle(processor2)
+
+                    .mergePoint(processor2)
+                    .onAny().handle(processor3)
+
+                    .mergePoint(processor3)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    @Test
+    public void sync_transition_mode_invokes_linear_graph_on_single_thread() throws Exception {
+        reactor.registerReactorGraph(new LinearGraphConfig().graph());
+        reactor.setTransitionMode(LinearGraphPayload.class, TransitionMode.SYNC);
+
+        for (int i = 0; i < 100; i++) {
+            val result = reactor.submit(new LinearGraphPayload())
+                    .getResultFuture()
+                    .get(5, TimeUnit.SECONDS);
+
+            assertEquals(3, result.getThreadNames().size());
+            assertEquals(result.getThreadNames().toString(), 1, new HashSet<>(result.getThreadNames()).size());
+        }
+    }
+
+    @Test
+    public void sync_transition_mode_hops_to_executor_when_inline_depth_limit_reached() throws Exception {
+        reactor.registerReactorGraph(new LinearGraphConfig().graph());
+        reactor.setTransitionMode(TransitionMode.SYNC)
+                .setMaxInlineDepth(0);
+
+        val result = reactor.submit(new LinearGraphPayload())
+                .getResultFuture()
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, result.getThreadNames().size());
+        for (String threadName : result.getThreadNames()) {
+            assertTrue(threadName, threadName.startsWith("global-pool-"));
+        }
+    }
+
+    @Test
+    public void blocking_handler_invoked_by_blocking_handler_executor() throws Exception {
+
+        class Config {
+            ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+            Processor<LinearGraphPayload> processor1 = processor(false);
+            Processor<LinearGraphPayload> blockingProcessor = processor(true);
+            Processor<LinearGraphPayload> processor3 = processor(false);
+
+            Processor<LinearGraphPayload> processor(boolean blocking) {
+                val description = graphBuilder.processor()
+                        .forPayload(LinearGraphPayload.class)
+                        .withHandler(service::threadName)
+                        .withMerger((payload, threadName) -> {
+                            payload.getThreadNames().add(threadName);
+                            payload.getMergerThreadNames().add(Thread.currentThread().getName());
+                            return Status.OK;
+                        });
+                return blocking ?
+                        description.blockingHandler().buildProcessor() :
+                        description.buildProcessor();
+            }
+
+            ReactorGraph<LinearGraphPayload> graph() {
+                return graphBuilder.payload(LinearGraphPayload.class)
+                        .handle(processor1)
+
+                        .mergePoint(processor1)
+                        .onAny().handle(blockingProcessor)
+
+                        .mergePoint(blockingProcessor)
+                        .onAny().handle(processor3)
+
+                        .mergePoint(processor3)
+                        .onAny().complete()
+
+                        .coordinates()
+                        .buildGraph();
+            }
+        }
+
+        reactor.registerReactorGraph(new Config().graph());
+        reactor.setTransitionMode(TransitionMode.SYNC)
+                .setBlockingHandlerExecutor(dedicatedPool);
+
+        val result = reactor.submit(new LinearGraphPayload())
+                .getResultFuture()
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, result.getThreadNames().size());
+        assertTrue(result.getThreadNames().get(0), result.getThreadNames().get(0).startsWith("global-pool-"));
+        assertTrue(result.getThreadNames().get(1), result.getThreadNames().get(1).startsWith("dedicated-pool-"));
+        assertTrue(result.getThreadNames().get(2), result.getThreadNames().get(2).startsWith("global-pool-"));
+
+        /**
+         * Merger of blocking handler result does not occupy blocking handler executor
+         */
+        assertEquals(3, result.getMergerThreadNames().size());
+        for (String threadName : result.getMergerThreadNames()) {
+            assertTrue(threadName, threadName.startsWith("global-pool-"));
+        }
+    }
+
+    @Test
+    public void virtual_threads_enabled_only_when_supported_by_jvm() throws Exception {
+        reactor.registerReactorGraph(new LinearGraphConfig().graph());
+
+        assertEquals(VirtualThreads.isSupported(), reactor.enableVirtualThreads());
+
+        val result = reactor.submit(new LinearGraphPayload())
+                .getResultFuture()
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, result.getThreadNames().size());
+    }
+}
@@ -0,0 +1,156 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.debug.FlightRecorder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecordingTest {
+
+    @Reactored("Payload which execution is recorded")
+    @Data
+    @Accessors(chain = true)
+    static class QuotePayload {
+        final String symbol;
+        Integer quote;
+    }
+
+    enum Status {OK}
+
+    static class QuoteService {
+        volatile CompletableFuture<Integer> result = CompletableFuture.completedFuture(42);
+
+        @Reactored("Returns configured quote")
+        public CompletableFuture<Integer> loadQuote(String symbol) {
+            return result;
+        }
+    }
+
+    private final QuoteService quoteService = new QuoteService();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<QuotePayload> quoteProcessor = graphBuilder.processor()
+                .forPayload(QuotePayload.class)
+                .passArg(QuotePayload::getSymbol)
+                .withHandler(quoteService::loadQuote)
+                .withMerger((payload, quote) -> {
+                    payload.setQuote(quote);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        ReactorGraph<QuotePayload> graph() {
+            return graphBuilder.payload(QuotePayload.class)
+                    .handle(quoteProcessor)
+
+                    .mergePoint(quoteProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler())
+                .setFlightRecording(QuotePayload.class, 1.0);
+        reactor.registerReactorGraph(new Config().graph());
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    private List<FlightRecorder.EventType> eventTypes(long executionId) {
+        return reactor.getFlightRecorder().dump(executionId).stream()
+                .map(FlightRecorder.Event::getType)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void recorded_execution_events_are_dumped_in_order() throws Exception {
+        CompletableReactor.Execution<QuotePayload> execution = reactor.submit(new QuotePayload("ACME"));
+        assertEquals(42, (int) execution.getResultFuture().get(5, TimeUnit.SECONDS).getQuote());
+        assertNotEquals(0, execution.getFlightRecordingId());
+
+        List<FlightRecorder.EventType> types = eventTypes(execution.getFlightRecordingId());
+        assertEquals(FlightRecorder.EventType.EXECUTION_STARTED, types.get(0));
+        assertTrue(types.indexOf(FlightRecorder.EventType.HANDLER_DISPATCHED)
+                < types.indexOf(FlightRecorder.EventType.HANDLER_STARTED));
+        assertTrue(types.indexOf(FlightRecorder.EventType.HANDLER_STARTED)
+                < types.indexOf(FlightRecorder.EventType.HANDLER_COMPLETED));
+        assertTrue(types.indexOf(FlightRecorder.EventType.HANDLER_COMPLETED)
+                < types.indexOf(FlightRecorder.EventType.MERGE_STARTED));
+        assertTrue(types.indexOf(FlightRecorder.EventType.MERGE_STARTED)
+                < types.indexOf(FlightRecorder.EventType.MERGE_COMPLETED));
+        assertTrue(types.indexOf(FlightRecorder.EventType.MERGE_COMPLETED)
+                < types.indexOf(FlightRecorder.EventType.EXECUTION_COMPLETED));
+
+        FlightRecorder.Event merge = reactor.getFlightRecorder().dump(execution.getFlightRecordingId()).stream()
+                .filter(event -> event.getType() == FlightRecorder.EventType.MERGE_COMPLETED)
+                .findAny()
+                .get();
+        assertEquals(Status.OK, merge.getMergeStatus());
+        assertTrue(merge.getVertexName().contains("quoteProcessor"));
+    }
+
+    @Test
+    public void timed_out_execution_records_running_handler() throws Exception {
+        quoteService.result = new CompletableFuture<>();
+
+        CompletableReactor.Execution<QuotePayload> execution = reactor.submit(new QuotePayload("ACME"), 50);
+        try {
+            execution.getResultFuture().get(5, TimeUnit.SECONDS);
+        } catch (Exception exc) {
+            /**
+             * Expected timeout
+             */
+        }
+
+        /**
+         * Execution is stopped by timeout scheduler after completion of result future
+         */
+        List<FlightRecorder.EventType> types = eventTypes(execution.getFlightRecordingId());
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!types.contains(FlightRecorder.EventType.EXECUTION_TIMEOUT) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            types = eventTypes(execution.getFlightRecordingId());
+        }
+        assertTrue(types.toString(), types.contains(FlightRecorder.EventType.HANDLER_STARTED));
+        assertTrue(types.toString(), types.contains(FlightRecorder.EventType.EXECUTION_TIMEOUT));
+        assertTrue(types.toString(), !types.contains(FlightRecorder.EventType.MERGE_STARTED));
+    }
+
+    @Test
+    public void not_sampled_execution_is_not_recorded() throws Exception {
+        reactor.setFlightRecording(QuotePayload.class, 0);
+
+        CompletableReactor.Execution<QuotePayload> execution = reactor.submit(new QuotePayload("ACME"));
+        execution.getResultFuture().get(5, TimeUnit.SECONDS);
+
+        assertEquals(0, execution.getFlightRecordingId());
+    }
+}
@@ -0,0 +1,242 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.ProfiledCall;
+import ru.fix.commons.profiler.Profiler;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+import ru.fix.completable.reactor.runtime.ProfilerNames;
+import ru.fix.completable.reactor.runtime.immutability.ImmutabilityCheckSampling;
+import ru.fix.completable.reactor.runtime.immutability.ImmutabilityControlLevel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ImmutabilityControlTest {
+
+    @Reactored("Payload which tags are modified by handler")
+    @Data
+    @Accessors(chain = true)
+    static class TagsPayload {
+        final List<String> tags = new ArrayList<>();
+        Integer count;
+    }
+
+    @Reactored("Payload which tags are modified by handler of processor with own sampling")
+    @Data
+    @Accessors(chain = true)
+    static class SampledTagsPayload {
+        final List<String> tags = new ArrayList<>();
+        Integer count;
+    }
+
+    enum Status {OK}
+
+    /**
+     * Counts immutability violations reported to profiler
+     */
+    static class ViolationCountingProfiler implements Profiler {
+        final Profiler delegate = new SimpleProfiler();
+        final AtomicInteger violations = new AtomicInteger();
+
+        @Override
+        public ProfiledCall profiledCall(String name) {
+            ProfiledCall call = delegate.profiledCall(name);
+            if (!name.contains(ProfilerNames.IMMUTABILITY_VIOLATION)) {
+                return call;
+            }
+            return new ProfiledCall() {
+                @Override
+                public void call() {
+                    violations.incrementAndGet();
+                    call.call();
+                }
+
+                @Override
+                public void call(long payload) {
+                    violations.incrementAndGet();
+                    call.call(payload);
+                }
+
+                @Override
+                public ProfiledCall start() {
+                    return call.start();
+                }
+
+                @Override
+                public void stop() {
+                    call.stop();
+                }
+
+                @Override
+                public void stop(long payload) {
+                    call.stop(payload);
+                }
+
+                @Override
+                public void cancel() {
+                    call.cancel();
+                }
+            };
+        }
+
+        @Override
+        public void attachIndicator(String name, Supplier<Long> indicator) {
+            delegate.attachIndicator(name, indicator);
+        }
+
+        @Override
+        public void detachIndicator(String name) {
+            delegate.detachIndicator(name);
+        }
+    }
+
+    static class TagService {
+        @Reactored("Adds tag to given list and returns its size")
+        public CompletableFuture<Integer> addTag(List<String> tags) {
+            tags.add("handled");
+            return CompletableFuture.completedFuture(tags.size());
+        }
+    }
+
+    private final TagService tagService = new TagService();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<TagsPayload> tagProcessor = graphBuilder.processor()
+                .forPayload(TagsPayload.class)
+                .passArg(TagsPayload::getTags)
+                .withHandler(tagService::addTag)
+                .withMerger((payload, count) -> {
+                    payload.setCount(count);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        final Processor<SampledTagsPayload> sampledTagProcessor = graphBuilder.processor()
+                .forPayload(SampledTagsPayload.class)
+                .passArg(SampledTagsPayload::getTags)
+                .withHandler(tagService::addTag)
+                .withMerger((payload, count) -> {
+                    payload.setCount(count);
+                    return Status.OK;
+                })
+                .withImmutabilityCheckSampling(ImmutabilityCheckSampling.always())
+                .buildProcessor();
+
+        ReactorGraph<TagsPayload> graph() {
+            return graphBuilder.payload(TagsPayload.class)
+                    .handle(tagProcessor)
+
+                    .mergePoint(tagProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+
+        ReactorGraph<SampledTagsPayload> sampledGraph() {
+            return graphBuilder.payload(SampledTagsPayload.class)
+                    .handle(sampledTagProcessor)
+
+                    .mergePoint(sampledTagProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private final ViolationCountingProfiler profiler = new ViolationCountingProfiler();
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(profiler);
+        reactor.registerReactorGraph(new Config().graph());
+        reactor.registerReactorGraph(new Config().sampledGraph());
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    @Test
+    public void payload_modification_by_handler_fails_execution() throws Exception {
+        reactor.setImmutabilityControlLevel(ImmutabilityControlLevel.EXCEPTION);
+        try {
+            reactor.submit(new TagsPayload()).getResultFuture().get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException exc) {
+            Throwable cause = exc;
+            while (cause != null && !cause.getMessage().contains("Concurrent modification")) {
+                cause = cause.getCause();
+            }
+            assertTrue(String.valueOf(exc), cause != null);
+            assertTrue(cause.getMessage(), cause.getMessage().contains("payload.tags"));
+        }
+    }
+
+    @Test
+    public void executions_out_of_sample_are_not_checked() throws Exception {
+        reactor.setImmutabilityControlLevel(ImmutabilityControlLevel.EXCEPTION);
+        reactor.setImmutabilityCheckSamplingPercent(0);
+
+        assertEquals(1, (int) reactor.submit(new TagsPayload()).getResultFuture().get(5, TimeUnit.SECONDS).getCount());
+    }
+
+    @Test
+    public void one_of_n_executions_is_checked_and_violations_are_counted() throws Exception {
+        reactor.setImmutabilityControlLevel(ImmutabilityControlLevel.LOG_WARN);
+        reactor.setImmutabilityCheckSampling(TagsPayload.class, ImmutabilityCheckSampling.oneIn(3));
+
+        for (int i = 0; i < 7; i++) {
+            reactor.submit(new TagsPayload()).getResultFuture().get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(3, profiler.violations.get());
+    }
+
+    @Test
+    public void processor_with_own_sampling_is_checked_independently_of_payload_sampling() throws Exception {
+        reactor.setImmutabilityControlLevel(ImmutabilityControlLevel.LOG_WARN);
+        reactor.setImmutabilityCheckSampling(ImmutabilityCheckSampling.percent(0));
+
+        reactor.submit(new TagsPayload()).getResultFuture().get(5, TimeUnit.SECONDS);
+        assertEquals(0, profiler.violations.get());
+
+        reactor.submit(new SampledTagsPayload()).getResultFuture().get(5, TimeUnit.SECONDS);
+        assertEquals(1, profiler.violations.get());
+    }
+
+    @Test
+    public void per_second_sampling_limits_number_of_checks() throws Exception {
+        ImmutabilityCheckSampling.Sampler sampler = ImmutabilityCheckSampling.perSecond(1).newSampler();
+        int checks = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (sampler.sample()) {
+                checks++;
+            }
+        }
+        assertEquals(1, checks);
+    }
+}
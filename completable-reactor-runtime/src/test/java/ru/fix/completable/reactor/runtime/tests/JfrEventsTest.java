@@ -0,0 +1,252 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JfrEventsTest {
+
+    private static final String EXECUTION_SUBMIT = "ru.fix.completable.reactor.ExecutionSubmit";
+    private static final String EXECUTION_COMPLETE = "ru.fix.completable.reactor.ExecutionComplete";
+    private static final String HANDLER = "ru.fix.completable.reactor.Handler";
+    private static final String MERGE = "ru.fix.completable.reactor.Merge";
+    private static final String DEAD_TRANSITION = "ru.fix.completable.reactor.DeadTransition";
+    private static final String TIMEOUT = "ru.fix.completable.reactor.Timeout";
+
+    enum CheckStatus {VALID, INVALID}
+
+    enum Status {OK}
+
+    @Reactored("Payload which quote is loaded for valid symbol and defaults to zero otherwise")
+    @Data
+    @Accessors(chain = true)
+    static class QuotePayload {
+        final String symbol;
+        Integer quote;
+    }
+
+    static class QuoteService {
+        volatile CompletableFuture<Integer> result = CompletableFuture.completedFuture(42);
+
+        @Reactored("Checks symbol")
+        public CompletableFuture<Boolean> check(String symbol) {
+            return CompletableFuture.completedFuture(!symbol.isEmpty());
+        }
+
+        @Reactored("Returns configured quote")
+        public CompletableFuture<Integer> loadQuote(String symbol) {
+            return result;
+        }
+
+        @Reactored("Returns default quote")
+        public CompletableFuture<Integer> defaultQuote(String symbol) {
+            return CompletableFuture.completedFuture(0);
+        }
+    }
+
+    private final QuoteService quoteService = new QuoteService();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<QuotePayload> checkProcessor = graphBuilder.processor()
+                .forPayload(QuotePayload.class)
+                .passArg(QuotePayload::getSymbol)
+                .withHandler(quoteService::check)
+                .withMerger((payload, valid) -> valid ? CheckStatus.VALID : CheckStatus.INVALID)
+                .buildProcessor();
+
+        final Processor<QuotePayload> quoteProcessor = graphBuilder.processor()
+                .forPayload(QuotePayload.class)
+                .passArg(QuotePayload::getSymbol)
+                .withHandler(quoteService::loadQuote)
+                .withMerger((payload, quote) -> {
+                    payload.setQuote(quote);
+                    return Status.OK;
+                })
+                .cancellableHandler()
+                .buildProcessor();
+
+        final Processor<QuotePayload> defaultQuoteProcessor = graphBuilder.processor()
+                .forPayload(QuotePayload.class)
+                .passArg(QuotePayload::getSymbol)
+                .withHandler(quoteService::defaultQuote)
+                .withMerger((payload, quote) -> {
+                    payload.setQuote(quote);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        ReactorGraph<QuotePayload> graph() {
+            return graphBuilder.payload(QuotePayload.class)
+                    .handle(checkProcessor)
+
+                    .mergePoint(checkProcessor)
+                    .on(CheckStatus.VALID).handle(quoteProcessor)
+                    .on(CheckStatus.INVALID).handle(defaultQuoteProcessor)
+
+                    .mergePoint(quoteProcessor)
+                    .onAny().complete()
+
+                    .mergePoint(defaultQuoteProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+    private Recording recording;
+
+    @Before
+    public void before() throws Exception {
+        Assume.assumeTrue(FlightRecorder.isAvailable());
+
+        reactor = new CompletableReactor(new SimpleProfiler());
+        reactor.registerReactorGraph(new Config().graph());
+
+        recording = new Recording();
+        for (String event : new String[]{EXECUTION_SUBMIT, EXECUTION_COMPLETE, HANDLER, MERGE, DEAD_TRANSITION,
+                TIMEOUT}) {
+            recording.enable(event);
+        }
+        recording.start();
+    }
+
+    @After
+    public void after() throws Exception {
+        if (recording != null) {
+            recording.close();
+        }
+        if (reactor != null) {
+            reactor.close();
+        }
+    }
+
+    private List<RecordedEvent> recordedEvents(String name) throws Exception {
+        Path file = Files.createTempFile("completable-reactor", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(name))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Some events are emitted by execution after its result completes
+     */
+    private List<RecordedEvent> awaitEvents(String name, int count) throws Exception {
+        List<RecordedEvent> events = recordedEvents(name);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            events = recordedEvents(name);
+        }
+        return events;
+    }
+
+    private static long count(List<RecordedEvent> events, String processorName, String mergeStatus) {
+        return events.stream()
+                .filter(event -> String.valueOf(event.getString("processor")).endsWith("@" + processorName))
+                .filter(event -> Objects.equals(mergeStatus, event.getString("mergeStatus")))
+                .count();
+    }
+
+    /**
+     * Single recording covers all scenarios: JVM pools strings of events,
+     * and string that was written by previous recording could be missing in the next one
+     */
+    @Test
+    public void execution_emits_jfr_events() throws Exception {
+        assertEquals(42, (int) reactor.submit(new QuotePayload("ACME")).getResultFuture()
+                .get(5, TimeUnit.SECONDS)
+                .getQuote());
+
+        assertEquals(0, (int) reactor.submit(new QuotePayload("")).getResultFuture()
+                .get(5, TimeUnit.SECONDS)
+                .getQuote());
+
+        quoteService.result = new CompletableFuture<>();
+        CompletableReactor.Execution<QuotePayload> timedOut = reactor.submit(new QuotePayload("ACME"), 50);
+        try {
+            timedOut.getResultFuture().get(5, TimeUnit.SECONDS);
+        } catch (Exception exc) {
+            /**
+             * Expected timeout
+             */
+        }
+
+        List<RecordedEvent> submits = awaitEvents(EXECUTION_SUBMIT, 3);
+        assertEquals(3, submits.size());
+        assertEquals(QuotePayload.class.getName(), submits.get(0).getClass("payloadClass").getName());
+
+        List<RecordedEvent> completions = awaitEvents(EXECUTION_COMPLETE, 3);
+        assertEquals(3, completions.size());
+        assertEquals(1, completions.stream().filter(event -> event.getClass("errorClass") != null).count());
+
+        List<RecordedEvent> timeouts = awaitEvents(TIMEOUT, 1);
+        assertEquals(1, timeouts.size());
+        assertNull(timeouts.get(0).getString("processor"));
+        assertEquals(50, timeouts.get(0).getDuration("timeout").toMillis());
+
+        /**
+         * Handler of timed out execution is cancelled by timeout
+         */
+        List<RecordedEvent> handlers = awaitEvents(HANDLER, 6);
+        assertEquals(6, handlers.size());
+        assertEquals(3, count(handlers, "checkProcessor", null));
+        assertEquals(1, count(handlers, "defaultQuoteProcessor", null));
+
+        List<RecordedEvent> merges = recordedEvents(MERGE);
+        assertEquals(2, count(merges, "checkProcessor", "VALID"));
+        assertEquals(1, count(merges, "checkProcessor", "INVALID"));
+        assertEquals(1, count(merges, "quoteProcessor", "OK"));
+        assertEquals(1, count(merges, "defaultQuoteProcessor", "OK"));
+        assertEquals(5, merges.size());
+
+        List<RecordedEvent> deadTransitions = recordedEvents(DEAD_TRANSITION);
+        assertEquals(2, count(deadTransitions, "defaultQuoteProcessor", "VALID"));
+        assertEquals(1, count(deadTransitions, "quoteProcessor", "INVALID"));
+        assertEquals(3, deadTransitions.size());
+        assertTrue(deadTransitions.stream().allMatch(event -> event.getString("source").endsWith("@checkProcessor")));
+    }
+
+    @Test
+    public void disabled_events_are_not_emitted() throws Exception {
+        reactor.setJfrEventsEnabled(false);
+        reactor.submit(new QuotePayload("ACME")).getResultFuture().get(5, TimeUnit.SECONDS);
+
+        assertTrue(recordedEvents(EXECUTION_SUBMIT).isEmpty());
+        assertTrue(recordedEvents(HANDLER).isEmpty());
+        assertTrue(recordedEvents(MERGE).isEmpty());
+    }
+}
@@ -0,0 +1,162 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+import ru.fix.completable.reactor.runtime.metrics.LatencyHistogram;
+import ru.fix.completable.reactor.runtime.metrics.LatencyPhase;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyReportTest {
+
+    @Reactored("Payload enriched by fast and slow services in parallel")
+    @Data
+    @Accessors(chain = true)
+    static class ProfilePayload {
+        final int id;
+        String name;
+        String avatar;
+    }
+
+    enum Status {OK}
+
+    static class NameService {
+        @Reactored("Returns name immediately")
+        public CompletableFuture<String> loadName(int id) {
+            return CompletableFuture.completedFuture("user" + id);
+        }
+    }
+
+    static class AvatarService {
+        @Reactored("Returns avatar after delay")
+        public CompletableFuture<String> loadAvatar(int id) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                }
+                return "avatar" + id;
+            });
+        }
+    }
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<ProfilePayload> nameProcessor = graphBuilder.processor()
+                .forPayload(ProfilePayload.class)
+                .passArg(ProfilePayload::getId)
+                .withHandler(new NameService()::loadName)
+                .withMerger((payload, name) -> {
+                    payload.setName(name);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        final Processor<ProfilePayload> avatarProcessor = graphBuilder.processor()
+                .forPayload(ProfilePayload.class)
+                .passArg(ProfilePayload::getId)
+                .withHandler(new AvatarService()::loadAvatar)
+                .withMerger((payload, avatar) -> {
+                    payload.setAvatar(avatar);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        ReactorGraph<ProfilePayload> graph() {
+            return graphBuilder.payload(ProfilePayload.class)
+                    .handle(nameProcessor)
+                    .handle(avatarProcessor)
+
+                    .mergePoint(avatarProcessor)
+                    .onAny().merge(nameProcessor)
+
+                    .mergePoint(nameProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler());
+        reactor.registerReactorGraph(new Config().graph());
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    private Map<LatencyPhase, LatencyHistogram.Snapshot> latencies(
+            CompletableReactor.LatencyReport report,
+            String processorName) {
+
+        return report.getPayloadLatencies().get(ProfilePayload.class).entrySet().stream()
+                .filter(entry -> entry.getKey().contains(processorName))
+                .findAny()
+                .orElseThrow(() -> new AssertionError("No latencies of " + processorName))
+                .getValue();
+    }
+
+    @Test
+    public void slow_handler_dominates_handle_phase_and_delays_merge_of_fast_one() throws Exception {
+        reactor.setLatencyHistogramsEnabled(true);
+
+        for (int id = 0; id < 5; id++) {
+            ProfilePayload payload = reactor.submit(new ProfilePayload(id))
+                    .getResultFuture()
+                    .get(5, TimeUnit.SECONDS);
+            assertEquals("avatar" + id, payload.getAvatar());
+        }
+
+        CompletableReactor.LatencyReport report = reactor.buildLatencyReport();
+        Map<LatencyPhase, LatencyHistogram.Snapshot> avatar = latencies(report, "avatarProcessor");
+        Map<LatencyPhase, LatencyHistogram.Snapshot> name = latencies(report, "nameProcessor");
+
+        for (LatencyPhase phase : LatencyPhase.values()) {
+            assertEquals(5, avatar.get(phase).getCount());
+            assertEquals(5, name.get(phase).getCount());
+        }
+
+        long slowHandler = TimeUnit.MILLISECONDS.toNanos(19);
+        assertTrue(avatar.get(LatencyPhase.HANDLE).getP50Nanos() >= slowHandler);
+        assertTrue(name.get(LatencyPhase.HANDLE).getP99Nanos() < slowHandler);
+        /**
+         * Merge point of name processor waits for merge of avatar processor
+         */
+        assertTrue(name.get(LatencyPhase.MERGE_WAIT).getP50Nanos() >= slowHandler / 2);
+        assertTrue(avatar.get(LatencyPhase.HANDLE).getMaxNanos() >= avatar.get(LatencyPhase.HANDLE).getP999Nanos());
+
+        /**
+         * Report contains only interval since previous one
+         */
+        assertTrue(reactor.buildLatencyReport().getPayloadLatencies().get(ProfilePayload.class).isEmpty());
+    }
+
+    @Test
+    public void histograms_are_disabled_by_default() throws Exception {
+        reactor.submit(new ProfilePayload(1)).getResultFuture().get(5, TimeUnit.SECONDS);
+
+        assertTrue(reactor.buildLatencyReport().getPayloadLatencies().get(ProfilePayload.class).isEmpty());
+    }
+}
@@ -0,0 +1,128 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.After;
+import org.junit.Test;
+import ru.fix.commons.profiler.ProfiledCall;
+import ru.fix.commons.profiler.Profiler;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ProfilerNames;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProfilingTest {
+
+    @Reactored("Payload which processing is profiled")
+    @Data
+    @Accessors(chain = true)
+    static class QuotePayload {
+        final String symbol;
+        Integer quote;
+    }
+
+    enum Status {OK}
+
+    static class QuoteService {
+        @Reactored("Returns quote")
+        public CompletableFuture<Integer> loadQuote(String symbol) {
+            return CompletableFuture.completedFuture(42);
+        }
+    }
+
+    /**
+     * Records names of profiled calls
+     */
+    static class NameRecordingProfiler implements Profiler {
+        final Profiler delegate = new SimpleProfiler();
+        final List<String> names = new CopyOnWriteArrayList<>();
+
+        @Override
+        public ProfiledCall profiledCall(String name) {
+            names.add(name);
+            return delegate.profiledCall(name);
+        }
+
+        @Override
+        public void attachIndicator(String name, Supplier<Long> valueSupplier) {
+        }
+
+        @Override
+        public void detachIndicator(String name) {
+        }
+    }
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<QuotePayload> quoteProcessor = graphBuilder.processor()
+                .forPayload(QuotePayload.class)
+                .passArg(QuotePayload::getSymbol)
+                .withHandler(new QuoteService()::loadQuote)
+                .withMerger((payload, quote) -> {
+                    payload.setQuote(quote);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        ReactorGraph<QuotePayload> graph() {
+            return graphBuilder.payload(QuotePayload.class)
+                    .handle(quoteProcessor)
+
+                    .mergePoint(quoteProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private final NameRecordingProfiler profiler = new NameRecordingProfiler();
+
+    private CompletableReactor reactor;
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    private void execute() throws Exception {
+        reactor.registerReactorGraph(new Config().graph());
+        assertEquals(42, (int) reactor.submit(new QuotePayload("ACME")).getResultFuture()
+                .get(5, TimeUnit.SECONDS)
+                .getQuote());
+    }
+
+    @Test
+    public void payload_and_processor_phases_are_profiled_by_resolved_names() throws Exception {
+        reactor = new CompletableReactor(profiler);
+        execute();
+
+        assertTrue(profiler.names.toString(), profiler.names.contains(
+                ProfilerNames.PROFILER_PREFIX + ProfilerNames.PAYLOAD + QuotePayload.class.getSimpleName()));
+        assertTrue(profiler.names.toString(), profiler.names.contains(
+                ProfilerNames.PROCESSOR_HANDLE + QuoteService.class.getSimpleName()));
+        assertTrue(profiler.names.toString(), profiler.names.contains(
+                ProfilerNames.PROCESSOR_MERGE + QuoteService.class.getSimpleName()));
+    }
+
+    @Test
+    public void disabled_profiling_does_not_create_profiled_calls() throws Exception {
+        reactor = new CompletableReactor(profiler).setProfilingEnabled(false);
+        execute();
+
+        assertEquals(0, profiler.names.size());
+    }
+}
@@ -0,0 +1,113 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResultCacheTest {
+
+    @Reactored("Payload which rate is loaded by cached handler")
+    @Data
+    @Accessors(chain = true)
+    static class RatePayload {
+        final String currency;
+        Integer rate;
+    }
+
+    enum Status {OK}
+
+    static class RateService {
+        final AtomicInteger invocations = new AtomicInteger();
+
+        @Reactored("Returns number of invocation as rate")
+        public CompletableFuture<Integer> loadRate(String currency) {
+            return CompletableFuture.completedFuture(invocations.incrementAndGet());
+        }
+    }
+
+    private final RateService rateService = new RateService();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<RatePayload> rateProcessor = graphBuilder.processor()
+                .forPayload(RatePayload.class)
+                .passArg(RatePayload::getCurrency)
+                .withHandler(rateService::loadRate)
+                .withMerger((payload, rate) -> {
+                    payload.setRate(rate);
+                    return Status.OK;
+                })
+                .withCache(2, 300, TimeUnit.MILLISECONDS)
+                .buildProcessor();
+
+        ReactorGraph<RatePayload> graph() {
+            return graphBuilder.payload(RatePayload.class)
+                    .handle(rateProcessor)
+
+                    .mergePoint(rateProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler());
+        reactor.registerReactorGraph(new Config().graph());
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    private int rate(String currency) throws Exception {
+        return reactor.submit(new RatePayload(currency)).getResultFuture().get(5, TimeUnit.SECONDS).getRate();
+    }
+
+    @Test
+    public void cached_result_is_reused_until_ttl_expires() throws Exception {
+        assertEquals(1, rate("USD"));
+        assertEquals(1, rate("USD"));
+        assertEquals(2, rate("EUR"));
+        assertEquals(1, rate("USD"));
+        assertEquals(2, rateService.invocations.get());
+
+        Thread.sleep(400);
+
+        assertEquals(3, rate("USD"));
+        assertEquals(3, rate("USD"));
+        assertEquals(3, rateService.invocations.get());
+    }
+
+    @Test
+    public void oldest_result_is_evicted_when_cache_is_full() throws Exception {
+        assertEquals(1, rate("USD"));
+        assertEquals(2, rate("EUR"));
+        assertEquals(3, rate("GBP"));
+
+        assertEquals(2, rate("EUR"));
+        assertEquals(3, rate("GBP"));
+        assertEquals(4, rate("USD"));
+        assertEquals(4, rateService.invocations.get());
+    }
+}
@@ -0,0 +1,164 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SubmitAllTest {
+
+    @Reactored("Payload of batch which result is computed by handler")
+    @Data
+    @Accessors(chain = true)
+    static class SquarePayload {
+        final int number;
+        Integer square;
+    }
+
+    @Reactored("Payload of graph without registered graph")
+    @Data
+    @Accessors(chain = true)
+    static class UnknownPayload {
+    }
+
+    enum Status {OK}
+
+    static class SquareService {
+        /**
+         * Numbers which handler never completes
+         */
+        final Map<Integer, CompletableFuture<Integer>> hanging = new ConcurrentHashMap<>();
+
+        @Reactored("Returns square of number")
+        public CompletableFuture<Integer> square(int number) {
+            if (number < 0) {
+                CompletableFuture<Integer> future = new CompletableFuture<>();
+                hanging.put(number, future);
+                return future;
+            }
+            return CompletableFuture.completedFuture(number * number);
+        }
+    }
+
+    private final SquareService squareService = new SquareService();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<SquarePayload> squareProcessor = graphBuilder.processor()
+                .forPayload(SquarePayload.class)
+                .passArg(SquarePayload::getNumber)
+                .withHandler(squareService::square)
+                .withMerger((payload, square) -> {
+                    payload.setSquare(square);
+                    return Status.OK;
+                })
+                .buildProcessor();
+
+        ReactorGraph<SquarePayload> graph() {
+            return graphBuilder.payload(SquarePayload.class)
+                    .handle(squareProcessor)
+
+                    .mergePoint(squareProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler());
+        reactor.registerReactorGraph(new Config().graph());
+    }
+
+    @After
+    public void after() throws Exception {
+        squareService.hanging.values().forEach(future -> future.complete(0));
+        reactor.close();
+    }
+
+    private long runningTotal() {
+        return reactor.buildStatisticsReport()
+                .getPayloadStatisticsReports()
+                .get(SquarePayload.class)
+                .getRunningTotal();
+    }
+
+    @Test
+    public void batch_executions_keep_order_of_payloads() throws Exception {
+        List<SquarePayload> payloads = IntStream.range(0, 1000)
+                .mapToObj(SquarePayload::new)
+                .collect(Collectors.toList());
+
+        val batch = reactor.submitAll(payloads);
+        batch.getCompletionFuture().get(10, TimeUnit.SECONDS);
+
+        assertEquals(1000, batch.getExecutions().size());
+        for (int number = 0; number < 1000; number++) {
+            SquarePayload result = batch.getExecutions().get(number).getResultFuture().getNow(null);
+            assertEquals(number, result.getNumber());
+            assertEquals(number * number, (int) result.getSquare());
+        }
+
+        /**
+         * Pending request slot is released after result future completes
+         */
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (runningTotal() != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, runningTotal());
+    }
+
+    @Test
+    public void batch_timeout_completes_only_hanging_executions() throws Exception {
+        val batch = reactor.submitAll(Arrays.asList(new SquarePayload(2), new SquarePayload(-1)), 200);
+
+        batch.getCompletionFuture().get(10, TimeUnit.SECONDS);
+
+        assertEquals(4, (int) batch.getExecutions().get(0).getResultFuture().get().getSquare());
+        try {
+            batch.getExecutions().get(1).getResultFuture().get();
+            fail();
+        } catch (ExecutionException exc) {
+            assertTrue(exc.toString(), exc.getCause() instanceof TimeoutException);
+        }
+    }
+
+    @Test
+    public void batch_is_not_submitted_if_graph_of_any_payload_is_missing() throws Exception {
+        try {
+            reactor.submitAll(Arrays.asList(new SquarePayload(-1), new UnknownPayload()));
+            fail();
+        } catch (IllegalArgumentException exc) {
+            assertTrue(squareService.hanging.isEmpty());
+        }
+    }
+}
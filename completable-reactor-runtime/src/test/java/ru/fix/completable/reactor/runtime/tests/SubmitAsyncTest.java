@@ -0,0 +1,195 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.admission.AimdAdmissionController;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SubmitAsyncTest {
+
+    @Reactored("Payload of graph which processor completes on demand")
+    @Data
+    @Accessors(chain = true)
+    static class QueuedPayload {
+        final int number;
+    }
+
+    enum Status {OK}
+
+    @Data
+    static class PendingCall {
+        final int number;
+        final CompletableFuture<Status> future = new CompletableFuture<>();
+    }
+
+    static class PendingService {
+        final BlockingQueue<PendingCall> calls = new LinkedBlockingQueue<>();
+        final Queue<PendingCall> allCalls = new ConcurrentLinkedQueue<>();
+        volatile boolean completeAll;
+
+        @Reactored("Returns future that is completed by test")
+        public CompletableFuture<Status> pending(int number) {
+            PendingCall call = new PendingCall(number);
+            calls.add(call);
+            allCalls.add(call);
+            if (completeAll) {
+                call.getFuture().complete(Status.OK);
+            }
+            return call.getFuture();
+        }
+    }
+
+    private final PendingService pendingService = new PendingService();
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<QueuedPayload> pendingProcessor = graphBuilder.processor()
+                .forPayload(QueuedPayload.class)
+                .passArg(QueuedPayload::getNumber)
+                .withHandler(pendingService::pending)
+                .withMerger((payload, status) -> status)
+                .buildProcessor();
+
+        ReactorGraph<QueuedPayload> graph() {
+            return graphBuilder.payload(QueuedPayload.class)
+                    .handle(pendingProcessor)
+
+                    .mergePoint(pendingProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler());
+        reactor.registerReactorGraph(new Config().graph());
+        reactor.setAdmissionController(
+                QueuedPayload.class,
+                new AimdAdmissionController(1, 1, 1, 0.5, 1, TimeUnit.MINUTES));
+    }
+
+    @After
+    public void after() throws Exception {
+        /**
+         * Waiting payloads can be submitted after test completes
+         */
+        pendingService.completeAll = true;
+        pendingService.allCalls.forEach(call -> call.getFuture().complete(Status.OK));
+        reactor.close();
+    }
+
+    private PendingCall nextCall() throws Exception {
+        PendingCall call = pendingService.calls.poll(5, TimeUnit.SECONDS);
+        if (call == null) {
+            fail("Handler was not invoked");
+        }
+        return call;
+    }
+
+    @Test
+    public void waiting_payloads_are_submitted_in_order_when_capacity_frees_up() throws Exception {
+        List<CompletableFuture<CompletableReactor.Execution<QueuedPayload>>> submits = new ArrayList<>();
+        for (int number = 0; number < 3; number++) {
+            submits.add(reactor.submitAsync(new QueuedPayload(number)));
+        }
+
+        assertTrue(submits.get(0).isDone());
+        assertFalse(submits.get(1).isDone());
+        assertFalse(submits.get(2).isDone());
+
+        /**
+         * Waiting payloads are not overtaken by trySubmit
+         */
+        assertFalse(reactor.trySubmit(new QueuedPayload(100)).isPresent());
+
+        for (int number = 0; number < 3; number++) {
+            PendingCall call = nextCall();
+            assertEquals(number, call.getNumber());
+            call.getFuture().complete(Status.OK);
+            submits.get(number).get(5, TimeUnit.SECONDS).getResultFuture().get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void wait_for_capacity_is_limited_by_time_and_queue_size() throws Exception {
+        reactor.setMaxSubmitQueueSize(1);
+
+        val first = reactor.submitAsync(new QueuedPayload(0));
+        assertTrue(first.isDone());
+
+        val waiting = reactor.submitAsync(new QueuedPayload(1), 10_000, 100);
+        val rejected = reactor.submitAsync(new QueuedPayload(2));
+
+        try {
+            rejected.getNow(null);
+            fail();
+        } catch (Exception exc) {
+            assertTrue(exc.toString(), exc.getCause() instanceof RejectedExecutionException);
+        }
+
+        try {
+            waiting.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException exc) {
+            assertTrue(exc.toString(), exc.getCause() instanceof TimeoutException);
+        }
+
+        /**
+         * Expired payload left the queue and is never submitted
+         */
+        nextCall().getFuture().complete(Status.OK);
+        first.get().getResultFuture().get(5, TimeUnit.SECONDS);
+
+        val next = reactor.submitAsync(new QueuedPayload(3));
+        assertEquals(3, nextCall().getNumber());
+        assertTrue(next.isDone());
+    }
+
+    @Test
+    public void waiting_for_max_pending_request_count() throws Exception {
+        reactor.setAdmissionController(QueuedPayload.class, null);
+        reactor.setMaxPendingRequestCount(0);
+
+        val first = reactor.submitAsync(new QueuedPayload(0));
+        assertTrue(first.isDone());
+        val second = reactor.submitAsync(new QueuedPayload(1));
+        assertFalse(second.isDone());
+
+        nextCall().getFuture().complete(Status.OK);
+
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(1, nextCall().getNumber());
+    }
+}
@@ -0,0 +1,240 @@
+package ru.fix.completable.reactor.runtime.tests;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.fix.commons.profiler.impl.SimpleProfiler;
+import ru.fix.completable.reactor.api.Reactored;
+import ru.fix.completable.reactor.runtime.CompletableReactor;
+import ru.fix.completable.reactor.runtime.ReactorGraph;
+import ru.fix.completable.reactor.runtime.ReactorGraphBuilder;
+import ru.fix.completable.reactor.runtime.dsl.Processor;
+import ru.fix.completable.reactor.runtime.dsl.Subgraph;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TimeoutTest {
+
+    @Reactored("Payload of graph where slow processor is followed by counting processor")
+    @Data
+    @Accessors(chain = true)
+    static class SlowPayload {
+    }
+
+    @Reactored("Payload of graph that launches slow subgraph")
+    @Data
+    @Accessors(chain = true)
+    static class ParentPayload {
+    }
+
+    enum Status {OK}
+
+    static class SlowService {
+        @Reactored("Completes after given delay")
+        public CompletableFuture<Status> slow(long delayMs) {
+            CompletableFuture<Status> result = new CompletableFuture<>();
+            CompletableFuture.runAsync(() -> {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                }
+                result.complete(Status.OK);
+            });
+            return result;
+        }
+    }
+
+    static class CountingService {
+        final AtomicInteger invocations = new AtomicInteger();
+
+        @Reactored("Counts invocations")
+        public CompletableFuture<Status> count() {
+            invocations.incrementAndGet();
+            return CompletableFuture.completedFuture(Status.OK);
+        }
+    }
+
+    private final SlowService slowService = new SlowService();
+    private final CountingService countingService = new CountingService();
+
+    private CompletableReactor reactor;
+
+    @Before
+    public void before() throws Exception {
+        reactor = new CompletableReactor(new SimpleProfiler());
+    }
+
+    @After
+    public void after() throws Exception {
+        reactor.close();
+    }
+
+    class Config {
+        final ReactorGraphBuilder graphBuilder = new ReactorGraphBuilder(this);
+
+        final Processor<SlowPayload> slowProcessor;
+
+        final Processor<SlowPayload> countingProcessor = graphBuilder.processor()
+                .forPayload(SlowPayload.class)
+                .withHandler(countingService::count)
+                .withMerger((payload, status) -> status)
+                .buildProcessor();
+
+        /**
+         * Processor without timeout that runs in parallel with slow processor
+         */
+        final Processor<SlowPayload> fallbackProcessor = graphBuilder.processor()
+                .forPayload(SlowPayload.class)
+                .passArg(payload -> 200L)
+                .withHandler(slowService::slow)
+                .withMerger((payload, status) -> status)
+                .buildProcessor();
+
+        final Subgraph<ParentPayload> subgraph = graphBuilder.subgraph(SlowPayload.class)
+                .forPayload(ParentPayload.class)
+                .passArg(payload -> new SlowPayload())
+                .withMerger((payload, result) -> Status.OK)
+                .buildSubgraph();
+
+        /**
+         * @param timeoutMs timeout of slow processor, zero if there is no timeout
+         */
+        Config(long delayMs, long timeoutMs) {
+            val description = graphBuilder.processor()
+                    .forPayload(SlowPayload.class)
+                    .passArg(payload -> delayMs)
+                    .withHandler(slowService::slow)
+                    .withMerger((payload, status) -> status);
+            if (timeoutMs > 0) {
+                description.withTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+            }
+            slowProcessor = description.buildProcessor();
+        }
+
+        ReactorGraph<SlowPayload> graph() {
+            return graphBuilder.payload(SlowPayload.class)
+                    .handle(slowProcessor)
+
+                    .mergePoint(slowProcessor)
+                    .onAny().handle(countingProcessor)
+
+                    .mergePoint(countingProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+
+        ReactorGraph<SlowPayload> graphWithFallback() {
+            return graphBuilder.payload(SlowPayload.class)
+                    .handle(slowProcessor)
+                    .handle(fallbackProcessor)
+
+                    .mergePoint(slowProcessor)
+                    .onAny().complete()
+
+                    .mergePoint(fallbackProcessor)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+
+        ReactorGraph<ParentPayload> parentGraph() {
+            return graphBuilder.payload(ParentPayload.class)
+                    .handle(subgraph)
+
+                    .mergePoint(subgraph)
+                    .onAny().complete()
+
+                    .coordinates()
+                    .buildGraph();
+        }
+    }
+
+    private static void assertTimeout(CompletableFuture<?> resultFuture) throws Exception {
+        try {
+            resultFuture.get(5, TimeUnit.SECONDS);
+            fail("Execution should fail by timeout");
+        } catch (ExecutionException exc) {
+            Throwable cause = exc.getCause();
+            while (cause != null && !(cause instanceof TimeoutException)) {
+                cause = cause.getCause();
+            }
+            assertTrue(exc.getCause().toString(), cause instanceof TimeoutException);
+        }
+    }
+
+    @Test
+    public void processor_timeout_skips_downstream_processors() throws Exception {
+        reactor.registerReactorGraph(new Config(1_000, 50).graph());
+
+        val execution = reactor.submit(new SlowPayload());
+        assertTimeout(execution.getResultFuture());
+
+        /**
+         * Chain completes without waiting for slow handler
+         */
+        execution.getChainExecutionFuture().get(500, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(1_200);
+        assertEquals(0, countingService.invocations.get());
+    }
+
+    @Test
+    public void processor_timeout_does_not_fail_execution_that_reaches_terminal_state_by_other_path()
+            throws Exception {
+        reactor.registerReactorGraph(new Config(1_000, 50).graphWithFallback());
+
+        /**
+         * Slow processor times out after 50ms, fallback processor completes execution after 200ms
+         */
+        reactor.submit(new SlowPayload()).getResultFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void processor_completed_within_timeout_continues_graph() throws Exception {
+        reactor.registerReactorGraph(new Config(10, 5_000).graph());
+
+        reactor.submit(new SlowPayload()).getResultFuture().get(5, TimeUnit.SECONDS);
+        assertEquals(1, countingService.invocations.get());
+    }
+
+    @Test
+    public void processors_are_skipped_after_execution_deadline() throws Exception {
+        reactor.registerReactorGraph(new Config(300, 0).graph());
+
+        val execution = reactor.submit(new SlowPayload(), 100);
+        assertTimeout(execution.getResultFuture());
+
+        Thread.sleep(500);
+        assertEquals(0, countingService.invocations.get());
+    }
+
+    @Test
+    public void subgraph_inherits_deadline_of_parent_execution() throws Exception {
+        val config = new Config(300, 0);
+        reactor.registerReactorGraph(config.graph());
+        reactor.registerReactorGraph(config.parentGraph());
+
+        assertTimeout(reactor.submit(new ParentPayload(), 100).getResultFuture());
+
+        /**
+         * Subgraph execution is limited by 100ms of parent, not by default execution timeout
+         */
+        Thread.sleep(500);
+        assertEquals(0, countingService.invocations.get());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.fix.completable.reactor.runtime.timeout;
+
+import lombok.val;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HashedWheelTimeoutSchedulerTest {
+
+    final HashedWheelTimeoutScheduler scheduler = new HashedWheelTimeoutScheduler(
+            1, TimeUnit.MILLISECONDS, 8, "test-wheel");
+
+    @After
+    public void after() throws Exception {
+        scheduler.close();
+    }
+
+    @Test
+    public void timeout_expires_not_earlier_than_requested() throws Exception {
+        val latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        val expiredAfter = new long[1];
+
+        /**
+         * Delay is longer than whole wheel rotation
+         */
+        scheduler.schedule(() -> {
+            expiredAfter[0] = System.nanoTime() - start;
+            latch.countDown();
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(String.valueOf(expiredAfter[0]), expiredAfter[0] >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void cancelled_timeouts_does_not_expire() throws Exception {
+        val expired = new AtomicInteger();
+        val latch = new CountDownLatch(1);
+
+        val timeouts = new ArrayList<TimeoutScheduler.Timeout>();
+        for (int i = 0; i < 10_000; i++) {
+            timeouts.add(scheduler.schedule(expired::incrementAndGet, 200 + i % 20, TimeUnit.MILLISECONDS));
+        }
+        for (TimeoutScheduler.Timeout timeout : timeouts) {
+            assertTrue(timeout.cancel());
+            assertFalse(timeout.cancel());
+        }
+        scheduler.schedule(latch::countDown, 250, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, expired.get());
+    }
+
+    @Test
+    public void all_timeouts_expire_in_batches() throws Exception {
+        val latch = new CountDownLatch(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            scheduler.schedule(latch::countDown, i % 30, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closed_scheduler_rejects_timeouts() throws Exception {
+        scheduler.close();
+        scheduler.schedule(() -> {
+        }, 1, TimeUnit.MILLISECONDS);
+    }
+}